@@ -0,0 +1,144 @@
+// AnalyseFlot.java
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.List;
+
+// Analyse de flot de données sur un GrapheFlotControle, par liste de travail.
+//
+// Les faits sont des vecteurs de bits (variables, définitions, copies...) et
+// chaque bloc est résumé par ses ensembles gen / kill :
+//     f(x) = gen ∪ (x − kill)
+// La confluence est l'union (analyse « il existe un chemin ») ou
+// l'intersection (« sur tous les chemins »). Une analyse concrète fournit
+// gen, kill et la valeur au bord (entrée du graphe, ou sortie s'il s'agit
+// d'une analyse arrière), puis appelle resoudre().
+public abstract class AnalyseFlot {
+    public enum Direction { AVANT, ARRIERE }
+    public enum Confluence { UNION, INTERSECTION }
+
+    protected final GrapheFlotControle graphe;
+    private final Direction direction;
+    private final Confluence confluence;
+
+    protected BitSet[] entree; // faits à l'entrée de chaque bloc
+    protected BitSet[] sortie; // faits à la sortie de chaque bloc
+    private BitSet[] gen;
+    private BitSet[] kill;
+    private int iterations = 0;
+
+    protected AnalyseFlot(GrapheFlotControle graphe, Direction direction, Confluence confluence) {
+        this.graphe = graphe;
+        this.direction = direction;
+        this.confluence = confluence;
+    }
+
+    // Nombre de faits (taille des vecteurs)
+    protected abstract int taille();
+
+    protected abstract BitSet gen(BlocBase bloc);
+
+    protected abstract BitSet kill(BlocBase bloc);
+
+    // Faits au bord du graphe ; vide par défaut
+    protected BitSet frontiere() {
+        return new BitSet();
+    }
+
+    public void resoudre() {
+        List<BlocBase> blocs = graphe.getBlocs();
+        int n = blocs.size();
+        entree = new BitSet[n];
+        sortie = new BitSet[n];
+        gen = new BitSet[n];
+        kill = new BitSet[n];
+
+        // Intersection : on part du sommet (tout vrai) pour ne pas perdre de
+        // faits sur les arcs arrière encore non visités
+        BitSet initiale = new BitSet();
+        if (confluence == Confluence.INTERSECTION) {
+            initiale.set(0, taille());
+        }
+        for (BlocBase bloc : blocs) {
+            gen[bloc.id] = gen(bloc);
+            kill[bloc.id] = kill(bloc);
+            entree[bloc.id] = (BitSet) initiale.clone();
+            sortie[bloc.id] = (BitSet) initiale.clone();
+        }
+
+        BlocBase bord = direction == Direction.AVANT ? graphe.getEntree() : graphe.getSortie();
+        if (direction == Direction.AVANT) {
+            entree[bord.id] = frontiere();
+        } else {
+            sortie[bord.id] = frontiere();
+        }
+
+        List<BlocBase> ordre = graphe.ordrePostfixeInverse();
+        ArrayDeque<BlocBase> travail = new ArrayDeque<>();
+        boolean[] enAttente = new boolean[n];
+        for (int i = 0; i < ordre.size(); i++) {
+            BlocBase bloc = ordre.get(direction == Direction.AVANT ? i : ordre.size() - 1 - i);
+            travail.add(bloc);
+            enAttente[bloc.id] = true;
+        }
+
+        while (!travail.isEmpty()) {
+            BlocBase bloc = travail.poll();
+            enAttente[bloc.id] = false;
+            iterations++;
+
+            List<BlocBase> amont = direction == Direction.AVANT ? bloc.predecesseurs : bloc.successeurs;
+            List<BlocBase> aval = direction == Direction.AVANT ? bloc.successeurs : bloc.predecesseurs;
+            BitSet[] avant = direction == Direction.AVANT ? entree : sortie;
+            BitSet[] apres = direction == Direction.AVANT ? sortie : entree;
+
+            if (bloc != bord && !amont.isEmpty()) {
+                avant[bloc.id] = confluer(amont, apres);
+            }
+
+            BitSet resultat = (BitSet) avant[bloc.id].clone();
+            resultat.andNot(kill[bloc.id]);
+            resultat.or(gen[bloc.id]);
+
+            if (!resultat.equals(apres[bloc.id])) {
+                apres[bloc.id] = resultat;
+                for (BlocBase suivant : aval) {
+                    if (!enAttente[suivant.id]) {
+                        enAttente[suivant.id] = true;
+                        travail.add(suivant);
+                    }
+                }
+            }
+        }
+    }
+
+    private BitSet confluer(List<BlocBase> voisins, BitSet[] valeurs) {
+        BitSet resultat = null;
+        for (BlocBase voisin : voisins) {
+            if (resultat == null) {
+                resultat = (BitSet) valeurs[voisin.id].clone();
+            } else if (confluence == Confluence.UNION) {
+                resultat.or(valeurs[voisin.id]);
+            } else {
+                resultat.and(valeurs[voisin.id]);
+            }
+        }
+        return resultat;
+    }
+
+    public BitSet getEntree(BlocBase bloc) {
+        return (BitSet) entree[bloc.id].clone();
+    }
+
+    public BitSet getSortie(BlocBase bloc) {
+        return (BitSet) sortie[bloc.id].clone();
+    }
+
+    // Nombre de blocs traités avant stabilisation
+    public int getIterations() {
+        return iterations;
+    }
+
+    public GrapheFlotControle getGraphe() {
+        return graphe;
+    }
+}
@@ -0,0 +1,171 @@
+// AnalysePurete.java
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+// Pureté des fonctions du programme.
+//
+// Une fonction est pure si un appel ne fait rien d'autre que calculer son
+// résultat : ni ECRIRE ni LIRE, aucune écriture de globale, aucune écriture
+// dans un tableau ou une structure qui pourrait appartenir à l'appelant
+// (paramètre, globale, ou locale qui a pu recevoir une référence), et
+// uniquement des appels à des fonctions pures. Les appels récursifs sont
+// supposés purs puis le point fixe retire ce qui ne l'est pas.
+//
+// Son résultat dépend alors de ses arguments, des globales qu'elle lit
+// (globalesLues) et, si elle lit des éléments de tableau ou des champs, de la
+// mémoire (litMemoire). Un appel peut encore échouer ou ne pas terminer.
+public class AnalysePurete {
+    private final Map<String, NoeudAST> fonctions = new HashMap<>();
+    private final Set<String> pures = new HashSet<>();
+    private final Map<String, Set<String>> globalesLues = new HashMap<>();
+    private final Set<String> lisantMemoire = new HashSet<>();
+
+    public AnalysePurete(NoeudAST programme) {
+        for (NoeudAST element : programme.getEnfants()) {
+            if (element.getType() == NoeudAST.TypeNoeud.DECLARATION_FONCTION) {
+                fonctions.put(element.getValeur(), element);
+            }
+        }
+
+        Map<String, Set<String>> appelees = new HashMap<>();
+        for (Map.Entry<String, NoeudAST> fonction : fonctions.entrySet()) {
+            Set<String> appels = new HashSet<>();
+            if (corpsSansEffet(fonction.getValue(), appels)) {
+                pures.add(fonction.getKey());
+                appelees.put(fonction.getKey(), appels);
+            }
+        }
+
+        // Point fixe : une fonction qui appelle une fonction impure l'est aussi
+        boolean change = true;
+        while (change) {
+            change = false;
+            for (String nom : new HashSet<>(pures)) {
+                for (String appelee : appelees.get(nom)) {
+                    if (!pures.contains(appelee)) {
+                        pures.remove(nom);
+                        change = true;
+                        break;
+                    }
+                }
+            }
+        }
+
+        // Dépendances, closes par les appels
+        for (String nom : pures) {
+            NoeudAST declaration = fonctions.get(nom);
+            Set<String> lues = new HashSet<>();
+            for (NoeudAST enfant : declaration.getEnfants()) {
+                if (enfant.getType() == NoeudAST.TypeNoeud.BLOC_INSTRUCTIONS ||
+                        enfant.getType() == NoeudAST.TypeNoeud.RETOUR) {
+                    GrapheFlotControle.collecterUtilisations(enfant, lues);
+                    if (!enfant.rechercherParType(NoeudAST.TypeNoeud.ACCES_TABLEAU).isEmpty() ||
+                            !enfant.rechercherParType(NoeudAST.TypeNoeud.ACCES_CHAMP).isEmpty()) {
+                        lisantMemoire.add(nom);
+                    }
+                }
+            }
+            lues.removeAll(GrapheFlotControle.nomsLocaux(declaration));
+            globalesLues.put(nom, lues);
+        }
+        change = true;
+        while (change) {
+            change = false;
+            for (String nom : pures) {
+                for (String appelee : appelees.get(nom)) {
+                    if (globalesLues.get(nom).addAll(globalesLues.get(appelee))) {
+                        change = true;
+                    }
+                    if (lisantMemoire.contains(appelee) && lisantMemoire.add(nom)) {
+                        change = true;
+                    }
+                }
+            }
+        }
+    }
+
+    public boolean estPure(String fonction) {
+        return pures.contains(fonction);
+    }
+
+    // Globales dont dépend le résultat d'une fonction pure
+    public Set<String> getGlobalesLues(String fonction) {
+        Set<String> lues = globalesLues.get(fonction);
+        return lues == null ? Collections.emptySet() : Collections.unmodifiableSet(lues);
+    }
+
+    // Vrai si le résultat dépend du contenu d'un tableau ou d'une structure
+    public boolean litMemoire(String fonction) {
+        return lisantMemoire.contains(fonction);
+    }
+
+    public NoeudAST getDeclaration(String fonction) {
+        return fonctions.get(fonction);
+    }
+
+    public int getNombrePures() {
+        return pures.size();
+    }
+
+    // ==================== EFFETS D'UN CORPS ====================
+
+    private boolean corpsSansEffet(NoeudAST declaration, Set<String> appels) {
+        Set<String> locaux = GrapheFlotControle.nomsLocaux(declaration);
+        Set<String> parametres = new HashSet<>();
+        for (NoeudAST enfant : declaration.getEnfants()) {
+            if (enfant.getType() == NoeudAST.TypeNoeud.LISTE_PARAMETRES) {
+                for (NoeudAST parametre : enfant.getEnfants()) {
+                    parametres.add(parametre.getValeur());
+                }
+            }
+        }
+
+        // Locales réaffectées : elles ont pu recevoir une référence extérieure
+        Set<String> reaffectees = new HashSet<>();
+        for (NoeudAST affectation : declaration.rechercherParType(NoeudAST.TypeNoeud.AFFECTATION)) {
+            if (affectation.getEnfants().size() == 1) {
+                reaffectees.add(affectation.getValeur());
+            }
+        }
+
+        for (NoeudAST enfant : declaration.getEnfants()) {
+            if (enfant.getType() != NoeudAST.TypeNoeud.BLOC_INSTRUCTIONS &&
+                    enfant.getType() != NoeudAST.TypeNoeud.RETOUR) {
+                continue;
+            }
+            if (!enfant.rechercherParType(NoeudAST.TypeNoeud.ECRIRE).isEmpty() ||
+                    !enfant.rechercherParType(NoeudAST.TypeNoeud.LIRE).isEmpty()) {
+                return false;
+            }
+            for (NoeudAST appel : enfant.rechercherParType(NoeudAST.TypeNoeud.APPEL_FONCTION)) {
+                if (!fonctions.containsKey(appel.getValeur())) {
+                    return false; // procédure
+                }
+                appels.add(appel.getValeur());
+            }
+            for (NoeudAST boucle : enfant.rechercherParType(NoeudAST.TypeNoeud.BOUCLE_POUR)) {
+                if (!locaux.contains(boucle.getValeur())) {
+                    return false;
+                }
+            }
+            for (NoeudAST affectation : enfant.rechercherParType(NoeudAST.TypeNoeud.AFFECTATION)) {
+                String cible = affectation.getValeur();
+                if (affectation.getEnfants().size() == 1) {
+                    if (!locaux.contains(cible)) {
+                        return false;
+                    }
+                } else {
+                    // Élément ou champ : seulement sur un objet créé par la fonction
+                    String base = affectation.getEnfant(0).getValeur();
+                    if (!locaux.contains(base) || parametres.contains(base) || reaffectees.contains(base)) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+}
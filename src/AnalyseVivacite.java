@@ -0,0 +1,111 @@
+// AnalyseVivacite.java
+import java.util.BitSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+// Variables vivantes : une variable est vivante en un point si sa valeur
+// courante peut encore être lue avant d'être réécrite.
+// Analyse arrière, union ; un bit par variable du graphe.
+//
+// Une écriture « possible » (globale modifiée par un appel) ne tue rien.
+// Les globales sont vivantes en sortie d'un sous-programme (l'appelant peut
+// les lire), et rien n'est vivant à la fin du programme principal.
+public class AnalyseVivacite extends AnalyseFlot {
+    private final Set<String> vivantesEnSortie;
+
+    public AnalyseVivacite(GrapheFlotControle graphe) {
+        this(graphe, new LinkedHashSet<>());
+    }
+
+    public AnalyseVivacite(GrapheFlotControle graphe, Set<String> vivantesEnSortie) {
+        super(graphe, Direction.ARRIERE, Confluence.UNION);
+        this.vivantesEnSortie = vivantesEnSortie;
+        resoudre();
+    }
+
+    // Analyse d'un sous-programme : tout ce qui n'est pas local survit à l'appel
+    public static AnalyseVivacite pourRoutine(GrapheFlotControle graphe) {
+        Set<String> globales = new LinkedHashSet<>();
+        if (GrapheFlotControle.estSousProgramme(graphe.getRoutine())) {
+            Set<String> locaux = GrapheFlotControle.nomsLocaux(graphe.getRoutine());
+            for (String nom : graphe.getVariables()) {
+                if (!locaux.contains(nom)) {
+                    globales.add(nom);
+                }
+            }
+        }
+        return new AnalyseVivacite(graphe, globales);
+    }
+
+    @Override
+    protected int taille() {
+        return graphe.getVariables().size();
+    }
+
+    @Override
+    protected BitSet gen(BlocBase bloc) {
+        // Lues avant toute écriture dans le bloc
+        BitSet lues = new BitSet();
+        List<InstructionFlot> instructions = bloc.instructions;
+        for (int i = instructions.size() - 1; i >= 0; i--) {
+            transferer(instructions.get(i), lues);
+        }
+        return lues;
+    }
+
+    @Override
+    protected BitSet kill(BlocBase bloc) {
+        BitSet ecrites = new BitSet();
+        for (InstructionFlot instruction : bloc.instructions) {
+            ecrites.or(graphe.indicesDe(instruction.definitions));
+        }
+        return ecrites;
+    }
+
+    @Override
+    protected BitSet frontiere() {
+        return graphe.indicesDe(vivantesEnSortie);
+    }
+
+    // vivantes avant = utilisées ∪ (vivantes après − définies)
+    private void transferer(InstructionFlot instruction, BitSet vivantes) {
+        vivantes.andNot(graphe.indicesDe(instruction.definitions));
+        vivantes.or(graphe.indicesDe(instruction.utilisations));
+    }
+
+    public BitSet vivantesApres(InstructionFlot instruction) {
+        BitSet vivantes = getSortie(instruction.bloc);
+        List<InstructionFlot> instructions = instruction.bloc.instructions;
+        for (int i = instructions.size() - 1; i > instruction.position; i--) {
+            transferer(instructions.get(i), vivantes);
+        }
+        return vivantes;
+    }
+
+    public BitSet vivantesAvant(InstructionFlot instruction) {
+        BitSet vivantes = vivantesApres(instruction);
+        transferer(instruction, vivantes);
+        return vivantes;
+    }
+
+    // La valeur de 'variable' après cette instruction de l'AST peut-elle encore être lue ?
+    public boolean estVivanteApres(NoeudAST noeud, String variable) {
+        InstructionFlot instruction = graphe.instructionDe(noeud);
+        int indice = graphe.indiceVariable(variable);
+        if (instruction == null || indice < 0) {
+            return indice >= 0; // inconnu : on reste prudent
+        }
+        return vivantesApres(instruction).get(indice);
+    }
+
+    // Variables lues avant d'être écrites depuis l'entrée de la routine
+    public Set<String> vivantesEnEntree() {
+        Set<String> noms = new LinkedHashSet<>();
+        BitSet vivantes = getEntree(graphe.getEntree());
+        for (int i = vivantes.nextSetBit(0); i >= 0; i = vivantes.nextSetBit(i + 1)) {
+            noms.add(graphe.nomVariable(i));
+        }
+        return noms;
+    }
+}
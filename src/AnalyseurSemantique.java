@@ -1,9 +1,10 @@
 // AnalyseurSemantique.java - VERSION CORRIGÉE
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Stack;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 enum TypeDonnee {
     ENTIER, REEL, CHAINE, BOOLEEN, STRUCTURE, TABLEAU, FONCTION, INCONNU
@@ -21,6 +22,8 @@ class EntreeTableSymboles {
     boolean estTableau;
     boolean estParametre; //  indique si c'est un paramètre
     Object valeurInitiale; // Pour les constantes
+    int rang; // position dans le programme de la section qui la déclare (globales)
+    int taille; // Pour les tableaux : nombre d'éléments (-1 si inconnu)
 
     public EntreeTableSymboles(String nom, TypeDonnee type, int ligne) {
         this.nom = nom;
@@ -31,19 +34,48 @@ class EntreeTableSymboles {
         this.estParametre = false;
         this.parametres = new ArrayList<>();
         this.valeurInitiale = null;
+        this.taille = -1;
     }
 }
+// Disposition d'un champ, calculée une fois à la déclaration de la structure
+class ChampInfo {
+    String nom;
+    int ordinal; // position du champ dans la structure
+    TypeDonnee type;
+    StructureInfo structure; // Pour un champ de type structure
+    TypeDonnee typeElement; // Pour un champ tableau
+    int taille; // Pour un champ tableau (-1 si inconnue)
+
+    public ChampInfo(String nom, int ordinal, TypeDonnee type) {
+        this.nom = nom;
+        this.ordinal = ordinal;
+        this.type = type;
+        this.typeElement = TypeDonnee.INCONNU;
+        this.taille = -1;
+    }
+}
+
 class StructureInfo {
     String nom;
-    Map<String, TypeDonnee> champs;
-    Map<String, String> champsStructure; // nom du champ -> nom de la structure du champ
-    Map<String, TypeDonnee> champsTableau; // nom du champ -> type d'élément si tableau
+    List<ChampInfo> champs; // dans l'ordre de déclaration : champs.get(ordinal)
+    Map<String, ChampInfo> champsParNom;
+    int rang; // position de la déclaration dans le programme
 
     public StructureInfo(String nom) {
         this.nom = nom;
-        this.champs = new HashMap<>();
-        this.champsStructure = new HashMap<>();
-        this.champsTableau = new HashMap<>();
+        this.champs = new ArrayList<>();
+        this.champsParNom = new HashMap<>();
+    }
+
+    ChampInfo champ(String nom) {
+        return champsParNom.get(nom);
+    }
+
+    ChampInfo ajouterChamp(String nom, TypeDonnee type) {
+        ChampInfo champ = new ChampInfo(nom, champs.size(), type);
+        champs.add(champ);
+        champsParNom.put(nom, champ);
+        return champ;
     }
 }
 
@@ -51,37 +83,56 @@ class FonctionInfo {
     String nom;
     TypeDonnee typeRetour;
     List<TypeDonnee> parametres;
+    List<String> nomsParametres;
+    List<TypeDonnee> typesElementsParametres; // Pour les paramètres tableaux
+    List<String> nomsStructuresParametres; // Pour les paramètres structures
     Map<String, TypeDonnee> variablesLocales;
+    int rang; // position de la déclaration dans le programme
 
     public FonctionInfo(String nom, TypeDonnee typeRetour) {
         this.nom = nom;
         this.typeRetour = typeRetour;
         this.parametres = new ArrayList<>();
+        this.nomsParametres = new ArrayList<>();
+        this.typesElementsParametres = new ArrayList<>();
+        this.nomsStructuresParametres = new ArrayList<>();
         this.variablesLocales = new HashMap<>();
     }
 }
 
 public class AnalyseurSemantique {
     private NoeudAST arbreSyntaxique;
-    private List<String> erreursSemantiques;
-    private List<String> avertissements;
+    private Diagnostics diagnostics;
 
     // Tables de symboles
-    private Map<String, EntreeTableSymboles> tableSymbolesGlobale;
+    private TableSymboles tableSymboles; // toutes les portées, globales à la profondeur 0
+    private Map<String, EntreeTableSymboles> tableSymbolesGlobale; // pour l'affichage
     private Map<String, StructureInfo> structures;
     private Map<String, FonctionInfo> fonctions;
-    private Stack<Map<String, EntreeTableSymboles>> pilePortees;
     private String fonctionCourante;
     private TypeDonnee typeRetourAttendu;
 
+    // Mode parallèle : signatures d'abord, puis un corps par tâche
+    private boolean analyseParallele = false;
+    // Élément du programme en cours de déclaration, et dernier élément visible
+    // depuis le corps analysé (reproduit la visibilité de l'analyse séquentielle)
+    private int rangCourant = 0;
+    private int rangLimite = Integer.MAX_VALUE;
+    // Diagnostics mis de côté puis réémis dans l'ordre du source
+    private boolean differe = false;
+    private List<Diagnostic> journal = new ArrayList<>();
+
     public AnalyseurSemantique(NoeudAST arbreSyntaxique) {
+        this(arbreSyntaxique, new Diagnostics());
+    }
+
+    public AnalyseurSemantique(NoeudAST arbreSyntaxique, Diagnostics diagnostics) {
         this.arbreSyntaxique = arbreSyntaxique;
-        this.erreursSemantiques = new ArrayList<>();
-        this.avertissements = new ArrayList<>();
+        this.diagnostics = diagnostics;
+        this.tableSymboles = new TableSymboles();
         this.tableSymbolesGlobale = new HashMap<>();
         this.structures = new HashMap<>();
         this.fonctions = new HashMap<>();
-        this.pilePortees = new Stack<>();
         this.fonctionCourante = null;
         this.typeRetourAttendu = TypeDonnee.INCONNU;
 
@@ -89,8 +140,124 @@ public class AnalyseurSemantique {
         entrerNouvellePortee();
     }
 
+    // Analyseur d'un seul corps (mode parallèle) : tables partagées en lecture,
+    // portées et diagnostics propres, globales déclarées avant lui seulement
+    private AnalyseurSemantique(AnalyseurSemantique parent, int rang) {
+        this.arbreSyntaxique = parent.arbreSyntaxique;
+        this.diagnostics = parent.diagnostics; // jamais utilisé directement : differe
+        this.tableSymboles = new TableSymboles();
+        this.tableSymbolesGlobale = parent.tableSymbolesGlobale;
+        this.structures = parent.structures;
+        this.fonctions = parent.fonctions;
+        this.fonctionCourante = null;
+        this.typeRetourAttendu = TypeDonnee.INCONNU;
+        this.rangCourant = rang;
+        this.rangLimite = rang;
+        this.differe = true;
+
+        for (EntreeTableSymboles globale : parent.tableSymbolesGlobale.values()) {
+            if (globale.rang <= rang) {
+                tableSymboles.declarerGlobale(globale.nom, globale);
+            }
+        }
+        entrerNouvellePortee();
+    }
+
+    public void setAnalyseParallele(boolean analyseParallele) {
+        this.analyseParallele = analyseParallele;
+    }
+
     public void analyser() {
-        analyserProgramme(arbreSyntaxique);
+        if (analyseParallele) {
+            analyserProgrammeParallele(arbreSyntaxique);
+        } else {
+            analyserProgramme(arbreSyntaxique);
+        }
+    }
+
+    // Phase 1 (séquentielle) : structures, globales et signatures, dans l'ordre.
+    // Phase 2 : chaque corps de fonction, de procédure et le programme principal
+    // sont vérifiés en parallèle sur un ForkJoinPool, chacun dans son analyseur.
+    // Les diagnostics sont réémis élément par élément : la sortie est identique
+    // à celle de l'analyse séquentielle.
+    private void analyserProgrammeParallele(NoeudAST programme) {
+        List<NoeudAST> elements = programme.getEnfants();
+        int n = elements.size();
+        int[] reperes = new int[n + 1];
+        FonctionInfo[] signatures = new FonctionInfo[n];
+
+        differe = true;
+        for (int i = 0; i < n; i++) {
+            reperes[i] = journal.size();
+            rangCourant = i;
+            NoeudAST element = elements.get(i);
+
+            switch (element.getType()) {
+                case DIRECTIVE_LANGAGE:
+                case BLOC_INSTRUCTIONS:
+                    break;
+
+                case DECLARATION_STRUCTURE:
+                    analyserStructure(element);
+                    break;
+
+                case DECLARATION_FONCTION:
+                    signatures[i] = declarerFonction(element);
+                    break;
+
+                case DECLARATION_PROCEDURE:
+                    signatures[i] = declarerProcedure(element);
+                    break;
+
+                case SECTION_VAR:
+                    analyserSectionVariable(element, true);
+                    break;
+
+                default:
+                    erreurSemantique("Élément de programme inattendu: %s",
+                            element.getLigne(), element.getType());
+            }
+        }
+        reperes[n] = journal.size();
+
+        AnalyseurSemantique[] corps = new AnalyseurSemantique[n];
+        List<ForkJoinTask<?>> taches = new ArrayList<>();
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+
+        for (int i = 0; i < n; i++) {
+            NoeudAST element = elements.get(i);
+            FonctionInfo signature = signatures[i];
+
+            if (signature != null) {
+                AnalyseurSemantique analyseur = new AnalyseurSemantique(this, i);
+                corps[i] = analyseur;
+                taches.add(pool.submit(() -> analyseur.analyserCorpsSousProgramme(element, signature)));
+            } else if (element.getType() == NoeudAST.TypeNoeud.BLOC_INSTRUCTIONS) {
+                AnalyseurSemantique analyseur = new AnalyseurSemantique(this, i);
+                corps[i] = analyseur;
+                taches.add(pool.submit(() -> analyseur.analyserBlocInstructions(element)));
+            }
+        }
+
+        for (ForkJoinTask<?> tache : taches) {
+            tache.join();
+        }
+
+        // Fusion dans l'ordre du source : déclaration puis corps de chaque élément
+        List<Diagnostic> messagesPhase1 = journal;
+        journal = new ArrayList<>();
+        differe = false;
+        for (int i = 0; i < n; i++) {
+            for (int k = reperes[i]; k < reperes[i + 1]; k++) {
+                emettre(messagesPhase1.get(k));
+            }
+            if (corps[i] != null) {
+                for (Diagnostic message : corps[i].journal) {
+                    emettre(message);
+                }
+            }
+        }
+        rangCourant = 0;
     }
 
     private void analyserProgramme(NoeudAST programme) {
@@ -124,8 +291,8 @@ public class AnalyseurSemantique {
 
 
                 default:
-                    erreurSemantique("Élément de programme inattendu: " +
-                            enfant.getType(), enfant.getLigne());
+                    erreurSemantique("Élément de programme inattendu: %s",
+                            enfant.getLigne(), enfant.getType());
             }
         }
     }
@@ -148,8 +315,8 @@ public class AnalyseurSemantique {
         }
 
         if (structures.containsKey(nomStructure)) {
-            erreurSemantique("Structure déjà définie: " + nomStructure,
-                    structure.getLigne());
+            erreurSemantique("Structure déjà définie: %s",
+                    structure.getLigne(), nomStructure);
             return;
         }
 
@@ -162,23 +329,24 @@ public class AnalyseurSemantique {
             }
         }
 
+        info.rang = rangCourant;
+        structure.setStructure(info);
         structures.put(nomStructure, info);
     }
 
     private void analyserChampStructure(NoeudAST declaration, StructureInfo structure,
                                         int ligneStructure) {
-        List<String> nomsVariables = new ArrayList<>();
+        List<NoeudAST> identifiants = new ArrayList<>();
         TypeDonnee typeChamp = TypeDonnee.INCONNU;
         String nomStructureChamp = null;
         TypeDonnee typeElementTableau = TypeDonnee.INCONNU;
         boolean estTableau = false;
+        int taille = -1;
 
         for (NoeudAST enfant : declaration.getEnfants()) {
             switch (enfant.getType()) {
                 case LISTE_IDENTIFICATEURS:
-                    for (NoeudAST id : enfant.getEnfants()) {
-                        nomsVariables.add(id.getValeur());
-                    }
+                    identifiants.addAll(enfant.getEnfants());
                     break;
 
                 case TYPE:
@@ -191,12 +359,15 @@ public class AnalyseurSemantique {
                         String typeBase = typeStr.substring(0, typeStr.indexOf('[')).trim();
                         typeElementTableau = convertirType(typeBase);
                         typeChamp = TypeDonnee.TABLEAU;
+                        taille = extraireTaille(typeStr);
                     } else {
                         typeChamp = convertirType(typeStr);
                         if (typeChamp == TypeDonnee.STRUCTURE) {
                             nomStructureChamp = typeStr;
+                            enfant.setStructure(structureVisible(typeStr));
                         }
                     }
+                    enfant.setTypeResolu(typeChamp);
                     break;
             }
         }
@@ -206,109 +377,89 @@ public class AnalyseurSemantique {
             return;
         }
 
-        for (String nomVariable : nomsVariables) {
-            if (structure.champs.containsKey(nomVariable)) {
-                erreurSemantique("Champ déjà défini dans la structure: " +
-                        nomVariable, declaration.getLigne());
+        for (NoeudAST identifiant : identifiants) {
+            String nomVariable = identifiant.getValeur();
+            if (structure.champ(nomVariable) != null) {
+                erreurSemantique("Champ déjà défini dans la structure: %s",
+                        declaration.getLigne(), nomVariable);
             } else {
-                structure.champs.put(nomVariable, typeChamp);
+                // Le champ n'entre pas dans la table des symboles, mais son
+                // identifiant porte une entrée comme une variable
+                EntreeTableSymboles entreeChamp = new EntreeTableSymboles(nomVariable, typeChamp,
+                        declaration.getLigne());
+                entreeChamp.estTableau = estTableau;
+                entreeChamp.typeElement = typeElementTableau;
+                entreeChamp.nomStructure = nomStructureChamp;
+                entreeChamp.taille = taille;
+                identifiant.setSymbole(entreeChamp);
+                identifiant.setTypeResolu(typeChamp);
+                identifiant.setStructure(structure);
+
+                ChampInfo champ = structure.ajouterChamp(nomVariable, typeChamp);
                 if (nomStructureChamp != null) {
-                    structure.champsStructure.put(nomVariable, nomStructureChamp);
+                    champ.structure = structureVisible(nomStructureChamp);
                 }
                 if (estTableau) {
-                    structure.champsTableau.put(nomVariable, typeElementTableau);
+                    champ.typeElement = typeElementTableau;
+                    champ.taille = taille;
                 }
+                identifiant.setChamp(champ);
             }
         }
     }
 
     private void analyserProcedure(NoeudAST procedure) {
+        FonctionInfo info = declarerProcedure(procedure);
+        if (info != null) {
+            analyserCorpsSousProgramme(procedure, info);
+        }
+    }
+
+    // Signature seule : la procédure devient visible pour la suite du programme
+    private FonctionInfo declarerProcedure(NoeudAST procedure) {
         String nomProcedure = procedure.getValeur();
         if (nomProcedure.isEmpty()) {
             erreurSemantique("Procédure sans nom", procedure.getLigne());
-            return;
+            return null;
         }
 
         if (fonctions.containsKey(nomProcedure)) {
-            erreurSemantique("Procédure déjà définie: " + nomProcedure,
-                    procedure.getLigne());
-            return;
+            erreurSemantique("Procédure déjà définie: %s",
+                    procedure.getLigne(), nomProcedure);
+            return null;
         }
 
-        List<TypeDonnee> parametres = new ArrayList<>();
-        List<String> nomsParametres = new ArrayList<>();
-        List<TypeDonnee> typesElementsParametres = new ArrayList<>(); // Pour les tableaux
-        List<String> nomsStructuresParametres = new ArrayList<>(); // Pour les structures
+        FonctionInfo info = new FonctionInfo(nomProcedure, TypeDonnee.INCONNU);
 
         // Analyser les paramètres
         for (NoeudAST enfant : procedure.getEnfants()) {
             switch (enfant.getType()) {
                 case LISTE_PARAMETRES:
-                    analyserParametresFonction(enfant, parametres, nomsParametres,
-                            typesElementsParametres, nomsStructuresParametres);
+                    analyserParametresFonction(enfant, info.parametres, info.nomsParametres,
+                            info.typesElementsParametres, info.nomsStructuresParametres);
                     break;
             }
         }
 
-        FonctionInfo info = new FonctionInfo(nomProcedure, TypeDonnee.INCONNU);
-        info.parametres = parametres;
+        info.rang = rangCourant;
+        procedure.setFonction(info);
         fonctions.put(nomProcedure, info);
-
-        // Entrer dans la portée de la procédure
-        entrerNouvellePortee();
-        fonctionCourante = nomProcedure;
-        typeRetourAttendu = TypeDonnee.INCONNU;
-
-        // Ajouter les paramètres
-        for (int i = 0; i < nomsParametres.size(); i++) {
-            EntreeTableSymboles entree = new EntreeTableSymboles(
-                    nomsParametres.get(i), parametres.get(i), procedure.getLigne());
-            entree.estParametre = true;
-
-            // CORRECTION: Si c'est un tableau, ajouter le typeElement
-            if (parametres.get(i) == TypeDonnee.TABLEAU) {
-                entree.estTableau = true;
-                entree.typeElement = typesElementsParametres.get(i);
-            }
-
-            // CORRECTION: Si c'est une structure, ajouter le nomStructure
-            if (parametres.get(i) == TypeDonnee.STRUCTURE) {
-                entree.nomStructure = nomsStructuresParametres.get(i);
-            }
-
-            pilePortees.peek().put(nomsParametres.get(i), entree);
-        }
-
-        // Analyser le corps
-        for (NoeudAST enfant : procedure.getEnfants()) {
-            switch (enfant.getType()) {
-                case SECTION_VAR:
-                    analyserSectionVariable(enfant, false);
-                    break;
-                case BLOC_INSTRUCTIONS:
-                    analyserBlocInstructions(enfant);
-                    break;
-            }
-        }
-
-        sortirPortee();
-        fonctionCourante = null;
-        typeRetourAttendu = TypeDonnee.INCONNU;
+        return info;
     }
 
     private void analyserDeclarationVariable(NoeudAST declaration, boolean globale) {
-        List<String> nomsVariables = new ArrayList<>();
+        List<NoeudAST> identifiants = new ArrayList<>();
         TypeDonnee type = TypeDonnee.INCONNU;
         TypeDonnee typeElement = TypeDonnee.INCONNU;
         String nomStructure = null;
         boolean estTableau = false;
+        int taille = -1;
+        NoeudAST noeudType = null;
 
         for (NoeudAST enfant : declaration.getEnfants()) {
             switch (enfant.getType()) {
                 case LISTE_IDENTIFICATEURS:
-                    for (NoeudAST id : enfant.getEnfants()) {
-                        nomsVariables.add(id.getValeur());
-                    }
+                    identifiants.addAll(enfant.getEnfants());
                     break;
 
                 case TYPE:
@@ -321,17 +472,20 @@ public class AnalyseurSemantique {
                         String typeBase = typeStr.substring(0, typeStr.indexOf('[')).trim();
                         typeElement = convertirType(typeBase);
                         type = TypeDonnee.TABLEAU;
+                        taille = extraireTaille(typeStr);
                     } else {
                         type = convertirType(typeStr);
                         if (type == TypeDonnee.STRUCTURE) {
                             nomStructure = typeStr;
                             // Vérifier que la structure est définie
-                            if (!structures.containsKey(nomStructure)) {
-                                erreurSemantique("Structure non définie: " + nomStructure,
-                                        enfant.getLigne());
+                            if (structureVisible(nomStructure) == null) {
+                                erreurSemantique("Structure non définie: %s",
+                                        enfant.getLigne(), nomStructure);
                             }
+                            enfant.setStructure(structureVisible(nomStructure));
                         }
                     }
+                    noeudType = enfant;
                     break;
             }
         }
@@ -340,37 +494,57 @@ public class AnalyseurSemantique {
             erreurSemantique("Type invalide dans la déclaration", declaration.getLigne());
             return;
         }
+        noeudType.setTypeResolu(type);
 
-        // Ajouter chaque variable dans la table de symboles appropriée
-        Map<String, EntreeTableSymboles> table = globale ?
-                tableSymbolesGlobale : pilePortees.peek();
+        // Ajouter chaque variable dans la portée appropriée
+        for (NoeudAST identifiant : identifiants) {
+            String nomVariable = identifiant.getValeur();
+            boolean dejaDeclaree = globale ?
+                    tableSymboles.chercherGlobale(nomVariable) != null :
+                    tableSymboles.estDeclareeDansPorteeCourante(nomVariable);
 
-        for (String nomVariable : nomsVariables) {
-            if (table.containsKey(nomVariable)) {
-                erreurSemantique("Variable déjà déclarée: " + nomVariable,
-                        declaration.getLigne());
+            if (dejaDeclaree) {
+                erreurSemantique("Variable déjà déclarée: %s",
+                        declaration.getLigne(), nomVariable);
             } else {
                 EntreeTableSymboles entree = new EntreeTableSymboles(nomVariable, type,
                         declaration.getLigne());
                 entree.estTableau = estTableau;
                 entree.typeElement = typeElement;
                 entree.nomStructure = nomStructure;
-                table.put(nomVariable, entree);
+                entree.taille = taille;
+                identifiant.setSymbole(entree);
+                identifiant.setTypeResolu(type);
+                if (globale) {
+                    entree.rang = rangCourant;
+                    tableSymboles.declarerGlobale(nomVariable, entree);
+                    tableSymbolesGlobale.put(nomVariable, entree);
+                } else {
+                    tableSymboles.declarer(nomVariable, entree);
+                }
             }
         }
     }
 
     private void analyserFonction(NoeudAST fonction) {
+        FonctionInfo info = declarerFonction(fonction);
+        if (info != null) {
+            analyserCorpsSousProgramme(fonction, info);
+        }
+    }
+
+    // Signature seule : la fonction devient visible (y compris pour elle-même)
+    private FonctionInfo declarerFonction(NoeudAST fonction) {
         String nomFonction = fonction.getValeur();
         if (nomFonction.isEmpty()) {
             erreurSemantique("Fonction sans nom", fonction.getLigne());
-            return;
+            return null;
         }
 
         if (fonctions.containsKey(nomFonction)) {
-            erreurSemantique("Fonction déjà définie: " + nomFonction,
-                    fonction.getLigne());
-            return;
+            erreurSemantique("Fonction déjà définie: %s",
+                    fonction.getLigne(), nomFonction);
+            return null;
         }
 
         TypeDonnee typeRetour = TypeDonnee.INCONNU;
@@ -402,35 +576,55 @@ public class AnalyseurSemantique {
 
         FonctionInfo info = new FonctionInfo(nomFonction, typeRetour);
         info.parametres = parametres;
+        info.nomsParametres = nomsParametres;
+        info.typesElementsParametres = typesElementsParametres;
+        info.nomsStructuresParametres = nomsStructuresParametres;
+        info.rang = rangCourant;
+        fonction.setFonction(info);
         fonctions.put(nomFonction, info);
+        return info;
+    }
 
-        // Entrer dans la portée de la fonction
+    // Corps d'une fonction ou d'une procédure, dans sa propre portée
+    private void analyserCorpsSousProgramme(NoeudAST sousProgramme, FonctionInfo info) {
         entrerNouvellePortee();
-        fonctionCourante = nomFonction;
-        typeRetourAttendu = typeRetour;
+        fonctionCourante = info.nom;
+        typeRetourAttendu = info.typeRetour;
+
+        List<NoeudAST> noeudsParametres = new ArrayList<>();
+        for (NoeudAST enfant : sousProgramme.getEnfants()) {
+            if (enfant.getType() == NoeudAST.TypeNoeud.LISTE_PARAMETRES) {
+                noeudsParametres.addAll(enfant.getEnfants());
+            }
+        }
 
         // Ajouter les paramètres à la portée locale
-        for (int i = 0; i < nomsParametres.size(); i++) {
+        for (int i = 0; i < info.nomsParametres.size(); i++) {
+            TypeDonnee typeParametre = info.parametres.get(i);
             EntreeTableSymboles entree = new EntreeTableSymboles(
-                    nomsParametres.get(i), parametres.get(i), fonction.getLigne());
+                    info.nomsParametres.get(i), typeParametre, sousProgramme.getLigne());
             entree.estParametre = true;
 
             // CORRECTION: Si c'est un tableau, ajouter le typeElement
-            if (parametres.get(i) == TypeDonnee.TABLEAU) {
+            if (typeParametre == TypeDonnee.TABLEAU) {
                 entree.estTableau = true;
-                entree.typeElement = typesElementsParametres.get(i);
+                entree.typeElement = info.typesElementsParametres.get(i);
             }
 
             // CORRECTION: Si c'est une structure, ajouter le nomStructure
-            if (parametres.get(i) == TypeDonnee.STRUCTURE) {
-                entree.nomStructure = nomsStructuresParametres.get(i);
+            if (typeParametre == TypeDonnee.STRUCTURE) {
+                entree.nomStructure = info.nomsStructuresParametres.get(i);
             }
 
-            pilePortees.peek().put(nomsParametres.get(i), entree);
+            tableSymboles.declarer(info.nomsParametres.get(i), entree);
+            if (i < noeudsParametres.size()) {
+                noeudsParametres.get(i).setSymbole(entree);
+                noeudsParametres.get(i).setTypeResolu(typeParametre);
+            }
         }
 
-        // Analyser le corps de la fonction
-        for (NoeudAST enfant : fonction.getEnfants()) {
+        // Analyser le corps
+        for (NoeudAST enfant : sousProgramme.getEnfants()) {
             switch (enfant.getType()) {
                 case SECTION_VAR:
                     analyserSectionVariable(enfant, false);
@@ -535,8 +729,8 @@ public class AnalyseurSemantique {
                 break;
 
             default:
-                erreurSemantique("Instruction non reconnue: " + instruction.getType(),
-                        instruction.getLigne());
+                erreurSemantique("Instruction non reconnue: %s",
+                        instruction.getLigne(), instruction.getType());
         }
     }
 
@@ -550,8 +744,8 @@ public class AnalyseurSemantique {
         } else {
             // RETOUR sans expression
             if (typeRetourAttendu != TypeDonnee.INCONNU) {
-                erreurSemantique("RETOUR doit avoir une expression (type attendu: " +
-                        typeRetourAttendu + ")", retour.getLigne());
+                erreurSemantique("RETOUR doit avoir une expression (type attendu: %s)",
+                        retour.getLigne(), typeRetourAttendu);
             }
         }
     }
@@ -561,16 +755,17 @@ public class AnalyseurSemantique {
         EntreeTableSymboles entree = chercherVariable(nomVariable);
 
         if (entree == null) {
-            erreurSemantique("Variable non déclarée: " + nomVariable,
-                    affectation.getLigne());
+            erreurSemantique("Variable non déclarée: %s",
+                    affectation.getLigne(), nomVariable);
             return;
         }
 
         if (entree.estConstante) {
-            erreurSemantique("Impossible de modifier une constante: " + nomVariable,
-                    affectation.getLigne());
+            erreurSemantique("Impossible de modifier une constante: %s",
+                    affectation.getLigne(), nomVariable);
             return;
         }
+        affectation.setSymbole(entree);
 
         if (affectation.getEnfants().size() < 1) {
             erreurSemantique("Expression manquante dans l'affectation",
@@ -595,6 +790,8 @@ public class AnalyseurSemantique {
                     }
                 }
 
+                acces.setSymbole(entree);
+                acces.setTypeResolu(entree.typeElement);
                 TypeDonnee typeExpression = analyserExpression(expression);
                 verifierCompatibiliteTypes(entree.typeElement, typeExpression,
                         "Types incompatibles dans l'affectation de tableau",
@@ -602,6 +799,7 @@ public class AnalyseurSemantique {
             } else if (acces.getType() == NoeudAST.TypeNoeud.ACCES_CHAMP) {
                 // CAS 2 : Affectation à un champ de structure (ex: p1.x <- 5.0)
                 TypeDonnee typeChamp = analyserAccesChampExpression(acces);
+                acces.setTypeResolu(typeChamp);
                 TypeDonnee typeExpression = analyserExpression(expression);
 
                 verifierCompatibiliteTypes(typeChamp, typeExpression,
@@ -664,6 +862,12 @@ public class AnalyseurSemantique {
     }
 
     private TypeDonnee analyserConditionExpression(NoeudAST condition) {
+        TypeDonnee type = typerCondition(condition);
+        condition.setTypeResolu(type);
+        return type;
+    }
+
+    private TypeDonnee typerCondition(NoeudAST condition) {
         if (condition.getEnfants().size() < 2) {
             // C'est peut-être une variable booléenne simple
             if (condition.getType() == NoeudAST.TypeNoeud.VARIABLE) {
@@ -684,37 +888,38 @@ public class AnalyseurSemantique {
 
         NoeudAST gauche = condition.getEnfants().get(0);
         NoeudAST droite = condition.getEnfants().get(1);
-        String operateur = condition.getValeur();
+        Operateur operateur = condition.getOperateur();
 
         TypeDonnee typeGauche = analyserExpression(gauche);
         TypeDonnee typeDroite = analyserExpression(droite);
 
-        // Vérifier la compatibilité des types selon l'opérateur
-        if (estOperateurComparaison(operateur)) {
-            if (!typesCompatiblesComparaison(typeGauche, typeDroite)) {
-                erreurSemantique("Types incompatibles dans la comparaison " + operateur,
-                        condition.getLigne());
-                return TypeDonnee.INCONNU;
-            }
-        } else if (estOperateurLogique(operateur)) {
-            if (typeGauche != TypeDonnee.BOOLEEN || typeDroite != TypeDonnee.BOOLEEN) {
-                erreurSemantique("Opérateur logique " + operateur + " nécessite des booléens",
-                        condition.getLigne());
-                return TypeDonnee.INCONNU;
-            }
+        if (operateur == null) {
+            return TypeDonnee.BOOLEEN;
         }
 
-        return TypeDonnee.BOOLEEN;
-    }
+        // Vérifier la compatibilité des types selon l'opérateur
+        switch (operateur.getCategorie()) {
+            case COMPARAISON:
+                if (!typesCompatiblesComparaison(typeGauche, typeDroite)) {
+                    erreurSemantique("Types incompatibles dans la comparaison %s",
+                            condition.getLigne(), condition.getValeur());
+                    return TypeDonnee.INCONNU;
+                }
+                break;
 
-    private boolean estOperateurComparaison(String operateur) {
-        return operateur.equals("<") || operateur.equals("<=") ||
-                operateur.equals(">") || operateur.equals(">=") ||
-                operateur.equals("=") || operateur.equals("<>");
-    }
+            case LOGIQUE:
+                if (typeGauche != TypeDonnee.BOOLEEN || typeDroite != TypeDonnee.BOOLEEN) {
+                    erreurSemantique("Opérateur logique %s nécessite des booléens",
+                            condition.getLigne(), condition.getValeur());
+                    return TypeDonnee.INCONNU;
+                }
+                break;
+
+            default:
+                break;
+        }
 
-    private boolean estOperateurLogique(String operateur) {
-        return operateur.equals("ET") || operateur.equals("OU");
+        return TypeDonnee.BOOLEEN;
     }
 
     private void analyserBouclePour(NoeudAST boucle) {
@@ -753,7 +958,8 @@ public class AnalyseurSemantique {
         EntreeTableSymboles entree = new EntreeTableSymboles(nomVariable, typeDebut,
                 boucle.getLigne());
         entree.estConstante = true; // La variable de boucle ne doit pas être modifiée
-        pilePortees.peek().put(nomVariable, entree);
+        tableSymboles.declarer(nomVariable, entree);
+        boucle.setSymbole(entree);
 
         analyserBlocInstructions(corps);
 
@@ -829,32 +1035,36 @@ public class AnalyseurSemantique {
             EntreeTableSymboles entree = chercherVariable(nomVariable);
 
             if (entree == null) {
-                erreurSemantique("Variable non déclarée: " + nomVariable,
-                        variable.getLigne());
+                erreurSemantique("Variable non déclarée: %s",
+                        variable.getLigne(), nomVariable);
                 continue;
             }
 
+            variable.setSymbole(entree);
+            variable.setTypeResolu(entree.type);
+
             if (entree.estConstante) {
-                erreurSemantique("Impossible de lire dans une constante: " +
-                        nomVariable, variable.getLigne());
+                erreurSemantique("Impossible de lire dans une constante: %s",
+                        variable.getLigne(), nomVariable);
             }
 
             // Vérifier que le type est lisible
             if (entree.type == TypeDonnee.STRUCTURE || entree.type == TypeDonnee.TABLEAU) {
-                erreurSemantique("Impossible de lire une structure ou un tableau directement: " +
-                        nomVariable, variable.getLigne());
+                erreurSemantique("Impossible de lire une structure ou un tableau directement: %s",
+                        variable.getLigne(), nomVariable);
             }
         }
     }
 
     private void analyserAppelFonction(NoeudAST appel, boolean estInstruction) {
         String nomFonction = appel.getValeur();
-        FonctionInfo info = fonctions.get(nomFonction);
+        FonctionInfo info = fonctionVisible(nomFonction);
 
         if (info == null) {
-            erreurSemantique("Fonction non définie: " + nomFonction, appel.getLigne());
+            erreurSemantique("Fonction non définie: %s", appel.getLigne(), nomFonction);
             return;
         }
+        appel.setFonction(info);
 
         // Vérifier les arguments
         List<TypeDonnee> typesArguments = new ArrayList<>();
@@ -869,9 +1079,8 @@ public class AnalyseurSemantique {
 
         // Vérifier le nombre d'arguments
         if (typesArguments.size() != info.parametres.size()) {
-            erreurSemantique("Nombre incorrect d'arguments pour " + nomFonction +
-                    " (attendu: " + info.parametres.size() +
-                    ", trouvé: " + typesArguments.size() + ")", appel.getLigne());
+            erreurSemantique("Nombre incorrect d'arguments pour %s (attendu: %s, trouvé: %s)",
+                    appel.getLigne(), nomFonction, info.parametres.size(), typesArguments.size());
             return;
         }
 
@@ -883,17 +1092,24 @@ public class AnalyseurSemantique {
             if (typeParam == TypeDonnee.TABLEAU) {
                 // Pour un tableau, vérifier que l'argument est aussi un tableau
                 if (typeArg != TypeDonnee.TABLEAU) {
-                    erreurSemantique("Argument " + (i+1) + " doit être un tableau pour " +
-                            nomFonction, appel.getLigne());
+                    erreurSemantique("Argument %s doit être un tableau pour %s",
+                            appel.getLigne(), i + 1, nomFonction);
                 }
             } else if (!typesCompatibles(typeParam, typeArg)) {
-                erreurSemantique("Type d'argument incompatible pour le paramètre " + (i+1) +
-                        " de " + nomFonction, appel.getLigne());
+                erreurSemantique("Type d'argument incompatible pour le paramètre %s de %s",
+                        appel.getLigne(), i + 1, nomFonction);
             }
         }
     }
 
+    // Le type calculé reste attaché au nœud pour les passes suivantes
     private TypeDonnee analyserExpression(NoeudAST expression) {
+        TypeDonnee type = typerExpression(expression);
+        expression.setTypeResolu(type);
+        return type;
+    }
+
+    private TypeDonnee typerExpression(NoeudAST expression) {
         switch (expression.getType()) {
             case NOMBRE:
                 return determinerTypeNombre(expression.getValeur());
@@ -924,8 +1140,8 @@ public class AnalyseurSemantique {
                 return analyserAccesChampExpression(expression);
 
             default:
-                erreurSemantique("Expression non reconnue: " + expression.getType(),
-                        expression.getLigne());
+                erreurSemantique("Expression non reconnue: %s",
+                        expression.getLigne(), expression.getType());
                 return TypeDonnee.INCONNU;
         }
     }
@@ -935,46 +1151,50 @@ public class AnalyseurSemantique {
         EntreeTableSymboles entreeStructure = chercherVariable(nomStructure);
 
         if (entreeStructure == null) {
-            erreurSemantique("Variable non déclarée: " + nomStructure, acces.getLigne());
+            erreurSemantique("Variable non déclarée: %s", acces.getLigne(), nomStructure);
             return TypeDonnee.INCONNU;
         }
 
         if (entreeStructure.type != TypeDonnee.STRUCTURE) {
-            erreurSemantique("Variable n'est pas une structure: " + nomStructure, acces.getLigne());
+            erreurSemantique("Variable n'est pas une structure: %s",
+                    acces.getLigne(), nomStructure);
             return TypeDonnee.INCONNU;
         }
 
         // Obtenir les informations de la structure
-        StructureInfo info = structures.get(entreeStructure.nomStructure);
+        StructureInfo info = structureVisible(entreeStructure.nomStructure);
         if (info == null) {
-            erreurSemantique("Structure non définie: " + entreeStructure.nomStructure,
-                    acces.getLigne());
+            erreurSemantique("Structure non définie: %s",
+                    acces.getLigne(), entreeStructure.nomStructure);
             return TypeDonnee.INCONNU;
         }
 
-        // Parcourir la chaîne d'accès aux champs
-        String currentStructure = entreeStructure.nomStructure;
+        acces.setSymbole(entreeStructure);
+        acces.setStructure(info);
+
+        // Parcourir la chaîne d'accès aux champs : chaque maillon est résolu
+        // en ChampInfo, la chaîne entière en chemin d'ordinaux
+        StructureInfo currentInfo = info;
         TypeDonnee finalType = TypeDonnee.INCONNU;
+        int[] chemin = new int[acces.getEnfants().size()];
 
         for (int i = 0; i < acces.getEnfants().size(); i++) {
             NoeudAST champNode = acces.getEnfants().get(i);
             String nomChamp = champNode.getValeur();
 
-            StructureInfo currentInfo = structures.get(currentStructure);
-            if (currentInfo == null) {
-                erreurSemantique("Structure non définie: " + currentStructure,
-                        champNode.getLigne());
-                return TypeDonnee.INCONNU;
-            }
-
             // Vérifier que le champ existe
-            if (!currentInfo.champs.containsKey(nomChamp)) {
-                erreurSemantique("Champ '" + nomChamp + "' non défini dans la structure '" +
-                        currentStructure + "'", champNode.getLigne());
+            ChampInfo champ = currentInfo.champ(nomChamp);
+            if (champ == null) {
+                erreurSemantique("Champ '%s' non défini dans la structure '%s'",
+                        champNode.getLigne(), nomChamp, currentInfo.nom);
                 return TypeDonnee.INCONNU;
             }
 
-            TypeDonnee typeChamp = currentInfo.champs.get(nomChamp);
+            TypeDonnee typeChamp = champ.type;
+            chemin[i] = champ.ordinal;
+            champNode.setChamp(champ);
+            champNode.setStructure(currentInfo);
+            champNode.setTypeResolu(typeChamp);
 
             // Si c'est le dernier champ de la chaîne
             if (i == acces.getEnfants().size() - 1) {
@@ -983,8 +1203,8 @@ public class AnalyseurSemantique {
                 // Si c'est un accès à un tableau
                 if (champNode.getType() == NoeudAST.TypeNoeud.ACCES_TABLEAU) {
                     if (typeChamp != TypeDonnee.TABLEAU) {
-                        erreurSemantique("Le champ '" + nomChamp + "' n'est pas un tableau",
-                                champNode.getLigne());
+                        erreurSemantique("Le champ '%s' n'est pas un tableau",
+                                champNode.getLigne(), nomChamp);
                         return TypeDonnee.INCONNU;
                     }
 
@@ -998,29 +1218,28 @@ public class AnalyseurSemantique {
                     }
 
                     // Retourner le type d'élément du tableau
-                    if (currentInfo.champsTableau.containsKey(nomChamp)) {
-                        finalType = currentInfo.champsTableau.get(nomChamp);
-                    }
+                    finalType = champ.typeElement;
+                    champNode.setTypeResolu(finalType);
                 }
             } else {
                 // Continuer vers la structure suivante dans la chaîne
                 if (typeChamp != TypeDonnee.STRUCTURE) {
-                    erreurSemantique("Le champ '" + nomChamp + "' n'est pas une structure",
-                            champNode.getLigne());
+                    erreurSemantique("Le champ '%s' n'est pas une structure",
+                            champNode.getLigne(), nomChamp);
                     return TypeDonnee.INCONNU;
                 }
 
-                String nextStructure = currentInfo.champsStructure.get(nomChamp);
-                if (nextStructure == null) {
-                    erreurSemantique("Structure non définie pour le champ '" + nomChamp + "'",
-                            champNode.getLigne());
+                if (champ.structure == null) {
+                    erreurSemantique("Structure non définie pour le champ '%s'",
+                            champNode.getLigne(), nomChamp);
                     return TypeDonnee.INCONNU;
                 }
 
-                currentStructure = nextStructure;
+                currentInfo = champ.structure;
             }
         }
 
+        acces.setCheminChamps(chemin);
         return finalType;
     }
 
@@ -1029,10 +1248,11 @@ public class AnalyseurSemantique {
         EntreeTableSymboles entree = chercherVariable(nom);
 
         if (entree == null) {
-            erreurSemantique("Variable non déclarée: " + nom, variable.getLigne());
+            erreurSemantique("Variable non déclarée: %s", variable.getLigne(), nom);
             return TypeDonnee.INCONNU;
         }
 
+        variable.setSymbole(entree);
         return entree.type;
     }
 
@@ -1041,15 +1261,16 @@ public class AnalyseurSemantique {
         EntreeTableSymboles entree = chercherVariable(nomTableau);
 
         if (entree == null) {
-            erreurSemantique("Variable non déclarée: " + nomTableau, acces.getLigne());
+            erreurSemantique("Variable non déclarée: %s", acces.getLigne(), nomTableau);
             return TypeDonnee.INCONNU;
         }
 
         if (entree.type != TypeDonnee.TABLEAU) {
-            erreurSemantique("Variable n'est pas un tableau: " + nomTableau,
-                    acces.getLigne());
+            erreurSemantique("Variable n'est pas un tableau: %s",
+                    acces.getLigne(), nomTableau);
             return TypeDonnee.INCONNU;
         }
+        acces.setSymbole(entree);
 
         // Vérifier l'indice
         if (acces.getEnfants().size() > 0) {
@@ -1071,42 +1292,46 @@ public class AnalyseurSemantique {
 
         NoeudAST gauche = operation.getEnfants().get(0);
         NoeudAST droite = operation.getEnfants().get(1);
-        String operateur = operation.getValeur();
+        Operateur operateur = operation.getOperateur();
 
         TypeDonnee typeGauche = analyserExpression(gauche);
         TypeDonnee typeDroite = analyserExpression(droite);
 
-        // Vérifier la compatibilité des types selon l'opérateur
-        if (estOperateurArithmetique(operateur)) {
-            if (!typesCompatiblesArithmetiques(typeGauche, typeDroite)) {
-                erreurSemantique("Types incompatibles pour l'opération arithmétique " +
-                        operateur, operation.getLigne());
-                return TypeDonnee.INCONNU;
-            }
-            return determinerTypeResultat(operateur, typeGauche, typeDroite);
-        } else if (estOperateurComparaison(operateur)) {
-            if (!typesCompatiblesComparaison(typeGauche, typeDroite)) {
-                erreurSemantique("Types incompatibles pour la comparaison " + operateur,
-                        operation.getLigne());
-                return TypeDonnee.INCONNU;
-            }
-            return TypeDonnee.BOOLEEN;
-        } else if (estOperateurLogique(operateur)) {
-            if (typeGauche != TypeDonnee.BOOLEEN || typeDroite != TypeDonnee.BOOLEEN) {
-                erreurSemantique("Opérateur logique " + operateur + " nécessite des booléens",
-                        operation.getLigne());
-                return TypeDonnee.INCONNU;
-            }
-            return TypeDonnee.BOOLEEN;
+        if (operateur == null) {
+            erreurSemantique("Opérateur inconnu: %s", operation.getLigne(), operation.getValeur());
+            return TypeDonnee.INCONNU;
         }
 
-        // Déterminer le type du résultat
-        return determinerTypeResultat(operateur, typeGauche, typeDroite);
-    }
+        // Vérifier la compatibilité des types selon l'opérateur
+        switch (operateur.getCategorie()) {
+            case ARITHMETIQUE:
+                if (!typesCompatiblesArithmetiques(typeGauche, typeDroite)) {
+                    erreurSemantique("Types incompatibles pour l'opération arithmétique %s",
+                            operation.getLigne(), operation.getValeur());
+                    return TypeDonnee.INCONNU;
+                }
+                return determinerTypeResultat(operateur, typeGauche, typeDroite);
+
+            case COMPARAISON:
+                if (!typesCompatiblesComparaison(typeGauche, typeDroite)) {
+                    erreurSemantique("Types incompatibles pour la comparaison %s",
+                            operation.getLigne(), operation.getValeur());
+                    return TypeDonnee.INCONNU;
+                }
+                return TypeDonnee.BOOLEEN;
 
-    private boolean estOperateurArithmetique(String operateur) {
-        return operateur.equals("+") || operateur.equals("-") ||
-                operateur.equals("*") || operateur.equals("/");
+            case LOGIQUE:
+                if (typeGauche != TypeDonnee.BOOLEEN || typeDroite != TypeDonnee.BOOLEEN) {
+                    erreurSemantique("Opérateur logique %s nécessite des booléens",
+                            operation.getLigne(), operation.getValeur());
+                    return TypeDonnee.INCONNU;
+                }
+                return TypeDonnee.BOOLEEN;
+
+            default:
+                // Déterminer le type du résultat
+                return determinerTypeResultat(operateur, typeGauche, typeDroite);
+        }
     }
 
     private TypeDonnee analyserNegation(NoeudAST negation) {
@@ -1118,7 +1343,7 @@ public class AnalyseurSemantique {
         NoeudAST expression = negation.getEnfants().get(0);
         TypeDonnee type = analyserExpression(expression);
 
-        if (negation.getValeur().equals("NON")) {
+        if (negation.getOperateur() == Operateur.NON) {
             // Négation logique
             if (type != TypeDonnee.BOOLEEN) {
                 erreurSemantique("Négation logique applicable seulement aux booléens",
@@ -1139,10 +1364,10 @@ public class AnalyseurSemantique {
 
     private TypeDonnee analyserAppelFonctionExpression(NoeudAST appel) {
         String nomFonction = appel.getValeur();
-        FonctionInfo info = fonctions.get(nomFonction);
+        FonctionInfo info = fonctionVisible(nomFonction);
 
         if (info == null) {
-            erreurSemantique("Fonction non définie: " + nomFonction, appel.getLigne());
+            erreurSemantique("Fonction non définie: %s", appel.getLigne(), nomFonction);
             return TypeDonnee.INCONNU;
         }
 
@@ -1164,13 +1389,27 @@ public class AnalyseurSemantique {
             case "booleen":
                 return TypeDonnee.BOOLEEN;
             default:
-                if (structures.containsKey(typeStr)) {
+                if (structureVisible(typeStr) != null) {
                     return TypeDonnee.STRUCTURE;
                 }
                 return TypeDonnee.INCONNU;
         }
     }
 
+    // Taille d'un type tableau (ex: "entier[10]" -> 10), -1 si elle n'est pas littérale
+    private int extraireTaille(String typeStr) {
+        int debut = typeStr.indexOf('[');
+        int fin = typeStr.indexOf(']');
+        if (debut < 0 || fin <= debut) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(typeStr.substring(debut + 1, fin).trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
     private TypeDonnee determinerTypeNombre(String valeur) {
         // Supprimer les espaces et vérifier le signe
         String val = valeur.trim();
@@ -1226,11 +1465,10 @@ public class AnalyseurSemantique {
         return false;
     }
 
-    private TypeDonnee determinerTypeResultat(String operateur, TypeDonnee type1, TypeDonnee type2) {
+    private TypeDonnee determinerTypeResultat(Operateur operateur, TypeDonnee type1, TypeDonnee type2) {
         // Pour les opérations arithmétiques
-        if (operateur.equals("+") || operateur.equals("-") ||
-                operateur.equals("*") || operateur.equals("/")) {
-            if (type1 == TypeDonnee.CHAINE && operateur.equals("+")) {
+        if (operateur.getCategorie() == Operateur.Categorie.ARITHMETIQUE) {
+            if (type1 == TypeDonnee.CHAINE && operateur == Operateur.PLUS) {
                 return TypeDonnee.CHAINE; // Concaténation
             }
             if (type1 == TypeDonnee.REEL || type2 == TypeDonnee.REEL) {
@@ -1243,78 +1481,80 @@ public class AnalyseurSemantique {
         return TypeDonnee.BOOLEEN;
     }
 
-    private EntreeTableSymboles chercherVariable(String nom) {
-        // Chercher d'abord dans les portées locales (de la plus récente à la plus ancienne)
-        for (int i = pilePortees.size() - 1; i >= 0; i--) {
-            Map<String, EntreeTableSymboles> portee = pilePortees.get(i);
-            if (portee.containsKey(nom)) {
-                return portee.get(nom);
-            }
-        }
+    // En mode parallèle, les tables sont complètes dès le début des corps :
+    // on masque ce qui est déclaré après l'élément analysé
+    private StructureInfo structureVisible(String nom) {
+        StructureInfo info = structures.get(nom);
+        return info != null && info.rang <= rangLimite ? info : null;
+    }
 
-        // Chercher dans les variables globales
-        if (tableSymbolesGlobale.containsKey(nom)) {
-            return tableSymbolesGlobale.get(nom);
-        }
+    private FonctionInfo fonctionVisible(String nom) {
+        FonctionInfo info = fonctions.get(nom);
+        return info != null && info.rang <= rangLimite ? info : null;
+    }
 
-        return null;
+    // La liaison visible est directement dans la case du nom : la locale la
+    // plus interne si elle existe, sinon la globale
+    private EntreeTableSymboles chercherVariable(String nom) {
+        return tableSymboles.chercher(nom);
     }
 
     private void entrerNouvellePortee() {
-        pilePortees.push(new HashMap<>());
+        tableSymboles.entrerPortee();
     }
 
     private void sortirPortee() {
-        if (!pilePortees.isEmpty()) {
-            pilePortees.pop();
-        }
+        tableSymboles.sortirPortee();
     }
 
     private void verifierCompatibiliteTypes(TypeDonnee attendu, TypeDonnee trouve,
                                             String message, int ligne) {
         if (!typesCompatibles(attendu, trouve)) {
-            erreurSemantique(message + " (attendu: " + attendu +
-                    ", trouvé: " + trouve + ")", ligne);
+            erreurSemantique("%s (attendu: %s, trouvé: %s)", ligne, message, attendu, trouve);
         }
     }
 
 
-    private void erreurSemantique(String message, int ligne) {
-        String erreur = String.format("Erreur sémantique ligne %d: %s", ligne, message);
-        erreursSemantiques.add(erreur);
-        System.err.println(" ERREUR SÉMANTIQUE");
-        System.err.println("   Ligne " + ligne + ": " + message);
+    // Le message n'est formaté qu'au rendu : les arguments sont gardés tels quels
+    private void erreurSemantique(String modele, int ligne, Object... arguments) {
+        signaler(Diagnostic.erreur(Diagnostic.Phase.SEMANTIQUE, "SEMANTIQUE",
+                ligne, modele, arguments));
     }
 
-    private void avertissement(String message, int ligne) {
-        String avert = String.format("Avertissement ligne %d: %s", ligne, message);
-        avertissements.add(avert);
-        System.out.println(" AVERTISSEMENT");
-        System.out.println("   Ligne " + ligne + ": " + message);
+    // Aussi utilisé par les passes d'optimisation pour signaler ce qu'elles retirent
+    void avertissement(String modele, int ligne, Object... arguments) {
+        signaler(Diagnostic.avertissement(Diagnostic.Phase.SEMANTIQUE, "AVERTISSEMENT",
+                ligne, modele, arguments));
+    }
+
+    private void signaler(Diagnostic message) {
+        if (differe) {
+            journal.add(message);
+        } else {
+            emettre(message);
+        }
+    }
+
+    // Peut lever ArretCompilation quand la limite d'erreurs est atteinte
+    private void emettre(Diagnostic message) {
+        diagnostics.signaler(message);
     }
 
 
     public boolean aErreurs() {
-        return !erreursSemantiques.isEmpty();
+        return diagnostics.aErreurs(Diagnostic.Phase.SEMANTIQUE);
+    }
+
+    public Diagnostics getDiagnostics() {
+        return diagnostics;
     }
 
+    // Les erreurs et avertissements sont rendus par RenduDiagnostics
     public void afficherResultats() {
-        if (aErreurs()) {
-            System.err.println("\n=== ERREURS SÉMANTIQUES ===");
-            for (String erreur : erreursSemantiques) {
-                System.err.println(erreur);
-            }
-        } else {
+        if (!aErreurs()) {
             System.out.println("\n=== ANALYSE SÉMANTIQUE TERMINÉE AVEC SUCCÈS ===");
         }
 
-        if (!avertissements.isEmpty()) {
-            System.out.println("\n=== AVERTISSEMENTS ===");
-            for (String avert : avertissements) {
-                System.out.println(avert);
-            }
-        }
-
         // Afficher la table des symboles
         System.out.println("\n=== TABLE DES SYMBOLES GLOBAUX ===");
         for (EntreeTableSymboles entree : tableSymbolesGlobale.values()) {
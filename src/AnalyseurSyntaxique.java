@@ -1,13 +1,14 @@
 // AnalyseurSyntaxique.java
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
 
 public class AnalyseurSyntaxique {
     private analyseurLexical analyseur;
     private SymboleCourant tokenCourant;
     private NoeudAST arbreSyntaxique;
-    private List<String> erreursSyntaxiques;
+    private Diagnostics diagnostics; // celui de l'analyseur lexical
+    // Fin du dernier token consommé (pour fermer l'étendue des nœuds)
+    private int finPrecedente;
+    private int colonneFinPrecedente;
 
     public AnalyseurSyntaxique(analyseurLexical analyseur) throws IOException {
         this.analyseur = analyseur;
@@ -15,7 +16,7 @@ public class AnalyseurSyntaxique {
         analyseur.symboleSuivant();
         this.tokenCourant = analyseur.getSymboleCourant();
         this.arbreSyntaxique = new NoeudAST(NoeudAST.TypeNoeud.PROGRAMME);
-        this.erreursSyntaxiques = new ArrayList<>();
+        this.diagnostics = analyseur.getDiagnostics();
     }
 
     public void analyser() throws IOException {
@@ -26,6 +27,8 @@ public class AnalyseurSyntaxique {
     }
 
     private void avancer() throws IOException {
+        finPrecedente = tokenCourant.fin;
+        colonneFinPrecedente = tokenCourant.colonneFin;
         analyseur.symboleSuivant();
         tokenCourant = analyseur.getSymboleCourant();
     }
@@ -42,42 +45,95 @@ public class AnalyseurSyntaxique {
         return tokenCourant.code == type;
     }
 
+    // Le nœud commence au token courant
+    private NoeudAST debuter(NoeudAST noeud) {
+        return debuter(noeud, tokenCourant);
+    }
+
+    private NoeudAST debuter(NoeudAST noeud, SymboleCourant token) {
+        noeud.setDebut(token.debut, token.colonne);
+        return noeud;
+    }
+
+    // Le nœud se termine au dernier token consommé
+    private NoeudAST terminer(NoeudAST noeud) {
+        if (noeud != null) {
+            noeud.setFin(finPrecedente, colonneFinPrecedente);
+        }
+        return noeud;
+    }
+
+    // Nœud couvrant exactement le token courant (identificateurs, littéraux)
+    private NoeudAST feuille(NoeudAST.TypeNoeud type) {
+        return feuille(type, tokenCourant);
+    }
+
+    private NoeudAST feuille(NoeudAST.TypeNoeud type, SymboleCourant token) {
+        NoeudAST noeud = new NoeudAST(type, token.nom, token.ligne);
+        noeud.setDebut(token.debut, token.colonne);
+        noeud.setFin(token.fin, token.colonneFin);
+        return noeud;
+    }
+
+    // Opération binaire : de l'opérande gauche à l'opérande droit, ligne de l'opérateur
+    private NoeudAST operationBinaire(SymboleCourant operateur, NoeudAST gauche, NoeudAST droite) {
+        NoeudAST operation = new NoeudAST(NoeudAST.TypeNoeud.EXPRESSION_BINAIRE,
+                operateur.nom, operateur.ligne);
+        operation.setOperateur(Operateur.depuisToken(operateur.code));
+        if (gauche != null) {
+            operation.setDebut(gauche.getDebut(), gauche.getColonneDebut());
+        } else {
+            debuter(operation, operateur);
+        }
+        operation.ajouterEnfant(gauche);
+        operation.ajouterEnfant(droite);
+        return terminer(operation);
+    }
+
     private void erreurSyntaxique(String message) {
-        String erreur = String.format("Erreur syntaxique ligne %d: %s (Token: '%s')",
-                tokenCourant.ligne, message, tokenCourant.nom);
-        erreursSyntaxiques.add(erreur);
-        System.err.println(" ERREUR SYNTAXIQUE");
-        System.err.println("   Ligne " + tokenCourant.ligne + ": " + message);
-        System.err.println("   Token actuel: " + tokenCourant.nom);
+        erreurSyntaxique(message, null);
     }
 
+    // Le token courant est réutilisé par le lexer : sa position et son texte
+    // sont recopiés dans le diagnostic
+    private void erreurSyntaxique(String message, String note) {
+        diagnostics.signaler(Diagnostic.erreur(Diagnostic.Phase.SYNTAXIQUE, "SYNTAXE",
+                        tokenCourant.ligne, message)
+                .avecPosition(tokenCourant.colonne, tokenCourant.debut, tokenCourant.fin)
+                .avecContexte(tokenCourant.nom)
+                .avecNote(note));
+    }
+
+    private static final String AIDE_DIRECTIVE =
+            "ERREUR CRITIQUE : DIRECTIVE DE LANGAGE MANQUANTE\n" +
+            "\nVotre algorithme DOIT commencer par une directive de langage.\n" +
+            "\nExemples de directives valides :\n" +
+            "  • #PYTHON  → Pour générer du code Python\n" +
+            "  • #JAVA    → Pour générer du code Java\n" +
+            "  • #C       → Pour générer du code C\n" +
+            "\nFormat attendu de votre fichier :\n" +
+            "┌─────────────────────────────────\n" +
+            "│ #PYTHON\n" +
+            "│ algorithme MonAlgorithme\n" +
+            "│ var\n" +
+            "│   x : entier;\n" +
+            "│ debut\n" +
+            "│   ...\n" +
+            "│ fin\n" +
+            "└─────────────────────────────────\n" +
+            "\n⚠️  Ajoutez la directive au début de votre fichier et réessayez.\n";
+
     // Règle: PROGRAMME ::= DIRECTIVE_LANGAGE ALGORITHME DECLARATIONS DEBUT INSTRUCTIONS FIN
     private void programme() throws IOException {
         // Directive de langage OBLIGATOIRE
+        debuter(arbreSyntaxique);
         if (verifier(TokenType.LANGAGE_TOKEN)) {
-            NoeudAST directive = new NoeudAST(NoeudAST.TypeNoeud.DIRECTIVE_LANGAGE,
-                    tokenCourant.nom, tokenCourant.ligne);
+            NoeudAST directive = feuille(NoeudAST.TypeNoeud.DIRECTIVE_LANGAGE);
             arbreSyntaxique.ajouterEnfant(directive);
             avancer();
         } else {
-            erreurSyntaxique("Directive de langage OBLIGATOIRE manquante (ex: #PYTHON, #JAVA, #C)");
-            System.err.println("ERREUR CRITIQUE : DIRECTIVE DE LANGAGE MANQUANTE");
-            System.err.println("\nVotre algorithme DOIT commencer par une directive de langage.");
-            System.err.println("\nExemples de directives valides :");
-            System.err.println("  • #PYTHON  → Pour générer du code Python");
-            System.err.println("  • #JAVA    → Pour générer du code Java");
-            System.err.println("  • #C       → Pour générer du code C");
-            System.err.println("\nFormat attendu de votre fichier :");
-            System.err.println("┌─────────────────────────────────");
-            System.err.println("│ #PYTHON");
-            System.err.println("│ algorithme MonAlgorithme");
-            System.err.println("│ var");
-            System.err.println("│   x : entier;");
-            System.err.println("│ debut");
-            System.err.println("│   ...");
-            System.err.println("│ fin");
-            System.err.println("└─────────────────────────────────");
-            System.err.println("\n⚠️  Ajoutez la directive au début de votre fichier et réessayez.\n");
+            erreurSyntaxique("Directive de langage OBLIGATOIRE manquante (ex: #PYTHON, #JAVA, #C)",
+                    AIDE_DIRECTIVE);
             return;
         }
 
@@ -113,6 +169,7 @@ public class AnalyseurSyntaxique {
         if (!consommer(TokenType.FIN_TOKEN)) {
             erreurSyntaxique("'FIN' attendu");
         }
+        terminer(arbreSyntaxique);
     }
 
     // Règle: DECLARATIONS ::= (DECL_STRUCTURE | DECL_FONCTION | SECTION_VAR)*
@@ -137,8 +194,8 @@ public class AnalyseurSyntaxique {
 
     // Règle: SECTION_VAR ::= VAR (DECL_VARIABLE)+
     private void sectionVar() throws IOException {
-        NoeudAST sectionVar = new NoeudAST(NoeudAST.TypeNoeud.SECTION_VAR,
-                "", tokenCourant.ligne);
+        NoeudAST sectionVar = debuter(new NoeudAST(NoeudAST.TypeNoeud.SECTION_VAR,
+                "", tokenCourant.ligne));
         avancer(); // VAR
 
         // Lire au moins une déclaration de variable
@@ -161,13 +218,13 @@ public class AnalyseurSyntaxique {
             }
         } while (true);
 
-        arbreSyntaxique.ajouterEnfant(sectionVar);
+        arbreSyntaxique.ajouterEnfant(terminer(sectionVar));
     }
 
     // Règle: DECL_VARIABLE ::= LISTE_IDENTIFICATEURS : TYPE ;
     private void declarationVariableSansVar(NoeudAST parent) throws IOException {
-        NoeudAST decl = new NoeudAST(NoeudAST.TypeNoeud.DECLARATION_VARIABLE,
-                "", tokenCourant.ligne);
+        NoeudAST decl = debuter(new NoeudAST(NoeudAST.TypeNoeud.DECLARATION_VARIABLE,
+                "", tokenCourant.ligne));
 
         // Liste d'identificateurs
         NoeudAST listeId = listeIdentificateurs();
@@ -187,13 +244,13 @@ public class AnalyseurSyntaxique {
             erreurSyntaxique("';' attendu");
         }
 
-        parent.ajouterEnfant(decl);
+        parent.ajouterEnfant(terminer(decl));
     }
 
     // Règle: DECL_STRUCTURE ::= STRUCTURE IDENTIFICATEUR CHAMPS_STRUCTURE FINSTRUCTURE
     private void declarationStructure() throws IOException {
-        NoeudAST structure = new NoeudAST(NoeudAST.TypeNoeud.DECLARATION_STRUCTURE,
-                "", tokenCourant.ligne);
+        NoeudAST structure = debuter(new NoeudAST(NoeudAST.TypeNoeud.DECLARATION_STRUCTURE,
+                "", tokenCourant.ligne));
         avancer(); // STRUCTURE
 
         if (!verifier(TokenType.ID_TOKEN)) {
@@ -213,12 +270,12 @@ public class AnalyseurSyntaxique {
             erreurSyntaxique("'FINSTRUCTURE' attendu");
         }
 
-        arbreSyntaxique.ajouterEnfant(structure);
+        arbreSyntaxique.ajouterEnfant(terminer(structure));
     }
 
     private void declarationVariableStructure(NoeudAST parent) throws IOException {
-        NoeudAST decl = new NoeudAST(NoeudAST.TypeNoeud.CHAMP_STRUCTURE,
-                "", tokenCourant.ligne);
+        NoeudAST decl = debuter(new NoeudAST(NoeudAST.TypeNoeud.CHAMP_STRUCTURE,
+                "", tokenCourant.ligne));
 
         // Liste d'identificateurs
         NoeudAST listeId = listeIdentificateurs();
@@ -238,14 +295,14 @@ public class AnalyseurSyntaxique {
             erreurSyntaxique("';' attendu");
         }
 
-        parent.ajouterEnfant(decl);
+        parent.ajouterEnfant(terminer(decl));
     }
 
     // Règle: DECL_FONCTION ::= FONCTION IDENTIFICATEUR ( [PARAMETRES] ) : TYPE
 //                          [SECTION_VAR] DEBUT INSTRUCTIONS RETOUR [EXPRESSION] FINFONCTION
     private void declarationFonction() throws IOException {
-        NoeudAST fonction = new NoeudAST(NoeudAST.TypeNoeud.DECLARATION_FONCTION,
-                "", tokenCourant.ligne);
+        NoeudAST fonction = debuter(new NoeudAST(NoeudAST.TypeNoeud.DECLARATION_FONCTION,
+                "", tokenCourant.ligne));
         avancer(); // FONCTION
 
         if (!verifier(TokenType.ID_TOKEN)) {
@@ -295,6 +352,7 @@ public class AnalyseurSyntaxique {
             fonction.ajouterEnfant(corps);
         }
 
+        SymboleCourant motRetour = tokenCourant.copier();
         if (!consommer(TokenType.RETOUR_TOKEN)) {
             erreurSyntaxique("'RETOUR' attendu dans la fonction");
         } else {
@@ -304,9 +362,10 @@ public class AnalyseurSyntaxique {
                 erreurSyntaxique("Expression de retour attendue après RETOUR");
             } else {
                 // Créer un nœud RETOUR qui contient l'expression
-                NoeudAST retourNode = new NoeudAST(NoeudAST.TypeNoeud.RETOUR, "", tokenCourant.ligne);
+                NoeudAST retourNode = debuter(new NoeudAST(NoeudAST.TypeNoeud.RETOUR,
+                        "", motRetour.ligne), motRetour);
                 retourNode.ajouterEnfant(exprRetour);
-                fonction.ajouterEnfant(retourNode);
+                fonction.ajouterEnfant(terminer(retourNode));
             }
         }
 
@@ -314,12 +373,12 @@ public class AnalyseurSyntaxique {
             erreurSyntaxique("'FinFonction' attendu");
         }
 
-        arbreSyntaxique.ajouterEnfant(fonction);
+        arbreSyntaxique.ajouterEnfant(terminer(fonction));
     }
 
     private NoeudAST blocInstructionsFonction() throws IOException {
-        NoeudAST bloc = new NoeudAST(NoeudAST.TypeNoeud.BLOC_INSTRUCTIONS,
-                "", tokenCourant.ligne);
+        NoeudAST bloc = debuter(new NoeudAST(NoeudAST.TypeNoeud.BLOC_INSTRUCTIONS,
+                "", tokenCourant.ligne));
 
         // Lire les instructions jusqu'à RETOUR
         while (!verifier(TokenType.RETOUR_TOKEN) &&
@@ -342,13 +401,13 @@ public class AnalyseurSyntaxique {
             }
         }
 
-        return bloc.getEnfants().isEmpty() ? null : bloc;
+        return bloc.getEnfants().isEmpty() ? null : terminer(bloc);
     }
 
     // SECTION_VAR dans une fonction
     private void sectionVarLocale(NoeudAST parent) throws IOException {
-        NoeudAST sectionVar = new NoeudAST(NoeudAST.TypeNoeud.SECTION_VAR,
-                "", tokenCourant.ligne);
+        NoeudAST sectionVar = debuter(new NoeudAST(NoeudAST.TypeNoeud.SECTION_VAR,
+                "", tokenCourant.ligne));
         avancer(); // VAR
 
         // Lire au moins une déclaration de variable
@@ -371,22 +430,22 @@ public class AnalyseurSyntaxique {
             }
         } while (true);
 
-        parent.ajouterEnfant(sectionVar);
+        parent.ajouterEnfant(terminer(sectionVar));
     }
 
     // Règle: PARAMETRES ::= PARAMETRE ( , PARAMETRE )*
     private NoeudAST parametresDeclaration() throws IOException {
-        NoeudAST listeParams = new NoeudAST(NoeudAST.TypeNoeud.LISTE_PARAMETRES,
-                "", tokenCourant.ligne);
+        NoeudAST listeParams = debuter(new NoeudAST(NoeudAST.TypeNoeud.LISTE_PARAMETRES,
+                "", tokenCourant.ligne));
 
         do {
             if (!verifier(TokenType.ID_TOKEN)) {
                 erreurSyntaxique("Identificateur de paramètre attendu");
-                return listeParams;
+                return terminer(listeParams);
             }
 
-            NoeudAST param = new NoeudAST(NoeudAST.TypeNoeud.PARAMETRE,
-                    tokenCourant.nom, tokenCourant.ligne);
+            NoeudAST param = debuter(new NoeudAST(NoeudAST.TypeNoeud.PARAMETRE,
+                    tokenCourant.nom, tokenCourant.ligne));
             avancer();
 
             if (!consommer(TokenType.DP_TOKEN)) {
@@ -398,19 +457,19 @@ public class AnalyseurSyntaxique {
                 param.ajouterEnfant(type);
             }
 
-            listeParams.ajouterEnfant(param);
+            listeParams.ajouterEnfant(terminer(param));
 
             if (!consommer(TokenType.VIR_TOKEN)) {
                 break;
             }
         } while (true);
 
-        return listeParams;
+        return terminer(listeParams);
     }
 
     private void declarationProcedure() throws IOException {
-        NoeudAST procedure = new NoeudAST(NoeudAST.TypeNoeud.DECLARATION_PROCEDURE,
-                "", tokenCourant.ligne);
+        NoeudAST procedure = debuter(new NoeudAST(NoeudAST.TypeNoeud.DECLARATION_PROCEDURE,
+                "", tokenCourant.ligne));
         avancer(); // PROCEDURE
 
         if (!verifier(TokenType.ID_TOKEN)) {
@@ -456,12 +515,12 @@ public class AnalyseurSyntaxique {
             erreurSyntaxique("'FinProcedure' attendu");
         }
 
-        arbreSyntaxique.ajouterEnfant(procedure);
+        arbreSyntaxique.ajouterEnfant(terminer(procedure));
     }
 
     private NoeudAST blocInstructionsProcedure() throws IOException {
-        NoeudAST bloc = new NoeudAST(NoeudAST.TypeNoeud.BLOC_INSTRUCTIONS,
-                "", tokenCourant.ligne);
+        NoeudAST bloc = debuter(new NoeudAST(NoeudAST.TypeNoeud.BLOC_INSTRUCTIONS,
+                "", tokenCourant.ligne));
 
         // Lire les instructions jusqu'à FINPROCEDURE
         while (!verifier(TokenType.FINPROCEDURE_TOKEN) &&
@@ -481,21 +540,20 @@ public class AnalyseurSyntaxique {
             }
         }
 
-        return bloc.getEnfants().isEmpty() ? null : bloc;
+        return bloc.getEnfants().isEmpty() ? null : terminer(bloc);
     }
 
     // Règle: LISTE_IDENTIFICATEURS ::= IDENTIFICATEUR ( , IDENTIFICATEUR )*
     private NoeudAST listeIdentificateurs() throws IOException {
-        NoeudAST liste = new NoeudAST(NoeudAST.TypeNoeud.LISTE_IDENTIFICATEURS,
-                "", tokenCourant.ligne);
+        NoeudAST liste = debuter(new NoeudAST(NoeudAST.TypeNoeud.LISTE_IDENTIFICATEURS,
+                "", tokenCourant.ligne));
 
         if (!verifier(TokenType.ID_TOKEN)) {
             erreurSyntaxique("Identificateur attendu");
             return liste;
         }
 
-        liste.ajouterEnfant(new NoeudAST(NoeudAST.TypeNoeud.VARIABLE,
-                tokenCourant.nom, tokenCourant.ligne));
+        liste.ajouterEnfant(feuille(NoeudAST.TypeNoeud.VARIABLE));
         avancer();
 
         while (consommer(TokenType.VIR_TOKEN)) {
@@ -504,12 +562,11 @@ public class AnalyseurSyntaxique {
                 break;
             }
 
-            liste.ajouterEnfant(new NoeudAST(NoeudAST.TypeNoeud.VARIABLE,
-                    tokenCourant.nom, tokenCourant.ligne));
+            liste.ajouterEnfant(feuille(NoeudAST.TypeNoeud.VARIABLE));
             avancer();
         }
 
-        return liste;
+        return terminer(liste);
     }
 
     // Règle: TYPE ::= ENTIER | REEL | CHAINE | BOOLEEN | IDENTIFICATEUR
@@ -522,8 +579,7 @@ public class AnalyseurSyntaxique {
                 typeToken == TokenType.BOOLEEN_TOKEN ||
                 typeToken == TokenType.ID_TOKEN) {
 
-            NoeudAST type = new NoeudAST(NoeudAST.TypeNoeud.TYPE,
-                    tokenCourant.nom, tokenCourant.ligne);
+            NoeudAST type = feuille(NoeudAST.TypeNoeud.TYPE);
             avancer();
 
             // Vérifier si c'est un tableau (suivi de [nombre])
@@ -539,6 +595,7 @@ public class AnalyseurSyntaxique {
                 if (!consommer(TokenType.CF_TOKEN)) {
                     erreurSyntaxique("']' attendu");
                 }
+                terminer(type);
             }
 
             return type;
@@ -550,8 +607,8 @@ public class AnalyseurSyntaxique {
 
     // Règle: INSTRUCTIONS ::= INSTRUCTION ( ; INSTRUCTION )*
     private NoeudAST blocInstructions() throws IOException {
-        NoeudAST bloc = new NoeudAST(NoeudAST.TypeNoeud.BLOC_INSTRUCTIONS,
-                "", tokenCourant.ligne);
+        NoeudAST bloc = debuter(new NoeudAST(NoeudAST.TypeNoeud.BLOC_INSTRUCTIONS,
+                "", tokenCourant.ligne));
 
         // Lire les instructions jusqu'à atteindre une fin de bloc
         while (!verifier(TokenType.FIN_TOKEN) &&
@@ -572,7 +629,7 @@ public class AnalyseurSyntaxique {
             consommer(TokenType.PV_TOKEN);
         }
 
-        return bloc;
+        return terminer(bloc);
     }
 
     // Modifier la méthode instruction() pour gérer RETOUR
@@ -592,20 +649,19 @@ public class AnalyseurSyntaxique {
         switch (tokenCourant.code) {
             case ID_TOKEN:
                 // Peut être affectation, appel de fonction, ou accès à un champ
-                String nom = tokenCourant.nom;
-                int ligne = tokenCourant.ligne;
+                SymboleCourant identificateur = tokenCourant.copier();
                 avancer();
 
                 // Vérifier si c'est un accès à un champ (avec point)
                 if (verifier(TokenType.PT_TOKEN)) {
                     // C'est une affectation à un champ de structure
-                    return affectationChamp(nom, ligne);
+                    return affectationChamp(identificateur);
                 } else if (verifier(TokenType.AFF_TOKEN)) {
-                    return affectation(nom, ligne);
+                    return affectation(identificateur);
                 } else if (verifier(TokenType.CO_TOKEN)) {
-                    return affectationTableau(nom, ligne);
+                    return affectationTableau(identificateur);
                 } else if (verifier(TokenType.PO_TOKEN)) {
-                    return appelFonctionInstruction(nom, ligne);
+                    return appelFonctionInstruction(identificateur);
                 } else {
                     erreurSyntaxique("'<-', '.', '(' ou '[' attendu après identificateur");
                     return null;
@@ -635,11 +691,12 @@ public class AnalyseurSyntaxique {
         }
     }
 
-    private NoeudAST affectationChamp(String nomStructure, int ligne) throws IOException {
-        NoeudAST affect = new NoeudAST(NoeudAST.TypeNoeud.AFFECTATION, nomStructure, ligne);
+    private NoeudAST affectationChamp(SymboleCourant structure) throws IOException {
+        NoeudAST affect = debuter(new NoeudAST(NoeudAST.TypeNoeud.AFFECTATION,
+                structure.nom, structure.ligne), structure);
 
         // Lire l'accès au champ
-        NoeudAST acces = accesChamp(nomStructure, ligne);
+        NoeudAST acces = accesChamp(structure);
         if (acces != null) {
             affect.ajouterEnfant(acces);
         }
@@ -655,13 +712,13 @@ public class AnalyseurSyntaxique {
             affect.ajouterEnfant(expr);
         }
 
-        return affect;
+        return terminer(affect);
     }
 
     // Règle: AFFECTATION ::= VARIABLE <- EXPRESSION ;
-    private NoeudAST affectation(String nomVariable, int ligne) throws IOException {
-        NoeudAST affect = new NoeudAST(NoeudAST.TypeNoeud.AFFECTATION,
-                nomVariable, ligne);
+    private NoeudAST affectation(SymboleCourant variable) throws IOException {
+        NoeudAST affect = debuter(new NoeudAST(NoeudAST.TypeNoeud.AFFECTATION,
+                variable.nom, variable.ligne), variable);
         avancer(); // <-
 
         NoeudAST expr = expression();
@@ -669,16 +726,16 @@ public class AnalyseurSyntaxique {
             affect.ajouterEnfant(expr);
         }
 
-        return affect;
+        return terminer(affect);
     }
 
-    private NoeudAST affectationTableau(String nomTableau, int ligne) throws IOException {
-        NoeudAST affect = new NoeudAST(NoeudAST.TypeNoeud.AFFECTATION,
-                nomTableau, ligne);
+    private NoeudAST affectationTableau(SymboleCourant tableau) throws IOException {
+        NoeudAST affect = debuter(new NoeudAST(NoeudAST.TypeNoeud.AFFECTATION,
+                tableau.nom, tableau.ligne), tableau);
 
         // Accès tableau
-        NoeudAST acces = new NoeudAST(NoeudAST.TypeNoeud.ACCES_TABLEAU,
-                nomTableau, ligne);
+        NoeudAST acces = debuter(new NoeudAST(NoeudAST.TypeNoeud.ACCES_TABLEAU,
+                tableau.nom, tableau.ligne), tableau);
         avancer(); // [
 
         NoeudAST indice = expression();
@@ -690,7 +747,7 @@ public class AnalyseurSyntaxique {
             erreurSyntaxique("']' attendu");
         }
 
-        affect.ajouterEnfant(acces);
+        affect.ajouterEnfant(terminer(acces));
 
         if (!consommer(TokenType.AFF_TOKEN)) {
             erreurSyntaxique("'<-' attendu");
@@ -701,13 +758,13 @@ public class AnalyseurSyntaxique {
             affect.ajouterEnfant(expr);
         }
 
-        return affect;
+        return terminer(affect);
     }
 
     // Règle: CONDITION ::= SI CONDITION_EXPRESSION ALORS INSTRUCTIONS [ SINON INSTRUCTIONS ] FINSI
     private NoeudAST condition() throws IOException {
-        NoeudAST cond = new NoeudAST(NoeudAST.TypeNoeud.CONDITION,
-                "", tokenCourant.ligne);
+        NoeudAST cond = debuter(new NoeudAST(NoeudAST.TypeNoeud.CONDITION,
+                "", tokenCourant.ligne));
         avancer(); // SI
 
         // Condition expression
@@ -739,7 +796,7 @@ public class AnalyseurSyntaxique {
             erreurSyntaxique("'FINSI' attendu");
         }
 
-        return cond;
+        return terminer(cond);
     }
 
     private boolean estOperateurComparaison(TokenType type) {
@@ -759,8 +816,8 @@ public class AnalyseurSyntaxique {
     // Règle: BOUCLE_POUR ::= POUR IDENTIFICATEUR <- EXPRESSION JUSQUA EXPRESSION
     //                        FAIRE INSTRUCTIONS FINPOUR
     private NoeudAST bouclePour() throws IOException {
-        NoeudAST boucle = new NoeudAST(NoeudAST.TypeNoeud.BOUCLE_POUR,
-                "", tokenCourant.ligne);
+        NoeudAST boucle = debuter(new NoeudAST(NoeudAST.TypeNoeud.BOUCLE_POUR,
+                "", tokenCourant.ligne));
         avancer(); // POUR
 
         if (!verifier(TokenType.ID_TOKEN)) {
@@ -805,13 +862,13 @@ public class AnalyseurSyntaxique {
             erreurSyntaxique("'FINPOUR' attendu");
         }
 
-        return boucle;
+        return terminer(boucle);
     }
 
     // Règle: BOUCLE_TANTQUE ::= TANTQUE CONDITION_EXPRESSION FAIRE INSTRUCTIONS FINTANTQUE
     private NoeudAST boucleTantque() throws IOException {
-        NoeudAST boucle = new NoeudAST(NoeudAST.TypeNoeud.BOUCLE_TANTQUE,
-                "", tokenCourant.ligne);
+        NoeudAST boucle = debuter(new NoeudAST(NoeudAST.TypeNoeud.BOUCLE_TANTQUE,
+                "", tokenCourant.ligne));
         avancer(); // TANTQUE
 
         // Condition expression
@@ -834,13 +891,13 @@ public class AnalyseurSyntaxique {
             erreurSyntaxique("'FINTANTQUE' attendu");
         }
 
-        return boucle;
+        return terminer(boucle);
     }
 
     // Règle: BOUCLE_REPETER ::= REPETER INSTRUCTIONS JUSQUA EXPRESSION
     private NoeudAST boucleRepeter() throws IOException {
-        NoeudAST boucle = new NoeudAST(NoeudAST.TypeNoeud.BOUCLE_REPETER,
-                "", tokenCourant.ligne);
+        NoeudAST boucle = debuter(new NoeudAST(NoeudAST.TypeNoeud.BOUCLE_REPETER,
+                "", tokenCourant.ligne));
         avancer(); // REPETER
 
         // Instructions
@@ -859,13 +916,13 @@ public class AnalyseurSyntaxique {
             boucle.ajouterEnfant(condition);
         }
 
-        return boucle;
+        return terminer(boucle);
     }
 
     // Règle: ECRIRE ::= ECRIRE EXPRESSION ( , EXPRESSION )* ;
     private NoeudAST ecrire() throws IOException {
-        NoeudAST ecrire = new NoeudAST(NoeudAST.TypeNoeud.ECRIRE,
-                "", tokenCourant.ligne);
+        NoeudAST ecrire = debuter(new NoeudAST(NoeudAST.TypeNoeud.ECRIRE,
+                "", tokenCourant.ligne));
         avancer(); // ECRIRE
 
         // Expression
@@ -881,13 +938,13 @@ public class AnalyseurSyntaxique {
             }
         }
 
-        return ecrire;
+        return terminer(ecrire);
     }
 
     // Règle: LIRE ::= LIRE IDENTIFICATEUR ( , IDENTIFICATEUR )* ;
     private NoeudAST lire() throws IOException {
-        NoeudAST lire = new NoeudAST(NoeudAST.TypeNoeud.LIRE,
-                "", tokenCourant.ligne);
+        NoeudAST lire = debuter(new NoeudAST(NoeudAST.TypeNoeud.LIRE,
+                "", tokenCourant.ligne));
         avancer(); // LIRE
 
         if (!verifier(TokenType.ID_TOKEN)) {
@@ -895,8 +952,7 @@ public class AnalyseurSyntaxique {
             return null;
         }
 
-        lire.ajouterEnfant(new NoeudAST(NoeudAST.TypeNoeud.VARIABLE,
-                tokenCourant.nom, tokenCourant.ligne));
+        lire.ajouterEnfant(feuille(NoeudAST.TypeNoeud.VARIABLE));
         avancer();
 
         while (consommer(TokenType.VIR_TOKEN)) {
@@ -905,17 +961,16 @@ public class AnalyseurSyntaxique {
                 break;
             }
 
-            lire.ajouterEnfant(new NoeudAST(NoeudAST.TypeNoeud.VARIABLE,
-                    tokenCourant.nom, tokenCourant.ligne));
+            lire.ajouterEnfant(feuille(NoeudAST.TypeNoeud.VARIABLE));
             avancer();
         }
 
-        return lire;
+        return terminer(lire);
     }
 
-    private NoeudAST appelFonctionInstruction(String nomFonction, int ligne) throws IOException {
-        NoeudAST appel = new NoeudAST(NoeudAST.TypeNoeud.APPEL_FONCTION,
-                nomFonction, ligne);
+    private NoeudAST appelFonctionInstruction(SymboleCourant fonction) throws IOException {
+        NoeudAST appel = debuter(new NoeudAST(NoeudAST.TypeNoeud.APPEL_FONCTION,
+                fonction.nom, fonction.ligne), fonction);
 
         avancer(); // (
 
@@ -931,12 +986,12 @@ public class AnalyseurSyntaxique {
             erreurSyntaxique("')' attendu");
         }
 
-        return appel;
+        return terminer(appel);
     }
 
     private NoeudAST argumentsAppel() throws IOException {
-        NoeudAST listeArgs = new NoeudAST(NoeudAST.TypeNoeud.LISTE_ARGUMENTS,
-                "", tokenCourant.ligne);
+        NoeudAST listeArgs = debuter(new NoeudAST(NoeudAST.TypeNoeud.LISTE_ARGUMENTS,
+                "", tokenCourant.ligne));
 
         NoeudAST expr = expression();
         if (expr != null) {
@@ -950,7 +1005,7 @@ public class AnalyseurSyntaxique {
             }
         }
 
-        return listeArgs;
+        return terminer(listeArgs);
     }
 
     // NOUVELLES MÉTHODES D'EXPRESSION
@@ -964,16 +1019,11 @@ public class AnalyseurSyntaxique {
         NoeudAST gauche = expressionComp();
 
         while (verifier(TokenType.ET_TOKEN) || verifier(TokenType.OU_TOKEN)) {
-            String operateur = tokenCourant.nom;
+            SymboleCourant operateur = tokenCourant.copier();
             avancer();
 
             NoeudAST droite = expressionComp();
-
-            NoeudAST operation = new NoeudAST(NoeudAST.TypeNoeud.EXPRESSION_BINAIRE,
-                    operateur, tokenCourant.ligne);
-            operation.ajouterEnfant(gauche);
-            operation.ajouterEnfant(droite);
-            gauche = operation;
+            gauche = operationBinaire(operateur, gauche, droite);
         }
 
         return gauche;
@@ -984,16 +1034,11 @@ public class AnalyseurSyntaxique {
         NoeudAST gauche = expressionArith();
 
         while (estOperateurComparaison(tokenCourant.code)) {
-            String operateur = tokenCourant.nom;
+            SymboleCourant operateur = tokenCourant.copier();
             avancer();
 
             NoeudAST droite = expressionArith();
-
-            NoeudAST operation = new NoeudAST(NoeudAST.TypeNoeud.EXPRESSION_BINAIRE,
-                    operateur, tokenCourant.ligne);
-            operation.ajouterEnfant(gauche);
-            operation.ajouterEnfant(droite);
-            gauche = operation;
+            gauche = operationBinaire(operateur, gauche, droite);
         }
 
         return gauche;
@@ -1004,16 +1049,11 @@ public class AnalyseurSyntaxique {
         NoeudAST gauche = terme();
 
         while (verifier(TokenType.PLUS_TOKEN) || verifier(TokenType.MOINS_TOKEN)) {
-            String operateur = tokenCourant.nom;
+            SymboleCourant operateur = tokenCourant.copier();
             avancer();
 
             NoeudAST droite = terme();
-
-            NoeudAST operation = new NoeudAST(NoeudAST.TypeNoeud.EXPRESSION_BINAIRE,
-                    operateur, tokenCourant.ligne);
-            operation.ajouterEnfant(gauche);
-            operation.ajouterEnfant(droite);
-            gauche = operation;
+            gauche = operationBinaire(operateur, gauche, droite);
         }
 
         return gauche;
@@ -1024,16 +1064,11 @@ public class AnalyseurSyntaxique {
         NoeudAST gauche = facteur();
 
         while (verifier(TokenType.MULT_TOKEN) || verifier(TokenType.DIV_TOKEN)) {
-            String operateur = tokenCourant.nom;
+            SymboleCourant operateur = tokenCourant.copier();
             avancer();
 
             NoeudAST droite = facteur();
-
-            NoeudAST operation = new NoeudAST(NoeudAST.TypeNoeud.EXPRESSION_BINAIRE,
-                    operateur, tokenCourant.ligne);
-            operation.ajouterEnfant(gauche);
-            operation.ajouterEnfant(droite);
-            gauche = operation;
+            gauche = operationBinaire(operateur, gauche, droite);
         }
 
         return gauche;
@@ -1044,36 +1079,32 @@ public class AnalyseurSyntaxique {
         switch (tokenCourant.code) {
             case NUM_ENTIER_TOKEN:
             case NUM_REEL_TOKEN:
-                NoeudAST nombre = new NoeudAST(NoeudAST.TypeNoeud.NOMBRE,
-                        tokenCourant.nom, tokenCourant.ligne);
+                NoeudAST nombre = feuille(NoeudAST.TypeNoeud.NOMBRE);
                 avancer();
                 return nombre;
 
             case ID_TOKEN:
-                String nom = tokenCourant.nom;
-                int ligne = tokenCourant.ligne;
+                SymboleCourant identificateur = tokenCourant.copier();
                 avancer();
 
                 if (verifier(TokenType.PT_TOKEN)) {
-                    return accesChamp(nom, ligne);
+                    return accesChamp(identificateur);
                 } else if (verifier(TokenType.PO_TOKEN)) {
-                    return appelFonctionExpression(nom, ligne);
+                    return appelFonctionExpression(identificateur);
                 } else if (verifier(TokenType.CO_TOKEN)) {
-                    return accesTableau(nom, ligne);
+                    return accesTableau(identificateur);
                 } else {
-                    return new NoeudAST(NoeudAST.TypeNoeud.VARIABLE, nom, ligne);
+                    return feuille(NoeudAST.TypeNoeud.VARIABLE, identificateur);
                 }
 
             case CHAINE_LIT_TOKEN:
-                NoeudAST chaine = new NoeudAST(NoeudAST.TypeNoeud.CHAINE,
-                        tokenCourant.nom, tokenCourant.ligne);
+                NoeudAST chaine = feuille(NoeudAST.TypeNoeud.CHAINE);
                 avancer();
                 return chaine;
 
             case VRAI_TOKEN:
             case FAUX_TOKEN:
-                NoeudAST bool = new NoeudAST(NoeudAST.TypeNoeud.VALEUR_BOOLEENNE,
-                        tokenCourant.nom, tokenCourant.ligne);
+                NoeudAST bool = feuille(NoeudAST.TypeNoeud.VALEUR_BOOLEENNE);
                 avancer();
                 return bool;
 
@@ -1086,20 +1117,20 @@ public class AnalyseurSyntaxique {
                 return expr;
 
             case MOINS_TOKEN:
+                NoeudAST neg = debuter(new NoeudAST(NoeudAST.TypeNoeud.NEGATION,
+                        "-", tokenCourant.ligne));
+                neg.setOperateur(Operateur.OPPOSE);
                 avancer(); // -
-                NoeudAST fact = facteur();
-                NoeudAST neg = new NoeudAST(NoeudAST.TypeNoeud.NEGATION,
-                        "-", tokenCourant.ligne);
-                neg.ajouterEnfant(fact);
-                return neg;
+                neg.ajouterEnfant(facteur());
+                return terminer(neg);
 
             case NON_TOKEN:
+                NoeudAST non = debuter(new NoeudAST(NoeudAST.TypeNoeud.NEGATION,
+                        "NON", tokenCourant.ligne));
+                non.setOperateur(Operateur.NON);
                 avancer(); // NON
-                NoeudAST factNon = facteur();
-                NoeudAST non = new NoeudAST(NoeudAST.TypeNoeud.NEGATION,
-                        "NON", tokenCourant.ligne);
-                non.ajouterEnfant(factNon);
-                return non;
+                non.ajouterEnfant(facteur());
+                return terminer(non);
 
             default:
                 erreurSyntaxique("Facteur attendu (nombre, variable, chaîne, booléen, '(' ou '-')");
@@ -1107,8 +1138,9 @@ public class AnalyseurSyntaxique {
         }
     }
 
-    private NoeudAST accesChamp(String nomStructure, int ligne) throws IOException {
-        NoeudAST acces = new NoeudAST(NoeudAST.TypeNoeud.ACCES_CHAMP, nomStructure, ligne);
+    private NoeudAST accesChamp(SymboleCourant structure) throws IOException {
+        NoeudAST acces = debuter(new NoeudAST(NoeudAST.TypeNoeud.ACCES_CHAMP,
+                structure.nom, structure.ligne), structure);
 
         while (verifier(TokenType.PT_TOKEN)) {
             avancer(); // consommer le point
@@ -1119,8 +1151,7 @@ public class AnalyseurSyntaxique {
             }
 
             // Ajouter le champ comme enfant
-            NoeudAST champ = new NoeudAST(NoeudAST.TypeNoeud.VARIABLE,
-                    tokenCourant.nom, tokenCourant.ligne);
+            NoeudAST champ = feuille(NoeudAST.TypeNoeud.VARIABLE);
             acces.ajouterEnfant(champ);
             avancer();
 
@@ -1137,27 +1168,29 @@ public class AnalyseurSyntaxique {
                 if (indice != null) {
                     // CORRECTION: Utiliser le nom du champ au lieu de tokenCourant.nom
                     NoeudAST accesTableau = new NoeudAST(NoeudAST.TypeNoeud.ACCES_TABLEAU,
-                            champ.getValeur(), ligne);
+                            champ.getValeur(), champ.getLigne());
+                    accesTableau.setDebut(champ.getDebut(), champ.getColonneDebut());
                     accesTableau.ajouterEnfant(indice);
 
                     // Remplacer le champ par l'accès tableau
-                    acces.getEnfants().remove(acces.getEnfants().size() - 1);
+                    acces.retirerEnfant(acces.getEnfants().size() - 1);
                     acces.ajouterEnfant(accesTableau);
                 }
 
                 if (!consommer(TokenType.CF_TOKEN)) {
                     erreurSyntaxique("']' attendu");
                 }
+                terminer(acces.getEnfant(acces.getEnfants().size() - 1));
                 break;
             }
         }
 
-        return acces;
+        return terminer(acces);
     }
 
-    private NoeudAST appelFonctionExpression(String nomFonction, int ligne) throws IOException {
-        NoeudAST appel = new NoeudAST(NoeudAST.TypeNoeud.APPEL_FONCTION,
-                nomFonction, ligne);
+    private NoeudAST appelFonctionExpression(SymboleCourant fonction) throws IOException {
+        NoeudAST appel = debuter(new NoeudAST(NoeudAST.TypeNoeud.APPEL_FONCTION,
+                fonction.nom, fonction.ligne), fonction);
         avancer(); // (
 
         // Arguments optionnels
@@ -1172,12 +1205,12 @@ public class AnalyseurSyntaxique {
             erreurSyntaxique("')' attendu");
         }
 
-        return appel;
+        return terminer(appel);
     }
 
-    private NoeudAST accesTableau(String nomTableau, int ligne) throws IOException {
-        NoeudAST acces = new NoeudAST(NoeudAST.TypeNoeud.ACCES_TABLEAU,
-                nomTableau, ligne);
+    private NoeudAST accesTableau(SymboleCourant tableau) throws IOException {
+        NoeudAST acces = debuter(new NoeudAST(NoeudAST.TypeNoeud.ACCES_TABLEAU,
+                tableau.nom, tableau.ligne), tableau);
         avancer(); // [
 
         NoeudAST indice = expression();
@@ -1189,7 +1222,7 @@ public class AnalyseurSyntaxique {
             erreurSyntaxique("']' attendu");
         }
 
-        return acces;
+        return terminer(acces);
     }
 
     // Getters
@@ -1197,20 +1230,11 @@ public class AnalyseurSyntaxique {
         return arbreSyntaxique;
     }
 
-    public List<String> getErreursSyntaxiques() {
-        return erreursSyntaxiques;
+    public Diagnostics getDiagnostics() {
+        return diagnostics;
     }
 
     public boolean aErreurs() {
-        return !erreursSyntaxiques.isEmpty();
-    }
-
-    public void afficherErreurs() {
-        if (aErreurs()) {
-            System.err.println("\n=== ERREURS SYNTAXIQUES ===");
-            for (String erreur : erreursSyntaxiques) {
-                System.err.println(erreur);
-            }
-        }
+        return diagnostics.aErreurs(Diagnostic.Phase.SYNTAXIQUE);
     }
 }
\ No newline at end of file
@@ -0,0 +1,159 @@
+// DefinitionsAtteignantes.java
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+// Définitions atteignantes : pour chaque point, les écritures dont la valeur
+// peut y être encore présente. Analyse avant, union ; un bit par définition.
+//
+// Chaque variable a une définition d'entrée (paramètre, valeur initiale de
+// la déclaration, ou valeur reçue de l'appelant pour une globale) : si elle
+// atteint une lecture, la variable n'a pas forcément été affectée dans la
+// routine. Une écriture possible par un appel engendre une définition mais
+// ne tue pas les précédentes.
+public class DefinitionsAtteignantes extends AnalyseFlot {
+
+    public static final class Definition {
+        private final int numero;
+        private final InstructionFlot instruction; // null : définition d'entrée
+        private final String variable;
+        private final boolean certaine;
+
+        Definition(int numero, InstructionFlot instruction, String variable, boolean certaine) {
+            this.numero = numero;
+            this.instruction = instruction;
+            this.variable = variable;
+            this.certaine = certaine;
+        }
+
+        public int getNumero() { return numero; }
+        public InstructionFlot getInstruction() { return instruction; }
+        public String getVariable() { return variable; }
+        public boolean estCertaine() { return certaine; }
+        public boolean estEntree() { return instruction == null; }
+
+        @Override
+        public String toString() {
+            return "d" + numero + ":" + variable + (instruction == null ? "@entree"
+                    : "@ligne " + instruction.noeud.getLigne());
+        }
+    }
+
+    private final List<Definition> definitions = new ArrayList<>();
+    private final List<BitSet> definitionsDe = new ArrayList<>(); // par variable
+    private final List<List<Definition>> definitionsParInstruction = new ArrayList<>();
+
+    public DefinitionsAtteignantes(GrapheFlotControle graphe) {
+        super(graphe, Direction.AVANT, Confluence.UNION);
+        for (String variable : graphe.getVariables()) {
+            definitionsDe.add(new BitSet());
+            ajouterDefinition(null, variable, true);
+        }
+        for (InstructionFlot instruction : graphe.getInstructions()) {
+            List<Definition> propres = new ArrayList<>();
+            for (String variable : instruction.definitions) {
+                propres.add(ajouterDefinition(instruction, variable, true));
+            }
+            for (String variable : instruction.definitionsPossibles) {
+                if (!instruction.definitions.contains(variable)) {
+                    propres.add(ajouterDefinition(instruction, variable, false));
+                }
+            }
+            definitionsParInstruction.add(propres);
+        }
+        resoudre();
+    }
+
+    private Definition ajouterDefinition(InstructionFlot instruction, String variable, boolean certaine) {
+        Definition definition = new Definition(definitions.size(), instruction, variable, certaine);
+        definitions.add(definition);
+        definitionsDe.get(graphe.indiceVariable(variable)).set(definition.numero);
+        return definition;
+    }
+
+    @Override
+    protected int taille() {
+        return definitions.size();
+    }
+
+    @Override
+    protected BitSet gen(BlocBase bloc) {
+        BitSet atteignantes = new BitSet();
+        for (InstructionFlot instruction : bloc.instructions) {
+            transferer(instruction, atteignantes);
+        }
+        return atteignantes;
+    }
+
+    @Override
+    protected BitSet kill(BlocBase bloc) {
+        BitSet tuees = new BitSet();
+        for (InstructionFlot instruction : bloc.instructions) {
+            for (String variable : instruction.definitions) {
+                tuees.or(definitionsDe.get(graphe.indiceVariable(variable)));
+            }
+        }
+        return tuees;
+    }
+
+    @Override
+    protected BitSet frontiere() {
+        BitSet entrees = new BitSet();
+        entrees.set(0, graphe.getVariables().size());
+        return entrees;
+    }
+
+    private void transferer(InstructionFlot instruction, BitSet atteignantes) {
+        for (Definition definition : definitionsParInstruction.get(instruction.numero)) {
+            if (definition.certaine) {
+                atteignantes.andNot(definitionsDe.get(graphe.indiceVariable(definition.variable)));
+            }
+        }
+        for (Definition definition : definitionsParInstruction.get(instruction.numero)) {
+            atteignantes.set(definition.numero);
+        }
+    }
+
+    public BitSet atteignantesAvant(InstructionFlot instruction) {
+        BitSet atteignantes = getEntree(instruction.bloc);
+        for (int i = 0; i < instruction.position; i++) {
+            transferer(instruction.bloc.instructions.get(i), atteignantes);
+        }
+        return atteignantes;
+    }
+
+    // Définitions de 'variable' qui atteignent l'instruction (avant son exécution)
+    public List<Definition> atteignent(InstructionFlot instruction, String variable) {
+        List<Definition> resultat = new ArrayList<>();
+        int indice = graphe.indiceVariable(variable);
+        if (indice < 0) {
+            return resultat;
+        }
+        BitSet atteignantes = atteignantesAvant(instruction);
+        atteignantes.and(definitionsDe.get(indice));
+        for (int i = atteignantes.nextSetBit(0); i >= 0; i = atteignantes.nextSetBit(i + 1)) {
+            resultat.add(definitions.get(i));
+        }
+        return resultat;
+    }
+
+    // Vrai si 'variable' a forcément été écrite dans la routine avant l'instruction
+    public boolean estAffecteeAvant(InstructionFlot instruction, String variable) {
+        int indice = graphe.indiceVariable(variable);
+        return indice >= 0 && !atteignantesAvant(instruction).get(indice);
+    }
+
+    // Définition unique et certaine de 'variable' en ce point, sinon null
+    public Definition definitionUnique(InstructionFlot instruction, String variable) {
+        List<Definition> candidates = atteignent(instruction, variable);
+        if (candidates.size() == 1 && candidates.get(0).certaine) {
+            return candidates.get(0);
+        }
+        return null;
+    }
+
+    public List<Definition> getDefinitions() {
+        return Collections.unmodifiableList(definitions);
+    }
+}
@@ -0,0 +1,440 @@
+// DeplacementInvariants.java
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Sortie des calculs invariants des boucles POUR, TANTQUE et REPETER.
+//
+// Une expression est invariante dans une boucle si elle ne lit aucune
+// variable écrite par la boucle, ne lit la mémoire (élément de tableau,
+// champ) que si la boucle n'écrit dans aucun tableau ni aucune structure, et
+// n'appelle que des fonctions pures (AnalysePurete) dont les globales ne sont
+// pas modifiées. Elle est calculée une fois dans un temporaire _invN placé
+// juste avant la boucle.
+//
+// Une expression qui ne peut pas échouer est sortie d'où qu'elle soit dans la
+// boucle. Une expression qui peut échouer (division, accès indexé, appel)
+// n'est sortie que si elle aurait de toute façon été évaluée avant tout effet
+// visible : condition d'un TANTQUE, ou instruction du corps d'une boucle
+// exécutée au moins une fois, précédée seulement d'affectations sans effet,
+// hors partie droite d'un ET / OU.
+//
+// Les boucles internes sont traitées d'abord ; leurs temporaires peuvent
+// ensuite sortir de la boucle englobante.
+public class DeplacementInvariants {
+    private final AnalysePurete purete;
+    private final Set<String> nomsUtilises = new HashSet<>();
+    private final Set<NoeudAST> temporaires = Collections.newSetFromMap(new IdentityHashMap<>());
+    private Set<String> ecritesParAppel = new HashSet<>();
+    private int nombreExpressions = 0;
+    private int nombreBoucles = 0;
+
+    // État de la boucle en cours de traitement
+    private Set<String> ecrites;
+    private boolean memoireStable;
+    private Map<String, String> temporairesBoucle;
+    private List<NoeudAST> avantBoucle;
+
+    public DeplacementInvariants(AnalysePurete purete) {
+        this.purete = purete;
+    }
+
+    public void optimiser(NoeudAST programme) {
+        GrapheFlotControle.collecterNoms(programme, nomsUtilises);
+
+        for (NoeudAST element : programme.getEnfants()) {
+            if (GrapheFlotControle.estSousProgramme(element)) {
+                Set<String> ecritesCorps = new HashSet<>();
+                GrapheFlotControle.collecterEcritures(element, ecritesCorps);
+                ecritesCorps.removeAll(GrapheFlotControle.nomsLocaux(element));
+                ecritesParAppel.addAll(ecritesCorps);
+            }
+        }
+
+        for (NoeudAST element : programme.getEnfants()) {
+            if (element.getType() == NoeudAST.TypeNoeud.BLOC_INSTRUCTIONS) {
+                traiterBloc(element);
+            } else if (GrapheFlotControle.estSousProgramme(element)) {
+                for (NoeudAST enfant : element.getEnfants()) {
+                    if (enfant.getType() == NoeudAST.TypeNoeud.BLOC_INSTRUCTIONS) {
+                        traiterBloc(enfant);
+                    }
+                }
+            }
+        }
+    }
+
+    public int getNombreExpressions() {
+        return nombreExpressions;
+    }
+
+    public int getNombreBoucles() {
+        return nombreBoucles;
+    }
+
+    // ==================== PARCOURS ====================
+
+    private void traiterBloc(NoeudAST bloc) {
+        for (int i = 0; i < bloc.getEnfants().size(); i++) {
+            NoeudAST instruction = bloc.getEnfant(i);
+            for (NoeudAST enfant : instruction.getEnfants()) {
+                if (enfant.getType() == NoeudAST.TypeNoeud.BLOC_INSTRUCTIONS) {
+                    traiterBloc(enfant);
+                }
+            }
+            if (estBoucle(instruction)) {
+                List<NoeudAST> sorties = traiterBoucle(instruction);
+                for (NoeudAST sortie : sorties) {
+                    bloc.insererEnfant(i++, sortie);
+                }
+            }
+        }
+    }
+
+    private boolean estBoucle(NoeudAST instruction) {
+        return instruction.getType() == NoeudAST.TypeNoeud.BOUCLE_POUR ||
+                instruction.getType() == NoeudAST.TypeNoeud.BOUCLE_TANTQUE ||
+                instruction.getType() == NoeudAST.TypeNoeud.BOUCLE_REPETER;
+    }
+
+    // Renvoie les affectations à placer avant la boucle, dans l'ordre
+    private List<NoeudAST> traiterBoucle(NoeudAST boucle) {
+        NoeudAST corps = GrapheFlotControle.corpsDe(boucle);
+        if (corps == null) {
+            return Collections.emptyList();
+        }
+
+        ecrites = new HashSet<>();
+        GrapheFlotControle.collecterEcritures(boucle, ecrites);
+        boolean appelImpur = false;
+        for (NoeudAST appel : boucle.rechercherParType(NoeudAST.TypeNoeud.APPEL_FONCTION)) {
+            appelImpur |= !purete.estPure(appel.getValeur());
+        }
+        if (appelImpur) {
+            ecrites.addAll(ecritesParAppel);
+        }
+        boolean ecritMemoire = false;
+        for (NoeudAST affectation : boucle.rechercherParType(NoeudAST.TypeNoeud.AFFECTATION)) {
+            ecritMemoire |= affectation.getEnfants().size() == 2;
+        }
+        memoireStable = !appelImpur && !ecritMemoire;
+        temporairesBoucle = new HashMap<>();
+        avantBoucle = new ArrayList<>();
+
+        // La condition d'un TANTQUE est évaluée au moins une fois, avant tout le reste
+        if (boucle.getType() == NoeudAST.TypeNoeud.BOUCLE_TANTQUE) {
+            visiter(boucle.getEnfant(0), true);
+        }
+
+        boolean auMoinsUneFois = executeeAuMoinsUneFois(boucle);
+        boolean prefixeSilencieux = true;
+        for (NoeudAST instruction : new ArrayList<>(corps.getEnfants())) {
+            boolean inconditionnel = auMoinsUneFois && prefixeSilencieux && appelsPurs(instruction);
+
+            if (temporaires.contains(instruction) && invariant(instruction.getEnfant(0)) &&
+                    (inconditionnel || !faillible(instruction.getEnfant(0)))) {
+                // Temporaire d'une boucle interne, invariant ici aussi
+                corps.retirerEnfant(corps.getEnfants().indexOf(instruction));
+                avantBoucle.add(instruction);
+                ecrites.remove(instruction.getValeur());
+                continue;
+            }
+
+            visiterInstruction(instruction, inconditionnel);
+            prefixeSilencieux &= instruction.getType() == NoeudAST.TypeNoeud.AFFECTATION &&
+                    instruction.getEnfants().size() == 1 &&
+                    PropagationConstantes.sansEffet(instruction.getEnfant(0));
+        }
+
+        if (boucle.getType() == NoeudAST.TypeNoeud.BOUCLE_REPETER && boucle.getEnfants().size() > 1) {
+            visiter(boucle.getEnfant(1), false);
+        }
+
+        if (!avantBoucle.isEmpty()) {
+            nombreBoucles++;
+        }
+        return avantBoucle;
+    }
+
+    // REPETER toujours ; POUR si ses bornes littérales ne sont pas vides
+    private boolean executeeAuMoinsUneFois(NoeudAST boucle) {
+        if (boucle.getType() == NoeudAST.TypeNoeud.BOUCLE_REPETER) {
+            return true;
+        }
+        if (boucle.getType() == NoeudAST.TypeNoeud.BOUCLE_POUR && boucle.getEnfants().size() >= 3) {
+            Object debut = PropagationConstantes.valeurConstante(boucle.getEnfant(0));
+            Object fin = PropagationConstantes.valeurConstante(boucle.getEnfant(1));
+            return debut instanceof Long && fin instanceof Long && (Long) debut <= (Long) fin;
+        }
+        return false;
+    }
+
+    // Les expressions d'une instruction du corps ; inconditionnel si elle est
+    // toujours atteinte avant tout effet visible
+    private void visiterInstruction(NoeudAST instruction, boolean inconditionnel) {
+        switch (instruction.getType()) {
+            case AFFECTATION:
+            case ECRIRE:
+            case APPEL_FONCTION:
+                for (NoeudAST enfant : new ArrayList<>(instruction.getEnfants())) {
+                    visiter(enfant, inconditionnel);
+                }
+                break;
+            case CONDITION:
+                visiter(instruction.getEnfant(0), inconditionnel);
+                for (int i = 1; i < instruction.getEnfants().size(); i++) {
+                    visiterBloc(instruction.getEnfant(i));
+                }
+                break;
+            case BOUCLE_POUR:
+                for (int i = 0; i < Math.min(2, instruction.getEnfants().size()); i++) {
+                    visiter(instruction.getEnfant(i), inconditionnel);
+                }
+                visiterBloc(GrapheFlotControle.corpsDe(instruction));
+                break;
+            case BOUCLE_TANTQUE:
+                visiter(instruction.getEnfant(0), inconditionnel);
+                visiterBloc(GrapheFlotControle.corpsDe(instruction));
+                break;
+            case BOUCLE_REPETER:
+                visiterBloc(GrapheFlotControle.corpsDe(instruction));
+                if (instruction.getEnfants().size() > 1) {
+                    visiter(instruction.getEnfant(1), false);
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void visiterBloc(NoeudAST bloc) {
+        if (bloc == null) {
+            return;
+        }
+        for (NoeudAST instruction : new ArrayList<>(bloc.getEnfants())) {
+            visiterInstruction(instruction, false);
+        }
+    }
+
+    private void visiter(NoeudAST expression, boolean inconditionnel) {
+        if (vautLaPeine(expression) && invariant(expression) &&
+                (inconditionnel || !faillible(expression))) {
+            sortir(expression);
+            return;
+        }
+        switch (expression.getType()) {
+            case EXPRESSION_BINAIRE:
+                visiter(expression.getEnfant(0), inconditionnel);
+                // La partie droite d'un ET / OU n'est évaluée que si besoin
+                boolean courtCircuit = expression.getOperateur() == Operateur.ET ||
+                        expression.getOperateur() == Operateur.OU;
+                visiter(expression.getEnfant(1), inconditionnel && !courtCircuit);
+                break;
+            case ACCES_CHAMP:
+                for (NoeudAST maillon : expression.getEnfants()) {
+                    if (maillon.getType() == NoeudAST.TypeNoeud.ACCES_TABLEAU) {
+                        for (NoeudAST indice : new ArrayList<>(maillon.getEnfants())) {
+                            visiter(indice, inconditionnel);
+                        }
+                    }
+                }
+                break;
+            default:
+                for (NoeudAST enfant : new ArrayList<>(expression.getEnfants())) {
+                    visiter(enfant, inconditionnel);
+                }
+                break;
+        }
+    }
+
+    // ==================== CRITÈRES ====================
+
+    // Un calcul qui lit au moins une variable, un élément ou un résultat d'appel
+    private boolean vautLaPeine(NoeudAST expression) {
+        switch (expression.getType()) {
+            case ACCES_TABLEAU:
+            case ACCES_CHAMP:
+            case APPEL_FONCTION:
+                return true;
+            case NEGATION:
+            case EXPRESSION_BINAIRE:
+                for (NoeudAST enfant : expression.getEnfants()) {
+                    if (vautLaPeine(enfant) || enfant.getType() == NoeudAST.TypeNoeud.VARIABLE) {
+                        return true;
+                    }
+                }
+                return false;
+            default:
+                return false;
+        }
+    }
+
+    private boolean invariant(NoeudAST expression) {
+        switch (expression.getType()) {
+            case NOMBRE:
+            case CHAINE:
+            case VALEUR_BOOLEENNE:
+                return true;
+
+            case VARIABLE:
+                return !ecrites.contains(expression.getValeur());
+
+            case NEGATION:
+            case EXPRESSION_BINAIRE:
+                for (NoeudAST enfant : expression.getEnfants()) {
+                    if (!invariant(enfant)) {
+                        return false;
+                    }
+                }
+                return true;
+
+            case ACCES_TABLEAU:
+                if (!memoireStable || ecrites.contains(expression.getValeur())) {
+                    return false;
+                }
+                for (NoeudAST indice : expression.getEnfants()) {
+                    if (!invariant(indice)) {
+                        return false;
+                    }
+                }
+                return true;
+
+            case ACCES_CHAMP:
+                if (!memoireStable || ecrites.contains(expression.getValeur())) {
+                    return false;
+                }
+                for (NoeudAST maillon : expression.getEnfants()) {
+                    if (maillon.getType() == NoeudAST.TypeNoeud.ACCES_TABLEAU) {
+                        for (NoeudAST indice : maillon.getEnfants()) {
+                            if (!invariant(indice)) {
+                                return false;
+                            }
+                        }
+                    }
+                }
+                return true;
+
+            case APPEL_FONCTION: {
+                String fonction = expression.getValeur();
+                if (!purete.estPure(fonction) || (purete.litMemoire(fonction) && !memoireStable)) {
+                    return false;
+                }
+                for (String globale : purete.getGlobalesLues(fonction)) {
+                    if (ecrites.contains(globale)) {
+                        return false;
+                    }
+                }
+                if (!expression.getEnfants().isEmpty()) {
+                    for (NoeudAST argument : expression.getEnfant(0).getEnfants()) {
+                        // Un tableau ou une structure passé en argument peut être lu
+                        if (!invariant(argument) || (!memoireStable && estObjet(argument))) {
+                            return false;
+                        }
+                    }
+                }
+                return true;
+            }
+
+            default:
+                return false;
+        }
+    }
+
+    private boolean estObjet(NoeudAST expression) {
+        TypeDonnee type = expression.getTypeResolu();
+        if (type == TypeDonnee.ENTIER || type == TypeDonnee.REEL ||
+                type == TypeDonnee.CHAINE || type == TypeDonnee.BOOLEEN) {
+            return false;
+        }
+        EntreeTableSymboles entree = expression.getSymbole();
+        return entree == null || entree.estTableau || entree.type == TypeDonnee.STRUCTURE ||
+                entree.type == TypeDonnee.TABLEAU;
+    }
+
+    // Division, accès indexé ou appel : l'évaluation peut s'arrêter sur une erreur
+    private boolean faillible(NoeudAST expression) {
+        switch (expression.getType()) {
+            case ACCES_TABLEAU:
+            case APPEL_FONCTION:
+                return true;
+            case ACCES_CHAMP:
+                return !expression.rechercherParType(NoeudAST.TypeNoeud.ACCES_TABLEAU).isEmpty();
+            case EXPRESSION_BINAIRE:
+                if (expression.getOperateur() == Operateur.DIV) {
+                    return true;
+                }
+                break;
+            default:
+                break;
+        }
+        for (NoeudAST enfant : expression.getEnfants()) {
+            if (faillible(enfant)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Seuls des appels de fonctions pures : rien de visible avant l'expression
+    private boolean appelsPurs(NoeudAST instruction) {
+        if (instruction.getType() == NoeudAST.TypeNoeud.APPEL_FONCTION &&
+                !purete.estPure(instruction.getValeur())) {
+            return false;
+        }
+        for (NoeudAST appel : instruction.rechercherParType(NoeudAST.TypeNoeud.APPEL_FONCTION)) {
+            if (!purete.estPure(appel.getValeur())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // ==================== RÉÉCRITURE ====================
+
+    private void sortir(NoeudAST expression) {
+        String cle = cle(expression);
+        String nom = temporairesBoucle.get(cle);
+        NoeudAST parent = expression.getParent();
+        int position = parent.getEnfants().indexOf(expression);
+
+        NoeudAST variable = new NoeudAST(NoeudAST.TypeNoeud.VARIABLE, nom, expression.getLigne());
+        if (nom == null) {
+            nom = GrapheFlotControle.nouveauTemporaire("_inv", nomsUtilises);
+            temporairesBoucle.put(cle, nom);
+            variable.setValeur(nom);
+            parent.remplacerEnfant(position, variable);
+
+            NoeudAST affectation = new NoeudAST(NoeudAST.TypeNoeud.AFFECTATION, nom, expression.getLigne());
+            affectation.copierEtendue(expression);
+            affectation.ajouterEnfant(expression);
+            avantBoucle.add(affectation);
+            temporaires.add(affectation);
+            nombreExpressions++;
+        } else {
+            parent.remplacerEnfant(position, variable);
+        }
+        variable.setTypeResolu(expression.getTypeResolu());
+        variable.copierEtendue(expression);
+    }
+
+    // Forme textuelle d'une expression, pour partager un temporaire entre
+    // plusieurs occurrences dans la même boucle
+    private String cle(NoeudAST expression) {
+        StringBuilder sb = new StringBuilder("(").append(expression.getType());
+        if (expression.getOperateur() != null) {
+            sb.append(' ').append(expression.getOperateur());
+        }
+        if (expression.getValeur() != null) {
+            sb.append(' ').append(expression.getValeur().length()).append(':').append(expression.getValeur());
+        }
+        for (NoeudAST enfant : expression.getEnfants()) {
+            sb.append(' ').append(cle(enfant));
+        }
+        return sb.append(')').toString();
+    }
+}
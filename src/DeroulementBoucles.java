@@ -0,0 +1,387 @@
+// DeroulementBoucles.java
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// Déroulement des boucles POUR à bornes littérales.
+//
+// Une boucle d'au plus 'seuil' tours est remplacée par autant de copies de
+// son corps, la variable de boucle y devenant le littéral du tour (ou, si le
+// corps la modifie, une affectation avant chaque copie). Une boucle plus
+// longue garde un 'range' de pas 'facteur' dont le corps enchaîne 'facteur'
+// copies (variable, variable + 1, ...), suivi d'une boucle de reste pour les
+// derniers tours. Le pas est un quatrième enfant du nœud POUR, placé avant
+// le corps qui reste le dernier enfant.
+//
+// La variable reçoit sa valeur finale après la boucle quand elle est encore
+// lue ailleurs ; sinon, si elle n'apparaît plus nulle part (typiquement le
+// compteur d'un corps intégré), sa déclaration est retirée elle aussi. Les
+// copies ne dépassent jamais TAILLE_MAX nœuds.
+public class DeroulementBoucles {
+    private static final int TAILLE_MAX = 200;
+
+    private final int seuil;
+    private final int facteur;
+    // Sous-programme (ou programme principal) en cours de traitement
+    private NoeudAST routine;
+    private NoeudAST programme;
+    // Variables de boucles déroulées sans valeur finale, dans la routine
+    private final Set<String> liberees = new HashSet<>();
+    private int nombreCompletes = 0;
+    private int nombrePartielles = 0;
+
+    public DeroulementBoucles(int seuil, int facteur) {
+        this.seuil = seuil;
+        this.facteur = facteur;
+    }
+
+    public void optimiser(NoeudAST programme) {
+        this.programme = programme;
+        for (NoeudAST element : programme.getEnfants()) {
+            if (element.getType() == NoeudAST.TypeNoeud.BLOC_INSTRUCTIONS) {
+                routine = element;
+                traiterBloc(element);
+                retirerDeclarationsLiberees();
+            } else if (GrapheFlotControle.estSousProgramme(element)) {
+                routine = element;
+                for (NoeudAST enfant : element.getEnfants()) {
+                    if (enfant.getType() == NoeudAST.TypeNoeud.BLOC_INSTRUCTIONS) {
+                        traiterBloc(enfant);
+                    }
+                }
+                retirerDeclarationsLiberees();
+            }
+        }
+    }
+
+    public int getNombreCompletes() {
+        return nombreCompletes;
+    }
+
+    public int getNombrePartielles() {
+        return nombrePartielles;
+    }
+
+    // ==================== PARCOURS ====================
+
+    private void traiterBloc(NoeudAST bloc) {
+        for (int i = 0; i < bloc.getEnfants().size(); i++) {
+            NoeudAST instruction = bloc.getEnfant(i);
+            // Boucles intérieures d'abord
+            for (NoeudAST enfant : instruction.getEnfants()) {
+                if (enfant.getType() == NoeudAST.TypeNoeud.BLOC_INSTRUCTIONS) {
+                    traiterBloc(enfant);
+                }
+            }
+            if (instruction.getType() != NoeudAST.TypeNoeud.BOUCLE_POUR) {
+                continue;
+            }
+            List<NoeudAST> remplacement = derouler(instruction);
+            if (remplacement != null) {
+                bloc.retirerEnfant(i);
+                for (NoeudAST nouvelle : remplacement) {
+                    bloc.insererEnfant(i++, nouvelle);
+                }
+                i--;
+            }
+        }
+    }
+
+    // Instructions remplaçant la boucle, ou null si elle reste telle quelle
+    private List<NoeudAST> derouler(NoeudAST boucle) {
+        if (boucle.getEnfants().size() != 3 ||
+                boucle.getEnfant(2).getType() != NoeudAST.TypeNoeud.BLOC_INSTRUCTIONS) {
+            return null;
+        }
+        Object valeurDebut = PropagationConstantes.valeurConstante(boucle.getEnfant(0));
+        Object valeurFin = PropagationConstantes.valeurConstante(boucle.getEnfant(1));
+        if (!(valeurDebut instanceof Long) || !(valeurFin instanceof Long)) {
+            return null;
+        }
+        long debut = (Long) valeurDebut;
+        long fin = (Long) valeurFin;
+        long tours;
+        try {
+            tours = Math.addExact(Math.subtractExact(fin, debut), 1L);
+        } catch (ArithmeticException e) {
+            return null;
+        }
+        if (tours <= 0) {
+            return null;
+        }
+
+        NoeudAST corps = boucle.getEnfant(2);
+        String variable = boucle.getValeur();
+        int taille = corps.compterNoeuds();
+        Set<String> ecrites = new HashSet<>();
+        GrapheFlotControle.collecterEcritures(corps, ecrites);
+        boolean corpsModifieVariable = ecrites.contains(variable);
+
+        if (tours <= seuil && tours * taille <= TAILLE_MAX) {
+            nombreCompletes++;
+            return deroulerCompletement(boucle, debut, fin, corpsModifieVariable);
+        }
+        if (!corpsModifieVariable && facteur >= 2 && tours >= 2L * facteur &&
+                (long) taille * facteur <= TAILLE_MAX) {
+            nombrePartielles++;
+            return deroulerPartiellement(boucle, debut, fin, tours);
+        }
+        return null;
+    }
+
+    private List<NoeudAST> deroulerCompletement(NoeudAST boucle, long debut, long fin,
+                                                boolean corpsModifieVariable) {
+        List<NoeudAST> instructions = new ArrayList<>();
+        NoeudAST corps = boucle.getEnfant(2);
+        for (long k = debut; k <= fin; k++) {
+            if (corpsModifieVariable) {
+                instructions.add(affectation(boucle, PropagationConstantes.litteral(k, boucle)));
+            }
+            for (NoeudAST instruction : corps.getEnfants()) {
+                NoeudAST copie = instruction.copier();
+                if (!corpsModifieVariable) {
+                    remplacerVariable(copie, boucle.getValeur(), k, 0);
+                }
+                instructions.add(copie);
+            }
+        }
+        if (!corpsModifieVariable) {
+            if (lueApres(boucle.getValeur())) {
+                instructions.add(affectation(boucle, PropagationConstantes.litteral(fin, boucle)));
+            } else {
+                liberees.add(boucle.getValeur());
+            }
+        }
+        return instructions;
+    }
+
+    // range(debut, finPrincipale + 1, facteur) puis boucle de reste
+    private List<NoeudAST> deroulerPartiellement(NoeudAST boucle, long debut, long fin, long tours) {
+        List<NoeudAST> instructions = new ArrayList<>();
+        long finPrincipale = debut + (tours / facteur) * facteur - 1;
+        String variable = boucle.getValeur();
+
+        NoeudAST principale = new NoeudAST(NoeudAST.TypeNoeud.BOUCLE_POUR, variable, boucle.getLigne());
+        principale.setSymbole(boucle.getSymbole());
+        principale.copierEtendue(boucle);
+        principale.ajouterEnfant(PropagationConstantes.litteral(debut, boucle));
+        principale.ajouterEnfant(PropagationConstantes.litteral(finPrincipale, boucle));
+        principale.ajouterEnfant(PropagationConstantes.litteral((long) facteur, boucle));
+        NoeudAST corps = boucle.getEnfant(2);
+        NoeudAST copies = new NoeudAST(NoeudAST.TypeNoeud.BLOC_INSTRUCTIONS, "", corps.getLigne());
+        copies.copierEtendue(corps);
+        for (int j = 0; j < facteur; j++) {
+            for (NoeudAST instruction : corps.getEnfants()) {
+                NoeudAST copie = instruction.copier();
+                if (j > 0) {
+                    remplacerVariable(copie, variable, null, j);
+                }
+                copies.ajouterEnfant(copie);
+            }
+        }
+        principale.ajouterEnfant(copies);
+        instructions.add(principale);
+
+        if (finPrincipale < fin) {
+            // La boucle d'origine parcourt les tours restants
+            boucle.retirerEnfant(0);
+            boucle.insererEnfant(0, PropagationConstantes.litteral(finPrincipale + 1, boucle));
+            instructions.add(boucle);
+        } else if (lueApres(variable)) {
+            instructions.add(affectation(boucle, PropagationConstantes.litteral(fin, boucle)));
+        }
+        return instructions;
+    }
+
+    // ==================== DÉCLARATIONS ====================
+
+    // Retire de la section VAR de la routine (du programme pour le programme
+    // principal) les variables libérées qui n'apparaissent plus nulle part
+    private void retirerDeclarationsLiberees() {
+        List<NoeudAST> sections = new ArrayList<>();
+        NoeudAST portee = routine.getType() == NoeudAST.TypeNoeud.BLOC_INSTRUCTIONS ? programme : routine;
+        for (NoeudAST enfant : portee.getEnfants()) {
+            if (enfant.getType() == NoeudAST.TypeNoeud.SECTION_VAR) {
+                sections.add(enfant);
+            }
+        }
+        for (String variable : liberees) {
+            if (apparait(variable)) {
+                continue;
+            }
+            for (NoeudAST section : sections) {
+                retirerDeclaration(section, variable);
+            }
+        }
+        liberees.clear();
+    }
+
+    private boolean apparait(String variable) {
+        if (apparaitDans(routine, variable)) {
+            return true;
+        }
+        if (routine.getType() == NoeudAST.TypeNoeud.BLOC_INSTRUCTIONS) {
+            for (NoeudAST element : programme.getEnfants()) {
+                if (GrapheFlotControle.estSousProgramme(element) &&
+                        !GrapheFlotControle.nomsLocaux(element).contains(variable) &&
+                        apparaitDans(element, variable)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // Lue ou écrite dans le corps (les déclarations ne comptent pas)
+    private boolean apparaitDans(NoeudAST element, String variable) {
+        Set<String> noms = new HashSet<>();
+        if (element.getType() == NoeudAST.TypeNoeud.BLOC_INSTRUCTIONS) {
+            GrapheFlotControle.collecterUtilisations(element, noms);
+            GrapheFlotControle.collecterEcritures(element, noms);
+        } else {
+            for (NoeudAST enfant : element.getEnfants()) {
+                if (enfant.getType() == NoeudAST.TypeNoeud.BLOC_INSTRUCTIONS ||
+                        enfant.getType() == NoeudAST.TypeNoeud.RETOUR) {
+                    GrapheFlotControle.collecterUtilisations(enfant, noms);
+                    GrapheFlotControle.collecterEcritures(enfant, noms);
+                }
+            }
+        }
+        return noms.contains(variable);
+    }
+
+    private void retirerDeclaration(NoeudAST section, String variable) {
+        for (int d = section.getEnfants().size() - 1; d >= 0; d--) {
+            NoeudAST declaration = section.getEnfant(d);
+            for (NoeudAST liste : declaration.getEnfants()) {
+                if (liste.getType() != NoeudAST.TypeNoeud.LISTE_IDENTIFICATEURS) {
+                    continue;
+                }
+                for (int i = liste.getEnfants().size() - 1; i >= 0; i--) {
+                    if (variable.equals(liste.getEnfant(i).getValeur())) {
+                        liste.retirerEnfant(i);
+                    }
+                }
+                if (liste.getEnfants().isEmpty()) {
+                    section.retirerEnfant(d);
+                }
+            }
+        }
+    }
+
+    // ==================== SUBSTITUTION ====================
+
+    // Remplace les lectures de la variable par 'valeur' (littéral) ou par
+    // 'variable + decalage', puis plie les opérations devenues constantes
+    private void remplacerVariable(NoeudAST instruction, String variable, Long valeur, int decalage) {
+        List<NoeudAST> lectures = new ArrayList<>();
+        GrapheFlotControle.collecterLectures(instruction, lectures);
+        for (NoeudAST lecture : lectures) {
+            if (!lecture.getValeur().equals(variable)) {
+                continue;
+            }
+            NoeudAST parent = lecture.getParent();
+            int index = parent.getEnfants().indexOf(lecture);
+            if (valeur != null) {
+                parent.remplacerEnfant(index, PropagationConstantes.litteral(valeur, lecture));
+            } else {
+                parent.retirerEnfant(index);
+                parent.insererEnfant(index, decale(lecture, decalage));
+            }
+            plier(parent);
+        }
+    }
+
+    private NoeudAST decale(NoeudAST lecture, int decalage) {
+        NoeudAST binaire = new NoeudAST(NoeudAST.TypeNoeud.EXPRESSION_BINAIRE, Operateur.PLUS.getSymbole(),
+                lecture.getLigne());
+        binaire.setOperateur(Operateur.PLUS);
+        binaire.setTypeResolu(TypeDonnee.ENTIER);
+        binaire.copierEtendue(lecture);
+        binaire.ajouterEnfant(lecture);
+        binaire.ajouterEnfant(PropagationConstantes.litteral((long) decalage, lecture));
+        return binaire;
+    }
+
+    private void plier(NoeudAST noeud) {
+        while (noeud.getType() == NoeudAST.TypeNoeud.EXPRESSION_BINAIRE && noeud.getParent() != null) {
+            Object gauche = PropagationConstantes.valeurConstante(noeud.getEnfant(0));
+            Object droite = PropagationConstantes.valeurConstante(noeud.getEnfant(1));
+            Object resultat = gauche == null || droite == null ? null
+                    : PropagationConstantes.calculer(noeud.getOperateur(), gauche, droite);
+            if (resultat == null) {
+                return;
+            }
+            NoeudAST parent = noeud.getParent();
+            parent.remplacerEnfant(parent.getEnfants().indexOf(noeud), PropagationConstantes.litteral(resultat, noeud));
+            noeud = parent;
+        }
+    }
+
+    // ==================== UTILITAIRES ====================
+
+    private NoeudAST affectation(NoeudAST boucle, NoeudAST valeur) {
+        NoeudAST affectation = new NoeudAST(NoeudAST.TypeNoeud.AFFECTATION, boucle.getValeur(), boucle.getLigne());
+        affectation.setSymbole(boucle.getSymbole());
+        affectation.copierEtendue(boucle);
+        affectation.ajouterEnfant(valeur);
+        return affectation;
+    }
+
+    // La variable est-elle lue hors des boucles POUR qui l'affectent, dans la
+    // routine ou (globale) dans un sous-programme où elle n'est pas locale ?
+    private boolean lueApres(String variable) {
+        if (routine.getType() != NoeudAST.TypeNoeud.BLOC_INSTRUCTIONS &&
+                !GrapheFlotControle.nomsLocaux(routine).contains(variable)) {
+            return true;
+        }
+        if (lueHorsBoucle(routine, variable)) {
+            return true;
+        }
+        if (routine.getType() == NoeudAST.TypeNoeud.BLOC_INSTRUCTIONS) {
+            for (NoeudAST element : programme.getEnfants()) {
+                if (GrapheFlotControle.estSousProgramme(element) &&
+                        !GrapheFlotControle.nomsLocaux(element).contains(variable) &&
+                        lueHorsBoucle(element, variable)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // Les déclarations (paramètres, section VAR) ne sont pas des lectures
+    private boolean lueHorsBoucle(NoeudAST racine, String variable) {
+        List<NoeudAST> lectures = new ArrayList<>();
+        if (racine.getType() == NoeudAST.TypeNoeud.BLOC_INSTRUCTIONS) {
+            GrapheFlotControle.collecterLectures(racine, lectures);
+        } else {
+            for (NoeudAST enfant : racine.getEnfants()) {
+                if (enfant.getType() == NoeudAST.TypeNoeud.BLOC_INSTRUCTIONS ||
+                        enfant.getType() == NoeudAST.TypeNoeud.RETOUR) {
+                    GrapheFlotControle.collecterLectures(enfant, lectures);
+                }
+            }
+        }
+        for (NoeudAST lecture : lectures) {
+            if (lecture.getValeur().equals(variable) && !dansBouclePour(lecture, variable)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean dansBouclePour(NoeudAST noeud, String variable) {
+        NoeudAST enfant = noeud;
+        for (NoeudAST parent = noeud.getParent(); parent != null; parent = parent.getParent()) {
+            // Les bornes sont lues avant que la boucle n'affecte la variable
+            if (parent.getType() == NoeudAST.TypeNoeud.BOUCLE_POUR && parent.getValeur().equals(variable) &&
+                    enfant == parent.getEnfant(parent.getEnfants().size() - 1)) {
+                return true;
+            }
+            enfant = parent;
+        }
+        return false;
+    }
+}
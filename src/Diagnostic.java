@@ -0,0 +1,97 @@
+// Diagnostic.java
+
+// Message produit par une phase du compilateur : gravité, code, position
+// dans le source et arguments du message. Le texte n'est formaté qu'au rendu,
+// les phases n'ont donc rien à mettre en forme ni à afficher au moment où
+// elles détectent le problème.
+public final class Diagnostic {
+
+    public enum Gravite {
+        ERREUR, AVERTISSEMENT
+    }
+
+    public enum Phase {
+        LEXICALE, SYNTAXIQUE, SEMANTIQUE
+    }
+
+    private final Gravite gravite;
+    private final Phase phase;
+    private final String code;
+    private final int ligne;
+    private final String modele;       // format de String.format si arguments
+    private final Object[] arguments;
+
+    // Position précise, quand la phase la connaît (0/-1 sinon)
+    private int colonne = 0;
+    private int debut = -1;
+    private int fin = -1;
+    // Texte du source en cause (token, caractère) et aide éventuelle
+    private String contexte;
+    private String note;
+
+    private Diagnostic(Gravite gravite, Phase phase, String code, int ligne,
+                       String modele, Object[] arguments) {
+        this.gravite = gravite;
+        this.phase = phase;
+        this.code = code;
+        this.ligne = ligne;
+        this.modele = modele;
+        this.arguments = arguments;
+    }
+
+    public static Diagnostic erreur(Phase phase, String code, int ligne,
+                                    String modele, Object... arguments) {
+        return new Diagnostic(Gravite.ERREUR, phase, code, ligne, modele, arguments);
+    }
+
+    public static Diagnostic avertissement(Phase phase, String code, int ligne,
+                                           String modele, Object... arguments) {
+        return new Diagnostic(Gravite.AVERTISSEMENT, phase, code, ligne, modele, arguments);
+    }
+
+    // Compléments (avant la remise au collecteur)
+    public Diagnostic avecPosition(int colonne, int debut, int fin) {
+        this.colonne = colonne;
+        this.debut = debut;
+        this.fin = fin;
+        return this;
+    }
+
+    public Diagnostic avecContexte(String contexte) {
+        this.contexte = contexte;
+        return this;
+    }
+
+    public Diagnostic avecNote(String note) {
+        this.note = note;
+        return this;
+    }
+
+    // Texte final : formaté ici seulement
+    public String getMessage() {
+        if (arguments == null || arguments.length == 0) {
+            return modele;
+        }
+        return String.format(modele, arguments);
+    }
+
+    public boolean estErreur() {
+        return gravite == Gravite.ERREUR;
+    }
+
+    // Getters
+    public Gravite getGravite() { return gravite; }
+    public Phase getPhase() { return phase; }
+    public String getCode() { return code; }
+    public int getLigne() { return ligne; }
+    public int getColonne() { return colonne; }
+    public int getDebut() { return debut; }
+    public int getFin() { return fin; }
+    public String getContexte() { return contexte; }
+    public String getNote() { return note; }
+
+    @Override
+    public String toString() {
+        return gravite + " " + phase + " ligne " + ligne + ": " + getMessage();
+    }
+}
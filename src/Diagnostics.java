@@ -0,0 +1,109 @@
+// Diagnostics.java
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Collecteur commun des diagnostics de toutes les phases.
+//
+// Rien n'est affiché pendant la compilation : les diagnostics sont accumulés
+// puis rendus une seule fois à la fin (console, JSON ou SARIF). Le collecteur
+// est borné : au-delà de la limite d'erreurs la compilation est interrompue
+// par une ArretCompilation, et seuls les premiers avertissements sont gardés.
+// Il n'est utilisé que depuis un seul thread (l'analyse parallèle journalise
+// puis réémet dans l'ordre du source).
+public class Diagnostics {
+    public static final int LIMITE_ERREURS_DEFAUT = 100;
+    public static final int LIMITE_AVERTISSEMENTS_DEFAUT = 500;
+
+    private final List<Diagnostic> diagnostics = new ArrayList<>();
+    private final int limiteErreurs;        // 0 : pas de limite
+    private final int limiteAvertissements; // 0 : pas de limite
+    private int nombreErreurs = 0;
+    private int nombreAvertissements = 0;
+    private boolean interrompu = false;
+
+    public Diagnostics() {
+        this(LIMITE_ERREURS_DEFAUT, LIMITE_AVERTISSEMENTS_DEFAUT);
+    }
+
+    public Diagnostics(int limiteErreurs, int limiteAvertissements) {
+        this.limiteErreurs = limiteErreurs;
+        this.limiteAvertissements = limiteAvertissements;
+    }
+
+    public void signaler(Diagnostic diagnostic) {
+        if (diagnostic.estErreur()) {
+            nombreErreurs++;
+            diagnostics.add(diagnostic);
+            if (limiteErreurs > 0 && nombreErreurs >= limiteErreurs) {
+                interrompu = true;
+                throw new ArretCompilation(this,
+                        "Trop d'erreurs (" + nombreErreurs + "), compilation interrompue");
+            }
+        } else {
+            nombreAvertissements++;
+            if (limiteAvertissements == 0 || nombreAvertissements <= limiteAvertissements) {
+                diagnostics.add(diagnostic);
+            }
+        }
+    }
+
+    // Erreur après laquelle la phase ne peut pas continuer
+    public void arreter(Diagnostic diagnostic) {
+        signaler(diagnostic);
+        interrompu = true;
+        throw new ArretCompilation(this, diagnostic.getMessage());
+    }
+
+    public boolean aErreurs() {
+        return nombreErreurs > 0;
+    }
+
+    public boolean aErreurs(Diagnostic.Phase phase) {
+        for (Diagnostic diagnostic : diagnostics) {
+            if (diagnostic.estErreur() && diagnostic.getPhase() == phase) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public List<Diagnostic> getDiagnostics() {
+        return Collections.unmodifiableList(diagnostics);
+    }
+
+    public int getNombreErreurs() {
+        return nombreErreurs;
+    }
+
+    public int getNombreAvertissements() {
+        return nombreAvertissements;
+    }
+
+    // Avertissements comptés mais non conservés (limite atteinte)
+    public int getAvertissementsIgnores() {
+        return limiteAvertissements == 0 ? 0
+                : Math.max(0, nombreAvertissements - limiteAvertissements);
+    }
+
+    public boolean estInterrompu() {
+        return interrompu;
+    }
+}
+
+// Levée quand la compilation ne peut pas continuer (erreur lexicale, limite
+// d'erreurs atteinte) ; les diagnostics déjà collectés restent à rendre
+class ArretCompilation extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final Diagnostics diagnostics;
+
+    ArretCompilation(Diagnostics diagnostics, String message) {
+        super(message);
+        this.diagnostics = diagnostics;
+    }
+
+    Diagnostics getDiagnostics() {
+        return diagnostics;
+    }
+}
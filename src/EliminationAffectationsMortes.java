@@ -0,0 +1,102 @@
+// EliminationAffectationsMortes.java
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Set;
+
+// Élimination des affectations mortes sur la forme SSA.
+//
+// Une version est utile si une instruction à effet la lit (affichage,
+// lecture, appel, écriture dans un tableau, test, bornes de boucle, retour),
+// si un phi utile la reçoit, ou si une affectation utile la lit. Pour un
+// sous-programme, les globales sont lues par l'appelant à la sortie. Une
+// affectation 'x <- e' dont la version n'est pas utile est supprimée de l'AST
+// lorsque e est sans effet (ni appel, ni accès à un élément, ni division) ;
+// contrairement à EliminationCodeMort, la variable peut être lue ailleurs,
+// seule cette écriture est inutile (réécrite avant toute lecture).
+public class EliminationAffectationsMortes implements PasseSSA {
+    private RepresentationSSA ssa;
+    private boolean[] utiles;
+    private boolean[] instructionsVues;
+    private final ArrayDeque<ValeurSSA> travail = new ArrayDeque<>();
+
+    @Override
+    public String getNom() {
+        return "DCE";
+    }
+
+    @Override
+    public int executer(RepresentationSSA ssa) {
+        this.ssa = ssa;
+        GrapheFlotControle graphe = ssa.getGraphe();
+        utiles = new boolean[ssa.getValeurs().size()];
+        instructionsVues = new boolean[graphe.getInstructions().size()];
+
+        for (InstructionFlot instruction : graphe.getInstructions()) {
+            if (ssa.estAccessible(instruction.bloc) && !estSupprimable(instruction)) {
+                marquerLues(instruction);
+            }
+        }
+        if (GrapheFlotControle.estSousProgramme(graphe.getRoutine())) {
+            Set<String> locaux = GrapheFlotControle.nomsLocaux(graphe.getRoutine());
+            for (Map.Entry<String, ValeurSSA> sortie : ssa.getVersionsEnSortie().entrySet()) {
+                if (!locaux.contains(sortie.getKey())) {
+                    marquer(sortie.getValue());
+                }
+            }
+        }
+
+        while (!travail.isEmpty()) {
+            ValeurSSA valeur = travail.poll();
+            if (valeur.sorte == ValeurSSA.Sorte.PHI) {
+                for (ValeurSSA operande : valeur.operandes) {
+                    if (operande != null) {
+                        marquer(operande);
+                    }
+                }
+            } else if (valeur.instruction != null) {
+                marquerLues(valeur.instruction);
+            }
+        }
+
+        int suppressions = 0;
+        for (InstructionFlot instruction : graphe.getInstructions()) {
+            if (!ssa.estAccessible(instruction.bloc) || !estSupprimable(instruction)) {
+                continue;
+            }
+            ValeurSSA ecrite = ssa.getDefinitions(instruction).get(0);
+            if (!utiles[ecrite.id]) {
+                NoeudAST affectation = instruction.noeud;
+                NoeudAST parent = affectation.getParent();
+                parent.retirerEnfant(parent.getEnfants().indexOf(affectation));
+                suppressions++;
+            }
+        }
+        return suppressions;
+    }
+
+    // Affectation simple d'une expression sans effet
+    private boolean estSupprimable(InstructionFlot instruction) {
+        NoeudAST noeud = instruction.noeud;
+        return instruction.sorte == InstructionFlot.Sorte.SIMPLE &&
+                noeud.getType() == NoeudAST.TypeNoeud.AFFECTATION &&
+                noeud.getEnfants().size() == 1 &&
+                PropagationConstantes.sansEffet(noeud.getEnfant(0));
+    }
+
+    private void marquerLues(InstructionFlot instruction) {
+        if (instructionsVues[instruction.numero]) {
+            return;
+        }
+        instructionsVues[instruction.numero] = true;
+        for (ValeurSSA lue : ssa.getLues(instruction).values()) {
+            marquer(lue);
+        }
+    }
+
+    private void marquer(ValeurSSA valeur) {
+        if (!utiles[valeur.id]) {
+            utiles[valeur.id] = true;
+            travail.add(valeur);
+        }
+    }
+}
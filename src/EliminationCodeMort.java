@@ -0,0 +1,474 @@
+// EliminationCodeMort.java
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Élimination du code mort sur l'AST (passe exécutée après la propagation de
+// constantes, qui rend les conditions littérales).
+//
+// - instructions qui suivent un RETOUR dans un bloc ;
+// - SI dont la condition est un littéral : remplacé par la branche prise ;
+// - TANTQUE toujours faux, POUR dont les bornes littérales sont vides ;
+//   REPETER ... JUSQUA vrai : remplacé par son corps (exécuté une fois) ;
+// - affectations mortes : 'x <- e' alors que x n'est plus vivante après
+//   (AnalyseVivacite), la variable restant lue ailleurs ;
+// - variables jamais lues : déclaration et affectations supprimées, jusqu'au
+//   point fixe (supprimer 'y <- x' peut rendre x inutile à son tour).
+//
+// Une affectation n'est supprimée que si sa valeur ne peut rien faire d'autre
+// que produire un résultat : un appel est conservé comme instruction, une
+// division ou un accès indexé (qui peuvent échouer) gardent la variable.
+//
+// Les avertissements ne portent que sur le code écrit par l'utilisateur :
+// releverSource() doit voir l'arbre avant les passes qui le réécrivent.
+// Les nœuds créés ou copiés ensuite (corps intégrés, champs éclatés,
+// temporaires) sont simplifiés sans avertissement, de même qu'une variable
+// lue dans le source que la propagation a rendue inutile.
+public class EliminationCodeMort {
+
+    private final AnalyseurSemantique analyseur;
+    private final Set<NoeudAST> noeudsSource = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Set<NoeudAST> nonLuesDansSource = Collections.newSetFromMap(new IdentityHashMap<>());
+    private int nombreInstructions = 0;
+    private int nombreBranches = 0;
+    private int nombreVariables = 0;
+
+    public EliminationCodeMort(AnalyseurSemantique analyseur) {
+        this.analyseur = analyseur;
+    }
+
+    // Mémorise les nœuds du source et les déclarations jamais lues
+    public void releverSource(NoeudAST programme) {
+        marquerSource(programme);
+        lecturesParSection(programme).forEach((section, lectures) -> {
+            for (NoeudAST declaration : section.getEnfants()) {
+                for (NoeudAST liste : declaration.getEnfants()) {
+                    if (liste.getType() != NoeudAST.TypeNoeud.LISTE_IDENTIFICATEURS) {
+                        continue;
+                    }
+                    for (NoeudAST identifiant : liste.getEnfants()) {
+                        if (!lectures.contains(identifiant.getValeur())) {
+                            nonLuesDansSource.add(identifiant);
+                        }
+                    }
+                }
+            }
+        });
+    }
+
+    private void marquerSource(NoeudAST noeud) {
+        noeudsSource.add(noeud);
+        for (NoeudAST enfant : noeud.getEnfants()) {
+            marquerSource(enfant);
+        }
+    }
+
+    public void optimiser(NoeudAST programme) {
+        for (NoeudAST element : programme.getEnfants()) {
+            for (NoeudAST bloc : blocsDe(element)) {
+                simplifierBloc(bloc);
+            }
+        }
+
+        boolean modifie = true;
+        while (modifie) {
+            // chaque tour peut libérer les variables lues par les affectations supprimées
+            modifie = supprimerAffectationsMortes(programme);
+            modifie |= supprimerVariablesInutiles(programme);
+        }
+    }
+
+    public int getNombreInstructions() {
+        return nombreInstructions;
+    }
+
+    public int getNombreBranches() {
+        return nombreBranches;
+    }
+
+    public int getNombreVariables() {
+        return nombreVariables;
+    }
+
+    // Bloc principal, ou corps d'un sous-programme
+    private List<NoeudAST> blocsDe(NoeudAST element) {
+        List<NoeudAST> blocs = new ArrayList<>();
+        if (element.getType() == NoeudAST.TypeNoeud.BLOC_INSTRUCTIONS) {
+            blocs.add(element);
+        } else if (element.getType() == NoeudAST.TypeNoeud.DECLARATION_FONCTION ||
+                element.getType() == NoeudAST.TypeNoeud.DECLARATION_PROCEDURE) {
+            for (NoeudAST enfant : element.getEnfants()) {
+                if (enfant.getType() == NoeudAST.TypeNoeud.BLOC_INSTRUCTIONS) {
+                    blocs.add(enfant);
+                }
+            }
+        }
+        return blocs;
+    }
+
+    // ==================== FLOT DE CONTRÔLE ====================
+
+    private void simplifierBloc(NoeudAST bloc) {
+        List<NoeudAST> resultat = new ArrayList<>();
+        List<NoeudAST> instructions = new ArrayList<>(bloc.getEnfants());
+
+        for (int i = 0; i < instructions.size(); i++) {
+            NoeudAST instruction = instructions.get(i);
+            resultat.addAll(simplifierInstruction(instruction));
+
+            if (instruction.getType() == NoeudAST.TypeNoeud.RETOUR && i + 1 < instructions.size()) {
+                int restantes = instructions.size() - i - 1;
+                signaler(instructions.get(i + 1),
+                        "%d instruction(s) inaccessible(s) après RETOUR supprimée(s)", restantes);
+                nombreInstructions += restantes;
+                break;
+            }
+        }
+
+        remplacerInstructions(bloc, resultat);
+    }
+
+    // Instructions qui remplacent 'instruction' dans son bloc
+    private List<NoeudAST> simplifierInstruction(NoeudAST instruction) {
+        List<NoeudAST> enfants = instruction.getEnfants();
+
+        switch (instruction.getType()) {
+            case CONDITION: {
+                for (int i = 1; i < enfants.size(); i++) {
+                    simplifierBloc(instruction.getEnfant(i));
+                }
+                Boolean test = valeurBooleenne(instruction.getEnfant(0));
+                if (test == null) {
+                    break;
+                }
+                nombreBranches++;
+                if (test) {
+                    signaler(instruction, "Condition toujours vraie : SI remplacé par sa branche ALORS");
+                    return instructionsDe(instruction, 1);
+                }
+                signaler(instruction, enfants.size() > 2
+                        ? "Condition toujours fausse : SI remplacé par sa branche SINON"
+                        : "Condition toujours fausse : SI supprimé");
+                return instructionsDe(instruction, 2);
+            }
+
+            case BOUCLE_POUR: {
+                NoeudAST corps = instruction.getEnfant(enfants.size() - 1);
+                if (corps != null && corps.getType() == NoeudAST.TypeNoeud.BLOC_INSTRUCTIONS) {
+                    simplifierBloc(corps);
+                }
+                Long debut = valeurEntiere(instruction.getEnfant(0));
+                Long fin = valeurEntiere(instruction.getEnfant(1));
+                if (debut != null && fin != null && debut > fin) {
+                    nombreBranches++;
+                    signaler(instruction, "Boucle POUR jamais exécutée supprimée (%d > %d)", debut, fin);
+                    return new ArrayList<>();
+                }
+                break;
+            }
+
+            case BOUCLE_TANTQUE:
+                if (enfants.size() > 1) {
+                    simplifierBloc(instruction.getEnfant(1));
+                }
+                if (Boolean.FALSE.equals(valeurBooleenne(instruction.getEnfant(0)))) {
+                    nombreBranches++;
+                    signaler(instruction, "Boucle TANTQUE jamais exécutée supprimée");
+                    return new ArrayList<>();
+                }
+                break;
+
+            case BOUCLE_REPETER:
+                if (!enfants.isEmpty()) {
+                    simplifierBloc(instruction.getEnfant(0));
+                }
+                if (enfants.size() > 1 && Boolean.TRUE.equals(valeurBooleenne(instruction.getEnfant(1)))) {
+                    nombreBranches++;
+                    signaler(instruction, "Boucle REPETER exécutée une seule fois remplacée par son corps");
+                    return instructionsDe(instruction, 0);
+                }
+                break;
+
+            case BLOC_INSTRUCTIONS:
+                simplifierBloc(instruction);
+                break;
+
+            default:
+                break;
+        }
+
+        List<NoeudAST> inchangee = new ArrayList<>();
+        inchangee.add(instruction);
+        return inchangee;
+    }
+
+    // Avertissement sur une instruction du source ; une copie (corps intégré à
+    // chaque appel) donnerait un avertissement par site, voire des contradictoires
+    private void signaler(NoeudAST instruction, String modele, Object... arguments) {
+        if (noeudsSource.contains(instruction)) {
+            analyseur.avertissement(modele, instruction.getLigne(), arguments);
+        }
+    }
+
+    // Instructions du bloc enfant 'index' (aucune s'il n'existe pas)
+    private List<NoeudAST> instructionsDe(NoeudAST instruction, int index) {
+        NoeudAST bloc = instruction.getEnfant(index);
+        return bloc == null ? new ArrayList<>() : new ArrayList<>(bloc.getEnfants());
+    }
+
+    private void remplacerInstructions(NoeudAST bloc, List<NoeudAST> instructions) {
+        if (instructions.equals(bloc.getEnfants())) {
+            return;
+        }
+        while (!bloc.getEnfants().isEmpty()) {
+            bloc.retirerEnfant(bloc.getEnfants().size() - 1);
+        }
+        bloc.ajouterEnfants(instructions);
+    }
+
+    // ==================== AFFECTATIONS MORTES ====================
+
+    // Un tour : affectations sans effet dont la valeur n'est jamais relue
+    private boolean supprimerAffectationsMortes(NoeudAST programme) {
+        List<NoeudAST> mortes = new ArrayList<>();
+        for (GrapheFlotControle graphe : GrapheFlotControle.construireProgramme(programme).values()) {
+            AnalyseVivacite vivacite = AnalyseVivacite.pourRoutine(graphe);
+            for (InstructionFlot instruction : graphe.getInstructions()) {
+                NoeudAST noeud = instruction.noeud;
+                if (instruction.sorte == InstructionFlot.Sorte.SIMPLE &&
+                        noeud.getType() == NoeudAST.TypeNoeud.AFFECTATION &&
+                        noeud.getEnfants().size() == 1 &&
+                        PropagationConstantes.sansEffet(noeud.getEnfant(0)) &&
+                        !vivacite.estVivanteApres(noeud, noeud.getValeur())) {
+                    mortes.add(noeud);
+                }
+            }
+        }
+        for (NoeudAST affectation : mortes) {
+            NoeudAST parent = affectation.getParent();
+            parent.retirerEnfant(parent.getEnfants().indexOf(affectation));
+            nombreInstructions++;
+        }
+        return !mortes.isEmpty();
+    }
+
+    // ==================== VARIABLES INUTILES ====================
+
+    // Un tour : renvoie vrai si quelque chose a été supprimé
+    private boolean supprimerVariablesInutiles(NoeudAST programme) {
+        Map<NoeudAST, Set<String>> lectures = lecturesParSection(programme);
+        Set<String> mortes = new HashSet<>();
+        boolean modifie = false;
+
+        for (NoeudAST element : programme.getEnfants()) {
+            if (element.getType() == NoeudAST.TypeNoeud.SECTION_VAR) {
+                mortes.addAll(retirerDeclarations(element, lectures.get(element),
+                        "Variable jamais lue supprimée: %s"));
+                continue;
+            }
+            // Locales jamais lues
+            for (NoeudAST section : element.getEnfants()) {
+                if (section.getType() != NoeudAST.TypeNoeud.SECTION_VAR) {
+                    continue;
+                }
+                Set<String> locales = retirerDeclarations(section, lectures.get(section),
+                        "Variable locale jamais lue supprimée: %s (dans " + element.getValeur() + ")");
+                if (!locales.isEmpty()) {
+                    modifie = true;
+                    for (NoeudAST bloc : blocsDe(element)) {
+                        retirerAffectations(bloc, locales);
+                    }
+                }
+            }
+        }
+
+        // Globales jamais lues : affectations retirées du programme principal et
+        // des sous-programmes où elles ne sont pas masquées
+        if (!mortes.isEmpty()) {
+            modifie = true;
+            for (NoeudAST element : programme.getEnfants()) {
+                Set<String> visibles = new HashSet<>(mortes);
+                if (element.getType() != NoeudAST.TypeNoeud.BLOC_INSTRUCTIONS) {
+                    visibles.removeAll(GrapheFlotControle.nomsLocaux(element));
+                }
+                for (NoeudAST bloc : blocsDe(element)) {
+                    retirerAffectations(bloc, visibles);
+                }
+            }
+        }
+
+        return modifie;
+    }
+
+    // Noms lus dans la portée de chaque section VAR : le sous-programme pour
+    // une section locale, tout le programme (hors masquage) pour une globale
+    private Map<NoeudAST, Set<String>> lecturesParSection(NoeudAST programme) {
+        Map<NoeudAST, Set<String>> resultat = new IdentityHashMap<>();
+        Set<String> lecturesGlobales = new HashSet<>();
+
+        for (NoeudAST element : programme.getEnfants()) {
+            switch (element.getType()) {
+                case SECTION_VAR:
+                    resultat.put(element, lecturesGlobales);
+                    break;
+
+                case BLOC_INSTRUCTIONS:
+                    collecterLectures(element, lecturesGlobales);
+                    break;
+
+                case DECLARATION_FONCTION:
+                case DECLARATION_PROCEDURE: {
+                    Set<String> locaux = GrapheFlotControle.nomsLocaux(element);
+                    Set<String> lectures = new HashSet<>();
+                    for (NoeudAST enfant : element.getEnfants()) {
+                        if (enfant.getType() == NoeudAST.TypeNoeud.BLOC_INSTRUCTIONS ||
+                                enfant.getType() == NoeudAST.TypeNoeud.RETOUR) {
+                            collecterLectures(enfant, lectures);
+                        } else if (enfant.getType() == NoeudAST.TypeNoeud.SECTION_VAR) {
+                            resultat.put(enfant, lectures);
+                        }
+                    }
+                    for (String nom : lectures) {
+                        if (!locaux.contains(nom)) {
+                            lecturesGlobales.add(nom);
+                        }
+                    }
+                    break;
+                }
+
+                default:
+                    break;
+            }
+        }
+        return resultat;
+    }
+
+    // Noms lus dans un sous-arbre. Une affectation dont la valeur ne peut pas
+    // être supprimée compte comme une lecture de sa cible (elle la conserve).
+    private void collecterLectures(NoeudAST noeud, Set<String> lectures) {
+        switch (noeud.getType()) {
+            case VARIABLE:
+            case ACCES_TABLEAU:
+            case BOUCLE_POUR:
+                lectures.add(noeud.getValeur());
+                break;
+
+            case ACCES_CHAMP:
+                // Les maillons sont des noms de champs, pas des variables
+                lectures.add(noeud.getValeur());
+                for (NoeudAST maillon : noeud.getEnfants()) {
+                    if (maillon.getType() == NoeudAST.TypeNoeud.ACCES_TABLEAU) {
+                        for (NoeudAST indice : maillon.getEnfants()) {
+                            collecterLectures(indice, lectures);
+                        }
+                    }
+                }
+                return;
+
+            case AFFECTATION:
+                if (noeud.getEnfants().size() == 1 && !supprimable(noeud.getEnfant(0))) {
+                    lectures.add(noeud.getValeur());
+                }
+                break;
+
+            default:
+                break;
+        }
+        for (NoeudAST enfant : noeud.getEnfants()) {
+            collecterLectures(enfant, lectures);
+        }
+    }
+
+    // Retire les identifiants non lus d'une section VAR et renvoie leurs noms
+    private Set<String> retirerDeclarations(NoeudAST section, Set<String> lectures, String message) {
+        Set<String> retires = new HashSet<>();
+        List<NoeudAST> declarations = new ArrayList<>(section.getEnfants());
+
+        for (NoeudAST declaration : declarations) {
+            for (NoeudAST liste : declaration.getEnfants()) {
+                if (liste.getType() != NoeudAST.TypeNoeud.LISTE_IDENTIFICATEURS) {
+                    continue;
+                }
+                // Avertissements dans l'ordre du source, retraits en partant de la fin
+                for (NoeudAST identifiant : liste.getEnfants()) {
+                    if (!lectures.contains(identifiant.getValeur())) {
+                        if (nonLuesDansSource.contains(identifiant)) {
+                            analyseur.avertissement(message, identifiant.getLigne(), identifiant.getValeur());
+                        }
+                        nombreVariables++;
+                        retires.add(identifiant.getValeur());
+                    }
+                }
+                for (int i = liste.getEnfants().size() - 1; i >= 0; i--) {
+                    if (!lectures.contains(liste.getEnfant(i).getValeur())) {
+                        liste.retirerEnfant(i);
+                    }
+                }
+                if (liste.getEnfants().isEmpty()) {
+                    section.retirerEnfant(section.getEnfants().indexOf(declaration));
+                }
+            }
+        }
+        return retires;
+    }
+
+    // Supprime les affectations aux variables retirées ; un appel en valeur
+    // est gardé comme instruction
+    private void retirerAffectations(NoeudAST bloc, Set<String> mortes) {
+        if (mortes.isEmpty()) {
+            return;
+        }
+        List<NoeudAST> resultat = new ArrayList<>();
+        for (NoeudAST instruction : bloc.getEnfants()) {
+            if (instruction.getType() == NoeudAST.TypeNoeud.AFFECTATION &&
+                    instruction.getEnfants().size() == 1 && mortes.contains(instruction.getValeur())) {
+                NoeudAST valeur = instruction.getEnfant(0);
+                if (valeur.getType() == NoeudAST.TypeNoeud.APPEL_FONCTION) {
+                    resultat.add(valeur);
+                }
+                nombreInstructions++;
+                continue;
+            }
+            for (NoeudAST enfant : instruction.getEnfants()) {
+                if (enfant.getType() == NoeudAST.TypeNoeud.BLOC_INSTRUCTIONS) {
+                    retirerAffectations(enfant, mortes);
+                }
+            }
+            resultat.add(instruction);
+        }
+        remplacerInstructions(bloc, resultat);
+    }
+
+    // Valeur qui ne fait que produire un résultat (ni appel, ni division,
+    // ni accès indexé), ou appel qu'on peut garder seul comme instruction
+    private boolean supprimable(NoeudAST valeur) {
+        return valeur.getType() == NoeudAST.TypeNoeud.APPEL_FONCTION || PropagationConstantes.sansEffet(valeur);
+    }
+
+    // ==================== LITTÉRAUX ====================
+
+    private Boolean valeurBooleenne(NoeudAST noeud) {
+        if (noeud == null || noeud.getType() != NoeudAST.TypeNoeud.VALEUR_BOOLEENNE) {
+            return null;
+        }
+        String texte = noeud.getValeur().toLowerCase();
+        if ("vrai".equals(texte)) return Boolean.TRUE;
+        if ("faux".equals(texte)) return Boolean.FALSE;
+        return null;
+    }
+
+    private Long valeurEntiere(NoeudAST noeud) {
+        if (noeud == null || noeud.getType() != NoeudAST.TypeNoeud.NOMBRE) {
+            return null;
+        }
+        try {
+            return Long.parseLong(noeud.getValeur());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,303 @@
+// EliminationRecursionTerminale.java
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// Élimination de la récursion terminale des fonctions.
+//
+// Une fonction n'a qu'un RETOUR, à la fin : un appel récursif est terminal
+// quand il affecte la variable renvoyée ('r <- f(...)') dans une instruction
+// en position terminale (dernière de son bloc, lui-même corps de la fonction
+// ou branche d'un SI en position terminale). La forme à accumulateur
+// 'r <- e op f(...)' ou 'r <- f(...) op e' est acceptée pour + et * sur des
+// entiers, si e est sans effet et ne lit que des paramètres et des locales.
+//
+// Le corps devient une boucle TANTQUE : chaque appel terminal combine e dans
+// l'accumulateur, réaffecte les paramètres (par des temporaires si un argument
+// lit un autre paramètre), remet à leur valeur initiale les locales lues avant
+// d'être écrites, comme le ferait un nouvel appel, et relance un tour.
+// L'indicateur de fin et l'accumulateur d'une somme partent de la valeur par
+// défaut de leur déclaration (faux, 0) : aucune affectation avant la boucle.
+// La fonction s'exécute alors en pile constante et peut ensuite être intégrée.
+public class EliminationRecursionTerminale {
+    private final Set<String> nomsUtilises = new HashSet<>();
+    private int nombreFonctions = 0;
+    private int nombreAppels = 0;
+
+    public void optimiser(NoeudAST programme) {
+        GrapheFlotControle.collecterNoms(programme, nomsUtilises);
+        for (NoeudAST element : programme.getEnfants()) {
+            if (element.getType() == NoeudAST.TypeNoeud.DECLARATION_FONCTION) {
+                transformer(element);
+            }
+        }
+    }
+
+    public int getNombreFonctions() {
+        return nombreFonctions;
+    }
+
+    public int getNombreAppels() {
+        return nombreAppels;
+    }
+
+    // ==================== RECONNAISSANCE ====================
+
+    private void transformer(NoeudAST fonction) {
+        NoeudAST corps = null;
+        NoeudAST retour = null;
+        NoeudAST section = null;
+        NoeudAST parametres = null;
+        for (NoeudAST enfant : fonction.getEnfants()) {
+            switch (enfant.getType()) {
+                case BLOC_INSTRUCTIONS: corps = enfant; break;
+                case RETOUR: retour = enfant; break;
+                case SECTION_VAR: section = enfant; break;
+                case LISTE_PARAMETRES: parametres = enfant; break;
+                default: break;
+            }
+        }
+        if (corps == null || retour == null || retour.getEnfants().isEmpty() ||
+                retour.getEnfant(0).getType() != NoeudAST.TypeNoeud.VARIABLE) {
+            return;
+        }
+        String resultat = retour.getEnfant(0).getValeur();
+        Set<String> locaux = GrapheFlotControle.nomsLocaux(fonction);
+        if (!locaux.contains(resultat)) {
+            return;
+        }
+        List<NoeudAST> locales = new ArrayList<>();
+        if (section != null) {
+            for (NoeudAST liste : section.rechercherParType(NoeudAST.TypeNoeud.LISTE_IDENTIFICATEURS)) {
+                for (NoeudAST identifiant : liste.getEnfants()) {
+                    if (!GrapheFlotControle.estScalaire(identifiant.getSymbole())) {
+                        return; // un tableau local ne se réinitialise pas par une affectation
+                    }
+                    locales.add(identifiant);
+                }
+            }
+        }
+
+        List<NoeudAST> appels = new ArrayList<>();
+        for (NoeudAST appel : fonction.rechercherParType(NoeudAST.TypeNoeud.APPEL_FONCTION)) {
+            if (appel.getValeur().equals(fonction.getValeur())) {
+                appels.add(appel);
+            }
+        }
+        if (appels.isEmpty()) {
+            return;
+        }
+
+        List<NoeudAST> terminales = new ArrayList<>();
+        positionsTerminales(corps, terminales);
+        Operateur operateur = null;
+        for (NoeudAST appel : appels) {
+            NoeudAST parent = appel.getParent();
+            NoeudAST affectation = parent.getType() == NoeudAST.TypeNoeud.AFFECTATION ? parent : parent.getParent();
+            if (affectation == null || affectation.getType() != NoeudAST.TypeNoeud.AFFECTATION ||
+                    affectation.getEnfants().size() != 1 || !affectation.getValeur().equals(resultat) ||
+                    !contientIdentite(terminales, affectation)) {
+                return;
+            }
+            if (parent != affectation) {
+                // Forme à accumulateur
+                Operateur op = parent.getOperateur();
+                NoeudAST autre = parent.getEnfant(parent.getEnfant(0) == appel ? 1 : 0);
+                if ((op != Operateur.PLUS && op != Operateur.MULT) || (operateur != null && operateur != op) ||
+                        parent.getTypeResolu() != TypeDonnee.ENTIER || autre.getTypeResolu() != TypeDonnee.ENTIER ||
+                        !PropagationConstantes.sansEffet(autre) || !litSeulement(autre, locaux)) {
+                    return;
+                }
+                operateur = op;
+            }
+        }
+
+        // Une locale écrite avant toute lecture n'a pas à être remise à sa
+        // valeur initiale avant un nouveau tour
+        Set<String> luesEnEntree = AnalyseVivacite.pourRoutine(GrapheFlotControle.construire(fonction))
+                .vivantesEnEntree();
+        locales.removeIf(locale -> !luesEnEntree.contains(locale.getValeur()));
+
+        reecrire(fonction, corps, retour, section, parametres, locales, appels, operateur);
+        nombreFonctions++;
+        nombreAppels += appels.size();
+    }
+
+    // Instructions après lesquelles la fonction ne fait plus que son RETOUR
+    private void positionsTerminales(NoeudAST bloc, List<NoeudAST> terminales) {
+        if (bloc.getEnfants().isEmpty()) {
+            return;
+        }
+        NoeudAST derniere = bloc.getEnfant(bloc.getEnfants().size() - 1);
+        terminales.add(derniere);
+        if (derniere.getType() == NoeudAST.TypeNoeud.CONDITION) {
+            for (int i = 1; i < derniere.getEnfants().size(); i++) {
+                positionsTerminales(derniere.getEnfant(i), terminales);
+            }
+        }
+    }
+
+    private boolean contientIdentite(List<NoeudAST> noeuds, NoeudAST cherche) {
+        for (NoeudAST noeud : noeuds) {
+            if (noeud == cherche) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean litSeulement(NoeudAST expression, Set<String> noms) {
+        Set<String> lues = new HashSet<>();
+        GrapheFlotControle.collecterUtilisations(expression, lues);
+        return noms.containsAll(lues);
+    }
+
+    // ==================== RÉÉCRITURE ====================
+
+    private void reecrire(NoeudAST fonction, NoeudAST corps, NoeudAST retour, NoeudAST section,
+                          NoeudAST parametres, List<NoeudAST> locales, List<NoeudAST> appels,
+                          Operateur operateur) {
+        int ligne = fonction.getLigne();
+        if (section == null) {
+            section = new NoeudAST(NoeudAST.TypeNoeud.SECTION_VAR, "", ligne);
+            fonction.insererEnfant(fonction.getEnfants().indexOf(corps), section);
+        }
+        EntreeTableSymboles fini = GrapheFlotControle.declarer(section, section.getEnfants().size(),
+                GrapheFlotControle.nouveauNom("_fini", nomsUtilises), TypeDonnee.BOOLEEN, "booleen", ligne);
+        EntreeTableSymboles accumulateur = operateur == null ? null
+                : GrapheFlotControle.declarer(section, section.getEnfants().size(),
+                        GrapheFlotControle.nouveauNom("_acc", nomsUtilises), TypeDonnee.ENTIER, "entier", ligne);
+
+        // Chaque appel terminal relance un tour avec de nouveaux paramètres
+        List<NoeudAST> listeParametres = parametres == null ? List.of() : parametres.getEnfants();
+        for (NoeudAST appel : appels) {
+            NoeudAST affectation = appel.getParent().getType() == NoeudAST.TypeNoeud.AFFECTATION
+                    ? appel.getParent() : appel.getParent().getParent();
+            List<NoeudAST> remplacement = new ArrayList<>();
+            if (appel.getParent() != affectation) {
+                NoeudAST operation = appel.getParent();
+                NoeudAST autre = operation.getEnfant(operation.getEnfant(0) == appel ? 1 : 0);
+                remplacement.add(GrapheFlotControle.affectation(accumulateur,
+                        binaire(operateur, variable(accumulateur, autre), autre), autre));
+            }
+            remplacement.addAll(reaffecterParametres(section, listeParametres, appel));
+            for (NoeudAST locale : locales) {
+                remplacement.add(GrapheFlotControle.affectation(locale.getSymbole(),
+                        GrapheFlotControle.valeurInitiale(locale), appel));
+            }
+            remplacement.add(GrapheFlotControle.affectation(fini, litteral(Boolean.FALSE, appel), appel));
+
+            NoeudAST bloc = affectation.getParent();
+            int position = bloc.getEnfants().indexOf(affectation);
+            bloc.retirerEnfant(position);
+            for (NoeudAST instruction : remplacement) {
+                bloc.insererEnfant(position++, instruction);
+            }
+        }
+
+        // Corps : tant qu'un appel terminal a relancé un tour
+        NoeudAST tour = new NoeudAST(NoeudAST.TypeNoeud.BLOC_INSTRUCTIONS, "", ligne);
+        tour.ajouterEnfant(GrapheFlotControle.affectation(fini, litteral(Boolean.TRUE, corps), corps));
+        for (NoeudAST instruction : new ArrayList<>(corps.getEnfants())) {
+            corps.retirerEnfant(0);
+            tour.ajouterEnfant(instruction);
+        }
+        NoeudAST boucle = new NoeudAST(NoeudAST.TypeNoeud.BOUCLE_TANTQUE, "", ligne);
+        boucle.copierEtendue(corps);
+        boucle.ajouterEnfant(non(variable(fini, corps)));
+        boucle.ajouterEnfant(tour);
+
+        // Le 0 de la déclaration est déjà le neutre de +
+        if (operateur == Operateur.MULT) {
+            corps.ajouterEnfant(GrapheFlotControle.affectation(accumulateur, litteral(1L, corps), corps));
+        }
+        corps.ajouterEnfant(boucle);
+
+        if (accumulateur != null) {
+            NoeudAST lu = retour.retirerEnfant(0);
+            retour.ajouterEnfant(binaire(operateur, variable(accumulateur, lu), lu));
+        }
+    }
+
+    // p1 <- a1 ... pn <- an, en passant par des temporaires si un argument
+    // lit un paramètre réaffecté avant lui
+    private List<NoeudAST> reaffecterParametres(NoeudAST section, List<NoeudAST> parametres, NoeudAST appel) {
+        List<NoeudAST> arguments = appel.getEnfants().isEmpty() ? List.of() : appel.getEnfant(0).getEnfants();
+        Set<String> modifies = new HashSet<>();
+        boolean temporaires = false;
+        for (int i = 0; i < parametres.size(); i++) {
+            NoeudAST argument = arguments.get(i);
+            String nom = parametres.get(i).getValeur();
+            if (argument.getType() == NoeudAST.TypeNoeud.VARIABLE && argument.getValeur().equals(nom)) {
+                continue;
+            }
+            Set<String> lues = new HashSet<>();
+            GrapheFlotControle.collecterUtilisations(argument, lues);
+            for (String lue : lues) {
+                temporaires |= modifies.contains(lue);
+            }
+            modifies.add(nom);
+        }
+
+        List<NoeudAST> instructions = new ArrayList<>();
+        List<NoeudAST> finales = new ArrayList<>();
+        for (int i = 0; i < parametres.size(); i++) {
+            NoeudAST parametre = parametres.get(i);
+            NoeudAST argument = arguments.get(i);
+            if (!modifies.contains(parametre.getValeur())) {
+                continue;
+            }
+            if (temporaires) {
+                NoeudAST type = parametre.getEnfants().isEmpty() ? null : parametre.getEnfant(0);
+                String nom = GrapheFlotControle.nouveauNom("_" + parametre.getValeur(), nomsUtilises);
+                EntreeTableSymboles temporaire = GrapheFlotControle.declarer(section, section.getEnfants().size(),
+                        nom, parametre.getSymbole().type, type == null ? "entier" : type.getValeur(),
+                        parametre.getLigne());
+                temporaire.estTableau = parametre.getSymbole().estTableau;
+                temporaire.taille = parametre.getSymbole().taille;
+                temporaire.typeElement = parametre.getSymbole().typeElement;
+                temporaire.nomStructure = parametre.getSymbole().nomStructure;
+                instructions.add(GrapheFlotControle.affectation(temporaire, argument, argument));
+                finales.add(GrapheFlotControle.affectation(parametre.getSymbole(),
+                        variable(temporaire, argument), argument));
+            } else {
+                instructions.add(GrapheFlotControle.affectation(parametre.getSymbole(), argument, argument));
+            }
+        }
+        instructions.addAll(finales);
+        return instructions;
+    }
+
+    private NoeudAST variable(EntreeTableSymboles entree, NoeudAST origine) {
+        NoeudAST variable = new NoeudAST(NoeudAST.TypeNoeud.VARIABLE, entree.nom, origine.getLigne());
+        variable.setSymbole(entree);
+        variable.setTypeResolu(entree.estTableau ? TypeDonnee.TABLEAU : entree.type);
+        variable.copierEtendue(origine);
+        return variable;
+    }
+
+    private NoeudAST non(NoeudAST operande) {
+        NoeudAST non = new NoeudAST(NoeudAST.TypeNoeud.NEGATION, "NON", operande.getLigne());
+        non.setOperateur(Operateur.NON);
+        non.setTypeResolu(TypeDonnee.BOOLEEN);
+        non.copierEtendue(operande);
+        non.ajouterEnfant(operande);
+        return non;
+    }
+
+    private NoeudAST binaire(Operateur operateur, NoeudAST gauche, NoeudAST droite) {
+        NoeudAST binaire = new NoeudAST(NoeudAST.TypeNoeud.EXPRESSION_BINAIRE, operateur.getSymbole(),
+                droite.getLigne());
+        binaire.setOperateur(operateur);
+        binaire.setTypeResolu(TypeDonnee.ENTIER);
+        binaire.copierEtendue(droite);
+        binaire.ajouterEnfant(gauche);
+        binaire.ajouterEnfant(droite);
+        return binaire;
+    }
+
+    private NoeudAST litteral(Object valeur, NoeudAST origine) {
+        return PropagationConstantes.litteral(valeur, origine);
+    }
+}
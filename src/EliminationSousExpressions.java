@@ -0,0 +1,475 @@
+// EliminationSousExpressions.java
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Élimination des sous-expressions communes sur l'AST (passe optionnelle,
+// exécutée après l'analyse sémantique).
+//
+// Les sous-arbres sans effet de bord sont numérotés par hash-consing : deux
+// expressions structurellement identiques reçoivent le même numéro de valeur
+// et partagent la même entrée du DAG. La portée est celle des blocs de base
+// étendus : ce qui est calculé dans la condition d'un SI reste disponible
+// dans ses branches, le corps d'une boucle repart d'un ensemble vide.
+//
+// Une expression rencontrée au moins deux fois est calculée une seule fois
+// dans un temporaire _cseN inséré juste avant l'instruction qui la contient,
+// puis chaque occurrence est remplacée par ce temporaire.
+public class EliminationSousExpressions {
+
+    // Une expression disponible et toutes ses occurrences
+    private static class Candidat {
+        final NoeudAST premier;
+        final int position; // indice, dans le bloc, de l'instruction qui la contient
+        final List<NoeudAST> occurrences = new ArrayList<>();
+        final Set<String> variablesLues = new HashSet<>();
+        boolean litMemoire; // lit un tableau ou un champ de structure
+
+        Candidat(NoeudAST premier, int position) {
+            this.premier = premier;
+            this.position = position;
+            this.occurrences.add(premier);
+        }
+    }
+
+    // État de l'instruction en cours de parcours
+    private static class Contexte {
+        final Map<Integer, Candidat> disponibles;
+        final List<Candidat> candidatsBloc;
+        final int position;
+        boolean appelVu; // un appel a déjà été évalué dans l'instruction
+
+        Contexte(Map<Integer, Candidat> disponibles, List<Candidat> candidatsBloc, int position) {
+            this.disponibles = disponibles;
+            this.candidatsBloc = candidatsBloc;
+            this.position = position;
+        }
+    }
+
+    private final Map<String, Integer> numerosValeur = new HashMap<>();
+    private final Map<NoeudAST, Integer> numerosNoeud = new IdentityHashMap<>();
+    private final Set<String> nomsUtilises = new HashSet<>();
+    private int nombreTemporaires = 0;
+    private int nombreRemplacements = 0;
+
+    public void optimiser(NoeudAST programme) {
+        GrapheFlotControle.collecterNoms(programme, nomsUtilises);
+
+        for (NoeudAST enfant : programme.getEnfants()) {
+            switch (enfant.getType()) {
+                case DECLARATION_FONCTION:
+                case DECLARATION_PROCEDURE:
+                    optimiserSousProgramme(enfant);
+                    break;
+                case BLOC_INSTRUCTIONS:
+                    traiterBloc(enfant, new HashMap<>(), null);
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    public int getNombreTemporaires() { return nombreTemporaires; }
+    public int getNombreRemplacements() { return nombreRemplacements; }
+
+    private void optimiserSousProgramme(NoeudAST sousProgramme) {
+        NoeudAST corps = null;
+        NoeudAST retour = null;
+        for (NoeudAST enfant : sousProgramme.getEnfants()) {
+            if (enfant.getType() == NoeudAST.TypeNoeud.BLOC_INSTRUCTIONS) {
+                corps = enfant;
+            } else if (enfant.getType() == NoeudAST.TypeNoeud.RETOUR) {
+                retour = enfant;
+            }
+        }
+        if (corps != null) {
+            traiterBloc(corps, new HashMap<>(), retour);
+        }
+    }
+
+    // ==================== PARCOURS DES INSTRUCTIONS ====================
+
+    // Le RETOUR d'une fonction suit son bloc : ses temporaires vont en fin de bloc
+    private void traiterBloc(NoeudAST bloc, Map<Integer, Candidat> disponibles, NoeudAST retour) {
+        List<Candidat> candidatsBloc = new ArrayList<>();
+        List<NoeudAST> instructions = new ArrayList<>(bloc.getEnfants());
+
+        for (int i = 0; i < instructions.size(); i++) {
+            traiterInstruction(instructions.get(i),
+                    new Contexte(disponibles, candidatsBloc, i));
+        }
+
+        if (retour != null && !retour.getEnfants().isEmpty()) {
+            visiter(retour.getEnfant(0),
+                    new Contexte(disponibles, candidatsBloc, instructions.size()), false);
+        }
+
+        materialiser(bloc, candidatsBloc);
+    }
+
+    private void traiterInstruction(NoeudAST instr, Contexte ctx) {
+        switch (instr.getType()) {
+            case AFFECTATION:
+                if (instr.getEnfants().size() == 2) {
+                    // Python évalue la valeur avant l'indice de la cible
+                    visiter(instr.getEnfant(1), ctx, false);
+                    visiterCible(instr.getEnfant(0), ctx);
+                } else if (instr.getEnfants().size() == 1) {
+                    visiter(instr.getEnfant(0), ctx, false);
+                }
+                break;
+
+            case ECRIRE:
+                for (NoeudAST arg : instr.getEnfants()) {
+                    visiter(arg, ctx, false);
+                }
+                break;
+
+            case APPEL_FONCTION:
+                visiter(instr, ctx, false);
+                break;
+
+            case CONDITION:
+                visiter(instr.getEnfant(0), ctx, false);
+                for (int i = 1; i < instr.getEnfants().size(); i++) {
+                    traiterBloc(instr.getEnfant(i), new HashMap<>(ctx.disponibles), null);
+                }
+                break;
+
+            case BOUCLE_POUR:
+                // Les bornes sont évaluées une seule fois, avant la boucle
+                visiter(instr.getEnfant(0), ctx, false);
+                visiter(instr.getEnfant(1), ctx, false);
+                if (instr.getEnfants().size() > 2) {
+                    traiterBloc(instr.getEnfant(instr.getEnfants().size() - 1), new HashMap<>(), null);
+                }
+                break;
+
+            case BOUCLE_TANTQUE:
+                // La condition est réévaluée à chaque tour : rien à factoriser
+                if (instr.getEnfants().size() > 1) {
+                    traiterBloc(instr.getEnfant(1), new HashMap<>(), null);
+                }
+                break;
+
+            case BOUCLE_REPETER:
+                if (!instr.getEnfants().isEmpty()) {
+                    traiterBloc(instr.getEnfant(0), new HashMap<>(), null);
+                }
+                break;
+
+            default:
+                // LIRE : les cibles sont affectées une à une, on ne factorise pas
+                break;
+        }
+
+        appliquerEffets(instr, ctx.disponibles);
+    }
+
+    // ==================== PARCOURS DES EXPRESSIONS ====================
+
+    // Parcours dans l'ordre d'évaluation de Python. Une occurrence sous un ET/OU
+    // (opérande droite) peut réutiliser un temporaire mais jamais en créer un,
+    // puisqu'elle n'est pas forcément évaluée.
+    private void visiter(NoeudAST n, Contexte ctx, boolean conditionnel) {
+        if (n == null) {
+            return;
+        }
+
+        if (n.getType() == NoeudAST.TypeNoeud.APPEL_FONCTION) {
+            if (!n.getEnfants().isEmpty()) {
+                for (NoeudAST arg : n.getEnfant(0).getEnfants()) {
+                    visiter(arg, ctx, conditionnel);
+                }
+            }
+            // L'appelé peut modifier n'importe quel tableau, champ ou globale
+            ctx.disponibles.clear();
+            ctx.appelVu = true;
+            return;
+        }
+
+        boolean candidat = estCandidat(n);
+        int numero = candidat ? numeroter(n) : -1;
+
+        if (numero >= 0) {
+            Candidat existant = ctx.disponibles.get(numero);
+            if (existant != null) {
+                existant.occurrences.add(n);
+                return;
+            }
+        }
+
+        switch (n.getType()) {
+            case EXPRESSION_BINAIRE:
+                boolean courtCircuit = n.getOperateur() == Operateur.ET ||
+                        n.getOperateur() == Operateur.OU;
+                visiter(n.getEnfant(0), ctx, conditionnel);
+                visiter(n.getEnfant(1), ctx, conditionnel || courtCircuit);
+                break;
+
+            case ACCES_CHAMP:
+                visiterCible(n, ctx);
+                break;
+
+            default:
+                for (NoeudAST enfant : n.getEnfants()) {
+                    visiter(enfant, ctx, conditionnel);
+                }
+                break;
+        }
+
+        if (numero >= 0 && !conditionnel && !ctx.appelVu) {
+            Candidat nouveau = new Candidat(n, ctx.position);
+            collecterLectures(n, nouveau);
+            ctx.disponibles.put(numero, nouveau);
+            ctx.candidatsBloc.add(nouveau);
+        }
+    }
+
+    // Seuls les indices d'une cible (tableau ou champ) sont des lectures
+    private void visiterCible(NoeudAST cible, Contexte ctx) {
+        if (cible.getType() == NoeudAST.TypeNoeud.ACCES_TABLEAU) {
+            if (!cible.getEnfants().isEmpty()) {
+                visiter(cible.getEnfant(0), ctx, false);
+            }
+        } else if (cible.getType() == NoeudAST.TypeNoeud.ACCES_CHAMP) {
+            for (NoeudAST champ : cible.getEnfants()) {
+                if (champ.getType() == NoeudAST.TypeNoeud.ACCES_TABLEAU &&
+                        !champ.getEnfants().isEmpty()) {
+                    visiter(champ.getEnfant(0), ctx, false);
+                }
+            }
+        }
+    }
+
+    private boolean estCandidat(NoeudAST n) {
+        switch (n.getType()) {
+            case EXPRESSION_BINAIRE:
+            case ACCES_CHAMP:
+                return true;
+            case ACCES_TABLEAU:
+                return !n.getEnfants().isEmpty();
+            case NEGATION:
+                // -3 ou NON vrai sont déjà des constantes pour Python
+                return !estFeuille(n.getEnfant(0));
+            default:
+                return false;
+        }
+    }
+
+    private boolean estFeuille(NoeudAST n) {
+        return n == null || n.getEnfants().isEmpty();
+    }
+
+    // ==================== HASH-CONSING ====================
+
+    // Numéro de valeur du sous-arbre, -1 s'il contient un appel
+    private int numeroter(NoeudAST n) {
+        Integer connu = numerosNoeud.get(n);
+        if (connu != null) {
+            return connu;
+        }
+
+        String cle = cle(n);
+        int numero = -1;
+        if (cle != null) {
+            Integer existant = numerosValeur.get(cle);
+            if (existant == null) {
+                existant = numerosValeur.size();
+                numerosValeur.put(cle, existant);
+            }
+            numero = existant;
+        }
+        numerosNoeud.put(n, numero);
+        return numero;
+    }
+
+    // Clé construite à partir des numéros des enfants : deux sous-arbres égaux
+    // ont la même clé sans être comparés nœud à nœud
+    private String cle(NoeudAST n) {
+        switch (n.getType()) {
+            case NOMBRE:
+                return "N|" + n.getValeur();
+            case CHAINE:
+                return "C|" + n.getValeur();
+            case VALEUR_BOOLEENNE:
+                return "L|" + n.getValeur().toLowerCase();
+            case VARIABLE:
+                return "V|" + n.getValeur();
+
+            case EXPRESSION_BINAIRE: {
+                if (n.getOperateur() == null || n.getEnfants().size() != 2) {
+                    return null;
+                }
+                int gauche = numeroter(n.getEnfant(0));
+                int droite = numeroter(n.getEnfant(1));
+                if (gauche < 0 || droite < 0) {
+                    return null;
+                }
+                return "B|" + n.getOperateur().name() + "|" + gauche + "|" + droite;
+            }
+
+            case NEGATION: {
+                int operande = n.getEnfants().isEmpty() ? -1 : numeroter(n.getEnfant(0));
+                if (operande < 0 || n.getOperateur() == null) {
+                    return null;
+                }
+                return "U|" + n.getOperateur().name() + "|" + operande;
+            }
+
+            case ACCES_TABLEAU: {
+                int indice = n.getEnfants().isEmpty() ? -1 : numeroter(n.getEnfant(0));
+                if (indice < 0) {
+                    return null;
+                }
+                return "T|" + n.getValeur() + "|" + indice;
+            }
+
+            case ACCES_CHAMP: {
+                StringBuilder sb = new StringBuilder("S|").append(n.getValeur());
+                for (NoeudAST champ : n.getEnfants()) {
+                    sb.append('.').append(champ.getValeur());
+                    if (champ.getType() == NoeudAST.TypeNoeud.ACCES_TABLEAU) {
+                        int indice = champ.getEnfants().isEmpty() ? -1 : numeroter(champ.getEnfant(0));
+                        if (indice < 0) {
+                            return null;
+                        }
+                        sb.append('[').append(indice).append(']');
+                    } else if (champ.getType() != NoeudAST.TypeNoeud.VARIABLE) {
+                        return null;
+                    }
+                }
+                return sb.toString();
+            }
+
+            default:
+                return null;
+        }
+    }
+
+    // ==================== INVALIDATION ====================
+
+    private void collecterLectures(NoeudAST n, Candidat candidat) {
+        switch (n.getType()) {
+            case VARIABLE:
+                candidat.variablesLues.add(n.getValeur());
+                return;
+            case ACCES_TABLEAU:
+                candidat.variablesLues.add(n.getValeur());
+                candidat.litMemoire = true;
+                break;
+            case ACCES_CHAMP:
+                // Les enfants sont des noms de champs, seuls les indices sont lus
+                candidat.variablesLues.add(n.getValeur());
+                candidat.litMemoire = true;
+                for (NoeudAST champ : n.getEnfants()) {
+                    if (champ.getType() == NoeudAST.TypeNoeud.ACCES_TABLEAU) {
+                        for (NoeudAST indice : champ.getEnfants()) {
+                            collecterLectures(indice, candidat);
+                        }
+                    }
+                }
+                return;
+            default:
+                break;
+        }
+        for (NoeudAST enfant : n.getEnfants()) {
+            collecterLectures(enfant, candidat);
+        }
+    }
+
+    // Retire ce que l'instruction (et tout son sous-arbre) peut invalider
+    private void appliquerEffets(NoeudAST n, Map<Integer, Candidat> disponibles) {
+        if (disponibles.isEmpty()) {
+            return;
+        }
+
+        switch (n.getType()) {
+            case AFFECTATION:
+                if (n.getEnfants().size() == 2) {
+                    tuerMemoire(disponibles);
+                } else {
+                    tuerVariable(n.getValeur(), disponibles);
+                }
+                break;
+
+            case LIRE:
+                for (NoeudAST cible : n.getEnfants()) {
+                    if (cible.getType() == NoeudAST.TypeNoeud.VARIABLE) {
+                        tuerVariable(cible.getValeur(), disponibles);
+                    } else {
+                        tuerMemoire(disponibles);
+                    }
+                }
+                break;
+
+            case BOUCLE_POUR:
+                tuerVariable(n.getValeur(), disponibles);
+                break;
+
+            case APPEL_FONCTION:
+                disponibles.clear();
+                return;
+
+            default:
+                break;
+        }
+
+        for (NoeudAST enfant : n.getEnfants()) {
+            appliquerEffets(enfant, disponibles);
+        }
+    }
+
+    private void tuerVariable(String nom, Map<Integer, Candidat> disponibles) {
+        disponibles.values().removeIf(c -> c.variablesLues.contains(nom));
+    }
+
+    private void tuerMemoire(Map<Integer, Candidat> disponibles) {
+        disponibles.values().removeIf(c -> c.litMemoire);
+    }
+
+    // ==================== RÉÉCRITURE ====================
+
+    // Les candidats sont pris dans leur ordre de création : une sous-expression
+    // commune interne reçoit son temporaire avant celle qui la contient
+    private void materialiser(NoeudAST bloc, List<Candidat> candidats) {
+        Map<Integer, List<NoeudAST>> insertions = new HashMap<>();
+
+        for (Candidat c : candidats) {
+            if (c.occurrences.size() < 2) {
+                continue;
+            }
+
+            String nom = GrapheFlotControle.nouveauTemporaire("_cse", nomsUtilises);
+            for (NoeudAST occurrence : c.occurrences) {
+                NoeudAST variable = new NoeudAST(NoeudAST.TypeNoeud.VARIABLE, nom);
+                variable.copierEtendue(occurrence);
+                NoeudAST parent = occurrence.getParent();
+                parent.remplacerEnfant(parent.getEnfants().indexOf(occurrence), variable);
+            }
+
+            NoeudAST temporaire = new NoeudAST(NoeudAST.TypeNoeud.AFFECTATION, nom);
+            temporaire.copierEtendue(c.premier);
+            temporaire.ajouterEnfant(c.premier);
+            insertions.computeIfAbsent(c.position, p -> new ArrayList<>()).add(temporaire);
+
+            nombreTemporaires++;
+            nombreRemplacements += c.occurrences.size();
+        }
+
+        // Insérer en partant de la fin pour garder les positions valides
+        List<Integer> positions = new ArrayList<>(insertions.keySet());
+        positions.sort((a, b) -> b - a);
+        for (int position : positions) {
+            List<NoeudAST> temporaires = insertions.get(position);
+            for (int k = 0; k < temporaires.size(); k++) {
+                bloc.insererEnfant(position + k, temporaires.get(k));
+            }
+        }
+    }
+}
@@ -0,0 +1,380 @@
+// EvaluationFonctions.java
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Évaluation à la compilation des appels de fonctions pures.
+//
+// Un appel d'une fonction pure (voir AnalysePurete) qui ne lit aucune globale
+// et dont les arguments sont constants a toujours le même résultat : un petit
+// interpréteur exécute le corps comme le ferait Python (entiers exacts,
+// division réelle, listes indexables depuis la fin) et l'appel est remplacé
+// par le littéral obtenu. L'évaluation est abandonnée au moindre doute
+// (erreur à l'exécution, valeur non représentable, champ de structure) et
+// bornée en pas, en durée et en profondeur d'appels : une récursion trop
+// profonde échouerait aussi en Python. Les résultats déjà calculés sont
+// gardés d'un appel à l'autre.
+public class EvaluationFonctions {
+    private static final int PAS_MAX = 200_000;
+    private static final long DUREE_MAX_NANOS = 50_000_000L;
+    private static final int PROFONDEUR_MAX = 200;
+
+    private final AnalysePurete purete;
+    private final Map<List<Object>, Object> resultats = new HashMap<>();
+    private int pas;
+    private long echeance;
+    private int profondeur;
+    private int nombreAppels = 0;
+    private int nombreAbandons = 0;
+
+    public EvaluationFonctions(AnalysePurete purete) {
+        this.purete = purete;
+    }
+
+    public void optimiser(NoeudAST programme) {
+        for (NoeudAST element : programme.getEnfants()) {
+            parcourir(element);
+        }
+    }
+
+    public int getNombreAppels() {
+        return nombreAppels;
+    }
+
+    public int getNombreAbandons() {
+        return nombreAbandons;
+    }
+
+    private void parcourir(NoeudAST noeud) {
+        for (int i = 0; i < noeud.getEnfants().size(); i++) {
+            NoeudAST enfant = noeud.getEnfant(i);
+            if (enfant.getType() == NoeudAST.TypeNoeud.APPEL_FONCTION && evaluable(enfant.getValeur())) {
+                Object resultat = evaluerAppelConstant(enfant);
+                if (resultat != null) {
+                    noeud.remplacerEnfant(i, PropagationConstantes.litteral(resultat, enfant));
+                    nombreAppels++;
+                    continue;
+                }
+            }
+            parcourir(enfant);
+        }
+    }
+
+    private boolean evaluable(String fonction) {
+        return purete.estPure(fonction) && purete.getGlobalesLues(fonction).isEmpty();
+    }
+
+    // Résultat littéral de l'appel, ou null s'il ne peut pas être calculé
+    private Object evaluerAppelConstant(NoeudAST appel) {
+        pas = 0;
+        profondeur = 0;
+        echeance = System.nanoTime() + DUREE_MAX_NANOS;
+        try {
+            Object resultat = evaluer(appel, new HashMap<>());
+            if (resultat instanceof Long || resultat instanceof Double || resultat instanceof Boolean) {
+                return resultat;
+            }
+        } catch (EvaluationImpossible | StackOverflowError e) {
+            // La pile Java peut s'épuiser avant PROFONDEUR_MAX sur un corps profond
+            nombreAbandons++;
+        }
+        return null;
+    }
+
+    // ==================== APPELS ====================
+
+    private Object appeler(String fonction, List<Object> arguments) {
+        if (!evaluable(fonction)) {
+            throw new EvaluationImpossible("fonction non évaluable : " + fonction);
+        }
+        List<Object> cle = new ArrayList<>();
+        cle.add(fonction);
+        cle.addAll(arguments);
+        boolean memorisable = arguments.stream().noneMatch(argument -> argument instanceof Object[]);
+        if (memorisable && resultats.containsKey(cle)) {
+            return resultats.get(cle);
+        }
+        if (++profondeur > PROFONDEUR_MAX) {
+            throw new EvaluationImpossible("récursion trop profonde");
+        }
+
+        NoeudAST declaration = purete.getDeclaration(fonction);
+        Map<String, Object> environnement = new HashMap<>();
+        Object resultat = null;
+        for (NoeudAST enfant : declaration.getEnfants()) {
+            switch (enfant.getType()) {
+                case LISTE_PARAMETRES:
+                    if (enfant.getEnfants().size() != arguments.size()) {
+                        throw new EvaluationImpossible("nombre d'arguments");
+                    }
+                    for (int i = 0; i < arguments.size(); i++) {
+                        environnement.put(enfant.getEnfant(i).getValeur(), arguments.get(i));
+                    }
+                    break;
+                case SECTION_VAR:
+                    for (NoeudAST identifiant : enfant.rechercherParType(NoeudAST.TypeNoeud.LISTE_IDENTIFICATEURS)) {
+                        for (NoeudAST variable : identifiant.getEnfants()) {
+                            environnement.put(variable.getValeur(), valeurInitiale(variable.getSymbole()));
+                        }
+                    }
+                    break;
+                case BLOC_INSTRUCTIONS:
+                    executer(enfant, environnement);
+                    break;
+                case RETOUR:
+                    resultat = evaluer(enfant.getEnfant(0), environnement);
+                    break;
+                default:
+                    break;
+            }
+        }
+        profondeur--;
+        if (memorisable) {
+            resultats.put(cle, resultat);
+        }
+        return resultat;
+    }
+
+    // Valeur de départ d'une locale, comme la déclare le code Python
+    private Object valeurInitiale(EntreeTableSymboles entree) {
+        if (entree == null) {
+            throw new EvaluationImpossible("locale sans symbole");
+        }
+        if (entree.estTableau) {
+            if (entree.taille < 0) {
+                throw new EvaluationImpossible("taille de tableau inconnue");
+            }
+            Object[] tableau = new Object[entree.taille];
+            Arrays.fill(tableau, 0L);
+            return tableau;
+        }
+        switch (entree.type) {
+            case ENTIER: return 0L;
+            case REEL: return 0.0;
+            case BOOLEEN: return Boolean.FALSE;
+            case CHAINE: return "";
+            default: throw new EvaluationImpossible("locale de type " + entree.type);
+        }
+    }
+
+    // ==================== INSTRUCTIONS ====================
+
+    private void executer(NoeudAST bloc, Map<String, Object> environnement) {
+        for (NoeudAST instruction : bloc.getEnfants()) {
+            compterPas();
+            switch (instruction.getType()) {
+                case AFFECTATION:
+                    affecter(instruction, environnement);
+                    break;
+                case CONDITION:
+                    if (booleen(evaluer(instruction.getEnfant(0), environnement))) {
+                        executer(instruction.getEnfant(1), environnement);
+                    } else if (instruction.getEnfants().size() > 2) {
+                        executer(instruction.getEnfant(2), environnement);
+                    }
+                    break;
+                case BOUCLE_TANTQUE:
+                    while (booleen(evaluer(instruction.getEnfant(0), environnement))) {
+                        compterPas();
+                        if (instruction.getEnfants().size() > 1) {
+                            executer(instruction.getEnfant(1), environnement);
+                        }
+                    }
+                    break;
+                case BOUCLE_REPETER:
+                    do {
+                        compterPas();
+                        executer(instruction.getEnfant(0), environnement);
+                    } while (!booleen(evaluer(instruction.getEnfant(1), environnement)));
+                    break;
+                case BOUCLE_POUR:
+                    executerPour(instruction, environnement);
+                    break;
+                case BLOC_INSTRUCTIONS:
+                    executer(instruction, environnement);
+                    break;
+                default:
+                    throw new EvaluationImpossible("instruction " + instruction.getType());
+            }
+        }
+    }
+
+    // for v in range(debut, fin + 1[, pas]) : bornes évaluées une fois
+    private void executerPour(NoeudAST boucle, Map<String, Object> environnement) {
+        long debut = entier(evaluer(boucle.getEnfant(0), environnement));
+        long fin = entier(evaluer(boucle.getEnfant(1), environnement));
+        long increment = boucle.getEnfants().size() > 3 ? entier(evaluer(boucle.getEnfant(2), environnement)) : 1L;
+        if (increment <= 0) {
+            throw new EvaluationImpossible("pas de boucle");
+        }
+        NoeudAST corps = boucle.getEnfants().size() > 2 ? boucle.getEnfant(boucle.getEnfants().size() - 1) : null;
+        for (long valeur = debut; valeur <= fin; valeur += increment) {
+            compterPas();
+            environnement.put(boucle.getValeur(), valeur);
+            if (corps != null) {
+                executer(corps, environnement);
+            }
+        }
+    }
+
+    private void affecter(NoeudAST affectation, Map<String, Object> environnement) {
+        if (affectation.getEnfants().size() == 1) {
+            if (!environnement.containsKey(affectation.getValeur())) {
+                throw new EvaluationImpossible("variable non locale : " + affectation.getValeur());
+            }
+            environnement.put(affectation.getValeur(), evaluer(affectation.getEnfant(0), environnement));
+            return;
+        }
+        NoeudAST cible = affectation.getEnfant(0);
+        if (cible.getType() != NoeudAST.TypeNoeud.ACCES_TABLEAU) {
+            throw new EvaluationImpossible("affectation de champ");
+        }
+        Object[] tableau = tableau(lire(cible.getValeur(), environnement));
+        int index = index(tableau, evaluer(cible.getEnfant(0), environnement));
+        tableau[index] = evaluer(affectation.getEnfant(1), environnement);
+    }
+
+    // ==================== EXPRESSIONS ====================
+
+    private Object evaluer(NoeudAST expression, Map<String, Object> environnement) {
+        compterPas();
+        switch (expression.getType()) {
+            case NOMBRE:
+            case VALEUR_BOOLEENNE: {
+                Object valeur = PropagationConstantes.valeurConstante(expression);
+                if (valeur == null) {
+                    throw new EvaluationImpossible("littéral " + expression.getValeur());
+                }
+                return valeur;
+            }
+            case CHAINE:
+                return expression.getValeur();
+            case VARIABLE:
+                return lire(expression.getValeur(), environnement);
+            case ACCES_TABLEAU: {
+                Object[] tableau = tableau(lire(expression.getValeur(), environnement));
+                return tableau[index(tableau, evaluer(expression.getEnfant(0), environnement))];
+            }
+            case NEGATION: {
+                Object valeur = evaluer(expression.getEnfant(0), environnement);
+                if (expression.getOperateur() == Operateur.NON) {
+                    return !booleen(valeur);
+                }
+                if (valeur instanceof Long && (Long) valeur != Long.MIN_VALUE) {
+                    return -(Long) valeur;
+                }
+                if (valeur instanceof Double) {
+                    return -(Double) valeur;
+                }
+                throw new EvaluationImpossible("opposé de " + valeur);
+            }
+            case EXPRESSION_BINAIRE:
+                return evaluerBinaire(expression, environnement);
+            case APPEL_FONCTION: {
+                List<Object> arguments = new ArrayList<>();
+                for (NoeudAST liste : expression.getEnfants()) {
+                    for (NoeudAST argument : liste.getEnfants()) {
+                        arguments.add(evaluer(argument, environnement));
+                    }
+                }
+                return appeler(expression.getValeur(), arguments);
+            }
+            default:
+                throw new EvaluationImpossible("expression " + expression.getType());
+        }
+    }
+
+    private Object evaluerBinaire(NoeudAST operation, Map<String, Object> environnement) {
+        Operateur operateur = operation.getOperateur();
+        Object gauche = evaluer(operation.getEnfant(0), environnement);
+        if (operateur == Operateur.ET || operateur == Operateur.OU) {
+            // Court-circuit, comme 'and' / 'or'
+            boolean valeur = booleen(gauche);
+            if (valeur != (operateur == Operateur.ET)) {
+                return valeur;
+            }
+            return booleen(evaluer(operation.getEnfant(1), environnement));
+        }
+        Object droite = evaluer(operation.getEnfant(1), environnement);
+        if (gauche instanceof String && droite instanceof String) {
+            if (operateur == Operateur.PLUS) {
+                return (String) gauche + droite;
+            }
+            if (operateur == Operateur.EG || operateur == Operateur.DIFF) {
+                return gauche.equals(droite) == (operateur == Operateur.EG);
+            }
+        }
+        if ((operateur == Operateur.EG || operateur == Operateur.DIFF) &&
+                (gauche instanceof Boolean) != (droite instanceof Boolean)) {
+            // En Python False == 0 et True == 1 (tableaux de booléens créés par [0] * n)
+            gauche = gauche instanceof Boolean ? ((Boolean) gauche ? 1L : 0L) : gauche;
+            droite = droite instanceof Boolean ? ((Boolean) droite ? 1L : 0L) : droite;
+        }
+        Object resultat = PropagationConstantes.calculer(operateur, gauche, droite);
+        if (resultat == null) {
+            throw new EvaluationImpossible("opération " + operateur + " non calculable");
+        }
+        return resultat;
+    }
+
+    // ==================== UTILITAIRES ====================
+
+    private Object lire(String nom, Map<String, Object> environnement) {
+        Object valeur = environnement.get(nom);
+        if (valeur == null) {
+            throw new EvaluationImpossible("variable inconnue : " + nom);
+        }
+        return valeur;
+    }
+
+    private Object[] tableau(Object valeur) {
+        if (!(valeur instanceof Object[])) {
+            throw new EvaluationImpossible("pas un tableau");
+        }
+        return (Object[]) valeur;
+    }
+
+    // Indice Python : négatif depuis la fin, hors bornes = IndexError
+    private int index(Object[] tableau, Object valeur) {
+        long indice = entier(valeur);
+        if (indice < 0) {
+            indice += tableau.length;
+        }
+        if (indice < 0 || indice >= tableau.length) {
+            throw new EvaluationImpossible("indice hors bornes");
+        }
+        return (int) indice;
+    }
+
+    private long entier(Object valeur) {
+        if (!(valeur instanceof Long)) {
+            throw new EvaluationImpossible("entier attendu");
+        }
+        return (Long) valeur;
+    }
+
+    private boolean booleen(Object valeur) {
+        if (!(valeur instanceof Boolean)) {
+            throw new EvaluationImpossible("booléen attendu");
+        }
+        return (Boolean) valeur;
+    }
+
+    private void compterPas() {
+        if (++pas > PAS_MAX || ((pas & 1023) == 0 && System.nanoTime() > echeance)) {
+            throw new EvaluationImpossible("budget dépassé");
+        }
+    }
+}
+
+// Levée quand un appel ne peut pas être calculé à la compilation ; l'appel
+// reste alors dans le code généré
+class EvaluationImpossible extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    EvaluationImpossible(String message) {
+        super(message, null, false, false);
+    }
+}
@@ -0,0 +1,384 @@
+// FusionBoucles.java
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// Fusion de boucles POUR voisines.
+//
+// Deux boucles POUR d'un même bloc, de même variable et de bornes
+// identiques, sont fusionnées en une seule dont le corps enchaîne les deux
+// corps : chaque tableau n'est plus parcouru qu'une fois. Les instructions
+// placées entre elles sont d'abord remontées avant la première boucle si
+// elles en sont indépendantes (ni variable commune modifiée, ni mémoire
+// modifiée d'un côté et lue de l'autre, ni affichage, ni erreur possible
+// avant un affichage de la boucle).
+//
+// La fusion garde le sens du programme si :
+//  - les bornes ne lisent rien que la première boucle modifie ;
+//  - aucun corps ne modifie la variable de boucle ;
+//  - aucune variable écrite par un corps n'est lue ou écrite par l'autre ;
+//  - un seul des deux corps affiche ou lit : l'ordre des sorties est gardé ;
+//  - une erreur possible d'un corps (division, indice non borné) ne peut
+//    ni devancer celles de l'autre ni suivre ses affichages ;
+//  - un tableau modifié dans un corps et accédé dans l'autre ne l'est qu'à
+//    l'indice de la boucle ([i]) dans les deux, les champs de structure
+//    modifiés d'un côté ne sont pas lus de l'autre ;
+//  - les appels sont des appels de fonctions pures.
+public class FusionBoucles {
+
+    // Ce qu'une instruction (ou un corps de boucle) lit, écrit et peut faire
+    private static class Effets {
+        final Set<String> lues = new HashSet<>();
+        final Set<String> ecrites = new HashSet<>();
+        final Set<String> tableauxLus = new HashSet<>();
+        final Set<String> tableauxEcrits = new HashSet<>();
+        boolean champsLus;
+        boolean champsEcrits;
+        boolean entreeSortie;
+        boolean appelImpur;
+        boolean faillible;
+
+        boolean litMemoire() {
+            return !tableauxLus.isEmpty() || champsLus;
+        }
+
+        boolean ecritMemoire() {
+            return !tableauxEcrits.isEmpty() || champsEcrits;
+        }
+    }
+
+    private final AnalysePurete purete;
+    private boolean aliasPossibles;
+    // Variable de la boucle dont on lit le corps et ses bornes littérales :
+    // t[i] n'échoue pas si la taille déclarée de t les couvre
+    private String variableBornee;
+    private long debutBorne, finBorne;
+    private int nombreFusions = 0;
+    private int nombreDeplacees = 0;
+
+    public FusionBoucles(AnalysePurete purete) {
+        this.purete = purete;
+    }
+
+    public void optimiser(NoeudAST programme) {
+        for (NoeudAST element : programme.getEnfants()) {
+            if (element.getType() == NoeudAST.TypeNoeud.BLOC_INSTRUCTIONS) {
+                aliasPossibles = aliasPossibles(element);
+                traiterBloc(element);
+            } else if (GrapheFlotControle.estSousProgramme(element)) {
+                aliasPossibles = aliasPossibles(element);
+                for (NoeudAST enfant : element.getEnfants()) {
+                    if (enfant.getType() == NoeudAST.TypeNoeud.BLOC_INSTRUCTIONS) {
+                        traiterBloc(enfant);
+                    }
+                }
+            }
+        }
+    }
+
+    public int getNombreFusions() {
+        return nombreFusions;
+    }
+
+    public int getNombreDeplacees() {
+        return nombreDeplacees;
+    }
+
+    // Deux noms de tableaux différents peuvent désigner la même liste s'ils
+    // sont paramètres ou si un tableau entier est affecté
+    private boolean aliasPossibles(NoeudAST routine) {
+        for (NoeudAST parametre : routine.rechercherParType(NoeudAST.TypeNoeud.PARAMETRE)) {
+            EntreeTableSymboles entree = parametre.getSymbole();
+            if (entree == null || entree.estTableau || entree.type == TypeDonnee.STRUCTURE) {
+                return true;
+            }
+        }
+        for (NoeudAST affectation : routine.rechercherParType(NoeudAST.TypeNoeud.AFFECTATION)) {
+            EntreeTableSymboles entree = affectation.getSymbole();
+            if (affectation.getEnfants().size() == 1 && (entree == null || entree.estTableau)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // ==================== PARCOURS ====================
+
+    private void traiterBloc(NoeudAST bloc) {
+        for (int i = 0; i < bloc.getEnfants().size(); i++) {
+            NoeudAST premiere = bloc.getEnfant(i);
+            if (premiere.getType() != NoeudAST.TypeNoeud.BOUCLE_POUR || !sansPas(premiere)) {
+                continue;
+            }
+            // Fusionne tant que la boucle suivante s'y prête
+            while (fusionnerSuivante(bloc, i)) {
+                nombreFusions++;
+            }
+        }
+        for (NoeudAST instruction : bloc.getEnfants()) {
+            for (NoeudAST enfant : instruction.getEnfants()) {
+                if (enfant.getType() == NoeudAST.TypeNoeud.BLOC_INSTRUCTIONS) {
+                    traiterBloc(enfant);
+                }
+            }
+        }
+    }
+
+    private boolean fusionnerSuivante(NoeudAST bloc, int position) {
+        NoeudAST premiere = bloc.getEnfant(position);
+        Effets effetsPremiere = effets(premiere);
+
+        // Instructions intermédiaires, toutes indépendantes de la première boucle
+        int suivante = position + 1;
+        while (suivante < bloc.getEnfants().size() &&
+                bloc.getEnfant(suivante).getType() != NoeudAST.TypeNoeud.BOUCLE_POUR) {
+            if (!independantes(effets(bloc.getEnfant(suivante)), effetsPremiere)) {
+                return false;
+            }
+            suivante++;
+        }
+        if (suivante >= bloc.getEnfants().size()) {
+            return false;
+        }
+        NoeudAST seconde = bloc.getEnfant(suivante);
+        if (!fusionnables(premiere, seconde, bloc.getEnfants().subList(position + 1, suivante))) {
+            return false;
+        }
+
+        for (int k = position + 1; k < suivante; k++) {
+            bloc.insererEnfant(position++, bloc.retirerEnfant(k));
+            nombreDeplacees++;
+        }
+        bloc.retirerEnfant(suivante);
+        NoeudAST corps = GrapheFlotControle.corpsDe(premiere);
+        NoeudAST corpsSeconde = GrapheFlotControle.corpsDe(seconde);
+        while (!corpsSeconde.getEnfants().isEmpty()) {
+            corps.ajouterEnfant(corpsSeconde.retirerEnfant(0));
+        }
+        return true;
+    }
+
+    // ==================== DÉPENDANCES ====================
+
+    // Une instruction peut passer avant la boucle sans rien changer
+    private boolean independantes(Effets instruction, Effets boucle) {
+        if (instruction.appelImpur || instruction.entreeSortie ||
+                (boucle.entreeSortie && instruction.faillible)) {
+            return false;
+        }
+        if (intersectent(instruction.ecrites, boucle.lues) || intersectent(instruction.ecrites, boucle.ecrites) ||
+                intersectent(instruction.lues, boucle.ecrites)) {
+            return false;
+        }
+        return !(instruction.ecritMemoire() && boucle.litMemoire()) &&
+                !(instruction.litMemoire() && boucle.ecritMemoire()) &&
+                !(instruction.ecritMemoire() && boucle.ecritMemoire());
+    }
+
+    private boolean fusionnables(NoeudAST premiere, NoeudAST seconde, List<NoeudAST> intermediaires) {
+        String variable = premiere.getValeur();
+        if (!variable.equals(seconde.getValeur()) || !sansPas(seconde) ||
+                !memeExpression(premiere.getEnfant(0), seconde.getEnfant(0)) ||
+                !memeExpression(premiere.getEnfant(1), seconde.getEnfant(1))) {
+            return false;
+        }
+
+        Effets corps1 = effetsCorps(premiere);
+        Effets corps2 = effetsCorps(seconde);
+        if (corps1.appelImpur || corps2.appelImpur ||
+                corps1.ecrites.contains(variable) || corps2.ecrites.contains(variable) ||
+                (corps1.entreeSortie && corps2.entreeSortie)) {
+            return false;
+        }
+        // Une erreur ne doit pas survenir plus tôt ni après un affichage de
+        // l'autre corps qu'elle aurait empêché
+        if ((corps1.faillible && (corps2.faillible || corps2.entreeSortie)) ||
+                (corps2.faillible && corps1.entreeSortie)) {
+            return false;
+        }
+
+        // Les bornes de la seconde boucle sont évaluées après la première
+        Set<String> bornes = new HashSet<>();
+        for (int k = 0; k < 2; k++) {
+            if (!PropagationConstantes.sansEffet(premiere.getEnfant(k))) {
+                return false;
+            }
+            GrapheFlotControle.collecterUtilisations(premiere.getEnfant(k), bornes);
+        }
+        Set<String> modifiees = new HashSet<>(corps1.ecrites);
+        modifiees.add(variable);
+        for (NoeudAST intermediaire : intermediaires) {
+            modifiees.addAll(effets(intermediaire).ecrites);
+        }
+        if (intersectent(bornes, modifiees)) {
+            return false;
+        }
+
+        if (intersectent(corps1.ecrites, corps2.lues) || intersectent(corps1.ecrites, corps2.ecrites) ||
+                intersectent(corps2.ecrites, corps1.lues)) {
+            return false;
+        }
+
+        if ((corps1.champsEcrits && corps2.champsLus) || (corps2.champsEcrits && corps1.champsLus) ||
+                (corps1.tableauxLus.contains("*") && corps2.ecritMemoire()) ||
+                (corps2.tableauxLus.contains("*") && corps1.ecritMemoire())) {
+            return false;
+        }
+        return accesAlignes(GrapheFlotControle.corpsDe(premiere), GrapheFlotControle.corpsDe(seconde),
+                corps1, corps2, variable);
+    }
+
+    // Un tableau partagé dont l'un des corps modifie des éléments n'est
+    // accédé qu'à l'indice de la boucle : l'itération k des deux corps ne
+    // touche que l'élément k
+    private boolean accesAlignes(NoeudAST corps1, NoeudAST corps2, Effets effets1, Effets effets2,
+                                 String variable) {
+        Set<String> partages = new HashSet<>();
+        if (aliasPossibles) {
+            if ((effets1.ecritMemoire() && effets2.litMemoire()) || (effets2.ecritMemoire() && effets1.litMemoire())) {
+                partages.addAll(effets1.tableauxLus);
+                partages.addAll(effets2.tableauxLus);
+            }
+        } else {
+            for (String tableau : effets1.tableauxEcrits) {
+                if (effets2.tableauxLus.contains(tableau)) {
+                    partages.add(tableau);
+                }
+            }
+            for (String tableau : effets2.tableauxEcrits) {
+                if (effets1.tableauxLus.contains(tableau)) {
+                    partages.add(tableau);
+                }
+            }
+        }
+        return alignes(corps1, partages, variable) && alignes(corps2, partages, variable);
+    }
+
+    private boolean alignes(NoeudAST corps, Set<String> partages, String variable) {
+        for (NoeudAST acces : corps.rechercherParType(NoeudAST.TypeNoeud.ACCES_TABLEAU)) {
+            if (acces.getParent().getType() == NoeudAST.TypeNoeud.ACCES_CHAMP ||
+                    !partages.contains(acces.getValeur())) {
+                continue; // maillon : nom de champ
+            }
+            if (acces.getEnfants().size() != 1 ||
+                    acces.getEnfant(0).getType() != NoeudAST.TypeNoeud.VARIABLE ||
+                    !acces.getEnfant(0).getValeur().equals(variable)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Effets effetsCorps(NoeudAST boucle) {
+        Object debut = PropagationConstantes.valeurConstante(boucle.getEnfant(0));
+        Object fin = PropagationConstantes.valeurConstante(boucle.getEnfant(1));
+        if (debut instanceof Long && fin instanceof Long) {
+            variableBornee = boucle.getValeur();
+            debutBorne = (Long) debut;
+            finBorne = (Long) fin;
+        }
+        Effets effets = effets(GrapheFlotControle.corpsDe(boucle));
+        variableBornee = null;
+        return effets;
+    }
+
+    private Effets effets(NoeudAST noeud) {
+        Effets effets = new Effets();
+        GrapheFlotControle.collecterUtilisations(noeud, effets.lues);
+        GrapheFlotControle.collecterEcritures(noeud, effets.ecrites);
+        collecter(noeud, effets);
+        return effets;
+    }
+
+    private void collecter(NoeudAST noeud, Effets effets) {
+        switch (noeud.getType()) {
+            case ECRIRE:
+            case LIRE:
+                effets.entreeSortie = true;
+                break;
+            case AFFECTATION:
+                if (noeud.getEnfants().size() == 2) {
+                    NoeudAST cible = noeud.getEnfant(0);
+                    if (cible.getType() == NoeudAST.TypeNoeud.ACCES_CHAMP) {
+                        effets.champsEcrits = true;
+                    } else {
+                        effets.tableauxEcrits.add(cible.getValeur());
+                    }
+                }
+                break;
+            case ACCES_TABLEAU:
+                if (noeud.getParent().getType() != NoeudAST.TypeNoeud.ACCES_CHAMP) {
+                    effets.tableauxLus.add(noeud.getValeur());
+                }
+                effets.faillible |= !dansLesBornes(noeud);
+                break;
+            case ACCES_CHAMP:
+                effets.champsLus = true;
+                effets.faillible |= !noeud.rechercherParType(NoeudAST.TypeNoeud.ACCES_TABLEAU).isEmpty();
+                break;
+            case APPEL_FONCTION:
+                effets.faillible = true;
+                if (purete.estPure(noeud.getValeur())) {
+                    effets.lues.addAll(purete.getGlobalesLues(noeud.getValeur()));
+                    if (purete.litMemoire(noeud.getValeur())) {
+                        // Contenu inconnu : lu comme tous les tableaux et champs
+                        effets.champsLus = true;
+                        effets.tableauxLus.add("*");
+                    }
+                } else {
+                    effets.appelImpur = true;
+                }
+                break;
+            case EXPRESSION_BINAIRE:
+                effets.faillible |= noeud.getOperateur() == Operateur.DIV;
+                break;
+            default:
+                break;
+        }
+        for (NoeudAST enfant : noeud.getEnfants()) {
+            collecter(enfant, effets);
+        }
+    }
+
+    // ==================== UTILITAIRES ====================
+
+    // t[i] avec i variable de boucle entre des bornes couvertes par la taille
+    // déclarée de t (un paramètre peut recevoir un tableau plus court)
+    private boolean dansLesBornes(NoeudAST acces) {
+        EntreeTableSymboles entree = acces.getSymbole();
+        return variableBornee != null && entree != null && !entree.estParametre && entree.taille >= 0 &&
+                acces.getParent().getType() != NoeudAST.TypeNoeud.ACCES_CHAMP &&
+                acces.getEnfants().size() == 1 &&
+                acces.getEnfant(0).getType() == NoeudAST.TypeNoeud.VARIABLE &&
+                acces.getEnfant(0).getValeur().equals(variableBornee) &&
+                debutBorne >= 0 && finBorne < entree.taille;
+    }
+
+    // POUR avec un corps et sans pas : une boucle déroulée n'est pas fusionnée
+    private boolean sansPas(NoeudAST boucle) {
+        return boucle.getEnfants().size() == 3 && GrapheFlotControle.corpsDe(boucle) != null;
+    }
+
+    private boolean memeExpression(NoeudAST a, NoeudAST b) {
+        if (a.getType() != b.getType() || a.getOperateur() != b.getOperateur() ||
+                !String.valueOf(a.getValeur()).equals(String.valueOf(b.getValeur())) ||
+                a.getEnfants().size() != b.getEnfants().size()) {
+            return false;
+        }
+        for (int i = 0; i < a.getEnfants().size(); i++) {
+            if (!memeExpression(a.getEnfant(i), b.getEnfant(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean intersectent(Set<String> a, Set<String> b) {
+        for (String nom : a) {
+            if (b.contains(nom)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
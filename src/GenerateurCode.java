@@ -1,9 +1,44 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
 public abstract class GenerateurCode {
-    protected int indent = 0;
 
-    protected String indent() {
-        return "    ".repeat(indent);
+    // Préfixes d'indentation calculés une fois pour toutes : le tableau n'est
+    // jamais modifié, il peut être lu par plusieurs threads
+    private static final String[] INDENTATIONS = new String[32];
+
+    static {
+        for (int i = 0; i < INDENTATIONS.length; i++) {
+            INDENTATIONS[i] = "    ".repeat(i);
+        }
+    }
+
+    // L'indentation est passée en paramètre plutôt que conservée dans le
+    // générateur : une même instance peut servir à plusieurs threads
+    protected String indent(int niveau) {
+        return niveau < INDENTATIONS.length ? INDENTATIONS[niveau] : "    ".repeat(niveau);
+    }
+
+    // Le code est écrit au fil de l'eau dans la sortie (idéalement bufferisée) :
+    // aucun nœud ne construit de chaîne intermédiaire pour son parent
+    public void generer(NoeudAST noeud, Appendable sortie) throws IOException {
+        generer(noeud, 0, sortie);
+    }
+
+    public String generer(NoeudAST noeud) {
+        return enTexte(noeud, 0);
+    }
+
+    // Génération en mémoire, pour un fragment isolé
+    protected String enTexte(NoeudAST noeud, int niveau) {
+        StringBuilder sb = new StringBuilder();
+        try {
+            generer(noeud, niveau, sb);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // StringBuilder n'en lève pas
+        }
+        return sb.toString();
     }
 
-    public abstract String generer(NoeudAST noeud);
+    protected abstract void generer(NoeudAST noeud, int niveau, Appendable sortie) throws IOException;
 }
@@ -1,128 +1,424 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
 public class GenerateurPython extends GenerateurCode {
 
+    // Les fonctions ne partagent aucun état de génération : elles peuvent être
+    // produites en parallèle puis recollées dans l'ordre du source
+    private boolean generationParallele = false;
+
+    // Programme principal dans une fonction 'main()' : ses variables y sont
+    // des locales (accès par indice) et non des entrées du dictionnaire du
+    // module ; seules les globales vues d'un sous-programme restent au module
+    private boolean programmeEnFonction = false;
+
+    // Fonctions natives liées en paramètres par défaut de 'main()', quand
+    // le code généré pour le programme principal les appelle
+    private static final List<String> NATIVES_LIEES = List.of("print", "str", "range", "input");
+
+    public void setGenerationParallele(boolean generationParallele) {
+        this.generationParallele = generationParallele;
+    }
+
+    public void setProgrammeEnFonction(boolean programmeEnFonction) {
+        this.programmeEnFonction = programmeEnFonction;
+    }
+
+    // Tableaux numériques compacts (array.array) : analyse faite sur l'arbre
+    // figé à générer, null pour garder des listes partout
+    private TypageTableaux typageTableaux = null;
+
+    public void setTypageTableaux(TypageTableaux typageTableaux) {
+        this.typageTableaux = typageTableaux;
+    }
+
+    // Alias des modules sys et array et de sys.stdout.write, libres parmi les
+    // noms du programme : choisis par genererProgramme avant toute fonction,
+    // relus ensuite sans être modifiés
+    private String nomSys = "_sys";
+    private String nomArray = "_array";
+    private String nomEcrire = "_ecrire";
+
+    // ECRIRE par '_ecrire = _sys.stdout.write' (liée en locale de 'main()')
+    // d'une seule chaîne par ligne, au lieu d'un print() et d'un str() par
+    // argument ; la sortie est vidée une fois à la fin
+    private boolean ecritureBufferisee = false;
+
+    public void setEcritureBufferisee(boolean ecritureBufferisee) {
+        this.ecritureBufferisee = ecritureBufferisee;
+    }
+
     @Override
-    public String generer(NoeudAST n) {
+    protected void generer(NoeudAST n, int niveau, Appendable out) throws IOException {
         if (n == null) {
             System.out.println("Objet is null!");
-            return "";
+            return;
         }
 
         switch (n.getType()) {
             case PROGRAMME:
-                return genererProgramme(n);
+                genererProgramme(n, niveau, out);
+                break;
 
             case BLOC_INSTRUCTIONS:
-                return genererBloc(n);
+                genererBloc(n, niveau, out);
+                break;
 
             case AFFECTATION:
-                return genererAffectation(n);
+                genererAffectation(n, niveau, out);
+                break;
 
             case CONDITION:
-                return genererCondition(n);
+                genererCondition(n, niveau, out);
+                break;
 
             case ECRIRE:
-                return genererEcrire(n);
+                genererEcrire(n, niveau, out);
+                break;
 
             case LIRE:
-                return genererLire(n);
+                genererLire(n, niveau, out);
+                break;
 
             case DECLARATION_FONCTION:
-                return genererDeclarationFonction(n);
+                genererDeclarationFonction(n, niveau, out);
+                break;
 
             case DECLARATION_PROCEDURE:
-                return genererDeclarationProcedure(n);
+                genererDeclarationProcedure(n, niveau, out);
+                break;
 
             case RETOUR:
-                return genererRetour(n);
+                genererRetour(n, niveau, out);
+                break;
 
             case BOUCLE_POUR:
-                return genererBouclePour(n);
+                genererBouclePour(n, niveau, out);
+                break;
 
             case BOUCLE_TANTQUE:
-                return genererBoucleTantque(n);
+                genererBoucleTantque(n, niveau, out);
+                break;
 
             case BOUCLE_REPETER:
-                return genererBoucleRepeter(n);
+                genererBoucleRepeter(n, niveau, out);
+                break;
 
             case APPEL_FONCTION:
-                return genererAppelFonction(n);
+                genererAppelFonction(n, out);
+                break;
 
             case EXPRESSION_BINAIRE:
-                return genererExpression(n);
+                genererExpression(n, out);
+                break;
 
             case VARIABLE:
             case NOMBRE:
-                return n.getValeur();
+                out.append(n.getValeur());
+                break;
 
             case CHAINE:
-                return "\"" + n.getValeur() + "\"";
+                out.append('"').append(n.getValeur()).append('"');
+                break;
 
             case ACCES_TABLEAU:
-                return genererAccesTableau(n);
+                genererAccesTableau(n, out);
+                break;
 
             case VALEUR_BOOLEENNE:
-                return genererValeurBooleenne(n);
+                out.append(genererValeurBooleenne(n));
+                break;
 
             case NEGATION:
-                return genererNegation(n);
+                genererNegation(n, out);
+                break;
 
             case SECTION_VAR:
-                return genererSectionVar(n);
+                genererSectionVar(n, niveau, out);
+                break;
 
             case DECLARATION_STRUCTURE:
-                return genererDeclarationStructure(n);
+                genererDeclarationStructure(n, niveau, out);
+                break;
 
             case ACCES_CHAMP:
-                return genererAccesChamp(n);
+                genererAccesChamp(n, out);
+                break;
 
             default:
-                return "";
+                break;
         }
     }
 
-    private String genererProgramme(NoeudAST n) {
-        StringBuilder sb = new StringBuilder();
+    // Une expression s'écrit sans indentation, quel que soit le niveau courant
+    private void expression(NoeudAST n, Appendable out) throws IOException {
+        generer(n, 0, out);
+    }
+
+    private void genererProgramme(NoeudAST n, int niveau, Appendable out) throws IOException {
+        // En-tête : imports et liaisons utilisés par le code qui suit
+        boolean tableauxCompacts = typageTableaux != null && typageTableaux.getNombreTableaux() > 0;
+        Set<String> pris = new HashSet<>();
+        GrapheFlotControle.collecterNoms(n, pris);
+        nomSys = GrapheFlotControle.nouveauNom("_sys", pris);
+        nomArray = GrapheFlotControle.nouveauNom("_array", pris);
+        nomEcrire = GrapheFlotControle.nouveauNom("_ecrire", pris);
+        if (ecritureBufferisee) {
+            out.append(indent(niveau)).append("import sys as ").append(nomSys).append('\n');
+        }
+        if (tableauxCompacts) {
+            out.append(indent(niveau)).append("from array import array as ").append(nomArray).append('\n');
+        }
+        if (ecritureBufferisee) {
+            out.append('\n').append(indent(niveau)).append(nomEcrire).append(" = ")
+                    .append(nomSys).append(".stdout.write\n");
+        }
+        if (ecritureBufferisee || tableauxCompacts) {
+            out.append('\n');
+        }
 
         // Générer d'abord les structures (classes Python)
         for (NoeudAST enfant : n.getEnfants()) {
             if (enfant.getType() == NoeudAST.TypeNoeud.DECLARATION_STRUCTURE) {
-                sb.append(generer(enfant));
+                generer(enfant, niveau, out);
             }
         }
 
-        // Puis les fonctions
-        for (NoeudAST enfant : n.getEnfants()) {
-            if (enfant.getType() == NoeudAST.TypeNoeud.DECLARATION_FONCTION ||
-                    enfant.getType() == NoeudAST.TypeNoeud.DECLARATION_PROCEDURE) {
-                sb.append(generer(enfant));
+        // Puis les fonctions, dans l'ordre du source
+        List<NoeudAST> fonctions = n.getEnfants().stream()
+                .filter(enfant -> enfant.getType() == NoeudAST.TypeNoeud.DECLARATION_FONCTION ||
+                        enfant.getType() == NoeudAST.TypeNoeud.DECLARATION_PROCEDURE)
+                .collect(Collectors.toList());
+        if (generationParallele) {
+            // Chaque fonction dans son propre tampon, recopié ensuite dans l'ordre
+            List<String> textes = fonctions.parallelStream()
+                    .map(fonction -> enTexte(fonction, niveau))
+                    .collect(Collectors.toList());
+            for (String texte : textes) {
+                out.append(texte);
             }
+        } else {
+            for (NoeudAST fonction : fonctions) {
+                generer(fonction, niveau, out);
+            }
+        }
+
+        if (programmeEnFonction) {
+            genererFonctionPrincipale(n, niveau, out);
+            return;
         }
 
         // Puis les variables globales
         for (NoeudAST enfant : n.getEnfants()) {
             if (enfant.getType() == NoeudAST.TypeNoeud.SECTION_VAR) {
-                sb.append(generer(enfant));
+                generer(enfant, niveau, out);
             }
         }
 
         // Enfin les instructions principales
         for (NoeudAST enfant : n.getEnfants()) {
             if (enfant.getType() == NoeudAST.TypeNoeud.BLOC_INSTRUCTIONS) {
-                sb.append(generer(enfant));
+                generer(enfant, niveau, out);
+            }
+        }
+
+        if (ecritureBufferisee) {
+            out.append(indent(niveau)).append(nomSys).append(".stdout.flush()\n");
+        }
+    }
+
+    // def main(range=range, ...): variables globales et instructions
+    // principales, puis l'appel protégé par if __name__ == "__main__"
+    private void genererFonctionPrincipale(NoeudAST n, int niveau, Appendable out) throws IOException {
+        String nom = nomPrincipal(n);
+        // Une native dont le nom est aussi celui d'une globale ou d'un
+        // sous-programme n'est pas liée : le paramètre masquerait le nom du
+        // programme (et Python refuse un nom à la fois paramètre et global)
+        Set<String> pris = identifiantsProgramme(n);
+        Set<String> appelees = nativesAppelees(n);
+        List<String> liaisons = new ArrayList<>();
+        for (String nomNatif : NATIVES_LIEES) {
+            if (appelees.contains(nomNatif) && !pris.contains(nomNatif)) {
+                liaisons.add(nomNatif + "=" + nomNatif);
+            }
+        }
+        if (ecritureBufferisee) {
+            liaisons.add(nomEcrire + "=" + nomEcrire);
+        }
+        out.append(indent(niveau)).append("def ").append(nom).append('(')
+                .append(String.join(", ", liaisons)).append("):\n");
+
+        // Les globales partagées avec un sous-programme restent au module
+        List<String> partagees = globalesPartagees(n);
+        boolean corpsVide = partagees.isEmpty();
+        if (!corpsVide) {
+            out.append(indent(niveau + 1)).append("global ").append(String.join(", ", partagees)).append('\n');
+        }
+
+        for (NoeudAST enfant : n.getEnfants()) {
+            if (enfant.getType() == NoeudAST.TypeNoeud.SECTION_VAR &&
+                    genererSectionVar(enfant, niveau + 1, out)) {
+                corpsVide = false;
+            }
+        }
+
+        for (NoeudAST enfant : n.getEnfants()) {
+            if (enfant.getType() == NoeudAST.TypeNoeud.BLOC_INSTRUCTIONS) {
+                generer(enfant, niveau + 1, out);
+                corpsVide = false;
+            }
+        }
+
+        if (corpsVide) {
+            out.append(indent(niveau + 1)).append("pass\n");
+        }
+
+        out.append('\n');
+        out.append(indent(niveau)).append("if __name__ == \"__main__\":\n");
+        out.append(indent(niveau + 1)).append(nom).append("()\n");
+        if (ecritureBufferisee) {
+            out.append(indent(niveau + 1)).append(nomSys).append(".stdout.flush()\n");
+        }
+    }
+
+    // Natives appelées par les instructions principales : print() et str()
+    // pour ECRIRE, input() pour LIRE, range() pour POUR
+    private Set<String> nativesAppelees(NoeudAST programme) {
+        Set<String> appelees = new HashSet<>();
+        for (NoeudAST enfant : programme.getEnfants()) {
+            if (enfant.getType() != NoeudAST.TypeNoeud.BLOC_INSTRUCTIONS) {
+                continue;
+            }
+            for (NoeudAST ecrire : enfant.rechercherParType(NoeudAST.TypeNoeud.ECRIRE)) {
+                if (ecritureBufferisee) {
+                    if (joindre(ecrire)) {
+                        appelees.add("str");
+                    }
+                    continue;
+                }
+                appelees.add("print");
+                for (NoeudAST arg : ecrire.getEnfants()) {
+                    if (arg.getType() != NoeudAST.TypeNoeud.CHAINE) {
+                        appelees.add("str");
+                    }
+                }
+            }
+            if (!enfant.rechercherParType(NoeudAST.TypeNoeud.LIRE).isEmpty()) {
+                appelees.add("input");
+            }
+            if (!enfant.rechercherParType(NoeudAST.TypeNoeud.BOUCLE_POUR).isEmpty()) {
+                appelees.add("range");
             }
         }
+        return appelees;
+    }
 
-        return sb.toString();
+    // 'main', sauf si un sous-programme ou une globale porte déjà ce nom
+    private String nomPrincipal(NoeudAST programme) {
+        return GrapheFlotControle.nouveauNom("main", identifiantsProgramme(programme));
     }
 
-    private String genererDeclarationStructure(NoeudAST n) {
-        StringBuilder sb = new StringBuilder();
+    // Noms des globales et des sous-programmes, au niveau du module
+    private Set<String> identifiantsProgramme(NoeudAST programme) {
+        Set<String> pris = new HashSet<>(variablesGlobales(programme));
+        for (NoeudAST enfant : programme.getEnfants()) {
+            if (GrapheFlotControle.estSousProgramme(enfant)) {
+                pris.add(enfant.getValeur());
+            }
+        }
+        return pris;
+    }
+
+    // Globales lues ou écrites par au moins un sous-programme (qui ne les
+    // masque pas par un paramètre ou une locale), dans l'ordre de déclaration
+    private List<String> globalesPartagees(NoeudAST programme) {
+        Set<String> vues = new HashSet<>();
+        for (NoeudAST enfant : programme.getEnfants()) {
+            if (GrapheFlotControle.estSousProgramme(enfant)) {
+                Set<String> noms = new HashSet<>();
+                for (NoeudAST partie : enfant.getEnfants()) {
+                    if (partie.getType() == NoeudAST.TypeNoeud.BLOC_INSTRUCTIONS ||
+                            partie.getType() == NoeudAST.TypeNoeud.RETOUR) {
+                        GrapheFlotControle.collecterUtilisations(partie, noms);
+                        GrapheFlotControle.collecterEcritures(partie, noms);
+                    }
+                }
+                noms.removeAll(GrapheFlotControle.nomsLocaux(enfant));
+                vues.addAll(noms);
+            }
+        }
+        List<String> partagees = new ArrayList<>();
+        for (String nom : variablesGlobales(programme)) {
+            if (vues.contains(nom)) {
+                partagees.add(nom);
+            }
+        }
+        return partagees;
+    }
+
+    // Globales affectées par le sous-programme : sans 'global', Python en
+    // ferait des locales (lues avant d'être affectées)
+    private List<String> globalesEcrites(NoeudAST fonction) {
+        NoeudAST programme = fonction.getParent();
+        if (programme == null) {
+            return List.of();
+        }
+        Set<String> ecrites = new HashSet<>();
+        for (NoeudAST partie : fonction.getEnfants()) {
+            if (partie.getType() == NoeudAST.TypeNoeud.BLOC_INSTRUCTIONS) {
+                GrapheFlotControle.collecterEcritures(partie, ecrites);
+            }
+        }
+        ecrites.removeAll(GrapheFlotControle.nomsLocaux(fonction));
+        List<String> globales = new ArrayList<>();
+        for (String nom : variablesGlobales(programme)) {
+            if (ecrites.contains(nom)) {
+                globales.add(nom);
+            }
+        }
+        return globales;
+    }
+
+    private List<String> variablesGlobales(NoeudAST programme) {
+        List<String> noms = new ArrayList<>();
+        for (NoeudAST enfant : programme.getEnfants()) {
+            if (enfant.getType() == NoeudAST.TypeNoeud.SECTION_VAR) {
+                for (NoeudAST liste : enfant.rechercherParType(NoeudAST.TypeNoeud.LISTE_IDENTIFICATEURS)) {
+                    for (NoeudAST nom : liste.getEnfants()) {
+                        noms.add(nom.getValeur());
+                    }
+                }
+            }
+        }
+        return noms;
+    }
+
+    private void genererDeclarationStructure(NoeudAST n, int niveau, Appendable out) throws IOException {
         String nomStructure = n.getValeur();
 
-        sb.append("class ").append(nomStructure).append(":\n");
-        indent++;
-        sb.append(indent()).append("def __init__(self):\n");
-        indent++;
+        out.append("class ").append(nomStructure).append(":\n");
+
+        // Disposition fixe : les champs connus de l'analyse deviennent des slots
+        StructureInfo info = n.getStructure();
+        if (info != null) {
+            out.append(indent(niveau + 1)).append("__slots__ = (");
+            for (int i = 0; i < info.champs.size(); i++) {
+                if (i > 0) {
+                    out.append(", ");
+                }
+                out.append('"').append(info.champs.get(i).nom).append('"');
+            }
+            if (info.champs.size() == 1) {
+                out.append(',');
+            }
+            out.append(")\n");
+        }
+
+        out.append(indent(niveau + 1)).append("def __init__(self):\n");
 
         // Initialiser tous les champs
         boolean hasFields = false;
@@ -146,155 +442,214 @@ public class GenerateurPython extends GenerateurCode {
                     for (NoeudAST var : listeId.getEnfants()) {
                         String nomChamp = var.getValeur();
 
-                        if (type.contains("[")) {
-                            int debut = type.indexOf('[');
-                            int fin = type.indexOf(']');
-                            String tailleStr = type.substring(debut + 1, fin);
-                            sb.append(indent()).append("self.").append(nomChamp)
-                                    .append(" = [0] * ").append(tailleStr).append("\n");
-                        } else {
-                            switch (type.toLowerCase()) {
-                                case "entier":
-                                    sb.append(indent()).append("self.").append(nomChamp)
-                                            .append(" = 0\n");
-                                    break;
-                                case "reel":
-                                    sb.append(indent()).append("self.").append(nomChamp)
-                                            .append(" = 0.0\n");
-                                    break;
-                                case "chaine":
-                                case "chainedecharactere":
-                                    sb.append(indent()).append("self.").append(nomChamp)
-                                            .append(" = \"\"\n");
-                                    break;
-                                case "booleen":
-                                    sb.append(indent()).append("self.").append(nomChamp)
-                                            .append(" = False\n");
-                                    break;
-                                default:
-                                    sb.append(indent()).append("self.").append(nomChamp)
-                                            .append(" = ").append(type).append("()\n");
-                            }
-                        }
+                        out.append(indent(niveau + 2)).append("self.").append(nomChamp)
+                                .append(" = ").append(valeurInitiale(var, type)).append('\n');
                     }
                 }
             }
         }
 
         if (!hasFields) {
-            sb.append(indent()).append("pass\n");
+            out.append(indent(niveau + 2)).append("pass\n");
         }
 
-        indent--;
-        indent--;
-        sb.append("\n");
-        return sb.toString();
+        out.append('\n');
     }
 
-    private String genererAccesChamp(NoeudAST n) {
-        StringBuilder sb = new StringBuilder();
-        String nomStructure = n.getValeur();
-
-        sb.append(nomStructure);
+    private void genererAccesChamp(NoeudAST n, Appendable out) throws IOException {
+        out.append(n.getValeur());
 
         for (NoeudAST champ : n.getEnfants()) {
             if (champ.getType() == NoeudAST.TypeNoeud.VARIABLE) {
-                sb.append(".").append(champ.getValeur());
+                out.append('.').append(champ.getValeur());
             } else if (champ.getType() == NoeudAST.TypeNoeud.ACCES_TABLEAU) {
-                sb.append(".").append(champ.getValeur());
+                out.append('.').append(champ.getValeur());
                 if (!champ.getEnfants().isEmpty()) {
-                    sb.append("[").append(generer(champ.getEnfant(0))).append("]");
+                    out.append('[');
+                    expression(champ.getEnfant(0), out);
+                    out.append(']');
                 }
             }
         }
-
-        return sb.toString();
     }
 
-    private String genererBloc(NoeudAST n) {
-        StringBuilder sb = new StringBuilder();
-        for (NoeudAST instr : n.getEnfants()) {
-            // CORRECTION: Ajouter \n après les appels de procédures qui sont des instructions
-            String code = generer(instr);
-            sb.append(code);
+    private void genererBloc(NoeudAST n, int niveau, Appendable out) throws IOException {
+        // Bloc vidé par une optimisation : Python exige une instruction
+        if (n.getEnfants().isEmpty() && niveau > 0) {
+            out.append(indent(niveau)).append("pass\n");
+            return;
+        }
 
-            // Si c'est un appel de fonction qui est une instruction (pas dans une expression)
-            // et qu'il ne se termine pas déjà par \n, ajouter \n
-            if (instr.getType() == NoeudAST.TypeNoeud.APPEL_FONCTION && !code.endsWith("\n")) {
-                sb.append("\n");
+        for (NoeudAST instr : n.getEnfants()) {
+            if (instr.getType() == NoeudAST.TypeNoeud.APPEL_FONCTION) {
+                // Appel de procédure en instruction : l'appel lui-même n'est
+                // qu'une expression, l'indentation et la fin de ligne sont ici
+                out.append(indent(niveau));
+                genererAppelFonction(instr, out);
+                out.append('\n');
+            } else {
+                generer(instr, niveau, out);
             }
         }
-        return sb.toString();
     }
 
-    private String genererAffectation(NoeudAST n) {
+    private void genererAffectation(NoeudAST n, int niveau, Appendable out) throws IOException {
         if (n.getEnfants().size() == 2) {
-            String left = generer(n.getEnfant(0));
-            String right = generer(n.getEnfant(1));
-            return indent() + left + " = " + right + "\n";
+            out.append(indent(niveau));
+            expression(n.getEnfant(0), out);
+            out.append(" = ");
+            expression(n.getEnfant(1), out);
+            out.append('\n');
         } else if (n.getEnfants().size() == 1) {
-            String left = n.getValeur();
-            String right = generer(n.getEnfant(0));
-            return indent() + left + " = " + right + "\n";
+            out.append(indent(niveau)).append(n.getValeur()).append(" = ");
+            expression(n.getEnfant(0), out);
+            out.append('\n');
         } else {
-            return indent() + "# ERREUR: Affectation invalide\n";
+            out.append(indent(niveau)).append("# ERREUR: Affectation invalide\n");
         }
     }
 
-    private String genererCondition(NoeudAST n) {
-        StringBuilder sb = new StringBuilder();
-
-        sb.append(indent()).append("if ")
-                .append(generer(n.getEnfant(0)))
-                .append(":\n");
+    private void genererCondition(NoeudAST n, int niveau, Appendable out) throws IOException {
+        out.append(indent(niveau)).append("if ");
+        expression(n.getEnfant(0), out);
+        out.append(":\n");
 
-        indent++;
         if (n.getEnfants().size() > 1) {
-            sb.append(generer(n.getEnfant(1)));
+            generer(n.getEnfant(1), niveau + 1, out);
         } else {
-            sb.append(indent()).append("pass\n");
+            out.append(indent(niveau + 1)).append("pass\n");
         }
-        indent--;
 
         if (n.getEnfants().size() > 2) {
-            sb.append(indent()).append("else:\n");
-            indent++;
-            sb.append(generer(n.getEnfant(2)));
-            indent--;
+            out.append(indent(niveau)).append("else:\n");
+            generer(n.getEnfant(2), niveau + 1, out);
         }
-
-        return sb.toString();
     }
 
-    private String genererEcrire(NoeudAST n) {
-        StringBuilder sb = new StringBuilder();
-        sb.append(indent()).append("print(");
+    private void genererEcrire(NoeudAST n, int niveau, Appendable out) throws IOException {
+        if (ecritureBufferisee) {
+            genererEcritureBufferisee(n, niveau, out);
+            return;
+        }
+
+        out.append(indent(niveau)).append("print(");
 
         for (int i = 0; i < n.getEnfants().size(); i++) {
-            if (i > 0) sb.append(", ");
-            String arg = generer(n.getEnfant(i));
+            if (i > 0) out.append(", ");
+            NoeudAST arg = n.getEnfant(i);
 
-            if (n.getEnfant(i).getType() == NoeudAST.TypeNoeud.CHAINE) {
-                sb.append(arg);
+            if (arg.getType() == NoeudAST.TypeNoeud.CHAINE) {
+                expression(arg, out);
             } else {
-                sb.append("str(").append(arg).append(")");
+                out.append("str(");
+                expression(arg, out);
+                out.append(')');
+            }
+        }
+
+        out.append(", sep=\"\")\n");
+    }
+
+    // _ecrire(f"...\n") ; "".join((...)) quand une expression contient une
+    // chaîne : avant Python 3.12, un f-string ne peut pas réutiliser son
+    // guillemet dans une expression. Les littéraux s'écrivent dans le texte.
+    private void genererEcritureBufferisee(NoeudAST n, int niveau, Appendable out) throws IOException {
+        boolean formate = false;
+        for (NoeudAST arg : n.getEnfants()) {
+            if (arg.getType() != NoeudAST.TypeNoeud.CHAINE && texteLitteral(arg) == null) {
+                formate = true;
+            }
+        }
+
+        out.append(indent(niveau)).append(nomEcrire).append('(');
+        if (joindre(n)) {
+            out.append("\"\".join((");
+            for (NoeudAST arg : n.getEnfants()) {
+                String litteral = texteLitteral(arg);
+                if (arg.getType() == NoeudAST.TypeNoeud.CHAINE) {
+                    expression(arg, out);
+                } else if (litteral != null) {
+                    out.append('"').append(litteral).append('"');
+                } else {
+                    out.append("str(");
+                    expression(arg, out);
+                    out.append(')');
+                }
+                out.append(", ");
+            }
+            out.append("\"\\n\"))");
+        } else {
+            out.append(formate ? "f\"" : "\"");
+            for (NoeudAST arg : n.getEnfants()) {
+                String litteral = texteLitteral(arg);
+                if (litteral != null) {
+                    out.append(litteral);
+                } else if (arg.getType() != NoeudAST.TypeNoeud.CHAINE) {
+                    out.append('{');
+                    expression(arg, out);
+                    out.append('}');
+                } else if (formate) {
+                    // Texte fixe d'un f-string : seules les accolades sont à doubler
+                    out.append(arg.getValeur().replace("{", "{{").replace("}", "}}"));
+                } else {
+                    out.append(arg.getValeur());
+                }
             }
+            out.append("\\n\"");
         }
+        out.append(")\n");
+    }
 
-        sb.append(", sep=\"\")\n");
-        return sb.toString();
+    // Écriture dont une expression contient une chaîne : "".join((...)) et
+    // str() plutôt qu'un f-string
+    private boolean joindre(NoeudAST ecrire) {
+        for (NoeudAST arg : ecrire.getEnfants()) {
+            if (arg.getType() != NoeudAST.TypeNoeud.CHAINE && texteLitteral(arg) == null &&
+                    !arg.rechercherParType(NoeudAST.TypeNoeud.CHAINE).isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Texte qu'afficherait str() pour un littéral booléen ou numérique, null
+    // si l'écriture du source n'est pas celle de Python (réel avec exposant
+    // ou zéro final superflu) : l'argument reste alors une expression
+    private String texteLitteral(NoeudAST arg) {
+        if (arg.getType() == NoeudAST.TypeNoeud.VALEUR_BOOLEENNE) {
+            String texte = genererValeurBooleenne(arg);
+            return "True".equals(texte) || "False".equals(texte) ? texte : null;
+        }
+        if (arg.getType() != NoeudAST.TypeNoeud.NOMBRE) {
+            return null;
+        }
+        String texte = arg.getValeur();
+        if (texte.matches("-?(0|[1-9][0-9]*)")) {
+            return texte;
+        }
+        if (!texte.matches("-?(0|[1-9][0-9]*)\\.([0-9]*[1-9]|0)")) {
+            return null;
+        }
+        // Au plus 15 chiffres significatifs : aucune écriture plus courte ne
+        // donne le même double, et repr() choisit la plus courte. Hors de
+        // [1e-4, 1e16), repr() passe à la notation avec exposant.
+        String chiffres = texte.replace("-", "").replace(".", "").replaceFirst("^0+", "");
+        double valeur = Math.abs(Double.parseDouble(texte));
+        boolean decimal = valeur == 0 || (valeur >= 1e-4 && valeur < 1e16);
+        return chiffres.length() <= 15 && decimal ? texte : null;
     }
 
-    private String genererLire(NoeudAST n) {
-        StringBuilder sb = new StringBuilder();
+    private void genererLire(NoeudAST n, int niveau, Appendable out) throws IOException {
         for (NoeudAST var : n.getEnfants()) {
-            sb.append(indent()).append(generer(var)).append(" = input()\n");
+            out.append(indent(niveau));
+            expression(var, out);
+            out.append(" = input()\n");
         }
-        return sb.toString();
     }
 
-    private String genererSectionVar(NoeudAST n) {
-        StringBuilder sb = new StringBuilder();
+    // Renvoie vrai si au moins une variable a été déclarée
+    private boolean genererSectionVar(NoeudAST n, int niveau, Appendable out) throws IOException {
+        boolean ecrit = false;
 
         for (NoeudAST decl : n.getEnfants()) {
             if (decl.getType() == NoeudAST.TypeNoeud.DECLARATION_VARIABLE) {
@@ -315,187 +670,243 @@ public class GenerateurPython extends GenerateurCode {
                     for (NoeudAST var : listeId.getEnfants()) {
                         String nomVar = var.getValeur();
 
-                        if (type.contains("[")) {
-                            int debut = type.indexOf('[');
-                            int fin = type.indexOf(']');
-                            String tailleStr = type.substring(debut + 1, fin);
-                            sb.append(indent()).append(nomVar).append(" = [0] * ").append(tailleStr).append("\n");
-                        } else {
-                            switch (type.toLowerCase()) {
-                                case "entier":
-                                    sb.append(indent()).append(nomVar).append(" = 0\n");
-                                    break;
-                                case "reel":
-                                    sb.append(indent()).append(nomVar).append(" = 0.0\n");
-                                    break;
-                                case "chaine":
-                                case "chainedecharactere":
-                                    sb.append(indent()).append(nomVar).append(" = \"\"\n");
-                                    break;
-                                case "booleen":
-                                    sb.append(indent()).append(nomVar).append(" = False\n");
-                                    break;
-                                default:
-                                    sb.append(indent()).append(nomVar).append(" = ").append(type).append("()\n");
-                            }
-                        }
+                        out.append(indent(niveau)).append(nomVar).append(" = ")
+                                .append(valeurInitiale(var, type)).append('\n');
+                        ecrit = true;
                     }
                 }
             }
         }
 
-        return sb.toString();
+        return ecrit;
+    }
+
+    // Valeur initiale d'une variable ou d'un champ : d'après l'entrée posée par
+    // l'analyse sémantique, sinon en relisant le texte du type
+    private String valeurInitiale(NoeudAST identifiant, String type) {
+        EntreeTableSymboles entree = identifiant.getSymbole();
+        if (entree != null) {
+            if (entree.estTableau) {
+                if (entree.taille >= 0) {
+                    return tableau(identifiant, Integer.toString(entree.taille));
+                }
+            } else {
+                switch (entree.type) {
+                    case ENTIER:
+                        return "0";
+                    case REEL:
+                        return "0.0";
+                    case CHAINE:
+                        return "\"\"";
+                    case BOOLEEN:
+                        return "False";
+                    case STRUCTURE:
+                        return entree.nomStructure + "()";
+                    default:
+                        break;
+                }
+            }
+        }
+        return valeurInitialeDepuisType(identifiant, type);
+    }
+
+    private String valeurInitialeDepuisType(NoeudAST identifiant, String type) {
+        if (type.contains("[")) {
+            int debut = type.indexOf('[');
+            int fin = type.indexOf(']');
+            return tableau(identifiant, type.substring(debut + 1, fin));
+        }
+
+        switch (type.toLowerCase()) {
+            case "entier":
+                return "0";
+            case "reel":
+                return "0.0";
+            case "chaine":
+            case "chainedecharactere":
+                return "\"\"";
+            case "booleen":
+                return "False";
+            default:
+                return type + "()";
+        }
     }
 
-    private String genererDeclarationFonction(NoeudAST n) {
-        StringBuilder sb = new StringBuilder();
+    // Liste de zéros, ou tableau compact quand TypageTableaux prouve que le
+    // changement ne se voit pas (type, bornes, éléments jamais écrits)
+    private String tableau(NoeudAST identifiant, String taille) {
+        String code = typageTableaux != null ? typageTableaux.codeTableau(identifiant) : null;
+        if (code == null) {
+            return "[0] * " + taille;
+        }
+        return nomArray + "('" + code + "', [" + ("d".equals(code) ? "0.0" : "0") + "]) * " + taille;
+    }
 
-        sb.append("def ").append(n.getValeur()).append("(");
+    private void genererDeclarationFonction(NoeudAST n, int niveau, Appendable out) throws IOException {
+        out.append("def ").append(n.getValeur()).append('(');
 
+        List<String> parametres = new ArrayList<>();
         for (NoeudAST enfant : n.getEnfants()) {
             if (enfant.getType() == NoeudAST.TypeNoeud.LISTE_PARAMETRES) {
-                NoeudAST params = enfant;
-                for (int i = 0; i < params.getEnfants().size(); i++) {
-                    if (i > 0) sb.append(", ");
-                    sb.append(params.getEnfant(i).getValeur());
+                for (NoeudAST param : enfant.getEnfants()) {
+                    parametres.add(param.getValeur());
                 }
                 break;
             }
         }
+        // Comme dans 'main()', '_ecrire' liée en locale plutôt que relue au
+        // module à chaque ECRIRE ; les appels passent tous les paramètres
+        // du source, la valeur par défaut n'est donc jamais remplacée
+        if (ecritureBufferisee && !n.rechercherParType(NoeudAST.TypeNoeud.ECRIRE).isEmpty()) {
+            parametres.add(nomEcrire + "=" + nomEcrire);
+        }
+        out.append(String.join(", ", parametres));
+
+        out.append("):\n");
 
-        sb.append("):\n");
+        List<String> globales = globalesEcrites(n);
+        if (!globales.isEmpty()) {
+            out.append(indent(niveau + 1)).append("global ").append(String.join(", ", globales)).append('\n');
+        }
 
-        indent++;
+        // Corps vide (ni variable, ni instruction) : Python exige un 'pass'
+        boolean corpsVide = globales.isEmpty();
 
         for (NoeudAST enfant : n.getEnfants()) {
-            if (enfant.getType() == NoeudAST.TypeNoeud.SECTION_VAR) {
-                sb.append(generer(enfant));
+            if (enfant.getType() == NoeudAST.TypeNoeud.SECTION_VAR &&
+                    genererSectionVar(enfant, niveau + 1, out)) {
+                corpsVide = false;
             }
         }
 
         for (NoeudAST enfant : n.getEnfants()) {
             if (enfant.getType() == NoeudAST.TypeNoeud.BLOC_INSTRUCTIONS ||
                     enfant.getType() == NoeudAST.TypeNoeud.RETOUR) {
-                sb.append(generer(enfant));
+                generer(enfant, niveau + 1, out);
+                corpsVide = false;
             }
         }
 
-        String content = sb.toString();
-        if (content.endsWith("):\n")) {
-            sb.append(indent()).append("pass\n");
+        if (corpsVide) {
+            out.append(indent(niveau + 1)).append("pass\n");
         }
 
-        indent--;
-        sb.append("\n");
-        return sb.toString();
+        out.append('\n');
     }
 
-    private String genererDeclarationProcedure(NoeudAST n) {
-        return genererDeclarationFonction(n);
+    private void genererDeclarationProcedure(NoeudAST n, int niveau, Appendable out) throws IOException {
+        genererDeclarationFonction(n, niveau, out);
     }
 
-    private String genererRetour(NoeudAST n) {
+    private void genererRetour(NoeudAST n, int niveau, Appendable out) throws IOException {
         if (n.getEnfants().isEmpty()) {
-            return indent() + "return\n";
+            out.append(indent(niveau)).append("return\n");
         } else {
             // CORRECTION: Préserver les parenthèses dans les expressions
-            return indent() + "return " + generer(n.getEnfant(0)) + "\n";
+            out.append(indent(niveau)).append("return ");
+            expression(n.getEnfant(0), out);
+            out.append('\n');
         }
     }
 
-    private String genererBouclePour(NoeudAST n) {
-        String var = n.getValeur();
-        String start = generer(n.getEnfant(0));
-        String end = generer(n.getEnfant(1));
+    private void genererBouclePour(NoeudAST n, int niveau, Appendable out) throws IOException {
+        out.append(indent(niveau)).append("for ").append(n.getValeur()).append(" in range(");
+        expression(n.getEnfant(0), out);
+        out.append(", ");
+        borneExclusive(n.getEnfant(1), out);
 
-        StringBuilder sb = new StringBuilder();
-        sb.append(indent()).append("for ").append(var).append(" in range(")
-                .append(start).append(", ").append(end).append(" + 1):\n");
+        // Pas facultatif (boucle déroulée), placé avant le corps qui reste le dernier enfant
+        if (n.getEnfants().size() > 3) {
+            out.append(", ");
+            expression(n.getEnfant(2), out);
+        }
+        out.append("):\n");
 
-        indent++;
         if (n.getEnfants().size() > 2) {
-            sb.append(generer(n.getEnfant(2)));
+            generer(n.getEnfant(n.getEnfants().size() - 1), niveau + 1, out);
         }
-        indent--;
+    }
 
-        return sb.toString();
+    // Borne de fin de range() : calculée ici quand la fin est un entier littéral
+    private void borneExclusive(NoeudAST fin, Appendable out) throws IOException {
+        if (fin.getType() == NoeudAST.TypeNoeud.NOMBRE && fin.getValeur().matches("[-+]?\\d+")) {
+            try {
+                out.append(Long.toString(Math.addExact(Long.parseLong(fin.getValeur()), 1L)));
+                return;
+            } catch (ArithmeticException | NumberFormatException e) {
+                // trop grand pour un long : laissé à Python
+            }
+        }
+        expression(fin, out);
+        out.append(" + 1");
     }
 
-    private String genererBoucleTantque(NoeudAST n) {
-        StringBuilder sb = new StringBuilder();
-        sb.append(indent()).append("while ").append(generer(n.getEnfant(0))).append(":\n");
+    private void genererBoucleTantque(NoeudAST n, int niveau, Appendable out) throws IOException {
+        out.append(indent(niveau)).append("while ");
+        expression(n.getEnfant(0), out);
+        out.append(":\n");
 
-        indent++;
         if (n.getEnfants().size() > 1) {
-            sb.append(generer(n.getEnfant(1)));
+            generer(n.getEnfant(1), niveau + 1, out);
         }
-        indent--;
-
-        return sb.toString();
     }
 
-    private String genererBoucleRepeter(NoeudAST n) {
-        StringBuilder sb = new StringBuilder();
-        sb.append(indent()).append("while True:\n");
+    private void genererBoucleRepeter(NoeudAST n, int niveau, Appendable out) throws IOException {
+        out.append(indent(niveau)).append("while True:\n");
 
-        indent++;
         if (n.getEnfants().size() > 0) {
-            sb.append(generer(n.getEnfant(0)));
+            generer(n.getEnfant(0), niveau + 1, out);
         }
 
         if (n.getEnfants().size() > 1) {
-            sb.append(indent()).append("if ").append(generer(n.getEnfant(1))).append(":\n");
-            indent++;
-            sb.append(indent()).append("break\n");
-            indent--;
+            out.append(indent(niveau + 1)).append("if ");
+            expression(n.getEnfant(1), out);
+            out.append(":\n");
+            out.append(indent(niveau + 2)).append("break\n");
         }
-
-        indent--;
-        return sb.toString();
     }
 
-    private String genererAppelFonction(NoeudAST n) {
-        StringBuilder sb = new StringBuilder();
-        sb.append(n.getValeur()).append("(");
+    private void genererAppelFonction(NoeudAST n, Appendable out) throws IOException {
+        out.append(n.getValeur()).append('(');
 
         if (!n.getEnfants().isEmpty()) {
             NoeudAST argsNode = n.getEnfant(0);
             for (int i = 0; i < argsNode.getEnfants().size(); i++) {
-                if (i > 0) sb.append(", ");
-                sb.append(generer(argsNode.getEnfant(i)));
+                if (i > 0) out.append(", ");
+                expression(argsNode.getEnfant(i), out);
             }
         }
 
-        sb.append(")");
-        return sb.toString();
+        out.append(')');
     }
 
-    private String genererExpression(NoeudAST n) {
-        String op = n.getValeur();
-
-        if ("ET".equals(op)) op = "and";
-        else if ("OU".equals(op)) op = "or";
-        else if ("=".equals(op)) op = "==";
-        else if ("<>".equals(op)) op = "!=";
-
+    private void genererExpression(NoeudAST n, Appendable out) throws IOException {
         // CORRECTION: Entourer de parenthèses pour préserver la priorité
-        String gauche = generer(n.getEnfant(0));
-        String droite = generer(n.getEnfant(1));
+        out.append('(');
+        expression(n.getEnfant(0), out);
+        out.append(' ').append(operateurPython(n.getOperateur())).append(' ');
+        expression(n.getEnfant(1), out);
+        out.append(')');
+    }
 
-        // Ajouter des parenthèses si nécessaire
-        return "(" + gauche + " " + op + " " + droite + ")";
+    private String operateurPython(Operateur operateur) {
+        switch (operateur) {
+            case ET: return "and";
+            case OU: return "or";
+            case EG: return "==";
+            case DIFF: return "!=";
+            default: return operateur.getSymbole();
+        }
     }
 
-    private String genererAccesTableau(NoeudAST n) {
-        StringBuilder sb = new StringBuilder();
-        sb.append(n.getValeur()).append("[");
+    private void genererAccesTableau(NoeudAST n, Appendable out) throws IOException {
+        out.append(n.getValeur()).append('[');
 
         if (!n.getEnfants().isEmpty()) {
-            sb.append(generer(n.getEnfant(0)));
+            expression(n.getEnfant(0), out);
         }
 
-        sb.append("]");
-        return sb.toString();
+        out.append(']');
     }
 
     private String genererValeurBooleenne(NoeudAST n) {
@@ -505,11 +916,8 @@ public class GenerateurPython extends GenerateurCode {
         return n.getValeur();
     }
 
-    private String genererNegation(NoeudAST n) {
-        if ("NON".equals(n.getValeur())) {
-            return "not " + generer(n.getEnfant(0));
-        } else {
-            return "-" + generer(n.getEnfant(0));
-        }
+    private void genererNegation(NoeudAST n, Appendable out) throws IOException {
+        out.append(n.getOperateur() == Operateur.NON ? "not " : "-");
+        expression(n.getEnfant(0), out);
     }
-}
\ No newline at end of file
+}
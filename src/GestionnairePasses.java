@@ -0,0 +1,124 @@
+// GestionnairePasses.java
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Optimisation travaillant sur la forme SSA d'une routine. Elle réécrit l'AST
+// et renvoie le nombre de modifications (0 : rien à faire).
+interface PasseSSA {
+    String getNom();
+
+    int executer(RepresentationSSA ssa);
+}
+
+// Enchaîne les passes SSA sur chaque routine du programme.
+//
+// Une passe modifie l'AST : le graphe et la forme SSA sont reconstruits avant
+// chaque passe. Les passes sont répétées tant qu'elles modifient le programme
+// (une constante propagée rend une affectation morte, une affectation
+// supprimée peut libérer une nouvelle constante...), dans la limite de
+// MAX_ITERATIONS tours.
+public class GestionnairePasses {
+    public static final int MAX_ITERATIONS = 4;
+
+    private final List<PasseSSA> passes = new ArrayList<>();
+    private final Map<String, Integer> modifications = new LinkedHashMap<>();
+    private int iterations = 0;
+
+    // SCCP, numérotation des valeurs, élimination des affectations mortes
+    public static GestionnairePasses parDefaut() {
+        return new GestionnairePasses()
+                .ajouter(new PropagationConstantesConditionnelle())
+                .ajouter(new NumerotationValeurs())
+                .ajouter(new EliminationAffectationsMortes());
+    }
+
+    public GestionnairePasses ajouter(PasseSSA passe) {
+        passes.add(passe);
+        modifications.put(passe.getNom(), 0);
+        return this;
+    }
+
+    public void optimiser(NoeudAST programme) {
+        Map<String, Object> defautsGlobaux = new HashMap<>();
+        for (NoeudAST element : programme.getEnfants()) {
+            if (element.getType() == NoeudAST.TypeNoeud.SECTION_VAR) {
+                declarer(element, defautsGlobaux);
+            }
+        }
+
+        for (iterations = 0; iterations < MAX_ITERATIONS; iterations++) {
+            int total = 0;
+            for (PasseSSA passe : passes) {
+                for (Map.Entry<NoeudAST, GrapheFlotControle> routine :
+                        GrapheFlotControle.construireProgramme(programme).entrySet()) {
+                    RepresentationSSA ssa = new RepresentationSSA(routine.getValue(),
+                            valeursEntree(routine.getKey(), defautsGlobaux, programme));
+                    int nombre = passe.executer(ssa);
+                    modifications.merge(passe.getNom(), nombre, Integer::sum);
+                    total += nombre;
+                }
+            }
+            if (total == 0) {
+                iterations++;
+                break;
+            }
+        }
+    }
+
+    public Map<String, Integer> getModifications() {
+        return modifications;
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    // Le programme principal démarre avec les valeurs par défaut des globales ;
+    // un sous-programme avec celles de ses locales et des globales jamais
+    // écrites (posées par PropagationConstantes), les paramètres sont inconnus
+    private Map<String, Object> valeursEntree(NoeudAST routine, Map<String, Object> defautsGlobaux,
+                                              NoeudAST programme) {
+        if (!GrapheFlotControle.estSousProgramme(routine)) {
+            return defautsGlobaux;
+        }
+        Map<String, Object> valeurs = new HashMap<>();
+        Set<String> locaux = GrapheFlotControle.nomsLocaux(routine);
+        for (NoeudAST element : programme.getEnfants()) {
+            if (element.getType() != NoeudAST.TypeNoeud.SECTION_VAR) {
+                continue;
+            }
+            for (NoeudAST liste : element.rechercherParType(NoeudAST.TypeNoeud.LISTE_IDENTIFICATEURS)) {
+                for (NoeudAST identifiant : liste.getEnfants()) {
+                    EntreeTableSymboles entree = identifiant.getSymbole();
+                    if (entree != null && !locaux.contains(identifiant.getValeur()) &&
+                            (entree.valeurInitiale instanceof Long || entree.valeurInitiale instanceof Double ||
+                                    entree.valeurInitiale instanceof Boolean)) {
+                        valeurs.put(identifiant.getValeur(), entree.valeurInitiale);
+                    }
+                }
+            }
+        }
+        for (NoeudAST enfant : routine.getEnfants()) {
+            if (enfant.getType() == NoeudAST.TypeNoeud.SECTION_VAR) {
+                declarer(enfant, valeurs);
+            }
+        }
+        return valeurs;
+    }
+
+    private void declarer(NoeudAST section, Map<String, Object> valeurs) {
+        for (NoeudAST liste : section.rechercherParType(NoeudAST.TypeNoeud.LISTE_IDENTIFICATEURS)) {
+            for (NoeudAST identifiant : liste.getEnfants()) {
+                EntreeTableSymboles entree = identifiant.getSymbole();
+                Object defaut = entree == null ? null : PropagationConstantes.valeurParDefaut(entree);
+                if (defaut != null) {
+                    valeurs.put(identifiant.getValeur(), defaut);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,710 @@
+// GrapheFlotControle.java
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Instruction élémentaire d'un bloc de base. Les instructions simples de
+// l'AST (affectation, ECRIRE, LIRE, appel, RETOUR) y figurent telles quelles ;
+// les structures de contrôle sont éclatées en tests et en étapes de boucle.
+class InstructionFlot {
+    enum Sorte {
+        SIMPLE,          // affectation, ECRIRE, LIRE, appel de procédure
+        TEST,            // condition d'un SI / TANTQUE / REPETER, en-tête d'un POUR
+        DEBUT_POUR,      // évaluation des bornes d'un POUR
+        ITERATION_POUR,  // affectation de la variable de boucle à chaque tour
+        RETOUR
+    }
+
+    final Sorte sorte;
+    final NoeudAST noeud;                 // instruction de l'AST (la boucle ou le SI pour les tests)
+    final List<String> definitions = new ArrayList<>();        // toujours écrites
+    final Set<String> definitionsPossibles = new LinkedHashSet<>(); // écrites peut-être (appels)
+    final Set<String> utilisations = new LinkedHashSet<>();
+    boolean appel;                        // évalue au moins un appel
+    BlocBase bloc;
+    int position;                         // rang dans le bloc
+    int numero;                           // rang dans le graphe
+
+    InstructionFlot(Sorte sorte, NoeudAST noeud) {
+        this.sorte = sorte;
+        this.noeud = noeud;
+    }
+
+    // Variable définie par une copie 'x <- y', sinon null
+    String copieDe() {
+        if (sorte == Sorte.SIMPLE && noeud.getType() == NoeudAST.TypeNoeud.AFFECTATION &&
+                noeud.getEnfants().size() == 1 &&
+                noeud.getEnfant(0).getType() == NoeudAST.TypeNoeud.VARIABLE &&
+                !noeud.getEnfant(0).getValeur().equals(noeud.getValeur())) {
+            return noeud.getEnfant(0).getValeur();
+        }
+        return null;
+    }
+
+    // Expressions évaluées par l'instruction (hors cibles d'écriture)
+    List<NoeudAST> expressionsLues() {
+        List<NoeudAST> expressions = new ArrayList<>();
+        List<NoeudAST> enfants = noeud.getEnfants();
+        switch (sorte) {
+            case SIMPLE:
+                if (noeud.getType() != NoeudAST.TypeNoeud.LIRE) {
+                    expressions.addAll(enfants);
+                }
+                break;
+            case TEST:
+                if (noeud.getType() == NoeudAST.TypeNoeud.CONDITION ||
+                        noeud.getType() == NoeudAST.TypeNoeud.BOUCLE_TANTQUE) {
+                    expressions.add(noeud.getEnfant(0));
+                } else if (noeud.getType() == NoeudAST.TypeNoeud.BOUCLE_REPETER && enfants.size() > 1) {
+                    expressions.add(noeud.getEnfant(1));
+                }
+                break;
+            case DEBUT_POUR:
+                for (int i = 0; i < Math.min(2, enfants.size()); i++) {
+                    expressions.add(noeud.getEnfant(i));
+                }
+                break;
+            case RETOUR:
+                expressions.addAll(enfants);
+                break;
+            default:
+                break;
+        }
+        return expressions;
+    }
+
+    @Override
+    public String toString() {
+        return sorte + " " + noeud.getType() + " (ligne " + noeud.getLigne() + ")"
+                + " def=" + definitions + (definitionsPossibles.isEmpty() ? "" : " def?=" + definitionsPossibles)
+                + " use=" + utilisations;
+    }
+}
+
+// Suite d'instructions sans branchement interne. Pour un bloc terminé par un
+// TEST, successeurs.get(0) est la branche « vrai » et successeurs.get(1) la
+// branche « faux » (sortie de boucle).
+class BlocBase {
+    final int id;
+    final List<InstructionFlot> instructions = new ArrayList<>();
+    final List<BlocBase> successeurs = new ArrayList<>();
+    final List<BlocBase> predecesseurs = new ArrayList<>();
+    NoeudAST boucle; // boucle dont ce bloc est l'en-tête, sinon null
+
+    BlocBase(int id) {
+        this.id = id;
+    }
+
+    InstructionFlot derniere() {
+        return instructions.isEmpty() ? null : instructions.get(instructions.size() - 1);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("B" + id);
+        if (boucle != null) {
+            sb.append(" [boucle ").append(boucle.getType()).append("]");
+        }
+        sb.append(" ->");
+        for (BlocBase successeur : successeurs) {
+            sb.append(" B").append(successeur.id);
+        }
+        return sb.toString();
+    }
+}
+
+// Graphe de flot de contrôle d'une routine (programme principal, fonction ou
+// procédure), construit à partir de l'AST annoté.
+//
+// Les variables de la routine sont numérotées pour servir d'indices aux
+// vecteurs de bits des analyses. Un appel lit toutes les globales lues par
+// les sous-programmes et peut écrire toutes celles qu'ils écrivent.
+public class GrapheFlotControle {
+    private final NoeudAST routine;
+    private final List<BlocBase> blocs = new ArrayList<>();
+    private final List<InstructionFlot> instructions = new ArrayList<>();
+    private final Map<NoeudAST, InstructionFlot> instructionDe = new IdentityHashMap<>();
+    private final List<String> variables = new ArrayList<>();
+    private final Map<String, Integer> indices = new HashMap<>();
+    private final Set<String> parametres = new LinkedHashSet<>();
+    private final Set<String> luesParAppel;
+    private final Set<String> ecritesParAppel;
+
+    private final BlocBase entree;
+    private final BlocBase sortie;
+    private BlocBase courant;
+
+    private GrapheFlotControle(NoeudAST routine, Set<String> luesParAppel, Set<String> ecritesParAppel) {
+        this.routine = routine;
+        this.luesParAppel = luesParAppel;
+        this.ecritesParAppel = ecritesParAppel;
+        this.entree = nouveauBloc();
+        this.sortie = nouveauBloc();
+    }
+
+    // Graphe d'une routine sans information sur les effets des appels
+    public static GrapheFlotControle construire(NoeudAST routine) {
+        return construire(routine, new HashSet<>(), new HashSet<>());
+    }
+
+    public static GrapheFlotControle construire(NoeudAST routine, Set<String> luesParAppel,
+                                                Set<String> ecritesParAppel) {
+        GrapheFlotControle graphe = new GrapheFlotControle(routine, luesParAppel, ecritesParAppel);
+        graphe.construireRoutine();
+        return graphe;
+    }
+
+    // Un graphe par routine du programme, avec les effets des appels calculés
+    // sur l'ensemble des sous-programmes (globales lues / écrites)
+    public static Map<NoeudAST, GrapheFlotControle> construireProgramme(NoeudAST programme) {
+        Set<String> lues = new HashSet<>();
+        Set<String> ecrites = new HashSet<>();
+        for (NoeudAST element : programme.getEnfants()) {
+            if (estSousProgramme(element)) {
+                Set<String> locaux = nomsLocaux(element);
+                Set<String> luesCorps = new HashSet<>();
+                Set<String> ecritesCorps = new HashSet<>();
+                for (NoeudAST enfant : element.getEnfants()) {
+                    if (enfant.getType() == NoeudAST.TypeNoeud.BLOC_INSTRUCTIONS ||
+                            enfant.getType() == NoeudAST.TypeNoeud.RETOUR) {
+                        collecterUtilisations(enfant, luesCorps);
+                        collecterEcritures(enfant, ecritesCorps);
+                    }
+                }
+                luesCorps.removeAll(locaux);
+                ecritesCorps.removeAll(locaux);
+                lues.addAll(luesCorps);
+                ecrites.addAll(ecritesCorps);
+            }
+        }
+
+        Map<NoeudAST, GrapheFlotControle> graphes = new IdentityHashMap<>();
+        for (NoeudAST element : programme.getEnfants()) {
+            if (estSousProgramme(element) || element.getType() == NoeudAST.TypeNoeud.BLOC_INSTRUCTIONS) {
+                graphes.put(element, construire(element, lues, ecrites));
+            }
+        }
+        return graphes;
+    }
+
+    // ==================== ACCÈS ====================
+
+    public NoeudAST getRoutine() { return routine; }
+    public BlocBase getEntree() { return entree; }
+    public BlocBase getSortie() { return sortie; }
+    public List<BlocBase> getBlocs() { return Collections.unmodifiableList(blocs); }
+    public List<InstructionFlot> getInstructions() { return Collections.unmodifiableList(instructions); }
+    public List<String> getVariables() { return Collections.unmodifiableList(variables); }
+    public Set<String> getParametres() { return Collections.unmodifiableSet(parametres); }
+
+    public int indiceVariable(String nom) {
+        Integer indice = indices.get(nom);
+        return indice == null ? -1 : indice;
+    }
+
+    public String nomVariable(int indice) {
+        return variables.get(indice);
+    }
+
+    // Instruction du graphe correspondant à une instruction de l'AST (pour un
+    // SI ou une boucle : son test ; pour un POUR : l'évaluation des bornes)
+    public InstructionFlot instructionDe(NoeudAST noeud) {
+        return instructionDe.get(noeud);
+    }
+
+    public BitSet indicesDe(Iterable<String> noms) {
+        BitSet bits = new BitSet(variables.size());
+        for (String nom : noms) {
+            int indice = indiceVariable(nom);
+            if (indice >= 0) {
+                bits.set(indice);
+            }
+        }
+        return bits;
+    }
+
+    // Blocs en ordre postfixe inverse depuis l'entrée (ordre naturel des analyses avant)
+    public List<BlocBase> ordrePostfixeInverse() {
+        List<BlocBase> ordre = new ArrayList<>();
+        boolean[] vus = new boolean[blocs.size()];
+        parcoursPostfixe(entree, vus, ordre);
+        for (BlocBase bloc : blocs) {
+            if (!vus[bloc.id]) {
+                parcoursPostfixe(bloc, vus, ordre); // blocs inaccessibles, en dernier
+            }
+        }
+        Collections.reverse(ordre);
+        return ordre;
+    }
+
+    private void parcoursPostfixe(BlocBase depart, boolean[] vus, List<BlocBase> ordre) {
+        // Pile explicite : un programme long ne doit pas épuiser la pile Java
+        List<BlocBase> pile = new ArrayList<>();
+        List<Integer> prochains = new ArrayList<>();
+        vus[depart.id] = true;
+        pile.add(depart);
+        prochains.add(0);
+        while (!pile.isEmpty()) {
+            int sommet = pile.size() - 1;
+            BlocBase bloc = pile.get(sommet);
+            int k = prochains.get(sommet);
+            if (k < bloc.successeurs.size()) {
+                prochains.set(sommet, k + 1);
+                BlocBase successeur = bloc.successeurs.get(k);
+                if (!vus[successeur.id]) {
+                    vus[successeur.id] = true;
+                    pile.add(successeur);
+                    prochains.add(0);
+                }
+            } else {
+                pile.remove(sommet);
+                prochains.remove(sommet);
+                ordre.add(bloc);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (BlocBase bloc : blocs) {
+            sb.append(bloc).append('\n');
+            for (InstructionFlot instruction : bloc.instructions) {
+                sb.append("    ").append(instruction).append('\n');
+            }
+        }
+        return sb.toString();
+    }
+
+    // ==================== CONSTRUCTION ====================
+
+    private void construireRoutine() {
+        courant = nouveauBloc();
+        lier(entree, courant);
+
+        if (estSousProgramme(routine)) {
+            for (NoeudAST enfant : routine.getEnfants()) {
+                if (enfant.getType() == NoeudAST.TypeNoeud.LISTE_PARAMETRES) {
+                    for (NoeudAST parametre : enfant.getEnfants()) {
+                        parametres.add(parametre.getValeur());
+                        declarerVariable(parametre.getValeur());
+                    }
+                }
+            }
+            for (NoeudAST enfant : routine.getEnfants()) {
+                if (enfant.getType() == NoeudAST.TypeNoeud.BLOC_INSTRUCTIONS ||
+                        enfant.getType() == NoeudAST.TypeNoeud.RETOUR) {
+                    abaisser(enfant);
+                }
+            }
+        } else {
+            abaisser(routine);
+        }
+
+        lier(courant, sortie);
+    }
+
+    private void abaisser(NoeudAST instruction) {
+        List<NoeudAST> enfants = instruction.getEnfants();
+
+        switch (instruction.getType()) {
+            case BLOC_INSTRUCTIONS:
+                for (NoeudAST enfant : enfants) {
+                    abaisser(enfant);
+                }
+                break;
+
+            case CONDITION: {
+                ajouter(InstructionFlot.Sorte.TEST, instruction, instruction.getEnfant(0));
+                BlocBase test = courant;
+                BlocBase apres = nouveauBloc();
+
+                courant = nouveauBloc();
+                lier(test, courant);
+                if (enfants.size() > 1) {
+                    abaisser(instruction.getEnfant(1));
+                }
+                lier(courant, apres);
+
+                if (enfants.size() > 2) {
+                    courant = nouveauBloc();
+                    lier(test, courant);
+                    abaisser(instruction.getEnfant(2));
+                    lier(courant, apres);
+                } else {
+                    lier(test, apres);
+                }
+                courant = apres;
+                break;
+            }
+
+            case BOUCLE_POUR: {
+                // range(debut, fin + 1) : bornes évaluées une fois, puis la
+                // variable reçoit la valeur suivante au début de chaque tour
+                InstructionFlot debut = ajouter(InstructionFlot.Sorte.DEBUT_POUR, instruction, null);
+                for (int i = 0; i < Math.min(2, enfants.size()); i++) {
+                    utiliser(debut, instruction.getEnfant(i));
+                }
+                instructionDe.put(instruction, debut);
+
+                BlocBase entete = entrerBoucle(instruction);
+                ajouterSansIndex(InstructionFlot.Sorte.TEST, instruction);
+
+                courant = nouveauBloc();
+                lier(entete, courant);
+                ajouterSansIndex(InstructionFlot.Sorte.ITERATION_POUR, instruction)
+                        .definitions.add(declarerVariable(instruction.getValeur()));
+                NoeudAST corps = instruction.getEnfant(enfants.size() - 1);
+                if (corps != null && corps.getType() == NoeudAST.TypeNoeud.BLOC_INSTRUCTIONS) {
+                    abaisser(corps);
+                }
+                lier(courant, entete);
+
+                courant = nouveauBloc();
+                lier(entete, courant);
+                break;
+            }
+
+            case BOUCLE_TANTQUE: {
+                BlocBase entete = entrerBoucle(instruction);
+                ajouter(InstructionFlot.Sorte.TEST, instruction, instruction.getEnfant(0));
+
+                courant = nouveauBloc();
+                lier(entete, courant);
+                if (enfants.size() > 1) {
+                    abaisser(instruction.getEnfant(1));
+                }
+                lier(courant, entete);
+
+                courant = nouveauBloc();
+                lier(entete, courant);
+                break;
+            }
+
+            case BOUCLE_REPETER: {
+                BlocBase corps = entrerBoucle(instruction);
+                if (!enfants.isEmpty()) {
+                    abaisser(instruction.getEnfant(0));
+                }
+                ajouter(InstructionFlot.Sorte.TEST, instruction,
+                        enfants.size() > 1 ? instruction.getEnfant(1) : null);
+                // JUSQUA vrai : on sort ; faux : on recommence
+                BlocBase test = courant;
+                BlocBase apres = nouveauBloc();
+                lier(test, apres);
+                lier(test, corps);
+                courant = apres;
+                break;
+            }
+
+            case RETOUR:
+                ajouter(InstructionFlot.Sorte.RETOUR, instruction,
+                        enfants.isEmpty() ? null : instruction.getEnfant(0));
+                lier(courant, sortie);
+                courant = nouveauBloc(); // la suite est inaccessible
+                break;
+
+            case AFFECTATION: {
+                InstructionFlot affectation = ajouter(InstructionFlot.Sorte.SIMPLE, instruction, null);
+                for (NoeudAST enfant : enfants) {
+                    utiliser(affectation, enfant); // cible indexée : lit le tableau et l'indice
+                }
+                if (enfants.size() == 1) {
+                    affectation.definitions.add(declarerVariable(instruction.getValeur()));
+                }
+                break;
+            }
+
+            case LIRE: {
+                InstructionFlot lire = ajouter(InstructionFlot.Sorte.SIMPLE, instruction, null);
+                for (NoeudAST variable : enfants) {
+                    lire.definitions.add(declarerVariable(variable.getValeur()));
+                }
+                break;
+            }
+
+            default: {
+                InstructionFlot simple = ajouter(InstructionFlot.Sorte.SIMPLE, instruction, null);
+                utiliser(simple, instruction);
+                break;
+            }
+        }
+    }
+
+    // Nouveau bloc d'en-tête de boucle, à la suite du bloc courant
+    private BlocBase entrerBoucle(NoeudAST boucle) {
+        BlocBase entete = nouveauBloc();
+        entete.boucle = boucle;
+        lier(courant, entete);
+        courant = entete;
+        return entete;
+    }
+
+    private InstructionFlot ajouter(InstructionFlot.Sorte sorte, NoeudAST noeud, NoeudAST expression) {
+        InstructionFlot instruction = ajouterSansIndex(sorte, noeud);
+        instructionDe.put(noeud, instruction);
+        if (expression != null) {
+            utiliser(instruction, expression);
+        }
+        return instruction;
+    }
+
+    private InstructionFlot ajouterSansIndex(InstructionFlot.Sorte sorte, NoeudAST noeud) {
+        InstructionFlot instruction = new InstructionFlot(sorte, noeud);
+        instruction.bloc = courant;
+        instruction.position = courant.instructions.size();
+        instruction.numero = instructions.size();
+        courant.instructions.add(instruction);
+        instructions.add(instruction);
+        return instruction;
+    }
+
+    // Variables lues par une expression, et effets des appels qu'elle contient
+    private void utiliser(InstructionFlot instruction, NoeudAST expression) {
+        Set<String> lues = new LinkedHashSet<>();
+        collecterUtilisations(expression, lues);
+        for (String nom : lues) {
+            instruction.utilisations.add(declarerVariable(nom));
+        }
+        if (!expression.rechercherParType(NoeudAST.TypeNoeud.APPEL_FONCTION).isEmpty() ||
+                expression.getType() == NoeudAST.TypeNoeud.APPEL_FONCTION) {
+            instruction.appel = true;
+            for (String nom : luesParAppel) {
+                instruction.utilisations.add(declarerVariable(nom));
+            }
+            for (String nom : ecritesParAppel) {
+                instruction.definitionsPossibles.add(declarerVariable(nom));
+            }
+        }
+    }
+
+    private String declarerVariable(String nom) {
+        if (!indices.containsKey(nom)) {
+            indices.put(nom, variables.size());
+            variables.add(nom);
+        }
+        return nom;
+    }
+
+    private BlocBase nouveauBloc() {
+        BlocBase bloc = new BlocBase(blocs.size());
+        blocs.add(bloc);
+        return bloc;
+    }
+
+    private void lier(BlocBase de, BlocBase vers) {
+        de.successeurs.add(vers);
+        vers.predecesseurs.add(de);
+    }
+
+    // ==================== UTILITAIRES SUR L'AST ====================
+
+    static boolean estSousProgramme(NoeudAST noeud) {
+        return noeud.getType() == NoeudAST.TypeNoeud.DECLARATION_FONCTION ||
+                noeud.getType() == NoeudAST.TypeNoeud.DECLARATION_PROCEDURE;
+    }
+
+    // Noms lus par un sous-arbre (les maillons d'un accès aux champs sont des
+    // noms de champs, pas des variables ; les cibles de LIRE sont écrites)
+    static void collecterUtilisations(NoeudAST noeud, Set<String> lues) {
+        switch (noeud.getType()) {
+            case VARIABLE:
+            case ACCES_TABLEAU:
+                lues.add(noeud.getValeur());
+                break;
+            case ACCES_CHAMP:
+                lues.add(noeud.getValeur());
+                for (NoeudAST maillon : noeud.getEnfants()) {
+                    if (maillon.getType() == NoeudAST.TypeNoeud.ACCES_TABLEAU) {
+                        for (NoeudAST indice : maillon.getEnfants()) {
+                            collecterUtilisations(indice, lues);
+                        }
+                    }
+                }
+                return;
+            case LIRE:
+                return;
+            case BOUCLE_POUR:
+                lues.add(noeud.getValeur());
+                break;
+            default:
+                break;
+        }
+        for (NoeudAST enfant : noeud.getEnfants()) {
+            collecterUtilisations(enfant, lues);
+        }
+    }
+
+    // Nœuds VARIABLE lus dans une expression (les maillons d'un accès aux
+    // champs sont des noms de champs, seuls leurs indices sont parcourus)
+    static void collecterLectures(NoeudAST noeud, List<NoeudAST> lectures) {
+        switch (noeud.getType()) {
+            case VARIABLE:
+                lectures.add(noeud);
+                return;
+            case ACCES_CHAMP:
+                for (NoeudAST maillon : noeud.getEnfants()) {
+                    if (maillon.getType() == NoeudAST.TypeNoeud.ACCES_TABLEAU) {
+                        for (NoeudAST indice : maillon.getEnfants()) {
+                            collecterLectures(indice, lectures);
+                        }
+                    }
+                }
+                return;
+            default:
+                for (NoeudAST enfant : noeud.getEnfants()) {
+                    collecterLectures(enfant, lectures);
+                }
+        }
+    }
+
+    // Noms de variables écrits (affectation simple, LIRE, variable de POUR)
+    static void collecterEcritures(NoeudAST noeud, Set<String> ecrites) {
+        switch (noeud.getType()) {
+            case AFFECTATION:
+                if (noeud.getEnfants().size() == 1) {
+                    ecrites.add(noeud.getValeur());
+                }
+                break;
+            case LIRE:
+                for (NoeudAST variable : noeud.getEnfants()) {
+                    ecrites.add(variable.getValeur());
+                }
+                break;
+            case BOUCLE_POUR:
+                ecrites.add(noeud.getValeur());
+                break;
+            default:
+                break;
+        }
+        for (NoeudAST enfant : noeud.getEnfants()) {
+            collecterEcritures(enfant, ecrites);
+        }
+    }
+
+    // Paramètres et variables locales d'un sous-programme
+    static Set<String> nomsLocaux(NoeudAST declaration) {
+        Set<String> noms = new HashSet<>();
+        for (NoeudAST enfant : declaration.getEnfants()) {
+            if (enfant.getType() == NoeudAST.TypeNoeud.LISTE_PARAMETRES) {
+                for (NoeudAST parametre : enfant.getEnfants()) {
+                    noms.add(parametre.getValeur());
+                }
+            } else if (enfant.getType() == NoeudAST.TypeNoeud.SECTION_VAR) {
+                for (NoeudAST liste : enfant.rechercherParType(NoeudAST.TypeNoeud.LISTE_IDENTIFICATEURS)) {
+                    for (NoeudAST nom : liste.getEnfants()) {
+                        noms.add(nom.getValeur());
+                    }
+                }
+            }
+        }
+        return noms;
+    }
+
+    // Corps d'une boucle, d'un sous-programme ou du programme principal
+    static NoeudAST corpsDe(NoeudAST noeud) {
+        for (NoeudAST enfant : noeud.getEnfants()) {
+            if (enfant.getType() == NoeudAST.TypeNoeud.BLOC_INSTRUCTIONS) {
+                return enfant;
+            }
+        }
+        return null;
+    }
+
+    // Tous les noms du sous-arbre (variables, routines, champs...) : un nom
+    // créé par une passe doit les éviter
+    static void collecterNoms(NoeudAST noeud, Set<String> noms) {
+        noms.add(noeud.getValeur());
+        for (NoeudAST enfant : noeud.getEnfants()) {
+            collecterNoms(enfant, noms);
+        }
+    }
+
+    // 'base', ou 'base2', 'base3'... s'il est pris ; le nom retenu est ajouté aux pris
+    static String nouveauNom(String base, Set<String> pris) {
+        String nom = base;
+        for (int i = 2; pris.contains(nom); i++) {
+            nom = base + i;
+        }
+        pris.add(nom);
+        return nom;
+    }
+
+    // Premier nom libre parmi 'prefixe1', 'prefixe2'... ; il est ajouté aux pris
+    static String nouveauTemporaire(String prefixe, Set<String> pris) {
+        String nom;
+        int numero = 0;
+        do {
+            nom = prefixe + (++numero);
+        } while (pris.contains(nom));
+        pris.add(nom);
+        return nom;
+    }
+
+    // Variable d'un type de base, ni tableau ni structure
+    static boolean estScalaire(EntreeTableSymboles entree) {
+        return entree != null && !entree.estTableau && (entree.type == TypeDonnee.ENTIER ||
+                entree.type == TypeDonnee.REEL || entree.type == TypeDonnee.CHAINE ||
+                entree.type == TypeDonnee.BOOLEEN);
+    }
+
+    // ==================== CONSTRUCTION DE L'AST ====================
+
+    // Nom d'un type de base dans le source
+    static String nomType(TypeDonnee type) {
+        switch (type) {
+            case REEL: return "reel";
+            case CHAINE: return "chaine";
+            case BOOLEEN: return "booleen";
+            default: return "entier";
+        }
+    }
+
+    // Insère 'nom : texteType' dans une section VAR et renvoie l'entrée de la
+    // nouvelle variable (à compléter pour un tableau ou une structure)
+    static EntreeTableSymboles declarer(NoeudAST section, int position, String nom, TypeDonnee type,
+                                        String texteType, int ligne) {
+        EntreeTableSymboles entree = new EntreeTableSymboles(nom, type, ligne);
+        NoeudAST declaration = new NoeudAST(NoeudAST.TypeNoeud.DECLARATION_VARIABLE, "", ligne);
+        NoeudAST liste = new NoeudAST(NoeudAST.TypeNoeud.LISTE_IDENTIFICATEURS, "", ligne);
+        NoeudAST identifiant = new NoeudAST(NoeudAST.TypeNoeud.VARIABLE, nom, ligne);
+        identifiant.setSymbole(entree);
+        identifiant.setTypeResolu(type);
+        liste.ajouterEnfant(identifiant);
+        NoeudAST noeudType = new NoeudAST(NoeudAST.TypeNoeud.TYPE, texteType, ligne);
+        noeudType.setTypeResolu(type);
+        declaration.ajouterEnfant(liste);
+        declaration.ajouterEnfant(noeudType);
+        section.insererEnfant(position, declaration);
+        return entree;
+    }
+
+    // 'entree <- valeur', placée sur la ligne et l'étendue d'origine
+    static NoeudAST affectation(EntreeTableSymboles entree, NoeudAST valeur, NoeudAST origine) {
+        NoeudAST affectation = new NoeudAST(NoeudAST.TypeNoeud.AFFECTATION, entree.nom, origine.getLigne());
+        affectation.setSymbole(entree);
+        affectation.copierEtendue(origine);
+        affectation.ajouterEnfant(valeur);
+        return affectation;
+    }
+
+    // Valeur d'une variable locale à l'entrée de sa routine (chaîne vide, 0,
+    // 0.0 ou faux)
+    static NoeudAST valeurInitiale(NoeudAST identifiant) {
+        EntreeTableSymboles entree = identifiant.getSymbole();
+        if (entree.type == TypeDonnee.CHAINE) {
+            NoeudAST chaine = new NoeudAST(NoeudAST.TypeNoeud.CHAINE, "", identifiant.getLigne());
+            chaine.setTypeResolu(TypeDonnee.CHAINE);
+            chaine.copierEtendue(identifiant);
+            return chaine;
+        }
+        return PropagationConstantes.litteral(PropagationConstantes.valeurParDefaut(entree), identifiant);
+    }
+}
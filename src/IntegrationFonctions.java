@@ -0,0 +1,589 @@
+// IntegrationFonctions.java
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Intégration (inlining) des petites fonctions et procédures.
+//
+// Un appel est remplacé par une copie du corps de l'appelé : les paramètres
+// et les locales que ce corps utilise deviennent des locales de l'appelant,
+// renommées _<fonction><n>_<nom> et déclarées dans sa section VAR ; l'appel
+// lui-même devient l'expression du RETOUR. Les instructions copiées sont placées juste
+// avant l'instruction qui contient l'appel, ce qui n'est possible que si
+// l'appel est évalué sans condition (ni partie droite d'un ET / OU, ni
+// condition de TANTQUE / REPETER) et si rien de ce qui est évalué avant lui
+// dans l'instruction ne peut échouer, lire la mémoire ou lire une variable
+// que l'appelé modifie.
+//
+// Sont intégrables les sous-programmes non récursifs (graphe d'appel), assez
+// petits, sans locale tableau ni structure, non exclus. Un tableau ou une
+// structure passé en paramètre n'est accepté que si l'argument est une
+// variable : le paramètre prend alors simplement son nom. Les appelés sont
+// traités avant leurs appelants, le programme principal en dernier.
+public class IntegrationFonctions {
+    // Taille maximale du corps (nœuds), plus large pour un appel unique
+    private static final int TAILLE_MAX = 40;
+    private static final int TAILLE_MAX_APPEL_UNIQUE = 120;
+
+    private final Set<String> exclues = new HashSet<>();
+    private final Map<String, NoeudAST> sousProgrammes = new LinkedHashMap<>();
+    private final Map<String, Set<String>> appels = new HashMap<>();
+    private final Map<String, Integer> nombreSites = new HashMap<>();
+    private final Set<String> recursifs = new HashSet<>();
+    private final Set<String> nomsUtilises = new HashSet<>();
+    private final Set<String> ecritesParAppel = new HashSet<>();
+    private final Map<String, Integer> integres = new LinkedHashMap<>();
+    private int compteurInstances = 0;
+
+    // Parcours d'une instruction : état de ce qui est évalué avant l'appel
+    private boolean sur;
+    private Set<String> lusAvant;
+
+    public void exclure(String nom) {
+        exclues.add(nom);
+    }
+
+    public void optimiser(NoeudAST programme) {
+        GrapheFlotControle.collecterNoms(programme, nomsUtilises);
+        NoeudAST principal = null;
+        for (NoeudAST element : programme.getEnfants()) {
+            if (GrapheFlotControle.estSousProgramme(element)) {
+                sousProgrammes.put(element.getValeur(), element);
+            } else if (element.getType() == NoeudAST.TypeNoeud.BLOC_INSTRUCTIONS) {
+                principal = element;
+            }
+        }
+        for (NoeudAST appel : programme.rechercherParType(NoeudAST.TypeNoeud.APPEL_FONCTION)) {
+            nombreSites.merge(appel.getValeur(), 1, Integer::sum);
+        }
+        for (Map.Entry<String, NoeudAST> sousProgramme : sousProgrammes.entrySet()) {
+            Set<String> appelees = new HashSet<>();
+            for (NoeudAST appel : sousProgramme.getValue().rechercherParType(NoeudAST.TypeNoeud.APPEL_FONCTION)) {
+                appelees.add(appel.getValeur());
+            }
+            appels.put(sousProgramme.getKey(), appelees);
+
+            Set<String> ecrites = new HashSet<>();
+            GrapheFlotControle.collecterEcritures(sousProgramme.getValue(), ecrites);
+            ecrites.removeAll(GrapheFlotControle.nomsLocaux(sousProgramme.getValue()));
+            ecritesParAppel.addAll(ecrites);
+        }
+        for (String nom : sousProgrammes.keySet()) {
+            if (atteint(nom, nom, new HashSet<>())) {
+                recursifs.add(nom);
+            }
+        }
+
+        // Appelés d'abord : leur corps est copié déjà intégré
+        List<String> ordre = new ArrayList<>();
+        Set<String> vus = new HashSet<>();
+        for (String nom : sousProgrammes.keySet()) {
+            ordonner(nom, vus, ordre);
+        }
+        for (String nom : ordre) {
+            traiterRoutine(sousProgrammes.get(nom), programme);
+        }
+        if (principal != null) {
+            traiterRoutine(programme, programme);
+        }
+    }
+
+    // Nombre d'appels intégrés, par sous-programme
+    public Map<String, Integer> getRapport() {
+        return integres;
+    }
+
+    public int getNombreAppels() {
+        int total = 0;
+        for (int nombre : integres.values()) {
+            total += nombre;
+        }
+        return total;
+    }
+
+    // ==================== GRAPHE D'APPEL ====================
+
+    private boolean atteint(String depuis, String cible, Set<String> vus) {
+        for (String appelee : appels.getOrDefault(depuis, Set.of())) {
+            if (appelee.equals(cible)) {
+                return true;
+            }
+            if (sousProgrammes.containsKey(appelee) && vus.add(appelee) && atteint(appelee, cible, vus)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void ordonner(String nom, Set<String> vus, List<String> ordre) {
+        if (!vus.add(nom)) {
+            return;
+        }
+        for (String appelee : appels.get(nom)) {
+            if (sousProgrammes.containsKey(appelee)) {
+                ordonner(appelee, vus, ordre);
+            }
+        }
+        ordre.add(nom);
+    }
+
+    // ==================== CRITÈRES ====================
+
+    private boolean integrable(String nom) {
+        NoeudAST declaration = sousProgrammes.get(nom);
+        if (declaration == null || recursifs.contains(nom) || exclues.contains(nom)) {
+            return false;
+        }
+        boolean procedure = declaration.getType() == NoeudAST.TypeNoeud.DECLARATION_PROCEDURE;
+        int taille = 0;
+        for (NoeudAST enfant : declaration.getEnfants()) {
+            switch (enfant.getType()) {
+                case BLOC_INSTRUCTIONS:
+                    taille += enfant.compterNoeuds();
+                    break;
+                case RETOUR:
+                    if (procedure || enfant.getEnfants().isEmpty()) {
+                        return false;
+                    }
+                    taille += enfant.compterNoeuds();
+                    break;
+                case SECTION_VAR:
+                    for (NoeudAST identifiant : identifiants(enfant)) {
+                        if (!GrapheFlotControle.estScalaire(identifiant.getSymbole())) {
+                            return false;
+                        }
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+        if (!procedure && retourDe(declaration) == null) {
+            return false;
+        }
+        int limite = nombreSites.getOrDefault(nom, 0) == 1 ? TAILLE_MAX_APPEL_UNIQUE : TAILLE_MAX;
+        return taille <= limite;
+    }
+
+    // Conditions propres à un site d'appel
+    private boolean integrableIci(NoeudAST appel, Set<String> localesAppelant) {
+        if (!integrable(appel.getValeur())) {
+            return false;
+        }
+        NoeudAST declaration = sousProgrammes.get(appel.getValeur());
+
+        // Une globale lue par l'appelé ne doit pas être masquée chez l'appelant
+        Set<String> libres = new HashSet<>();
+        GrapheFlotControle.collecterUtilisations(declaration, libres);
+        GrapheFlotControle.collecterEcritures(declaration, libres);
+        libres.removeAll(GrapheFlotControle.nomsLocaux(declaration));
+        for (String nom : libres) {
+            if (localesAppelant.contains(nom)) {
+                return false;
+            }
+        }
+
+        // Objets : seulement une variable, jamais réaffectée dans l'appelé
+        List<NoeudAST> parametres = parametresDe(declaration);
+        List<NoeudAST> arguments = argumentsDe(appel);
+        if (parametres.size() != arguments.size()) {
+            return false;
+        }
+        Set<String> reaffectes = new HashSet<>();
+        GrapheFlotControle.collecterEcritures(declaration, reaffectes);
+        for (int i = 0; i < parametres.size(); i++) {
+            if (!GrapheFlotControle.estScalaire(parametres.get(i).getSymbole()) &&
+                    (arguments.get(i).getType() != NoeudAST.TypeNoeud.VARIABLE ||
+                            reaffectes.contains(parametres.get(i).getValeur()))) {
+                return false;
+            }
+        }
+
+        // Fonction appelée comme une instruction : le résultat est abandonné
+        NoeudAST retour = retourDe(declaration);
+        return !(appel.getParent().getType() == NoeudAST.TypeNoeud.BLOC_INSTRUCTIONS && retour != null &&
+                !PropagationConstantes.sansEffet(retour.getEnfant(0)));
+    }
+
+    // Variables que l'appelé peut modifier (les globales de tous les
+    // sous-programmes s'il en appelle lui-même)
+    private Set<String> ecritesPar(NoeudAST declaration) {
+        Set<String> ecrites = new HashSet<>();
+        GrapheFlotControle.collecterEcritures(declaration, ecrites);
+        ecrites.removeAll(GrapheFlotControle.nomsLocaux(declaration));
+        if (!declaration.rechercherParType(NoeudAST.TypeNoeud.APPEL_FONCTION).isEmpty()) {
+            ecrites.addAll(ecritesParAppel);
+        }
+        return ecrites;
+    }
+
+    // ==================== PARCOURS ====================
+
+    private void traiterRoutine(NoeudAST routine, NoeudAST programme) {
+        Set<String> locales = routine == programme ? Set.of() : GrapheFlotControle.nomsLocaux(routine);
+        NoeudAST corps = null;
+        for (NoeudAST enfant : routine.getEnfants()) {
+            if (enfant.getType() == NoeudAST.TypeNoeud.BLOC_INSTRUCTIONS) {
+                corps = enfant;
+            }
+        }
+        if (corps == null) {
+            return;
+        }
+        traiterBloc(corps, routine, locales);
+
+        // L'expression du RETOUR est évaluée après le corps
+        NoeudAST retour = retourDe(routine);
+        if (retour != null) {
+            NoeudAST appel;
+            while ((appel = premierAppel(List.of(retour.getEnfant(0)), locales)) != null) {
+                for (NoeudAST instruction : integrer(appel, routine, programme)) {
+                    corps.ajouterEnfant(instruction);
+                }
+            }
+        }
+    }
+
+    private void traiterBloc(NoeudAST bloc, NoeudAST routine, Set<String> locales) {
+        for (int i = 0; i < bloc.getEnfants().size(); i++) {
+            NoeudAST instruction = bloc.getEnfant(i);
+            NoeudAST appel;
+            while ((appel = premierAppel(expressionsDe(instruction), locales)) != null) {
+                List<NoeudAST> copiees = integrer(appel, routine, programmeDe(routine));
+                for (NoeudAST copiee : copiees) {
+                    bloc.insererEnfant(i++, copiee);
+                }
+                if (appel == instruction) {
+                    bloc.retirerEnfant(i--);
+                    break;
+                }
+            }
+        }
+        for (NoeudAST instruction : bloc.getEnfants()) {
+            for (NoeudAST enfant : instruction.getEnfants()) {
+                if (enfant.getType() == NoeudAST.TypeNoeud.BLOC_INSTRUCTIONS) {
+                    traiterBloc(enfant, routine, locales);
+                }
+            }
+        }
+    }
+
+    private NoeudAST programmeDe(NoeudAST routine) {
+        NoeudAST programme = routine;
+        while (programme.getParent() != null) {
+            programme = programme.getParent();
+        }
+        return programme;
+    }
+
+    // Expressions évaluées une fois, sans condition, quand l'instruction
+    // s'exécute, dans l'ordre d'évaluation
+    private List<NoeudAST> expressionsDe(NoeudAST instruction) {
+        List<NoeudAST> expressions = new ArrayList<>();
+        switch (instruction.getType()) {
+            case AFFECTATION:
+                // Python évalue la valeur avant la cible
+                expressions.add(instruction.getEnfant(instruction.getEnfants().size() - 1));
+                break;
+            case ECRIRE:
+                expressions.addAll(instruction.getEnfants());
+                break;
+            case APPEL_FONCTION:
+                expressions.add(instruction);
+                break;
+            case CONDITION:
+                expressions.add(instruction.getEnfant(0));
+                break;
+            case BOUCLE_POUR:
+                expressions.add(instruction.getEnfant(0));
+                expressions.add(instruction.getEnfant(1));
+                break;
+            default:
+                break;
+        }
+        return expressions;
+    }
+
+    private NoeudAST premierAppel(List<NoeudAST> expressions, Set<String> locales) {
+        sur = true;
+        lusAvant = new HashSet<>();
+        for (NoeudAST expression : expressions) {
+            NoeudAST appel = chercher(expression, false, locales);
+            if (appel != null || !sur) {
+                return appel;
+            }
+        }
+        return null;
+    }
+
+    // Premier appel intégrable ; sur devient faux dès qu'une évaluation peut
+    // échouer, lire la mémoire ou avoir un effet
+    private NoeudAST chercher(NoeudAST expression, boolean conditionnel, Set<String> locales) {
+        switch (expression.getType()) {
+            case NOMBRE:
+            case CHAINE:
+            case VALEUR_BOOLEENNE:
+                return null;
+
+            case VARIABLE:
+                lusAvant.add(expression.getValeur());
+                return null;
+
+            case NEGATION:
+                return chercher(expression.getEnfant(0), conditionnel, locales);
+
+            case EXPRESSION_BINAIRE: {
+                NoeudAST appel = chercher(expression.getEnfant(0), conditionnel, locales);
+                if (appel != null || !sur) {
+                    return appel;
+                }
+                boolean courtCircuit = expression.getOperateur() == Operateur.ET ||
+                        expression.getOperateur() == Operateur.OU;
+                appel = chercher(expression.getEnfant(1), conditionnel || courtCircuit, locales);
+                if (expression.getOperateur() == Operateur.DIV) {
+                    sur = false;
+                }
+                return appel;
+            }
+
+            case APPEL_FONCTION: {
+                // Les arguments sont évalués avant le corps dans les deux cas
+                Set<String> lusAvantArguments = new HashSet<>(lusAvant);
+                for (NoeudAST argument : argumentsDe(expression)) {
+                    NoeudAST appel = chercher(argument, conditionnel, locales);
+                    if (appel != null || !sur) {
+                        return appel;
+                    }
+                }
+                if (!conditionnel && integrableIci(expression, locales)) {
+                    Set<String> ecrites = ecritesPar(sousProgrammes.get(expression.getValeur()));
+                    ecrites.retainAll(lusAvantArguments);
+                    if (ecrites.isEmpty()) {
+                        return expression;
+                    }
+                }
+                sur = false;
+                return null;
+            }
+
+            default:
+                // Accès à un élément ou à un champ : lecture de la mémoire
+                sur = false;
+                return null;
+        }
+    }
+
+    // ==================== RÉÉCRITURE ====================
+
+    // Instructions à placer avant l'appel, qui est remplacé par le résultat
+    private List<NoeudAST> integrer(NoeudAST appel, NoeudAST routine, NoeudAST programme) {
+        NoeudAST declaration = sousProgrammes.get(appel.getValeur());
+        String prefixe = nouveauPrefixe(declaration.getValeur());
+        Map<String, String> renommes = new HashMap<>();
+        Map<String, EntreeTableSymboles> entrees = new HashMap<>();
+        List<NoeudAST> instructions = new ArrayList<>();
+        NoeudAST section = sectionVar(routine, programme);
+
+        Set<String> reaffectes = new HashSet<>();
+        GrapheFlotControle.collecterEcritures(declaration, reaffectes);
+        Set<String> ecrites = ecritesPar(declaration);
+        Set<String> lus = new HashSet<>();
+        for (NoeudAST enfant : declaration.getEnfants()) {
+            if (enfant.getType() == NoeudAST.TypeNoeud.BLOC_INSTRUCTIONS ||
+                    enfant.getType() == NoeudAST.TypeNoeud.RETOUR) {
+                GrapheFlotControle.collecterUtilisations(enfant, lus);
+            }
+        }
+
+        List<NoeudAST> parametres = parametresDe(declaration);
+        List<NoeudAST> arguments = argumentsDe(appel);
+        for (int i = 0; i < parametres.size(); i++) {
+            NoeudAST parametre = parametres.get(i);
+            NoeudAST argument = arguments.get(i);
+            // Une variable que le corps ne modifie pas est lue directement à
+            // la place du paramètre
+            boolean direct = argument.getType() == NoeudAST.TypeNoeud.VARIABLE &&
+                    !reaffectes.contains(parametre.getValeur()) && !ecrites.contains(argument.getValeur());
+            if (!GrapheFlotControle.estScalaire(parametre.getSymbole()) || direct) {
+                renommes.put(parametre.getValeur(), argument.getValeur());
+                entrees.put(parametre.getValeur(), argument.getSymbole());
+                continue;
+            }
+            // Paramètre ignoré par le corps : l'argument n'est évalué que
+            // s'il peut avoir un effet
+            if (inutilise(parametre, lus, reaffectes) && PropagationConstantes.sansEffet(argument)) {
+                continue;
+            }
+            EntreeTableSymboles entree = declarerLocale(section, prefixe + parametre.getValeur(),
+                    parametre.getSymbole(), parametre);
+            renommes.put(parametre.getValeur(), entree.nom);
+            entrees.put(parametre.getValeur(), entree);
+            instructions.add(GrapheFlotControle.affectation(entree, argument, argument));
+        }
+
+        for (NoeudAST enfant : declaration.getEnfants()) {
+            if (enfant.getType() != NoeudAST.TypeNoeud.SECTION_VAR) {
+                continue;
+            }
+            for (NoeudAST identifiant : identifiants(enfant)) {
+                if (inutilise(identifiant, lus, reaffectes)) {
+                    continue;
+                }
+                EntreeTableSymboles entree = declarerLocale(section, prefixe + identifiant.getValeur(),
+                        identifiant.getSymbole(), identifiant);
+                renommes.put(identifiant.getValeur(), entree.nom);
+                entrees.put(identifiant.getValeur(), entree);
+                // Une locale repart de sa valeur initiale à chaque appel
+                instructions.add(GrapheFlotControle.affectation(entree,
+                        GrapheFlotControle.valeurInitiale(identifiant), identifiant));
+            }
+        }
+
+        for (NoeudAST enfant : declaration.getEnfants()) {
+            if (enfant.getType() == NoeudAST.TypeNoeud.BLOC_INSTRUCTIONS) {
+                for (NoeudAST instruction : enfant.getEnfants()) {
+                    NoeudAST copie = instruction.copier();
+                    renommer(copie, renommes, entrees);
+                    instructions.add(copie);
+                }
+            }
+        }
+
+        NoeudAST retour = retourDe(declaration);
+        NoeudAST parent = appel.getParent();
+        if (parent.getType() != NoeudAST.TypeNoeud.BLOC_INSTRUCTIONS && retour != null) {
+            NoeudAST resultat = retour.getEnfant(0).copier();
+            renommer(resultat, renommes, entrees);
+            resultat.copierEtendue(appel);
+            parent.remplacerEnfant(parent.getEnfants().indexOf(appel), resultat);
+        }
+
+        integres.merge(declaration.getValeur(), 1, Integer::sum);
+        return instructions;
+    }
+
+    // Nom que le corps ne lit ni n'écrit : aucun temporaire à déclarer
+    private boolean inutilise(NoeudAST identifiant, Set<String> lus, Set<String> reaffectes) {
+        return !lus.contains(identifiant.getValeur()) && !reaffectes.contains(identifiant.getValeur());
+    }
+
+    private void renommer(NoeudAST noeud, Map<String, String> renommes, Map<String, EntreeTableSymboles> entrees) {
+        switch (noeud.getType()) {
+            case VARIABLE:
+            case AFFECTATION:
+            case ACCES_TABLEAU:
+            case BOUCLE_POUR:
+                renommerNoeud(noeud, renommes, entrees);
+                break;
+            case ACCES_CHAMP:
+                // Les maillons sont des noms de champs : seuls leurs indices changent
+                renommerNoeud(noeud, renommes, entrees);
+                for (NoeudAST maillon : noeud.getEnfants()) {
+                    if (maillon.getType() == NoeudAST.TypeNoeud.ACCES_TABLEAU) {
+                        for (NoeudAST indice : maillon.getEnfants()) {
+                            renommer(indice, renommes, entrees);
+                        }
+                    }
+                }
+                return;
+            default:
+                break;
+        }
+        for (NoeudAST enfant : noeud.getEnfants()) {
+            renommer(enfant, renommes, entrees);
+        }
+    }
+
+    private void renommerNoeud(NoeudAST noeud, Map<String, String> renommes,
+                               Map<String, EntreeTableSymboles> entrees) {
+        String nouveau = renommes.get(noeud.getValeur());
+        if (nouveau != null) {
+            noeud.setSymbole(entrees.get(noeud.getValeur()));
+            noeud.setValeur(nouveau);
+        }
+    }
+
+    // Déclare une nouvelle locale de l'appelant, du même type que l'originale
+    private EntreeTableSymboles declarerLocale(NoeudAST section, String nom, EntreeTableSymboles modele,
+                                               NoeudAST origine) {
+        EntreeTableSymboles entree = GrapheFlotControle.declarer(section, section.getEnfants().size(), nom,
+                modele.type, GrapheFlotControle.nomType(modele.type), origine.getLigne());
+        entree.typeElement = modele.typeElement;
+        entree.nomStructure = modele.nomStructure;
+        entree.rang = modele.rang;
+        nomsUtilises.add(nom);
+        return entree;
+    }
+
+    // Section VAR de l'appelant, créée avant son corps au besoin
+    private NoeudAST sectionVar(NoeudAST routine, NoeudAST programme) {
+        NoeudAST section = null;
+        int corps = -1;
+        for (int i = 0; i < routine.getEnfants().size(); i++) {
+            NoeudAST enfant = routine.getEnfant(i);
+            if (enfant.getType() == NoeudAST.TypeNoeud.SECTION_VAR) {
+                section = enfant;
+            } else if (enfant.getType() == NoeudAST.TypeNoeud.BLOC_INSTRUCTIONS) {
+                corps = i;
+            }
+        }
+        if (section == null) {
+            section = new NoeudAST(NoeudAST.TypeNoeud.SECTION_VAR, "", routine.getLigne());
+            routine.insererEnfant(corps, section);
+        }
+        return section;
+    }
+
+    // ==================== UTILITAIRES ====================
+
+    private List<NoeudAST> identifiants(NoeudAST section) {
+        List<NoeudAST> identifiants = new ArrayList<>();
+        for (NoeudAST liste : section.rechercherParType(NoeudAST.TypeNoeud.LISTE_IDENTIFICATEURS)) {
+            identifiants.addAll(liste.getEnfants());
+        }
+        return identifiants;
+    }
+
+    private List<NoeudAST> parametresDe(NoeudAST declaration) {
+        for (NoeudAST enfant : declaration.getEnfants()) {
+            if (enfant.getType() == NoeudAST.TypeNoeud.LISTE_PARAMETRES) {
+                return enfant.getEnfants();
+            }
+        }
+        return List.of();
+    }
+
+    private List<NoeudAST> argumentsDe(NoeudAST appel) {
+        return appel.getEnfants().isEmpty() ? List.of() : appel.getEnfant(0).getEnfants();
+    }
+
+    private NoeudAST retourDe(NoeudAST routine) {
+        for (NoeudAST enfant : routine.getEnfants()) {
+            if (enfant.getType() == NoeudAST.TypeNoeud.RETOUR && !enfant.getEnfants().isEmpty()) {
+                return enfant;
+            }
+        }
+        return null;
+    }
+
+    // Préfixe propre à une copie : aucun nom du programme ne le commence
+    private String nouveauPrefixe(String fonction) {
+        String prefixe;
+        boolean libre;
+        do {
+            prefixe = "_" + fonction + (++compteurInstances) + "_";
+            libre = true;
+            for (String nom : nomsUtilises) {
+                if (nom != null && nom.startsWith(prefixe)) {
+                    libre = false;
+                    break;
+                }
+            }
+        } while (!libre);
+        return prefixe;
+    }
+}
@@ -1,26 +1,72 @@
-import java.io.FileWriter;
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Map;
+import java.util.Set;
 
 public class Main {
     public static void main(String[] args) throws Exception {
-        try {
-            String nomFichierSource = "testGlobal.txt";
-            // Options disponibles :
-            // - test1_base.txt
-            // - test2_boucles.txt
-            // - test3_controles.txt
-            // - test4_fonctions.txt
-            // - test5_procedures.txt
-            // - test6_tableaux.txt
-            // - test7_structures.txt
-            // - testGlobal.txt
-
-            // 2. Dossier de sortie (généré automatiquement)
-            String dossierSortie = "src/code_genere/";
+        String nomFichierSource = "testGlobal.txt";
+        // Options disponibles :
+        // - test1_base.txt
+        // - test2_boucles.txt
+        // - test3_controles.txt
+        // - test4_fonctions.txt
+        // - test5_procedures.txt
+        // - test6_tableaux.txt
+        // - test7_structures.txt
+        // - test8_invariants.txt
+        // - test9_recursion.txt
+        // - test10_noms.txt
+        // - testGlobal.txt
+
+        // 2. Dossier de sortie (généré automatiquement)
+        String dossierSortie = "src/code_genere/";
+
+        // 3. Optimisations appliquées avant la génération
+        boolean eliminerRecursionTerminale = true;
+        // Calcule à la compilation les appels de fonctions pures à arguments constants
+        boolean evaluerFonctions = true;
+        boolean integrerFonctions = true;
+        // Sous-programmes à ne jamais intégrer
+        Set<String> fonctionsNonIntegrees = Set.of();
+        boolean remplacerStructures = true;
+        boolean propagerConstantes = true;
+        boolean optimiserSSA = true;
+        boolean propagerCopies = true;
+        boolean eliminerCodeMort = true;
+        boolean fusionnerBoucles = true;
+        boolean deplacerInvariants = true;
+        // Déroule les POUR à bornes littérales : complètement jusqu'à
+        // seuilDeroulement tours, sinon par facteurDeroulement avec un reste
+        boolean deroulerBoucles = true;
+        int seuilDeroulement = 8;
+        int facteurDeroulement = 4;
+        boolean eliminerSousExpressions = false;
+        // Génère les fonctions en parallèle (sur l'arbre figé)
+        boolean generationParallele = false;
+        // Place le programme principal dans 'def main()' : variables locales
+        boolean programmeEnFonction = true;
+        // Tableaux d'entiers/réels en array('q'/'d') quand leurs écritures le permettent
+        boolean tableauxCompacts = true;
+        // ECRIRE par sys.stdout.write d'une seule chaîne (f-string) par ligne
+        boolean ecritureBufferisee = true;
+        // Vérifie les corps de fonctions en parallèle
+        boolean analyseSemantiqueParallele = false;
+        // Avertit des variables lues avant toute affectation (définitions atteignantes)
+        boolean verifierInitialisations = true;
+
+        // 4. Rendu des diagnostics : "console", ou "json" / "sarif" écrits
+        // dans le dossier de sortie
+        String formatDiagnostics = "console";
+
+        // Collecteur commun aux trois analyses, rendu une seule fois à la fin
+        Diagnostics diagnostics = new Diagnostics();
 
+        try {
             // Vérifier si le fichier source existe
             Path cheminSource = Paths.get("src/tests", nomFichierSource);
             if (!Files.exists(cheminSource)) {
@@ -40,7 +86,8 @@ public class Main {
             System.out.println("\n=== ANALYSE LEXICALE ===");
             System.out.println("Tokens reconnus:");
 
-            // Créer et exécuter l'analyseur lexical
+            // Créer et exécuter l'analyseur lexical (ses diagnostics seront
+            // signalés à nouveau par la seconde lecture)
             analyseurLexical analyseurLex = new analyseurLexical(cheminSource.toString());
 
             // Analyser et afficher tous les tokens
@@ -60,7 +107,7 @@ public class Main {
             System.out.println("\n=== ANALYSE SYNTAXIQUE ===");
 
             // Recréer l'analyseur lexical pour l'analyse syntaxique
-            analyseurLexical analyseurLex2 = new analyseurLexical(cheminSource.toString());
+            analyseurLexical analyseurLex2 = new analyseurLexical(cheminSource.toString(), diagnostics);
             AnalyseurSyntaxique analyseurSyntaxique = new AnalyseurSyntaxique(analyseurLex2);
 
             try {
@@ -68,7 +115,6 @@ public class Main {
                 analyseurSyntaxique.analyser();
 
                 if (analyseurSyntaxique.aErreurs()) {
-                    analyseurSyntaxique.afficherErreurs();
                     System.err.println("\n=== ANALYSE SYNTAXIQUE ÉCHOUÉE ===");
                     analyseurLex2.fermer();
                     return;
@@ -95,7 +141,8 @@ public class Main {
                 System.out.println("\n=== ANALYSE SÉMANTIQUE ===");
 
                 // Créer et exécuter l'analyseur sémantique
-                AnalyseurSemantique analyseurSemantique = new AnalyseurSemantique(arbreSyntaxique);
+                AnalyseurSemantique analyseurSemantique = new AnalyseurSemantique(arbreSyntaxique, diagnostics);
+                analyseurSemantique.setAnalyseParallele(analyseSemantiqueParallele);
                 analyseurSemantique.analyser();
 
                 // Afficher les résultats de l'analyse sémantique
@@ -129,9 +176,129 @@ public class Main {
                     // GÉNÉRATION DE CODE PYTHON
                     System.out.println("\n=== GÉNÉRATION DE CODE (PYTHON) ===");
 
+                    if (verifierInitialisations) {
+                        VerificationInitialisations initialisations =
+                                new VerificationInitialisations(analyseurSemantique);
+                        initialisations.verifier(arbreSyntaxique);
+                        System.out.println("Initialisations : " + initialisations.getNombreAvertissements() +
+                                " variable(s) lue(s) avant toute affectation");
+                    }
+
+                    // Le code mort est éliminé en fin de chaîne, mais ses avertissements
+                    // portent sur le source : il le relève avant toute réécriture
+                    EliminationCodeMort codeMort = null;
+                    if (eliminerCodeMort) {
+                        codeMort = new EliminationCodeMort(analyseurSemantique);
+                        codeMort.releverSource(arbreSyntaxique);
+                    }
+
+                    if (eliminerRecursionTerminale) {
+                        EliminationRecursionTerminale recursion = new EliminationRecursionTerminale();
+                        recursion.optimiser(arbreSyntaxique);
+                        System.out.println("Récursion terminale : " + recursion.getNombreFonctions() +
+                                " fonction(s), " + recursion.getNombreAppels() + " appel(s) remplacé(s) par une boucle");
+                    }
+
+                    if (evaluerFonctions) {
+                        EvaluationFonctions evaluation =
+                                new EvaluationFonctions(new AnalysePurete(arbreSyntaxique));
+                        evaluation.optimiser(arbreSyntaxique);
+                        System.out.println("Évaluation : " + evaluation.getNombreAppels() +
+                                " appel(s) calculé(s) à la compilation, " + evaluation.getNombreAbandons() +
+                                " abandonné(s)");
+                    }
+
+                    if (integrerFonctions) {
+                        IntegrationFonctions integration = new IntegrationFonctions();
+                        fonctionsNonIntegrees.forEach(integration::exclure);
+                        integration.optimiser(arbreSyntaxique);
+                        System.out.println("Intégration : " + integration.getNombreAppels() + " appel(s) remplacé(s)");
+                        integration.getRapport().forEach((nom, nombre) ->
+                                System.out.println("  " + nom + " : " + nombre + " appel(s)"));
+                    }
+
+                    if (remplacerStructures) {
+                        RemplacementStructures structures = new RemplacementStructures();
+                        structures.optimiser(arbreSyntaxique);
+                        System.out.println("Structures : " + structures.getNombreStructures() +
+                                " variable(s) remplacée(s) par " + structures.getNombreChamps() + " scalaire(s)");
+                    }
+
+                    if (propagerConstantes) {
+                        PropagationConstantes constantes = new PropagationConstantes();
+                        constantes.optimiser(arbreSyntaxique);
+                        System.out.println("Constantes : " + constantes.getNombrePliages() +
+                                " expression(s) pliée(s), " + constantes.getNombrePropagations() +
+                                " variable(s) remplacée(s), " + constantes.getNombreConditions() +
+                                " condition(s) résolue(s)");
+                    }
+
+                    if (optimiserSSA) {
+                        GestionnairePasses passes = GestionnairePasses.parDefaut();
+                        passes.optimiser(arbreSyntaxique);
+                        Map<String, Integer> modifications = passes.getModifications();
+                        System.out.println("SSA : " + passes.getIterations() + " tour(s), " +
+                                modifications.get("SCCP") + " expression(s) constante(s), " +
+                                modifications.get("GVN") + " expression(s) redondante(s), " +
+                                modifications.get("DCE") + " affectation(s) morte(s)");
+                    }
+
+                    if (propagerCopies) {
+                        int remplacements = PropagationCopies.optimiser(arbreSyntaxique);
+                        System.out.println("Copies : " + remplacements + " lecture(s) remplacée(s)");
+                    }
+
+                    if (codeMort != null) {
+                        codeMort.optimiser(arbreSyntaxique);
+                        System.out.println("Code mort : " + codeMort.getNombreInstructions() +
+                                " instruction(s), " + codeMort.getNombreBranches() +
+                                " branche(s) ou boucle(s), " + codeMort.getNombreVariables() +
+                                " variable(s) supprimée(s)");
+                    }
+
+                    if (fusionnerBoucles) {
+                        FusionBoucles fusion = new FusionBoucles(new AnalysePurete(arbreSyntaxique));
+                        fusion.optimiser(arbreSyntaxique);
+                        System.out.println("Fusion : " + fusion.getNombreFusions() + " boucle(s) fusionnée(s), " +
+                                fusion.getNombreDeplacees() + " instruction(s) remontée(s)");
+                    }
+
+                    if (deplacerInvariants) {
+                        DeplacementInvariants invariants =
+                                new DeplacementInvariants(new AnalysePurete(arbreSyntaxique));
+                        invariants.optimiser(arbreSyntaxique);
+                        System.out.println("Invariants : " + invariants.getNombreExpressions() +
+                                " expression(s) sortie(s) de " + invariants.getNombreBoucles() + " boucle(s)");
+                    }
+
+                    if (deroulerBoucles) {
+                        DeroulementBoucles deroulement = new DeroulementBoucles(seuilDeroulement, facteurDeroulement);
+                        deroulement.optimiser(arbreSyntaxique);
+                        System.out.println("Déroulement : " + deroulement.getNombreCompletes() +
+                                " boucle(s) déroulée(s) complètement, " + deroulement.getNombrePartielles() +
+                                " partiellement");
+                    }
+
+                    if (eliminerSousExpressions) {
+                        EliminationSousExpressions cse = new EliminationSousExpressions();
+                        cse.optimiser(arbreSyntaxique);
+                        System.out.println("Sous-expressions communes : " + cse.getNombreTemporaires() +
+                                " temporaire(s), " + cse.getNombreRemplacements() + " occurrence(s) remplacée(s)");
+                    }
+
+                    // Figer l'arbre : plus aucune passe ne le modifie à partir d'ici
+                    NoeudAST arbreFige = arbreSyntaxique.figer();
+
                     // Créer le générateur Python
-                    GenerateurCode generateur = new GenerateurPython();
-                    String codeGenere = generateur.generer(arbreSyntaxique);
+                    GenerateurPython generateur = new GenerateurPython();
+                    generateur.setGenerationParallele(generationParallele);
+                    generateur.setProgrammeEnFonction(programmeEnFonction);
+                    generateur.setEcritureBufferisee(ecritureBufferisee);
+                    if (tableauxCompacts) {
+                        TypageTableaux typage = new TypageTableaux(arbreFige);
+                        generateur.setTypageTableaux(typage);
+                        System.out.println("Tableaux compacts : " + typage.getNombreTableaux() + " tableau(x) en array");
+                    }
 
                     // Créer le dossier de sortie s'il n'existe pas
                     Path cheminDossierSortie = Paths.get(dossierSortie);
@@ -144,14 +311,15 @@ public class Main {
                     String nomFichierSortie = nomFichierSource.replace(".txt", ".py");
                     Path cheminCompletSortie = Paths.get(dossierSortie, nomFichierSortie);
 
-                    // Écrire le code généré dans le fichier
-                    FileWriter fwSortie = new FileWriter(cheminCompletSortie.toString());
-                    fwSortie.write(codeGenere);
-                    fwSortie.close();
+                    // Écrire le code au fil de la génération, sans le garder en mémoire
+                    try (BufferedWriter sortie = Files.newBufferedWriter(cheminCompletSortie, StandardCharsets.UTF_8)) {
+                        generateur.generer(arbreFige, sortie);
+                    }
 
-                    // Affichage console
+                    // Affichage console : relu depuis le fichier
                     System.out.println("\n--- CODE PYTHON GÉNÉRÉ ---");
-                    System.out.println(codeGenere);
+                    Files.copy(cheminCompletSortie, System.out);
+                    System.out.println();
                     System.out.println("========================================");
                     System.out.println("Fichier généré avec succès : " + cheminCompletSortie);
                     System.out.println("========================================");
@@ -164,12 +332,46 @@ public class Main {
             // Fermer les analyseurs
             analyseurLex2.fermer();
 
+        } catch (ArretCompilation e) {
+            // Erreur lexicale ou limite d'erreurs : la lecture de tokens du début
+            // a son propre collecteur, c'est lui qu'il faut rendre
+            diagnostics = e.getDiagnostics();
+            System.err.println("\n=== COMPILATION INTERROMPUE ===");
+            System.err.println(e.getMessage());
         } catch (IOException e) {
             System.err.println("Erreur de lecture/écriture du fichier : " + e.getMessage());
             e.printStackTrace();
         } catch (Exception e) {
             System.err.println("Erreur inattendue : " + e.getMessage());
             e.printStackTrace();
+        } finally {
+            afficherDiagnostics(diagnostics, formatDiagnostics, dossierSortie, nomFichierSource);
+        }
+    }
+
+    private static void afficherDiagnostics(Diagnostics diagnostics, String format,
+                                            String dossierSortie, String nomFichierSource) {
+        if (diagnostics.getDiagnostics().isEmpty()) {
+            return;
+        }
+        RenduDiagnostics rendu = RenduDiagnostics.pour(format);
+        String source = "src/tests/" + nomFichierSource;
+        if (rendu instanceof RenduConsole) {
+            // Un seul appel : la sortie d'erreur n'est pas bufferisée
+            System.err.print(rendu.rendre(diagnostics, source));
+            System.err.flush();
+            return;
+        }
+        Path chemin = Paths.get(dossierSortie, nomFichierSource.replace(".txt", rendu.getExtension()));
+        try {
+            Files.createDirectories(chemin.getParent());
+            try (BufferedWriter sortie = Files.newBufferedWriter(chemin, StandardCharsets.UTF_8)) {
+                rendu.rendre(diagnostics, source, sortie);
+            }
+            System.err.println("\nDiagnostics (" + diagnostics.getNombreErreurs() + " erreur(s), " +
+                    diagnostics.getNombreAvertissements() + " avertissement(s)) écrits dans : " + chemin);
+        } catch (IOException e) {
+            System.err.println("Erreur d'écriture des diagnostics : " + e.getMessage());
         }
     }
 }
\ No newline at end of file
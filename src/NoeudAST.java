@@ -1,6 +1,8 @@
 // NoeudAST.java
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 
 public class NoeudAST {
     public enum TypeNoeud {
@@ -60,8 +62,30 @@ public class NoeudAST {
 
     private TypeNoeud type;
     private String valeur;
+    private Operateur operateur; // EXPRESSION_BINAIRE et NEGATION uniquement
     private int ligne;
+    // Étendue source empaquetée pour rester compacte :
+    // offsets début/fin sur 32 bits chacun, colonnes début/fin sur 16 bits chacune
+    private long etendue;
+    private int colonnes;
     private List<NoeudAST> enfants;
+    private NoeudAST parent;
+    // Nœud issu de figer() : enfants non modifiables, tout mutateur échoue
+    private boolean fige;
+
+    // Annotations posées par l'analyse sémantique
+    private TypeDonnee typeResolu;          // type de l'expression ou de l'identifiant
+    private EntreeTableSymboles symbole;    // variable, paramètre ou champ désigné
+    private StructureInfo structure;        // structure déclarée ou contenant le champ
+    private FonctionInfo fonction;          // fonction déclarée ou appelée
+    private ChampInfo champ;                // champ désigné (maillon d'un ACCES_CHAMP)
+    private int[] cheminChamps;             // ACCES_CHAMP : ordinaux des champs traversés
+
+    // Index maintenu sur la racine PROGRAMME : construit en un seul parcours,
+    // invalidé dès qu'un nœud du sous-arbre est modifié
+    private Map<TypeNoeud, List<NoeudAST>> indexParType;
+    private int tailleIndex;
+    private int hauteurIndex;
 
     public NoeudAST(TypeNoeud type) {
         this.type = type;
@@ -80,18 +104,109 @@ public class NoeudAST {
         this.ligne = ligne;
     }
 
+    // Copie profonde immuable de l'arbre, partageable entre threads : les
+    // listes d'enfants sont non modifiables et l'index de la racine est
+    // construit tout de suite (plus aucune écriture paresseuse ensuite)
+    public NoeudAST figer() {
+        if (fige) {
+            return this;
+        }
+        NoeudAST copie = copierFige();
+        if (copie.estIndexable()) {
+            copie.index();
+        }
+        return copie;
+    }
+
+    private NoeudAST copierFige() {
+        NoeudAST copie = copierNoeud();
+        List<NoeudAST> copiesEnfants = new ArrayList<>(enfants.size());
+        for (NoeudAST enfant : enfants) {
+            NoeudAST copieEnfant = enfant.copierFige();
+            copieEnfant.parent = copie;
+            copiesEnfants.add(copieEnfant);
+        }
+        copie.enfants = List.copyOf(copiesEnfants);
+        copie.fige = true;
+        return copie;
+    }
+
+    // Copie profonde modifiable, annotations sémantiques comprises : pour les
+    // passes qui dupliquent du code (intégration, déroulage...)
+    public NoeudAST copier() {
+        NoeudAST copie = copierNoeud();
+        for (NoeudAST enfant : enfants) {
+            copie.ajouterEnfant(enfant.copier());
+        }
+        return copie;
+    }
+
+    private NoeudAST copierNoeud() {
+        NoeudAST copie = new NoeudAST(type, valeur, ligne);
+        copie.operateur = operateur;
+        copie.etendue = etendue;
+        copie.colonnes = colonnes;
+        copie.typeResolu = typeResolu;
+        copie.symbole = symbole;
+        copie.structure = structure;
+        copie.fonction = fonction;
+        copie.champ = champ;
+        copie.cheminChamps = cheminChamps;
+        return copie;
+    }
+
+    public boolean estFige() { return fige; }
+
+    private void verifierModifiable() {
+        if (fige) {
+            throw new UnsupportedOperationException("Arbre figé : " + type + " (ligne " + ligne + ")");
+        }
+    }
+
     public void ajouterEnfant(NoeudAST enfant) {
+        verifierModifiable();
         if (enfant != null) {
             enfants.add(enfant);
+            enfant.parent = this;
+            invaliderIndex();
         }
     }
 
     public void ajouterEnfants(List<NoeudAST> enfants) {
+        verifierModifiable();
         if (enfants != null) {
+            for (NoeudAST enfant : enfants) {
+                enfant.parent = this;
+            }
             this.enfants.addAll(enfants);
+            invaliderIndex();
         }
     }
 
+    public NoeudAST retirerEnfant(int index) {
+        verifierModifiable();
+        NoeudAST enfant = enfants.remove(index);
+        enfant.parent = null;
+        invaliderIndex();
+        return enfant;
+    }
+
+    public void insererEnfant(int index, NoeudAST enfant) {
+        verifierModifiable();
+        enfants.add(index, enfant);
+        enfant.parent = this;
+        invaliderIndex();
+    }
+
+    public NoeudAST remplacerEnfant(int index, NoeudAST nouveau) {
+        verifierModifiable();
+        NoeudAST ancien = enfants.set(index, nouveau);
+        ancien.parent = null;
+        nouveau.parent = this;
+        invaliderIndex();
+        return ancien;
+    }
+
     public NoeudAST getEnfant(int index) {
         if (index >= 0 && index < enfants.size()) {
             return enfants.get(index);
@@ -101,11 +216,120 @@ public class NoeudAST {
 
     public TypeNoeud getType() { return type; }
     public String getValeur() { return valeur; }
+    public Operateur getOperateur() { return operateur; }
     public int getLigne() { return ligne; }
     public List<NoeudAST> getEnfants() { return enfants; }
+    public NoeudAST getParent() { return parent; }
+    public TypeDonnee getTypeResolu() { return typeResolu; }
+    public EntreeTableSymboles getSymbole() { return symbole; }
+    public StructureInfo getStructure() { return structure; }
+    public FonctionInfo getFonction() { return fonction; }
+    public ChampInfo getChamp() { return champ; }
+    public int[] getCheminChamps() { return cheminChamps == null ? null : cheminChamps.clone(); }
+
+    public int getDebut() { return (int) (etendue >>> 32); }
+    public int getFin() { return (int) etendue; }
+    public int getColonneDebut() { return colonnes >>> 16; }
+    public int getColonneFin() { return colonnes & 0xFFFF; }
+
+    public void setLigne(int ligne) {
+        verifierModifiable();
+        this.ligne = ligne;
+    }
 
-    public void setLigne(int ligne) { this.ligne = ligne; }
-    public void setValeur(String valeur) { this.valeur = valeur; }
+    public void setOperateur(Operateur operateur) {
+        verifierModifiable();
+        this.operateur = operateur;
+    }
+
+    public void setTypeResolu(TypeDonnee typeResolu) {
+        verifierModifiable();
+        this.typeResolu = typeResolu;
+    }
+
+    public void setSymbole(EntreeTableSymboles symbole) {
+        verifierModifiable();
+        this.symbole = symbole;
+    }
+
+    public void setStructure(StructureInfo structure) {
+        verifierModifiable();
+        this.structure = structure;
+    }
+
+    public void setFonction(FonctionInfo fonction) {
+        verifierModifiable();
+        this.fonction = fonction;
+    }
+
+    public void setChamp(ChampInfo champ) {
+        verifierModifiable();
+        this.champ = champ;
+    }
+
+    public void setCheminChamps(int[] cheminChamps) {
+        verifierModifiable();
+        this.cheminChamps = cheminChamps;
+    }
+
+    public void setDebut(int offset, int colonne) {
+        verifierModifiable();
+        etendue = ((long) offset << 32) | (etendue & 0xFFFFFFFFL);
+        colonnes = (Math.min(colonne, 0xFFFF) << 16) | (colonnes & 0xFFFF);
+    }
+
+    public void setFin(int offset, int colonne) {
+        verifierModifiable();
+        etendue = (etendue & 0xFFFFFFFF00000000L) | (offset & 0xFFFFFFFFL);
+        colonnes = (colonnes & 0xFFFF0000) | Math.min(colonne, 0xFFFF);
+    }
+
+    // Recopie l'étendue d'un autre nœud (nœuds synthétisés à partir d'un existant)
+    public void copierEtendue(NoeudAST source) {
+        verifierModifiable();
+        this.ligne = source.ligne;
+        this.etendue = source.etendue;
+        this.colonnes = source.colonnes;
+    }
+
+    public void setValeur(String valeur) {
+        verifierModifiable();
+        this.valeur = valeur;
+        invaliderIndex();
+    }
+
+    // Remonte jusqu'à la racine pour oublier les index devenus faux
+    private void invaliderIndex() {
+        for (NoeudAST n = this; n != null; n = n.parent) {
+            n.indexParType = null;
+        }
+    }
+
+    private boolean estIndexable() {
+        return type == TypeNoeud.PROGRAMME;
+    }
+
+    private Map<TypeNoeud, List<NoeudAST>> index() {
+        if (indexParType == null) {
+            Map<TypeNoeud, List<NoeudAST>> index = new EnumMap<>(TypeNoeud.class);
+            tailleIndex = 0;
+            hauteurIndex = indexer(this, index, 1);
+            indexParType = index;
+        }
+        return indexParType;
+    }
+
+    // Parcours préfixe unique : remplit l'index, compte les nœuds et renvoie la hauteur
+    private int indexer(NoeudAST noeud, Map<TypeNoeud, List<NoeudAST>> index, int profondeur) {
+        index.computeIfAbsent(noeud.type, t -> new ArrayList<>()).add(noeud);
+        tailleIndex++;
+
+        int hauteurMax = profondeur;
+        for (NoeudAST enfant : noeud.enfants) {
+            hauteurMax = Math.max(hauteurMax, indexer(enfant, index, profondeur + 1));
+        }
+        return hauteurMax;
+    }
 
     @Override
     public String toString() {
@@ -184,6 +408,10 @@ public class NoeudAST {
         sb.append(indentation).append("  \"type\": \"").append(type).append("\",\n");
         sb.append(indentation).append("  \"valeur\": \"").append(valeur.replace("\"", "\\\"")).append("\",\n");
         sb.append(indentation).append("  \"ligne\": ").append(ligne).append(",\n");
+        sb.append(indentation).append("  \"debut\": ").append(getDebut()).append(",\n");
+        sb.append(indentation).append("  \"fin\": ").append(getFin()).append(",\n");
+        sb.append(indentation).append("  \"colonne\": ").append(getColonneDebut()).append(",\n");
+        sb.append(indentation).append("  \"colonneFin\": ").append(getColonneFin()).append(",\n");
 
         if (!enfants.isEmpty()) {
             sb.append(indentation).append("  \"enfants\": [\n");
@@ -232,6 +460,11 @@ public class NoeudAST {
 
     // Compteur de nœuds
     public int compterNoeuds() {
+        if (estIndexable()) {
+            index();
+            return tailleIndex;
+        }
+
         int count = 1;
         for (NoeudAST enfant : enfants) {
             count += enfant.compterNoeuds();
@@ -241,6 +474,11 @@ public class NoeudAST {
 
     // Hauteur de l'arbre
     public int hauteur() {
+        if (estIndexable()) {
+            index();
+            return hauteurIndex;
+        }
+
         if (enfants.isEmpty()) {
             return 1;
         }
@@ -258,16 +496,23 @@ public class NoeudAST {
 
     // Rechercher un nœud par type
     public List<NoeudAST> rechercherParType(TypeNoeud typeRecherche) {
+        if (estIndexable()) {
+            List<NoeudAST> resultats = index().get(typeRecherche);
+            return resultats == null ? new ArrayList<>() : new ArrayList<>(resultats);
+        }
+
         List<NoeudAST> resultats = new ArrayList<>();
+        rechercherParType(typeRecherche, resultats);
+        return resultats;
+    }
 
+    private void rechercherParType(TypeNoeud typeRecherche, List<NoeudAST> resultats) {
         if (this.type == typeRecherche) {
             resultats.add(this);
         }
 
         for (NoeudAST enfant : enfants) {
-            resultats.addAll(enfant.rechercherParType(typeRecherche));
+            enfant.rechercherParType(typeRecherche, resultats);
         }
-
-        return resultats;
     }
 }
\ No newline at end of file
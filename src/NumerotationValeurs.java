@@ -0,0 +1,212 @@
+// NumerotationValeurs.java
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Numérotation globale des valeurs (GVN) sur la forme SSA.
+//
+// Chaque version reçoit un numéro de valeur : deux affectations dont les
+// expressions ont la même forme sur des opérandes de mêmes numéros calculent
+// la même valeur, une copie hérite du numéro de sa source, un phi dont tous
+// les opérandes ont le même numéro aussi. L'arbre des dominateurs est
+// parcouru en profondeur ; une expression déjà calculée par une affectation
+// qui la domine est remplacée par la variable affectée, si celle-ci contient
+// encore cette version au point d'utilisation.
+//
+// Seules les expressions pures sont numérotées : ni appel, ni accès à un
+// élément (la mémoire n'est pas en SSA). Une division peut l'être : si
+// l'affectation qui domine ne l'a pas fait échouer, le même calcul sur les
+// mêmes valeurs n'échouera pas non plus.
+public class NumerotationValeurs implements PasseSSA {
+    private RepresentationSSA ssa;
+    private int[] numeros;
+    private int prochainNumero;
+    private final Map<String, Integer> numerosExpressions = new HashMap<>();
+    private final Map<String, ArrayDeque<ValeurSSA>> disponibles = new HashMap<>();
+    private final Map<String, ArrayDeque<ValeurSSA>> courantes = new HashMap<>();
+    private int remplacements;
+
+    @Override
+    public String getNom() {
+        return "GVN";
+    }
+
+    @Override
+    public int executer(RepresentationSSA ssa) {
+        this.ssa = ssa;
+        numeros = new int[ssa.getValeurs().size()];
+        prochainNumero = 1; // 0 : pas encore numérotée
+        numerosExpressions.clear();
+        disponibles.clear();
+        courantes.clear();
+        remplacements = 0;
+
+        for (String variable : ssa.getGraphe().getVariables()) {
+            ValeurSSA entree = ssa.getEntree(variable);
+            numeros[entree.id] = prochainNumero++;
+            courantes.computeIfAbsent(variable, v -> new ArrayDeque<>()).push(entree);
+        }
+        parcourir(ssa.getGraphe().getEntree());
+        return remplacements;
+    }
+
+    private void parcourir(BlocBase bloc) {
+        List<String> variablesEmpilees = new ArrayList<>();
+        List<String> clesEmpilees = new ArrayList<>();
+
+        for (ValeurSSA phi : ssa.getPhis(bloc)) {
+            numeros[phi.id] = numeroPhi(phi);
+            courantes.get(phi.variable).push(phi);
+            variablesEmpilees.add(phi.variable);
+        }
+
+        for (InstructionFlot instruction : bloc.instructions) {
+            String cleAffectation = null;
+            if (instruction.sorte == InstructionFlot.Sorte.SIMPLE &&
+                    instruction.noeud.getType() == NoeudAST.TypeNoeud.AFFECTATION &&
+                    instruction.noeud.getEnfants().size() == 1) {
+                cleAffectation = cle(instruction.noeud.getEnfant(0));
+            }
+
+            for (NoeudAST expression : instruction.expressionsLues()) {
+                remplacer(expression);
+            }
+
+            for (ValeurSSA ecrite : ssa.getDefinitions(instruction)) {
+                if (cleAffectation != null && ecrite.sorte == ValeurSSA.Sorte.DEFINITION) {
+                    numeros[ecrite.id] = cleAffectation.startsWith("v")
+                            ? Integer.parseInt(cleAffectation.substring(1)) // copie
+                            : numerosExpressions.computeIfAbsent(cleAffectation, c -> prochainNumero++);
+                    if (estCalcul(cleAffectation)) {
+                        disponibles.computeIfAbsent(cleAffectation, c -> new ArrayDeque<>()).push(ecrite);
+                        clesEmpilees.add(cleAffectation);
+                    }
+                } else {
+                    numeros[ecrite.id] = prochainNumero++;
+                }
+                courantes.get(ecrite.variable).push(ecrite);
+                variablesEmpilees.add(ecrite.variable);
+            }
+        }
+
+        for (BlocBase enfant : ssa.getEnfantsDominance(bloc)) {
+            parcourir(enfant);
+        }
+
+        for (int i = clesEmpilees.size() - 1; i >= 0; i--) {
+            disponibles.get(clesEmpilees.get(i)).pop();
+        }
+        for (int i = variablesEmpilees.size() - 1; i >= 0; i--) {
+            courantes.get(variablesEmpilees.get(i)).pop();
+        }
+    }
+
+    // Même numéro que ses opérandes s'ils sont tous égaux ; sinon un numéro
+    // propre au bloc et aux numéros des opérandes (deux phi identiques d'un
+    // même bloc se confondent). Un opérande d'arc arrière n'est pas encore
+    // numéroté : le phi reçoit alors un numéro neuf.
+    private int numeroPhi(ValeurSSA phi) {
+        int commun = -1;
+        StringBuilder cle = new StringBuilder("phi B").append(phi.bloc.id);
+        for (ValeurSSA operande : phi.operandes) {
+            int numero = operande == null ? 0 : numeros[operande.id];
+            if (numero == 0) {
+                return prochainNumero++;
+            }
+            commun = commun == -1 || commun == numero ? numero : -2;
+            cle.append(' ').append(numero);
+        }
+        if (commun > 0) {
+            return commun;
+        }
+        return numerosExpressions.computeIfAbsent(cle.toString(), c -> prochainNumero++);
+    }
+
+    // Forme canonique d'une expression pure, ou null
+    private String cle(NoeudAST expression) {
+        switch (expression.getType()) {
+            case VARIABLE: {
+                ValeurSSA lue = ssa.getLecture(expression);
+                if (lue == null || numeros[lue.id] == 0) {
+                    return null;
+                }
+                return "v" + numeros[lue.id];
+            }
+            case NOMBRE:
+                return "n" + expression.getValeur();
+            case VALEUR_BOOLEENNE:
+                return "b" + expression.getValeur().toLowerCase();
+            case CHAINE:
+                return "s" + expression.getValeur().length() + ":" + expression.getValeur();
+            case NEGATION: {
+                String operande = cle(expression.getEnfant(0));
+                return operande == null ? null : "(" + expression.getOperateur() + " " + operande + ")";
+            }
+            case EXPRESSION_BINAIRE: {
+                String gauche = cle(expression.getEnfant(0));
+                String droite = gauche == null ? null : cle(expression.getEnfant(1));
+                return droite == null ? null
+                        : "(" + expression.getOperateur() + " " + gauche + " " + droite + ")";
+            }
+            default:
+                return null;
+        }
+    }
+
+    // Seule une opération vaut d'être remplacée par une variable
+    private boolean estCalcul(String cle) {
+        return cle.startsWith("(");
+    }
+
+    private void remplacer(NoeudAST expression) {
+        switch (expression.getType()) {
+            case NEGATION:
+            case EXPRESSION_BINAIRE: {
+                String cle = cle(expression);
+                ValeurSSA porteuse = cle == null ? null : porteuseCourante(cle);
+                if (porteuse != null) {
+                    NoeudAST variable = new NoeudAST(NoeudAST.TypeNoeud.VARIABLE, porteuse.variable,
+                            expression.getLigne());
+                    variable.setSymbole(porteuse.instruction.noeud.getSymbole());
+                    variable.setTypeResolu(expression.getTypeResolu());
+                    variable.copierEtendue(expression);
+                    NoeudAST parent = expression.getParent();
+                    parent.remplacerEnfant(parent.getEnfants().indexOf(expression), variable);
+                    remplacements++;
+                    return;
+                }
+                break;
+            }
+            case ACCES_CHAMP:
+                for (NoeudAST maillon : expression.getEnfants()) {
+                    if (maillon.getType() == NoeudAST.TypeNoeud.ACCES_TABLEAU) {
+                        for (NoeudAST indice : new ArrayList<>(maillon.getEnfants())) {
+                            remplacer(indice);
+                        }
+                    }
+                }
+                return;
+            default:
+                break;
+        }
+        for (NoeudAST enfant : new ArrayList<>(expression.getEnfants())) {
+            remplacer(enfant);
+        }
+    }
+
+    // Affectation qui domine et dont la variable contient encore la valeur
+    private ValeurSSA porteuseCourante(String cle) {
+        ArrayDeque<ValeurSSA> candidates = disponibles.get(cle);
+        if (candidates == null) {
+            return null;
+        }
+        for (ValeurSSA candidate : candidates) {
+            if (courantes.get(candidate.variable).peek() == candidate) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,63 @@
+// Operateur.java
+public enum Operateur {
+    // Opérateurs arithmétiques
+    PLUS("+", Categorie.ARITHMETIQUE),
+    MOINS("-", Categorie.ARITHMETIQUE),
+    MULT("*", Categorie.ARITHMETIQUE),
+    DIV("/", Categorie.ARITHMETIQUE),
+
+    // Opérateurs de comparaison
+    INF("<", Categorie.COMPARAISON),
+    INFEG("<=", Categorie.COMPARAISON),
+    SUP(">", Categorie.COMPARAISON),
+    SUPEG(">=", Categorie.COMPARAISON),
+    EG("=", Categorie.COMPARAISON),
+    DIFF("<>", Categorie.COMPARAISON),
+
+    // Opérateurs logiques
+    ET("ET", Categorie.LOGIQUE),
+    OU("OU", Categorie.LOGIQUE),
+
+    // Opérateurs unaires (nœuds NEGATION)
+    OPPOSE("-", Categorie.UNAIRE),
+    NON("NON", Categorie.UNAIRE);
+
+    public enum Categorie {
+        ARITHMETIQUE, COMPARAISON, LOGIQUE, UNAIRE
+    }
+
+    private final String symbole;
+    private final Categorie categorie;
+
+    Operateur(String symbole, Categorie categorie) {
+        this.symbole = symbole;
+        this.categorie = categorie;
+    }
+
+    public String getSymbole() { return symbole; }
+    public Categorie getCategorie() { return categorie; }
+
+    // Opérateur binaire correspondant à un token (null si le token n'en est pas un)
+    public static Operateur depuisToken(TokenType type) {
+        switch (type) {
+            case PLUS_TOKEN: return PLUS;
+            case MOINS_TOKEN: return MOINS;
+            case MULT_TOKEN: return MULT;
+            case DIV_TOKEN: return DIV;
+            case INF_TOKEN: return INF;
+            case INFEG_TOKEN: return INFEG;
+            case SUP_TOKEN: return SUP;
+            case SUPEG_TOKEN: return SUPEG;
+            case EG_TOKEN: return EG;
+            case DIFF_TOKEN: return DIFF;
+            case ET_TOKEN: return ET;
+            case OU_TOKEN: return OU;
+            default: return null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return symbole;
+    }
+}
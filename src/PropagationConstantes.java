@@ -0,0 +1,562 @@
+// PropagationConstantes.java
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Pliage et propagation de constantes sur l'AST (passe exécutée après
+// l'analyse sémantique, avant la génération).
+//
+// Chaque routine (programme principal, fonction, procédure) est parcourue dans
+// l'ordre d'exécution avec un environnement nom -> valeur connue. Les
+// variables scalaires partent de la valeur par défaut que leur donne le code
+// Python généré (0, 0.0, False). Une affectation met l'environnement à jour,
+// une lecture (LIRE) ou un appel qui peut écrire la variable l'en retire, les
+// boucles retirent ce qu'elles écrivent et les deux branches d'un SI sont
+// intersectées. Une globale jamais écrite nulle part garde sa valeur par
+// défaut dans tout le programme, fonctions comprises.
+//
+// Les valeurs suivent la sémantique du Python généré : '/' est la division
+// réelle, les entiers ne débordent pas (on renonce au pliage si le calcul
+// exact sort d'un long), une division par zéro n'est jamais pliée.
+public class PropagationConstantes {
+
+    // Au-delà, un long n'est plus exactement représentable en double
+    private static final long LIMITE_EXACTE = 1L << 53;
+
+    // Variables scalaires suivies dans la routine courante
+    private Set<String> suivies = new HashSet<>();
+    // Variables qu'un appel peut modifier (globales écrites par un sous-programme)
+    private Set<String> tueesParAppel = new HashSet<>();
+
+    private int nombrePliages = 0;
+    private int nombrePropagations = 0;
+    private int nombreConditions = 0;
+
+    public void optimiser(NoeudAST programme) {
+        Map<String, Object> defautsGlobaux = new LinkedHashMap<>();
+        Map<String, EntreeTableSymboles> entreesGlobales = new HashMap<>();
+        Set<String> ecrites = new HashSet<>();
+        Set<String> ecritesParSousProgrammes = new HashSet<>();
+
+        for (NoeudAST element : programme.getEnfants()) {
+            switch (element.getType()) {
+                case SECTION_VAR:
+                    declarer(element, defautsGlobaux, entreesGlobales);
+                    break;
+                case DECLARATION_FONCTION:
+                case DECLARATION_PROCEDURE:
+                    Set<String> ecritesCorps = new HashSet<>();
+                    GrapheFlotControle.collecterEcritures(element, ecritesCorps);
+                    ecrites.addAll(ecritesCorps);
+                    ecritesCorps.removeAll(GrapheFlotControle.nomsLocaux(element));
+                    ecritesParSousProgrammes.addAll(ecritesCorps);
+                    break;
+                case BLOC_INSTRUCTIONS:
+                    GrapheFlotControle.collecterEcritures(element, ecrites);
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        // Globales jamais écrites : constantes pour tout le programme
+        Map<String, Object> invariantes = new HashMap<>();
+        for (Map.Entry<String, Object> globale : defautsGlobaux.entrySet()) {
+            if (!ecrites.contains(globale.getKey())) {
+                invariantes.put(globale.getKey(), globale.getValue());
+                entreesGlobales.get(globale.getKey()).valeurInitiale = globale.getValue();
+            }
+        }
+
+        Map<String, Object> environnement = new HashMap<>();
+        for (NoeudAST element : programme.getEnfants()) {
+            switch (element.getType()) {
+                case SECTION_VAR:
+                    declarer(element, environnement, new HashMap<>());
+                    break;
+                case DECLARATION_FONCTION:
+                case DECLARATION_PROCEDURE:
+                    optimiserSousProgramme(element, invariantes);
+                    break;
+                case BLOC_INSTRUCTIONS:
+                    suivies = new HashSet<>(defautsGlobaux.keySet());
+                    tueesParAppel = ecritesParSousProgrammes;
+                    optimiserBloc(element, environnement);
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    public int getNombrePliages() {
+        return nombrePliages;
+    }
+
+    public int getNombrePropagations() {
+        return nombrePropagations;
+    }
+
+    public int getNombreConditions() {
+        return nombreConditions;
+    }
+
+    // ==================== ROUTINES ====================
+
+    private void optimiserSousProgramme(NoeudAST declaration, Map<String, Object> invariantes) {
+        Set<String> locaux = GrapheFlotControle.nomsLocaux(declaration);
+        Map<String, Object> environnement = new HashMap<>();
+        for (Map.Entry<String, Object> globale : invariantes.entrySet()) {
+            if (!locaux.contains(globale.getKey())) {
+                environnement.put(globale.getKey(), globale.getValue());
+            }
+        }
+        for (NoeudAST enfant : declaration.getEnfants()) {
+            if (enfant.getType() == NoeudAST.TypeNoeud.SECTION_VAR) {
+                declarer(enfant, environnement, new HashMap<>());
+            }
+        }
+
+        // Les locales ne sont pas visibles des fonctions appelées
+        suivies = new HashSet<>(environnement.keySet());
+        tueesParAppel = new HashSet<>();
+
+        for (NoeudAST enfant : declaration.getEnfants()) {
+            if (enfant.getType() == NoeudAST.TypeNoeud.BLOC_INSTRUCTIONS) {
+                optimiserBloc(enfant, environnement);
+            } else if (enfant.getType() == NoeudAST.TypeNoeud.RETOUR && !enfant.getEnfants().isEmpty()) {
+                plierEnfant(enfant, 0, environnement);
+            }
+        }
+    }
+
+    // Valeurs par défaut des scalaires d'une section VAR
+    private void declarer(NoeudAST section, Map<String, Object> valeurs,
+                          Map<String, EntreeTableSymboles> entrees) {
+        for (NoeudAST declaration : section.getEnfants()) {
+            for (NoeudAST enfant : declaration.getEnfants()) {
+                if (enfant.getType() != NoeudAST.TypeNoeud.LISTE_IDENTIFICATEURS) {
+                    continue;
+                }
+                for (NoeudAST identifiant : enfant.getEnfants()) {
+                    EntreeTableSymboles entree = identifiant.getSymbole();
+                    Object defaut = entree == null ? null : valeurParDefaut(entree);
+                    if (defaut != null) {
+                        valeurs.put(identifiant.getValeur(), defaut);
+                        entrees.put(identifiant.getValeur(), entree);
+                    }
+                }
+            }
+        }
+    }
+
+    static Object valeurParDefaut(EntreeTableSymboles entree) {
+        if (entree.estTableau) {
+            return null;
+        }
+        switch (entree.type) {
+            case ENTIER: return 0L;
+            case REEL: return 0.0;
+            case BOOLEEN: return Boolean.FALSE;
+            default: return null;
+        }
+    }
+
+    // Variables dont la valeur change d'une itération à l'autre
+    private void oublierEcritures(NoeudAST boucle, Map<String, Object> environnement) {
+        Set<String> ecrites = new HashSet<>();
+        GrapheFlotControle.collecterEcritures(boucle, ecrites);
+        if (!boucle.rechercherParType(NoeudAST.TypeNoeud.APPEL_FONCTION).isEmpty()) {
+            ecrites.addAll(tueesParAppel);
+        }
+        environnement.keySet().removeAll(ecrites);
+    }
+
+    // ==================== INSTRUCTIONS ====================
+
+    private void optimiserBloc(NoeudAST bloc, Map<String, Object> environnement) {
+        for (NoeudAST instruction : bloc.getEnfants()) {
+            optimiserInstruction(instruction, environnement);
+        }
+    }
+
+    private void optimiserInstruction(NoeudAST instruction, Map<String, Object> environnement) {
+        List<NoeudAST> enfants = instruction.getEnfants();
+
+        switch (instruction.getType()) {
+            case AFFECTATION:
+                if (enfants.size() == 1) {
+                    plierEnfant(instruction, 0, environnement);
+                    affecter(instruction.getValeur(), valeurConstante(instruction.getEnfant(0)),
+                            environnement);
+                } else if (enfants.size() == 2) {
+                    // Python évalue la valeur avant l'indice de la cible
+                    plierEnfant(instruction, 1, environnement);
+                    plier(instruction.getEnfant(0), environnement);
+                }
+                break;
+
+            case CONDITION:
+                optimiserCondition(instruction, environnement);
+                break;
+
+            case BOUCLE_POUR:
+                for (int i = 0; i < Math.min(2, enfants.size()); i++) {
+                    plierEnfant(instruction, i, environnement);
+                }
+                oublierEcritures(instruction, environnement);
+                NoeudAST corps = enfants.isEmpty() ? null : instruction.getEnfant(enfants.size() - 1);
+                if (corps != null && corps.getType() == NoeudAST.TypeNoeud.BLOC_INSTRUCTIONS) {
+                    optimiserBloc(corps, new HashMap<>(environnement));
+                }
+                break;
+
+            case BOUCLE_TANTQUE:
+                oublierEcritures(instruction, environnement);
+                if (!enfants.isEmpty()) {
+                    plierEnfant(instruction, 0, environnement);
+                }
+                if (enfants.size() > 1) {
+                    optimiserBloc(instruction.getEnfant(1), new HashMap<>(environnement));
+                }
+                break;
+
+            case BOUCLE_REPETER:
+                // La condition est évaluée après le corps de la même itération
+                oublierEcritures(instruction, environnement);
+                if (!enfants.isEmpty()) {
+                    optimiserBloc(instruction.getEnfant(0), environnement);
+                }
+                if (enfants.size() > 1) {
+                    plierEnfant(instruction, 1, environnement);
+                }
+                break;
+
+            case ECRIRE:
+            case RETOUR:
+                for (int i = 0; i < enfants.size(); i++) {
+                    plierEnfant(instruction, i, environnement);
+                }
+                break;
+
+            case LIRE:
+                for (NoeudAST variable : enfants) {
+                    environnement.remove(variable.getValeur());
+                }
+                break;
+
+            case APPEL_FONCTION:
+                plier(instruction, environnement);
+                break;
+
+            case BLOC_INSTRUCTIONS:
+                optimiserBloc(instruction, environnement);
+                break;
+
+            default:
+                break;
+        }
+    }
+
+    private void optimiserCondition(NoeudAST condition, Map<String, Object> environnement) {
+        List<NoeudAST> enfants = condition.getEnfants();
+        if (enfants.isEmpty()) {
+            return;
+        }
+
+        boolean dejaLitterale = valeurConstante(condition.getEnfant(0)) != null;
+        plierEnfant(condition, 0, environnement);
+        Object test = valeurConstante(condition.getEnfant(0));
+        if (test instanceof Boolean && !dejaLitterale) {
+            nombreConditions++;
+        }
+
+        Map<String, Object> alors = new HashMap<>(environnement);
+        if (enfants.size() > 1) {
+            optimiserBloc(condition.getEnfant(1), alors);
+        }
+        Map<String, Object> sinon = new HashMap<>(environnement);
+        if (enfants.size() > 2) {
+            optimiserBloc(condition.getEnfant(2), sinon);
+        }
+
+        // Seule la branche prise compte quand la condition est connue
+        environnement.clear();
+        if (Boolean.TRUE.equals(test)) {
+            environnement.putAll(alors);
+        } else if (Boolean.FALSE.equals(test)) {
+            environnement.putAll(sinon);
+        } else {
+            for (Map.Entry<String, Object> entree : alors.entrySet()) {
+                if (entree.getValue().equals(sinon.get(entree.getKey()))) {
+                    environnement.put(entree.getKey(), entree.getValue());
+                }
+            }
+        }
+    }
+
+    private void affecter(String nom, Object valeur, Map<String, Object> environnement) {
+        if (valeur != null && suivies.contains(nom)) {
+            environnement.put(nom, valeur);
+        } else {
+            environnement.remove(nom);
+        }
+    }
+
+    // ==================== EXPRESSIONS ====================
+
+    private void plierEnfant(NoeudAST parent, int index, Map<String, Object> environnement) {
+        NoeudAST enfant = parent.getEnfant(index);
+        NoeudAST plie = plier(enfant, environnement);
+        if (plie != enfant) {
+            parent.remplacerEnfant(index, plie);
+        }
+    }
+
+    // Plie le sous-arbre et renvoie le nœud qui le remplace (ou lui-même).
+    // L'environnement est mis à jour au fil de l'évaluation : un appel
+    // invalide ce qu'il peut écrire pour les opérandes qui le suivent.
+    private NoeudAST plier(NoeudAST expression, Map<String, Object> environnement) {
+        switch (expression.getType()) {
+            case VARIABLE: {
+                String nom = expression.getValeur();
+                Object valeur = suivies.contains(nom) ? environnement.get(nom) : null;
+                if (valeur == null) {
+                    return expression;
+                }
+                nombrePropagations++;
+                return litteral(valeur, expression);
+            }
+
+            case EXPRESSION_BINAIRE:
+                plierEnfant(expression, 0, environnement);
+                plierEnfant(expression, 1, environnement);
+                return plierBinaire(expression);
+
+            case NEGATION: {
+                plierEnfant(expression, 0, environnement);
+                Object valeur = valeurConstante(expression.getEnfant(0));
+                Object resultat = null;
+                if (expression.getOperateur() == Operateur.NON && valeur instanceof Boolean) {
+                    resultat = !(Boolean) valeur;
+                } else if (expression.getOperateur() == Operateur.OPPOSE && valeur instanceof Long) {
+                    resultat = (Long) valeur == Long.MIN_VALUE ? null : -(Long) valeur;
+                } else if (expression.getOperateur() == Operateur.OPPOSE && valeur instanceof Double) {
+                    resultat = -(Double) valeur;
+                }
+                if (resultat == null) {
+                    return expression;
+                }
+                nombrePliages++;
+                return litteral(resultat, expression);
+            }
+
+            case ACCES_TABLEAU:
+                for (int i = 0; i < expression.getEnfants().size(); i++) {
+                    plierEnfant(expression, i, environnement);
+                }
+                return expression;
+
+            case ACCES_CHAMP:
+                // Les maillons sont des noms de champs : seul l'indice final se plie
+                for (NoeudAST maillon : expression.getEnfants()) {
+                    if (maillon.getType() == NoeudAST.TypeNoeud.ACCES_TABLEAU) {
+                        plier(maillon, environnement);
+                    }
+                }
+                return expression;
+
+            case APPEL_FONCTION:
+                if (!expression.getEnfants().isEmpty()) {
+                    NoeudAST arguments = expression.getEnfant(0);
+                    for (int i = 0; i < arguments.getEnfants().size(); i++) {
+                        plierEnfant(arguments, i, environnement);
+                    }
+                }
+                environnement.keySet().removeAll(tueesParAppel);
+                return expression;
+
+            default:
+                return expression;
+        }
+    }
+
+    private NoeudAST plierBinaire(NoeudAST operation) {
+        Operateur operateur = operation.getOperateur();
+        NoeudAST gauche = operation.getEnfant(0);
+        NoeudAST droite = operation.getEnfant(1);
+        Object a = valeurConstante(gauche);
+        Object b = valeurConstante(droite);
+
+        if (operateur == Operateur.ET || operateur == Operateur.OU) {
+            boolean et = operateur == Operateur.ET;
+            NoeudAST resultat = null;
+            if (a instanceof Boolean) {
+                // Court-circuit : la partie droite n'est évaluée que si besoin
+                resultat = (Boolean) a == et ? droite : litteral(a, operation);
+            } else if (b instanceof Boolean) {
+                if ((Boolean) b == et) {
+                    resultat = gauche;
+                } else if (sansEffet(gauche)) {
+                    resultat = litteral(b, operation);
+                }
+            }
+            if (resultat != null) {
+                nombrePliages++;
+            }
+            return resultat == null ? operation : resultat;
+        }
+
+        if (a == null || b == null) {
+            return operation;
+        }
+        Object resultat = calculer(operateur, a, b);
+        if (resultat == null) {
+            return operation;
+        }
+        nombrePliages++;
+        return litteral(resultat, operation);
+    }
+
+    // Résultat Python de 'a op b', ou null s'il ne peut pas être calculé exactement
+    static Object calculer(Operateur operateur, Object a, Object b) {
+        if (a instanceof Boolean || b instanceof Boolean) {
+            if (a instanceof Boolean && b instanceof Boolean) {
+                if (operateur == Operateur.EG) return a.equals(b);
+                if (operateur == Operateur.DIFF) return !a.equals(b);
+            }
+            return null;
+        }
+
+        if (a instanceof Long && b instanceof Long) {
+            long x = (Long) a;
+            long y = (Long) b;
+            try {
+                switch (operateur) {
+                    case PLUS: return Math.addExact(x, y);
+                    case MOINS: return Math.subtractExact(x, y);
+                    case MULT: return Math.multiplyExact(x, y);
+                    case INF: return x < y;
+                    case INFEG: return x <= y;
+                    case SUP: return x > y;
+                    case SUPEG: return x >= y;
+                    case EG: return x == y;
+                    case DIFF: return x != y;
+                    default: break;
+                }
+            } catch (ArithmeticException e) {
+                return null; // l'entier Python grandirait au-delà d'un long
+            }
+        }
+
+        // Division réelle ou opérande réel : calcul en double
+        if (!exact(a) || !exact(b)) {
+            return null;
+        }
+        double x = ((Number) a).doubleValue();
+        double y = ((Number) b).doubleValue();
+        double r;
+        switch (operateur) {
+            case PLUS: r = x + y; break;
+            case MOINS: r = x - y; break;
+            case MULT: r = x * y; break;
+            case DIV:
+                if (y == 0.0) {
+                    return null; // ZeroDivisionError à l'exécution
+                }
+                r = x / y;
+                break;
+            case INF: return x < y;
+            case INFEG: return x <= y;
+            case SUP: return x > y;
+            case SUPEG: return x >= y;
+            case EG: return x == y;
+            case DIFF: return x != y;
+            default: return null;
+        }
+        return Double.isFinite(r) ? r : null;
+    }
+
+    private static boolean exact(Object valeur) {
+        if (valeur instanceof Long) {
+            long v = (Long) valeur;
+            return v <= LIMITE_EXACTE && v >= -LIMITE_EXACTE;
+        }
+        return valeur instanceof Double;
+    }
+
+    // Expression qu'on peut supprimer sans rien changer (ni appel, ni accès
+    // pouvant échouer, ni division)
+    static boolean sansEffet(NoeudAST expression) {
+        return sansEffet(expression, false);
+    }
+
+    // divisionPermise : la division est admise quand son résultat est déjà
+    // connu (elle ne peut donc pas échouer)
+    static boolean sansEffet(NoeudAST expression, boolean divisionPermise) {
+        switch (expression.getType()) {
+            case VARIABLE:
+            case NOMBRE:
+            case CHAINE:
+            case VALEUR_BOOLEENNE:
+                return true;
+            case NEGATION:
+                return sansEffet(expression.getEnfant(0), divisionPermise);
+            case EXPRESSION_BINAIRE:
+                return (divisionPermise || expression.getOperateur() != Operateur.DIV)
+                        && sansEffet(expression.getEnfant(0), divisionPermise)
+                        && sansEffet(expression.getEnfant(1), divisionPermise);
+            default:
+                return false;
+        }
+    }
+
+    // ==================== LITTÉRAUX ====================
+
+    // Long, Double ou Boolean pour un littéral, null sinon
+    static Object valeurConstante(NoeudAST noeud) {
+        if (noeud == null) {
+            return null;
+        }
+        if (noeud.getType() == NoeudAST.TypeNoeud.VALEUR_BOOLEENNE) {
+            String texte = noeud.getValeur().toLowerCase();
+            if ("vrai".equals(texte)) return Boolean.TRUE;
+            if ("faux".equals(texte)) return Boolean.FALSE;
+            return null;
+        }
+        if (noeud.getType() == NoeudAST.TypeNoeud.NOMBRE) {
+            String texte = noeud.getValeur();
+            try {
+                if (texte.indexOf('.') >= 0 || texte.indexOf('e') >= 0 || texte.indexOf('E') >= 0) {
+                    return Double.parseDouble(texte);
+                }
+                return Long.parseLong(texte);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    static NoeudAST litteral(Object valeur, NoeudAST origine) {
+        NoeudAST noeud;
+        if (valeur instanceof Boolean) {
+            noeud = new NoeudAST(NoeudAST.TypeNoeud.VALEUR_BOOLEENNE,
+                    (Boolean) valeur ? "vrai" : "faux", origine.getLigne());
+            noeud.setTypeResolu(TypeDonnee.BOOLEEN);
+        } else if (valeur instanceof Long) {
+            noeud = new NoeudAST(NoeudAST.TypeNoeud.NOMBRE, valeur.toString(), origine.getLigne());
+            noeud.setTypeResolu(TypeDonnee.ENTIER);
+        } else {
+            // Double.toString relu par Python redonne exactement le même double
+            noeud = new NoeudAST(NoeudAST.TypeNoeud.NOMBRE, Double.toString((Double) valeur),
+                    origine.getLigne());
+            noeud.setTypeResolu(TypeDonnee.REEL);
+        }
+        noeud.copierEtendue(origine);
+        return noeud;
+    }
+}
@@ -0,0 +1,297 @@
+// PropagationConstantesConditionnelle.java
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Propagation de constantes conditionnelle creuse (SCCP, Wegman et Zadeck).
+//
+// Chaque version SSA part de « indéfinie » (HAUT) et ne descend que vers une
+// constante puis vers « variable » (BAS). Les arcs du graphe ne deviennent
+// exécutables que si leur test peut les prendre : un phi ignore les
+// opérandes des arcs jamais exécutés, ce qui trouve les constantes qu'une
+// propagation en un passage manque (variable réécrite seulement dans une
+// branche morte, boucle qui ne change pas la valeur...).
+//
+// Les expressions évaluées suivent PropagationConstantes (sémantique du Python
+// généré). Le résultat est réécrit dans l'AST : toute sous-expression sans
+// effet dont la valeur est constante devient un littéral, y compris les
+// conditions ; EliminationCodeMort retire ensuite les branches.
+public class PropagationConstantesConditionnelle implements PasseSSA {
+    private static final Object HAUT = new Object();
+    private static final Object BAS = new Object();
+
+    private RepresentationSSA ssa;
+    private Object[] treillis;
+    private boolean[] blocsExecutables;
+    private boolean[][] arcsExecutables;
+    private final ArrayDeque<BlocBase> blocsAVisiter = new ArrayDeque<>();
+    private final ArrayDeque<ValeurSSA> valeursAPropager = new ArrayDeque<>();
+    private int remplacements;
+
+    @Override
+    public String getNom() {
+        return "SCCP";
+    }
+
+    @Override
+    public int executer(RepresentationSSA ssa) {
+        this.ssa = ssa;
+        List<BlocBase> blocs = ssa.getGraphe().getBlocs();
+        treillis = new Object[ssa.getValeurs().size()];
+        Arrays.fill(treillis, HAUT);
+        blocsExecutables = new boolean[blocs.size()];
+        arcsExecutables = new boolean[blocs.size()][];
+        for (BlocBase bloc : blocs) {
+            arcsExecutables[bloc.id] = new boolean[bloc.successeurs.size()];
+        }
+        remplacements = 0;
+
+        for (ValeurSSA valeur : ssa.getValeurs()) {
+            if (valeur.sorte == ValeurSSA.Sorte.ENTREE) {
+                Object connue = ssa.getValeurEntree(valeur.variable);
+                treillis[valeur.id] = connue == null ? BAS : connue;
+            }
+        }
+
+        BlocBase entree = ssa.getGraphe().getEntree();
+        blocsExecutables[entree.id] = true;
+        blocsAVisiter.add(entree);
+        while (!blocsAVisiter.isEmpty() || !valeursAPropager.isEmpty()) {
+            while (!blocsAVisiter.isEmpty()) {
+                visiterBloc(blocsAVisiter.poll());
+            }
+            while (!valeursAPropager.isEmpty()) {
+                ValeurSSA valeur = valeursAPropager.poll();
+                for (ValeurSSA phi : valeur.phisLecteurs) {
+                    if (blocsExecutables[phi.bloc.id]) {
+                        evaluerPhi(phi);
+                    }
+                }
+                for (InstructionFlot instruction : valeur.lecteurs) {
+                    if (blocsExecutables[instruction.bloc.id]) {
+                        evaluerInstruction(instruction);
+                    }
+                }
+            }
+        }
+
+        reecrire();
+        return remplacements;
+    }
+
+    // ==================== ÉVALUATION ====================
+
+    private void visiterBloc(BlocBase bloc) {
+        for (ValeurSSA phi : ssa.getPhis(bloc)) {
+            evaluerPhi(phi);
+        }
+        for (InstructionFlot instruction : bloc.instructions) {
+            evaluerInstruction(instruction);
+        }
+        InstructionFlot derniere = bloc.derniere();
+        if (derniere == null || derniere.sorte != InstructionFlot.Sorte.TEST) {
+            for (int i = 0; i < bloc.successeurs.size(); i++) {
+                marquerArc(bloc, i);
+            }
+        }
+    }
+
+    private void evaluerPhi(ValeurSSA phi) {
+        Object resultat = HAUT;
+        for (int i = 0; i < phi.operandes.length; i++) {
+            BlocBase predecesseur = phi.bloc.predecesseurs.get(i);
+            if (phi.operandes[i] == null || !arcExecutable(predecesseur, phi.bloc)) {
+                continue;
+            }
+            resultat = rencontre(resultat, treillis[phi.operandes[i].id]);
+        }
+        changer(phi, resultat);
+    }
+
+    private void evaluerInstruction(InstructionFlot instruction) {
+        for (ValeurSSA ecrite : ssa.getDefinitions(instruction)) {
+            Object valeur = BAS;
+            if (ecrite.sorte == ValeurSSA.Sorte.DEFINITION &&
+                    instruction.noeud.getType() == NoeudAST.TypeNoeud.AFFECTATION &&
+                    instruction.noeud.getEnfants().size() == 1) {
+                valeur = evaluer(instruction.noeud.getEnfant(0));
+            }
+            changer(ecrite, valeur);
+        }
+
+        if (instruction.sorte == InstructionFlot.Sorte.TEST && instruction == instruction.bloc.derniere()) {
+            BlocBase bloc = instruction.bloc;
+            List<NoeudAST> expressions = instruction.expressionsLues();
+            Object condition = expressions.isEmpty() ? BAS : evaluer(expressions.get(0));
+            if (condition == HAUT) {
+                return;
+            }
+            if (condition instanceof Boolean && bloc.successeurs.size() == 2) {
+                marquerArc(bloc, (Boolean) condition ? 0 : 1);
+            } else {
+                for (int i = 0; i < bloc.successeurs.size(); i++) {
+                    marquerArc(bloc, i);
+                }
+            }
+        }
+    }
+
+    private Object evaluer(NoeudAST expression) {
+        switch (expression.getType()) {
+            case NOMBRE:
+            case VALEUR_BOOLEENNE: {
+                Object valeur = PropagationConstantes.valeurConstante(expression);
+                return valeur == null ? BAS : valeur;
+            }
+
+            case VARIABLE: {
+                ValeurSSA lue = ssa.getLecture(expression);
+                return lue == null ? BAS : treillis[lue.id];
+            }
+
+            case NEGATION: {
+                Object valeur = evaluer(expression.getEnfant(0));
+                if (valeur == HAUT || valeur == BAS) {
+                    return valeur;
+                }
+                if (expression.getOperateur() == Operateur.NON && valeur instanceof Boolean) {
+                    return !(Boolean) valeur;
+                }
+                if (expression.getOperateur() == Operateur.OPPOSE && valeur instanceof Long &&
+                        (Long) valeur != Long.MIN_VALUE) {
+                    return -(Long) valeur;
+                }
+                if (expression.getOperateur() == Operateur.OPPOSE && valeur instanceof Double) {
+                    return -(Double) valeur;
+                }
+                return BAS;
+            }
+
+            case EXPRESSION_BINAIRE: {
+                Operateur operateur = expression.getOperateur();
+                Object a = evaluer(expression.getEnfant(0));
+                if (operateur == Operateur.ET || operateur == Operateur.OU) {
+                    // Court-circuit : la partie gauche peut suffire
+                    boolean et = operateur == Operateur.ET;
+                    if (a instanceof Boolean && (Boolean) a != et) {
+                        return a;
+                    }
+                    Object b = evaluer(expression.getEnfant(1));
+                    if (a == HAUT || b == HAUT) {
+                        return HAUT;
+                    }
+                    if (a instanceof Boolean && b instanceof Boolean) {
+                        return b;
+                    }
+                    return BAS;
+                }
+                Object b = evaluer(expression.getEnfant(1));
+                if (a == HAUT || b == HAUT) {
+                    return HAUT;
+                }
+                if (a == BAS || b == BAS) {
+                    return BAS;
+                }
+                Object resultat = PropagationConstantes.calculer(operateur, a, b);
+                return resultat == null ? BAS : resultat;
+            }
+
+            default:
+                return BAS; // appel, accès à un élément, chaîne
+        }
+    }
+
+    private Object rencontre(Object a, Object b) {
+        if (a == HAUT) return b;
+        if (b == HAUT) return a;
+        if (a == BAS || b == BAS) return BAS;
+        return memeConstante(a, b) ? a : BAS;
+    }
+
+    // 1 et 1.0 sont égaux en Java comme en Python mais ne s'affichent pas
+    // pareil : on compare aussi le type
+    private boolean memeConstante(Object a, Object b) {
+        return a.getClass() == b.getClass() && a.equals(b);
+    }
+
+    private void changer(ValeurSSA valeur, Object nouvelle) {
+        Object ancienne = treillis[valeur.id];
+        Object resultat = rencontre(ancienne, nouvelle);
+        if (resultat != ancienne && (resultat == BAS || ancienne == HAUT)) {
+            treillis[valeur.id] = resultat;
+            valeursAPropager.add(valeur);
+        }
+    }
+
+    private void marquerArc(BlocBase bloc, int indice) {
+        if (arcsExecutables[bloc.id][indice]) {
+            return;
+        }
+        arcsExecutables[bloc.id][indice] = true;
+        BlocBase successeur = bloc.successeurs.get(indice);
+        if (!blocsExecutables[successeur.id]) {
+            blocsExecutables[successeur.id] = true;
+            blocsAVisiter.add(successeur);
+        } else {
+            // Nouvel arc vers un bloc déjà visité : ses phi ont un opérande de plus
+            for (ValeurSSA phi : ssa.getPhis(successeur)) {
+                evaluerPhi(phi);
+            }
+        }
+    }
+
+    private boolean arcExecutable(BlocBase de, BlocBase vers) {
+        for (int i = 0; i < de.successeurs.size(); i++) {
+            if (de.successeurs.get(i) == vers && arcsExecutables[de.id][i]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // ==================== RÉÉCRITURE ====================
+
+    private void reecrire() {
+        for (InstructionFlot instruction : ssa.getGraphe().getInstructions()) {
+            if (!blocsExecutables[instruction.bloc.id]) {
+                continue;
+            }
+            for (NoeudAST expression : instruction.expressionsLues()) {
+                reecrireExpression(expression);
+            }
+        }
+    }
+
+    private void reecrireExpression(NoeudAST expression) {
+        switch (expression.getType()) {
+            case VARIABLE:
+            case NEGATION:
+            case EXPRESSION_BINAIRE: {
+                Object valeur = evaluer(expression);
+                if (valeur != HAUT && valeur != BAS && PropagationConstantes.sansEffet(expression, true)) {
+                    NoeudAST parent = expression.getParent();
+                    parent.remplacerEnfant(parent.getEnfants().indexOf(expression),
+                            PropagationConstantes.litteral(valeur, expression));
+                    remplacements++;
+                    return;
+                }
+                break;
+            }
+            case ACCES_CHAMP:
+                for (NoeudAST maillon : expression.getEnfants()) {
+                    if (maillon.getType() == NoeudAST.TypeNoeud.ACCES_TABLEAU) {
+                        for (NoeudAST indice : new ArrayList<>(maillon.getEnfants())) {
+                            reecrireExpression(indice);
+                        }
+                    }
+                }
+                return;
+            default:
+                break;
+        }
+        for (NoeudAST enfant : new ArrayList<>(expression.getEnfants())) {
+            reecrireExpression(enfant);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+// PropagationCopies.java
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Copies disponibles : une copie 'x <- y' est disponible en un point si, sur
+// tous les chemins qui y mènent, elle a été exécutée sans que x ni y soient
+// réécrits depuis. Analyse avant, intersection ; un bit par copie.
+//
+// appliquer() remplace alors les lectures de x par y. Pour un tableau ou une
+// structure, Python copie la référence : x et y désignent le même objet, la
+// substitution reste donc exacte. La copie elle-même n'est pas supprimée ;
+// c'est le rôle de l'élimination du code mort si x n'est plus lue.
+public class PropagationCopies extends AnalyseFlot {
+    private final List<InstructionFlot> copies = new ArrayList<>();
+    // Lecture 'y' de chaque copie, clonée avant toute réécriture : appliquer()
+    // peut renommer la source d'une copie qui sert encore à d'autres lectures
+    private final List<NoeudAST> sources = new ArrayList<>();
+    private final Map<String, BitSet> copiesImpliquant = new HashMap<>(); // x ou y
+    private final Map<InstructionFlot, Integer> numeroCopie = new HashMap<>();
+    private int nombreRemplacements = 0;
+
+    public PropagationCopies(GrapheFlotControle graphe) {
+        super(graphe, Direction.AVANT, Confluence.INTERSECTION);
+        for (InstructionFlot instruction : graphe.getInstructions()) {
+            String source = instruction.copieDe();
+            if (source != null) {
+                int numero = copies.size();
+                copies.add(instruction);
+                NoeudAST lue = instruction.noeud.getEnfant(0);
+                NoeudAST copieLue = new NoeudAST(NoeudAST.TypeNoeud.VARIABLE, lue.getValeur(), lue.getLigne());
+                copieLue.setSymbole(lue.getSymbole());
+                copieLue.setTypeResolu(lue.getTypeResolu());
+                sources.add(copieLue);
+                numeroCopie.put(instruction, numero);
+                copiesImpliquant.computeIfAbsent(instruction.noeud.getValeur(), k -> new BitSet()).set(numero);
+                copiesImpliquant.computeIfAbsent(source, k -> new BitSet()).set(numero);
+            }
+        }
+        resoudre();
+    }
+
+    // Propage les copies de chaque routine du programme ; renvoie le nombre
+    // de lectures remplacées
+    public static int optimiser(NoeudAST programme) {
+        int remplacements = 0;
+        for (GrapheFlotControle graphe : GrapheFlotControle.construireProgramme(programme).values()) {
+            PropagationCopies copies = new PropagationCopies(graphe);
+            remplacements += copies.appliquer();
+        }
+        return remplacements;
+    }
+
+    @Override
+    protected int taille() {
+        return copies.size();
+    }
+
+    @Override
+    protected BitSet gen(BlocBase bloc) {
+        BitSet disponibles = new BitSet();
+        for (InstructionFlot instruction : bloc.instructions) {
+            transferer(instruction, disponibles);
+        }
+        return disponibles;
+    }
+
+    @Override
+    protected BitSet kill(BlocBase bloc) {
+        BitSet tuees = new BitSet();
+        for (InstructionFlot instruction : bloc.instructions) {
+            tuees.or(tueesPar(instruction));
+        }
+        return tuees;
+    }
+
+    // Toute écriture, certaine ou possible, de x ou de y invalide la copie
+    private BitSet tueesPar(InstructionFlot instruction) {
+        BitSet tuees = new BitSet();
+        for (String variable : instruction.definitions) {
+            BitSet impliquees = copiesImpliquant.get(variable);
+            if (impliquees != null) {
+                tuees.or(impliquees);
+            }
+        }
+        for (String variable : instruction.definitionsPossibles) {
+            BitSet impliquees = copiesImpliquant.get(variable);
+            if (impliquees != null) {
+                tuees.or(impliquees);
+            }
+        }
+        return tuees;
+    }
+
+    private void transferer(InstructionFlot instruction, BitSet disponibles) {
+        disponibles.andNot(tueesPar(instruction));
+        Integer numero = numeroCopie.get(instruction);
+        if (numero != null) {
+            disponibles.set(numero);
+        }
+    }
+
+    public BitSet disponiblesAvant(InstructionFlot instruction) {
+        BitSet disponibles = getEntree(instruction.bloc);
+        for (int i = 0; i < instruction.position; i++) {
+            transferer(instruction.bloc.instructions.get(i), disponibles);
+        }
+        return disponibles;
+    }
+
+    // Copie 'variable <- y' disponible avant l'instruction, sinon null
+    public InstructionFlot copieDisponible(InstructionFlot instruction, String variable) {
+        BitSet disponibles = disponiblesAvant(instruction);
+        for (int i = disponibles.nextSetBit(0); i >= 0; i = disponibles.nextSetBit(i + 1)) {
+            InstructionFlot copie = copies.get(i);
+            if (copie.noeud.getValeur().equals(variable)) {
+                return copie;
+            }
+        }
+        return null;
+    }
+
+    // ==================== TRANSFORMATION ====================
+
+    public int appliquer() {
+        for (InstructionFlot instruction : graphe.getInstructions()) {
+            if (instruction.utilisations.isEmpty()) {
+                continue;
+            }
+            Map<String, NoeudAST> sources = new HashMap<>();
+            BitSet disponibles = disponiblesAvant(instruction);
+            for (int i = disponibles.nextSetBit(0); i >= 0; i = disponibles.nextSetBit(i + 1)) {
+                sources.put(copies.get(i).noeud.getValeur(), this.sources.get(i));
+            }
+            if (sources.isEmpty()) {
+                continue;
+            }
+            List<NoeudAST> lectures = new ArrayList<>();
+            for (NoeudAST expression : instruction.expressionsLues()) {
+                GrapheFlotControle.collecterLectures(expression, lectures);
+            }
+            for (NoeudAST variable : lectures) {
+                NoeudAST source = sources.get(variable.getValeur());
+                if (source != null) {
+                    variable.setValeur(source.getValeur());
+                    variable.setSymbole(source.getSymbole());
+                    variable.setTypeResolu(source.getTypeResolu());
+                    nombreRemplacements++;
+                }
+            }
+        }
+        return nombreRemplacements;
+    }
+
+    public int getNombreCopies() {
+        return copies.size();
+    }
+
+    public int getNombreRemplacements() {
+        return nombreRemplacements;
+    }
+}
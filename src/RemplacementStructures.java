@@ -0,0 +1,255 @@
+// RemplacementStructures.java
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Remplacement scalaire des variables de type structure.
+//
+// Une structure qui ne s'échappe pas (jamais passée à un sous-programme,
+// jamais renvoyée, jamais affectée ni lue en entier, jamais vue d'un autre
+// sous-programme si elle est globale) n'est utilisée qu'au travers de ses
+// champs : chacun devient une variable 'p_x' déclarée à sa place, et la
+// structure n'est plus allouée. 'p.x' devient 'p_x', 'p.t[i]' devient
+// 'p_t[i]' et 'p.q.x' devient 'p_q.x' (le champ structure reste un objet).
+public class RemplacementStructures {
+    private final Set<String> nomsUtilises = new HashSet<>();
+    private NoeudAST programme;
+    private int nombreStructures = 0;
+    private int nombreChamps = 0;
+
+    public void optimiser(NoeudAST programme) {
+        this.programme = programme;
+        GrapheFlotControle.collecterNoms(programme, nomsUtilises);
+        for (NoeudAST element : programme.getEnfants()) {
+            if (element.getType() == NoeudAST.TypeNoeud.SECTION_VAR) {
+                traiterSection(element, programme);
+            } else if (GrapheFlotControle.estSousProgramme(element)) {
+                for (NoeudAST enfant : element.getEnfants()) {
+                    if (enfant.getType() == NoeudAST.TypeNoeud.SECTION_VAR) {
+                        traiterSection(enfant, element);
+                    }
+                }
+            }
+        }
+    }
+
+    public int getNombreStructures() {
+        return nombreStructures;
+    }
+
+    public int getNombreChamps() {
+        return nombreChamps;
+    }
+
+    private void traiterSection(NoeudAST section, NoeudAST routine) {
+        for (NoeudAST declaration : new ArrayList<>(section.getEnfants())) {
+            for (NoeudAST liste : declaration.rechercherParType(NoeudAST.TypeNoeud.LISTE_IDENTIFICATEURS)) {
+                // À rebours : les champs de 'p, q' sont déclarés dans l'ordre p_x, q_x
+                List<NoeudAST> identifiants = new ArrayList<>(liste.getEnfants());
+                Collections.reverse(identifiants);
+                for (NoeudAST identifiant : identifiants) {
+                    EntreeTableSymboles entree = identifiant.getSymbole();
+                    if (entree != null && entree.type == TypeDonnee.STRUCTURE && !entree.estTableau) {
+                        remplacer(identifiant, routine);
+                    }
+                }
+            }
+        }
+    }
+
+    // ==================== ÉCHAPPEMENT ====================
+
+    private void remplacer(NoeudAST identifiant, NoeudAST routine) {
+        String nom = identifiant.getValeur();
+        List<NoeudAST> acces = new ArrayList<>();
+        if (!nonEchappee(instructionsDe(routine), nom, acces)) {
+            return;
+        }
+        if (routine == programme) {
+            // Globale : aucun sous-programme ne doit la voir
+            for (NoeudAST element : programme.getEnfants()) {
+                List<NoeudAST> ailleurs = new ArrayList<>();
+                if (GrapheFlotControle.estSousProgramme(element) &&
+                        !GrapheFlotControle.nomsLocaux(element).contains(nom) &&
+                        (!nonEchappee(instructionsDe(element), nom, ailleurs) || !ailleurs.isEmpty())) {
+                    return;
+                }
+            }
+        }
+
+        // Un scalaire par champ utilisé, dans l'ordre de la structure
+        Map<ChampInfo, EntreeTableSymboles> champs = new HashMap<>();
+        List<ChampInfo> utilises = new ArrayList<>();
+        for (NoeudAST champ : acces) {
+            ChampInfo info = champ.getEnfant(0).getChamp();
+            if (!utilises.contains(info)) {
+                utilises.add(info);
+            }
+        }
+        utilises.sort((a, b) -> Integer.compare(a.ordinal, b.ordinal));
+
+        NoeudAST liste = identifiant.getParent();
+        NoeudAST declaration = liste.getParent();
+        NoeudAST section = declaration.getParent();
+        int position = section.getEnfants().indexOf(declaration) + 1;
+        for (ChampInfo info : utilises) {
+            champs.put(info, declarerChamp(section, position++, nom + "_" + info.nom, info, identifiant));
+        }
+        liste.retirerEnfant(liste.getEnfants().indexOf(identifiant));
+        if (liste.getEnfants().isEmpty()) {
+            section.retirerEnfant(section.getEnfants().indexOf(declaration));
+        }
+
+        for (NoeudAST champ : acces) {
+            reecrire(champ, champs.get(champ.getEnfant(0).getChamp()));
+        }
+        nombreStructures++;
+        nombreChamps += champs.size();
+    }
+
+    // Vrai si le nom n'apparaît que comme base d'accès à un champ ; les
+    // accès trouvés sont ajoutés à la liste
+    private boolean nonEchappee(List<NoeudAST> racines, String nom, List<NoeudAST> acces) {
+        for (NoeudAST racine : racines) {
+            if (!parcourir(racine, nom, acces)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean parcourir(NoeudAST noeud, String nom, List<NoeudAST> acces) {
+        switch (noeud.getType()) {
+            case CHAINE:
+            case NOMBRE:
+                return true;
+            case ACCES_CHAMP:
+                if (noeud.getValeur().equals(nom)) {
+                    if (!accesRemplacable(noeud)) {
+                        return false;
+                    }
+                    acces.add(noeud);
+                }
+                // Les maillons sont des noms de champs : seuls les indices comptent
+                for (NoeudAST maillon : noeud.getEnfants()) {
+                    for (NoeudAST indice : maillon.getEnfants()) {
+                        if (!parcourir(indice, nom, acces)) {
+                            return false;
+                        }
+                    }
+                }
+                return true;
+            case AFFECTATION:
+                if (noeud.getValeur().equals(nom) && (noeud.getEnfants().size() != 2 ||
+                        noeud.getEnfant(0).getType() != NoeudAST.TypeNoeud.ACCES_CHAMP)) {
+                    return false; // affectation de la structure entière
+                }
+                break;
+            default:
+                if (nom.equals(noeud.getValeur())) {
+                    return false; // lue, passée ou renvoyée en entier
+                }
+                break;
+        }
+        for (NoeudAST enfant : noeud.getEnfants()) {
+            if (!parcourir(enfant, nom, acces)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Premier maillon résolu ; un maillon indexé ne peut être que le dernier
+    private boolean accesRemplacable(NoeudAST acces) {
+        for (int i = 0; i < acces.getEnfants().size(); i++) {
+            NoeudAST maillon = acces.getEnfant(i);
+            if (maillon.getChamp() == null || (maillon.getType() == NoeudAST.TypeNoeud.ACCES_TABLEAU &&
+                    i < acces.getEnfants().size() - 1)) {
+                return false;
+            }
+        }
+        return !acces.getEnfants().isEmpty();
+    }
+
+    // Corps et expression de retour (les déclarations sont ignorées)
+    private List<NoeudAST> instructionsDe(NoeudAST routine) {
+        List<NoeudAST> racines = new ArrayList<>();
+        for (NoeudAST enfant : routine.getEnfants()) {
+            if (enfant.getType() == NoeudAST.TypeNoeud.BLOC_INSTRUCTIONS ||
+                    enfant.getType() == NoeudAST.TypeNoeud.RETOUR) {
+                racines.add(enfant);
+            }
+        }
+        return racines;
+    }
+
+    // ==================== RÉÉCRITURE ====================
+
+    private void reecrire(NoeudAST acces, EntreeTableSymboles entree) {
+        NoeudAST premier = acces.retirerEnfant(0);
+        NoeudAST remplacement;
+        if (!acces.getEnfants().isEmpty()) {
+            // p.q.x : q reste un objet, accédé par p_q.x
+            remplacement = new NoeudAST(NoeudAST.TypeNoeud.ACCES_CHAMP, entree.nom, acces.getLigne());
+            remplacement.setStructure(premier.getChamp().structure);
+            int[] chemin = acces.getCheminChamps();
+            if (chemin != null) {
+                remplacement.setCheminChamps(Arrays.copyOfRange(chemin, 1, chemin.length));
+            }
+            while (!acces.getEnfants().isEmpty()) {
+                remplacement.ajouterEnfant(acces.retirerEnfant(0));
+            }
+        } else if (premier.getType() == NoeudAST.TypeNoeud.ACCES_TABLEAU) {
+            remplacement = new NoeudAST(NoeudAST.TypeNoeud.ACCES_TABLEAU, entree.nom, acces.getLigne());
+            while (!premier.getEnfants().isEmpty()) {
+                remplacement.ajouterEnfant(premier.retirerEnfant(0));
+            }
+        } else {
+            remplacement = new NoeudAST(NoeudAST.TypeNoeud.VARIABLE, entree.nom, acces.getLigne());
+        }
+        remplacement.setSymbole(entree);
+        remplacement.setTypeResolu(acces.getTypeResolu());
+        remplacement.copierEtendue(acces);
+
+        NoeudAST parent = acces.getParent();
+        int index = parent.getEnfants().indexOf(acces);
+        if (parent.getType() == NoeudAST.TypeNoeud.AFFECTATION && index == 0 && parent.getEnfants().size() == 2) {
+            // Cible d'une affectation : p.x <- e devient p_x <- e
+            parent.setValeur(entree.nom);
+            parent.setSymbole(entree);
+            parent.retirerEnfant(0);
+            if (remplacement.getType() != NoeudAST.TypeNoeud.VARIABLE) {
+                parent.insererEnfant(0, remplacement);
+            }
+        } else {
+            parent.remplacerEnfant(index, remplacement);
+        }
+    }
+
+    // Variable qui remplace un champ, déclarée à sa place dans la section
+    private EntreeTableSymboles declarerChamp(NoeudAST section, int position, String base, ChampInfo champ,
+                                              NoeudAST origine) {
+        String texteType = GrapheFlotControle.nomType(champ.type);
+        if (champ.type == TypeDonnee.TABLEAU) {
+            texteType = GrapheFlotControle.nomType(champ.typeElement) + "[" + champ.taille + "]";
+        } else if (champ.type == TypeDonnee.STRUCTURE && champ.structure != null) {
+            texteType = champ.structure.nom;
+        }
+        EntreeTableSymboles entree = GrapheFlotControle.declarer(section, position,
+                GrapheFlotControle.nouveauNom(base, nomsUtilises), champ.type, texteType, origine.getLigne());
+        if (champ.type == TypeDonnee.TABLEAU) {
+            entree.estTableau = true;
+            entree.typeElement = champ.typeElement;
+            entree.taille = champ.taille;
+        } else if (champ.type == TypeDonnee.STRUCTURE && champ.structure != null) {
+            entree.nomStructure = champ.structure.nom;
+        }
+        entree.rang = origine.getSymbole().rang;
+        return entree;
+    }
+}
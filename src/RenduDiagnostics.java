@@ -0,0 +1,226 @@
+// RenduDiagnostics.java
+import java.io.IOException;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+// Mise en forme des diagnostics collectés, une seule fois en fin de compilation
+public abstract class RenduDiagnostics {
+
+    public static RenduDiagnostics pour(String format) {
+        switch (format.toLowerCase()) {
+            case "json":
+                return new RenduJson();
+            case "sarif":
+                return new RenduSarif();
+            case "console":
+                return new RenduConsole();
+            default:
+                throw new IllegalArgumentException("Format de diagnostics inconnu : " + format);
+        }
+    }
+
+    public String rendre(Diagnostics diagnostics, String fichierSource) {
+        StringBuilder sb = new StringBuilder();
+        try {
+            rendre(diagnostics, fichierSource, sb);
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // impossible sur un StringBuilder
+        }
+        return sb.toString();
+    }
+
+    public abstract void rendre(Diagnostics diagnostics, String fichierSource,
+                                Appendable sortie) throws IOException;
+
+    // Extension du fichier quand le rendu est écrit sur disque
+    public abstract String getExtension();
+
+    // Chaîne JSON avec échappements
+    static void chaineJson(Appendable sortie, String texte) throws IOException {
+        sortie.append('"');
+        for (int i = 0; i < texte.length(); i++) {
+            char c = texte.charAt(i);
+            switch (c) {
+                case '"': sortie.append("\\\""); break;
+                case '\\': sortie.append("\\\\"); break;
+                case '\n': sortie.append("\\n"); break;
+                case '\r': sortie.append("\\r"); break;
+                case '\t': sortie.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        sortie.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sortie.append(c);
+                    }
+            }
+        }
+        sortie.append('"');
+    }
+}
+
+// Texte lisible : une section par phase, comme l'affichage historique
+class RenduConsole extends RenduDiagnostics {
+
+    @Override
+    public void rendre(Diagnostics diagnostics, String fichierSource,
+                       Appendable sortie) throws IOException {
+        section(diagnostics, sortie, Diagnostic.Phase.LEXICALE, "ERREURS LEXICALES", "Erreur lexicale");
+        section(diagnostics, sortie, Diagnostic.Phase.SYNTAXIQUE, "ERREURS SYNTAXIQUES", "Erreur syntaxique");
+        section(diagnostics, sortie, Diagnostic.Phase.SEMANTIQUE, "ERREURS SÉMANTIQUES", "Erreur sémantique");
+
+        boolean titre = false;
+        for (Diagnostic diagnostic : diagnostics.getDiagnostics()) {
+            if (diagnostic.estErreur()) {
+                continue;
+            }
+            if (!titre) {
+                sortie.append("\n=== AVERTISSEMENTS ===\n");
+                titre = true;
+            }
+            sortie.append("Avertissement ligne ").append(String.valueOf(diagnostic.getLigne()))
+                    .append(": ").append(diagnostic.getMessage()).append('\n');
+        }
+        int ignores = diagnostics.getAvertissementsIgnores();
+        if (ignores > 0) {
+            sortie.append("... ").append(String.valueOf(ignores))
+                    .append(" avertissement(s) supplémentaire(s) non affiché(s)\n");
+        }
+    }
+
+    private void section(Diagnostics diagnostics, Appendable sortie, Diagnostic.Phase phase,
+                         String titre, String prefixe) throws IOException {
+        boolean premier = true;
+        for (Diagnostic diagnostic : diagnostics.getDiagnostics()) {
+            if (!diagnostic.estErreur() || diagnostic.getPhase() != phase) {
+                continue;
+            }
+            if (premier) {
+                sortie.append("\n=== ").append(titre).append(" ===\n");
+                premier = false;
+            }
+            sortie.append(prefixe).append(" ligne ").append(String.valueOf(diagnostic.getLigne()))
+                    .append(": ").append(diagnostic.getMessage());
+            if (diagnostic.getContexte() != null) {
+                String libelle = phase == Diagnostic.Phase.LEXICALE ? "Caractère" : "Token";
+                sortie.append(" (").append(libelle).append(": '")
+                        .append(diagnostic.getContexte()).append("')");
+            }
+            sortie.append('\n');
+            if (diagnostic.getNote() != null) {
+                sortie.append(diagnostic.getNote()).append('\n');
+            }
+        }
+    }
+
+    @Override
+    public String getExtension() {
+        return ".txt";
+    }
+}
+
+// Liste JSON plate, pour les outils
+class RenduJson extends RenduDiagnostics {
+
+    @Override
+    public void rendre(Diagnostics diagnostics, String fichierSource,
+                       Appendable sortie) throws IOException {
+        sortie.append("{\n  \"fichier\": ");
+        chaineJson(sortie, fichierSource);
+        sortie.append(",\n  \"erreurs\": ").append(String.valueOf(diagnostics.getNombreErreurs()));
+        sortie.append(",\n  \"avertissements\": ").append(String.valueOf(diagnostics.getNombreAvertissements()));
+        sortie.append(",\n  \"interrompu\": ").append(String.valueOf(diagnostics.estInterrompu()));
+        sortie.append(",\n  \"diagnostics\": [");
+
+        boolean premier = true;
+        for (Diagnostic diagnostic : diagnostics.getDiagnostics()) {
+            sortie.append(premier ? "\n" : ",\n");
+            premier = false;
+            sortie.append("    {\"gravite\": ");
+            chaineJson(sortie, diagnostic.getGravite().name().toLowerCase());
+            sortie.append(", \"phase\": ");
+            chaineJson(sortie, diagnostic.getPhase().name().toLowerCase());
+            sortie.append(", \"code\": ");
+            chaineJson(sortie, diagnostic.getCode());
+            sortie.append(", \"ligne\": ").append(String.valueOf(diagnostic.getLigne()));
+            if (diagnostic.getColonne() > 0) {
+                sortie.append(", \"colonne\": ").append(String.valueOf(diagnostic.getColonne()));
+            }
+            if (diagnostic.getDebut() >= 0) {
+                sortie.append(", \"debut\": ").append(String.valueOf(diagnostic.getDebut()));
+                sortie.append(", \"fin\": ").append(String.valueOf(diagnostic.getFin()));
+            }
+            sortie.append(", \"message\": ");
+            chaineJson(sortie, diagnostic.getMessage());
+            if (diagnostic.getContexte() != null) {
+                sortie.append(", \"contexte\": ");
+                chaineJson(sortie, diagnostic.getContexte());
+            }
+            sortie.append('}');
+        }
+        sortie.append(premier ? "]\n}\n" : "\n  ]\n}\n");
+    }
+
+    @Override
+    public String getExtension() {
+        return ".diagnostics.json";
+    }
+}
+
+// SARIF 2.1.0 : un run, une règle par code de diagnostic
+class RenduSarif extends RenduDiagnostics {
+
+    @Override
+    public void rendre(Diagnostics diagnostics, String fichierSource,
+                       Appendable sortie) throws IOException {
+        Set<String> codes = new LinkedHashSet<>();
+        for (Diagnostic diagnostic : diagnostics.getDiagnostics()) {
+            codes.add(diagnostic.getCode());
+        }
+
+        sortie.append("{\n  \"version\": \"2.1.0\",\n");
+        sortie.append("  \"$schema\": \"https://json.schemastore.org/sarif-2.1.0.json\",\n");
+        sortie.append("  \"runs\": [{\n");
+        sortie.append("    \"tool\": {\"driver\": {\"name\": \"PROJET-COMPILATION\", \"rules\": [");
+        boolean premier = true;
+        for (String code : codes) {
+            sortie.append(premier ? "" : ", ");
+            premier = false;
+            sortie.append("{\"id\": ");
+            chaineJson(sortie, code);
+            sortie.append('}');
+        }
+        sortie.append("]}},\n");
+
+        sortie.append("    \"results\": [");
+        premier = true;
+        for (Diagnostic diagnostic : diagnostics.getDiagnostics()) {
+            sortie.append(premier ? "\n" : ",\n");
+            premier = false;
+            sortie.append("      {\"ruleId\": ");
+            chaineJson(sortie, diagnostic.getCode());
+            sortie.append(", \"level\": ");
+            chaineJson(sortie, diagnostic.estErreur() ? "error" : "warning");
+            sortie.append(", \"message\": {\"text\": ");
+            chaineJson(sortie, diagnostic.getMessage());
+            sortie.append("}, \"locations\": [{\"physicalLocation\": {\"artifactLocation\": {\"uri\": ");
+            chaineJson(sortie, fichierSource.replace('\\', '/'));
+            sortie.append("}, \"region\": {\"startLine\": ").append(String.valueOf(Math.max(1, diagnostic.getLigne())));
+            if (diagnostic.getColonne() > 0) {
+                sortie.append(", \"startColumn\": ").append(String.valueOf(diagnostic.getColonne()));
+            }
+            if (diagnostic.getDebut() >= 0) {
+                sortie.append(", \"charOffset\": ").append(String.valueOf(diagnostic.getDebut()));
+                sortie.append(", \"charLength\": ")
+                        .append(String.valueOf(Math.max(0, diagnostic.getFin() - diagnostic.getDebut())));
+            }
+            sortie.append("}}}]}");
+        }
+        sortie.append(premier ? "]\n" : "\n    ]\n");
+        sortie.append("  }]\n}\n");
+    }
+
+    @Override
+    public String getExtension() {
+        return ".sarif";
+    }
+}
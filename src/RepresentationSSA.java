@@ -0,0 +1,436 @@
+// RepresentationSSA.java
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Version d'une variable en forme SSA : chaque écriture (ou fusion de flots)
+// crée une nouvelle version, lue partout où elle est la valeur courante.
+class ValeurSSA {
+    enum Sorte {
+        ENTREE,      // valeur à l'entrée de la routine (déclaration, paramètre, globale)
+        DEFINITION,  // écriture certaine par une instruction
+        POSSIBLE,    // écriture éventuelle par un appel
+        PHI          // fusion en tête de bloc
+    }
+
+    final int id;
+    final String variable;
+    final int version;
+    final Sorte sorte;
+    final BlocBase bloc;
+    final InstructionFlot instruction; // null pour ENTREE et PHI
+    final ValeurSSA[] operandes;       // PHI : un opérande par prédécesseur du bloc
+    final List<InstructionFlot> lecteurs = new ArrayList<>();
+    final List<ValeurSSA> phisLecteurs = new ArrayList<>();
+
+    ValeurSSA(int id, String variable, int version, Sorte sorte, BlocBase bloc,
+              InstructionFlot instruction, int nombreOperandes) {
+        this.id = id;
+        this.variable = variable;
+        this.version = version;
+        this.sorte = sorte;
+        this.bloc = bloc;
+        this.instruction = instruction;
+        this.operandes = new ValeurSSA[nombreOperandes];
+    }
+
+    @Override
+    public String toString() {
+        return variable + "_" + version;
+    }
+}
+
+// Forme SSA d'une routine, construite sur son GrapheFlotControle.
+//
+// Les dominateurs sont calculés par l'algorithme itératif de Cooper, Harvey et
+// Kennedy, les phi placés sur les frontières de dominance itérées des
+// écritures (SSA minimale : une variable morte peut recevoir un phi, ce qui
+// garantit qu'en tout point la version courante est bien la valeur de la
+// variable), puis les versions sont numérotées en parcourant l'arbre des
+// dominateurs.
+//
+// L'AST n'est pas recopié : les versions pointent sur les instructions du
+// graphe et chaque nœud VARIABLE lu est associé à la version qu'il lit. Les
+// passes réécrivent directement l'AST structuré, qui reste ce que consomme
+// GenerateurPython ; la sortie de SSA se réduit donc à oublier les versions.
+public class RepresentationSSA {
+    private final GrapheFlotControle graphe;
+    private final Map<String, Object> valeursEntree;
+
+    private final List<ValeurSSA> valeurs = new ArrayList<>();
+    private final Map<BlocBase, List<ValeurSSA>> phis = new IdentityHashMap<>();
+    private final Map<NoeudAST, ValeurSSA> lectures = new IdentityHashMap<>();
+    private final Map<InstructionFlot, Map<String, ValeurSSA>> lues = new IdentityHashMap<>();
+    private final Map<InstructionFlot, List<ValeurSSA>> definitions = new IdentityHashMap<>();
+    private final Map<String, ValeurSSA> entrees = new LinkedHashMap<>();
+    private final Map<String, ValeurSSA> versionsEnSortie = new LinkedHashMap<>();
+
+    private final boolean[] accessibles;
+    private final int[] rangPostfixeInverse;
+    private final BlocBase[] idom;
+    private final List<List<BlocBase>> enfantsDominance = new ArrayList<>();
+    private final List<Set<BlocBase>> frontieres = new ArrayList<>();
+
+    private final Map<String, Integer> compteurs = new HashMap<>();
+    private final Map<String, ArrayDeque<ValeurSSA>> piles = new HashMap<>();
+
+    // valeursEntree : valeur connue de certaines variables à l'entrée
+    // (Long, Double ou Boolean), utilisée par les passes de constantes
+    public RepresentationSSA(GrapheFlotControle graphe, Map<String, Object> valeursEntree) {
+        this.graphe = graphe;
+        this.valeursEntree = valeursEntree;
+        int n = graphe.getBlocs().size();
+        accessibles = new boolean[n];
+        rangPostfixeInverse = new int[n];
+        idom = new BlocBase[n];
+        for (int i = 0; i < n; i++) {
+            enfantsDominance.add(new ArrayList<>());
+            frontieres.add(new LinkedHashSet<>());
+        }
+
+        calculerDominateurs();
+        calculerFrontieres();
+        for (String variable : graphe.getVariables()) {
+            entrees.put(variable, nouvelleValeur(variable, ValeurSSA.Sorte.ENTREE, graphe.getEntree(), null, 0));
+        }
+        placerPhis();
+        renommer();
+    }
+
+    // ==================== ACCÈS ====================
+
+    public GrapheFlotControle getGraphe() { return graphe; }
+    public List<ValeurSSA> getValeurs() { return Collections.unmodifiableList(valeurs); }
+
+    public List<ValeurSSA> getPhis(BlocBase bloc) {
+        List<ValeurSSA> liste = phis.get(bloc);
+        return liste == null ? Collections.emptyList() : liste;
+    }
+
+    // Version lue par un nœud VARIABLE (null s'il est inaccessible)
+    public ValeurSSA getLecture(NoeudAST variable) {
+        return lectures.get(variable);
+    }
+
+    // Versions lues par une instruction, y compris les lectures implicites
+    // d'un appel et les tableaux ou structures dont elle lit un élément
+    public Map<String, ValeurSSA> getLues(InstructionFlot instruction) {
+        Map<String, ValeurSSA> map = lues.get(instruction);
+        return map == null ? Collections.emptyMap() : map;
+    }
+
+    public List<ValeurSSA> getDefinitions(InstructionFlot instruction) {
+        List<ValeurSSA> liste = definitions.get(instruction);
+        return liste == null ? Collections.emptyList() : liste;
+    }
+
+    public ValeurSSA getEntree(String variable) {
+        return entrees.get(variable);
+    }
+
+    // Valeur connue à l'entrée de la routine, sinon null
+    public Object getValeurEntree(String variable) {
+        return valeursEntree.get(variable);
+    }
+
+    // Versions courantes à la sortie de la routine
+    public Map<String, ValeurSSA> getVersionsEnSortie() {
+        return Collections.unmodifiableMap(versionsEnSortie);
+    }
+
+    public boolean estAccessible(BlocBase bloc) {
+        return accessibles[bloc.id];
+    }
+
+    public BlocBase getIdom(BlocBase bloc) {
+        return bloc == graphe.getEntree() ? null : idom[bloc.id];
+    }
+
+    public List<BlocBase> getEnfantsDominance(BlocBase bloc) {
+        return enfantsDominance.get(bloc.id);
+    }
+
+    public Set<BlocBase> getFrontiere(BlocBase bloc) {
+        return frontieres.get(bloc.id);
+    }
+
+    public boolean domine(BlocBase a, BlocBase b) {
+        if (!accessibles[a.id] || !accessibles[b.id]) {
+            return false;
+        }
+        for (BlocBase courant = b; courant != null; courant = getIdom(courant)) {
+            if (courant == a) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int getNombrePhis() {
+        int total = 0;
+        for (List<ValeurSSA> liste : phis.values()) {
+            total += liste.size();
+        }
+        return total;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (BlocBase bloc : graphe.getBlocs()) {
+            if (!accessibles[bloc.id]) {
+                continue;
+            }
+            sb.append(bloc).append(" idom=").append(getIdom(bloc) == null ? "-" : "B" + getIdom(bloc).id)
+                    .append('\n');
+            for (ValeurSSA phi : getPhis(bloc)) {
+                sb.append("    ").append(phi).append(" = phi(");
+                for (int i = 0; i < phi.operandes.length; i++) {
+                    sb.append(i > 0 ? ", " : "").append(phi.operandes[i]);
+                }
+                sb.append(")\n");
+            }
+            for (InstructionFlot instruction : bloc.instructions) {
+                sb.append("    ").append(getDefinitions(instruction)).append(" <- ")
+                        .append(instruction.sorte).append(' ').append(instruction.noeud.getType())
+                        .append(' ').append(getLues(instruction).values()).append('\n');
+            }
+        }
+        return sb.toString();
+    }
+
+    // ==================== DOMINATEURS ====================
+
+    private void calculerDominateurs() {
+        BlocBase entree = graphe.getEntree();
+        List<BlocBase> ordre = new ArrayList<>();
+        for (BlocBase bloc : graphe.ordrePostfixeInverse()) {
+            ordre.add(bloc);
+        }
+        // Accessibles depuis l'entrée : l'ordre les place en tête
+        ArrayDeque<BlocBase> travail = new ArrayDeque<>();
+        travail.add(entree);
+        accessibles[entree.id] = true;
+        while (!travail.isEmpty()) {
+            for (BlocBase successeur : travail.poll().successeurs) {
+                if (!accessibles[successeur.id]) {
+                    accessibles[successeur.id] = true;
+                    travail.add(successeur);
+                }
+            }
+        }
+        ordre.removeIf(bloc -> !accessibles[bloc.id]);
+        for (int i = 0; i < ordre.size(); i++) {
+            rangPostfixeInverse[ordre.get(i).id] = i;
+        }
+
+        idom[entree.id] = entree;
+        boolean change = true;
+        while (change) {
+            change = false;
+            for (BlocBase bloc : ordre) {
+                if (bloc == entree) {
+                    continue;
+                }
+                BlocBase nouveau = null;
+                for (BlocBase predecesseur : bloc.predecesseurs) {
+                    if (idom[predecesseur.id] == null) {
+                        continue; // pas encore traité, ou inaccessible
+                    }
+                    nouveau = nouveau == null ? predecesseur : intersection(predecesseur, nouveau);
+                }
+                if (nouveau != idom[bloc.id]) {
+                    idom[bloc.id] = nouveau;
+                    change = true;
+                }
+            }
+        }
+
+        for (BlocBase bloc : ordre) {
+            if (bloc != entree) {
+                enfantsDominance.get(idom[bloc.id].id).add(bloc);
+            }
+        }
+    }
+
+    private BlocBase intersection(BlocBase a, BlocBase b) {
+        while (a != b) {
+            while (rangPostfixeInverse[a.id] > rangPostfixeInverse[b.id]) {
+                a = idom[a.id];
+            }
+            while (rangPostfixeInverse[b.id] > rangPostfixeInverse[a.id]) {
+                b = idom[b.id];
+            }
+        }
+        return a;
+    }
+
+    private void calculerFrontieres() {
+        for (BlocBase bloc : graphe.getBlocs()) {
+            if (!accessibles[bloc.id]) {
+                continue;
+            }
+            int predecesseursAccessibles = 0;
+            for (BlocBase predecesseur : bloc.predecesseurs) {
+                if (accessibles[predecesseur.id]) {
+                    predecesseursAccessibles++;
+                }
+            }
+            if (predecesseursAccessibles < 2) {
+                continue;
+            }
+            for (BlocBase predecesseur : bloc.predecesseurs) {
+                if (!accessibles[predecesseur.id]) {
+                    continue;
+                }
+                for (BlocBase courant = predecesseur; courant != idom[bloc.id]; courant = idom[courant.id]) {
+                    frontieres.get(courant.id).add(bloc);
+                }
+            }
+        }
+    }
+
+    // ==================== PHI ====================
+
+    private void placerPhis() {
+        // Blocs qui écrivent chaque variable ; l'entrée écrit toutes les variables
+        Map<String, Set<BlocBase>> sitesEcriture = new LinkedHashMap<>();
+        for (String variable : graphe.getVariables()) {
+            Set<BlocBase> sites = new LinkedHashSet<>();
+            sites.add(graphe.getEntree());
+            sitesEcriture.put(variable, sites);
+        }
+        for (InstructionFlot instruction : graphe.getInstructions()) {
+            if (!accessibles[instruction.bloc.id]) {
+                continue;
+            }
+            for (String variable : instruction.definitions) {
+                sitesEcriture.get(variable).add(instruction.bloc);
+            }
+            for (String variable : instruction.definitionsPossibles) {
+                sitesEcriture.get(variable).add(instruction.bloc);
+            }
+        }
+
+        for (Map.Entry<String, Set<BlocBase>> entree : sitesEcriture.entrySet()) {
+            String variable = entree.getKey();
+            Set<BlocBase> avecPhi = new LinkedHashSet<>();
+            ArrayDeque<BlocBase> travail = new ArrayDeque<>(entree.getValue());
+            Set<BlocBase> vus = new LinkedHashSet<>(entree.getValue());
+            while (!travail.isEmpty()) {
+                BlocBase bloc = travail.poll();
+                for (BlocBase frontiere : frontieres.get(bloc.id)) {
+                    if (avecPhi.add(frontiere)) {
+                        ValeurSSA phi = nouvelleValeur(variable, ValeurSSA.Sorte.PHI, frontiere, null,
+                                frontiere.predecesseurs.size());
+                        phis.computeIfAbsent(frontiere, b -> new ArrayList<>()).add(phi);
+                        if (vus.add(frontiere)) {
+                            travail.add(frontiere);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    // ==================== RENOMMAGE ====================
+
+    private void renommer() {
+        for (ValeurSSA entree : entrees.values()) {
+            piles.computeIfAbsent(entree.variable, v -> new ArrayDeque<>()).push(entree);
+        }
+        renommerBloc(graphe.getEntree());
+    }
+
+    private void renommerBloc(BlocBase bloc) {
+        List<String> empilees = new ArrayList<>();
+
+        for (ValeurSSA phi : getPhis(bloc)) {
+            piles.get(phi.variable).push(phi);
+            empilees.add(phi.variable);
+        }
+
+        for (InstructionFlot instruction : bloc.instructions) {
+            List<NoeudAST> variables = new ArrayList<>();
+            for (NoeudAST expression : instruction.expressionsLues()) {
+                GrapheFlotControle.collecterLectures(expression, variables);
+            }
+            for (NoeudAST variable : variables) {
+                ValeurSSA courante = courante(variable.getValeur());
+                if (courante != null) {
+                    lectures.put(variable, courante);
+                }
+            }
+            Map<String, ValeurSSA> luesInstruction = new LinkedHashMap<>();
+            for (String variable : instruction.utilisations) {
+                ValeurSSA courante = courante(variable);
+                luesInstruction.put(variable, courante);
+                courante.lecteurs.add(instruction);
+            }
+            lues.put(instruction, luesInstruction);
+
+            List<ValeurSSA> ecrites = new ArrayList<>();
+            for (String variable : instruction.definitions) {
+                ecrites.add(nouvelleValeur(variable, ValeurSSA.Sorte.DEFINITION, bloc, instruction, 0));
+            }
+            for (String variable : instruction.definitionsPossibles) {
+                if (!instruction.definitions.contains(variable)) {
+                    ecrites.add(nouvelleValeur(variable, ValeurSSA.Sorte.POSSIBLE, bloc, instruction, 0));
+                }
+            }
+            for (ValeurSSA ecrite : ecrites) {
+                piles.get(ecrite.variable).push(ecrite);
+                empilees.add(ecrite.variable);
+            }
+            definitions.put(instruction, ecrites);
+        }
+
+        for (BlocBase successeur : bloc.successeurs) {
+            for (int i = 0; i < successeur.predecesseurs.size(); i++) {
+                if (successeur.predecesseurs.get(i) != bloc) {
+                    continue;
+                }
+                for (ValeurSSA phi : getPhis(successeur)) {
+                    ValeurSSA operande = courante(phi.variable);
+                    phi.operandes[i] = operande;
+                    operande.phisLecteurs.add(phi);
+                }
+            }
+        }
+
+        if (bloc == graphe.getSortie()) {
+            for (String variable : graphe.getVariables()) {
+                versionsEnSortie.put(variable, courante(variable));
+            }
+        }
+
+        for (BlocBase enfant : enfantsDominance.get(bloc.id)) {
+            renommerBloc(enfant);
+        }
+
+        for (int i = empilees.size() - 1; i >= 0; i--) {
+            piles.get(empilees.get(i)).pop();
+        }
+    }
+
+    private ValeurSSA courante(String variable) {
+        ArrayDeque<ValeurSSA> pile = piles.get(variable);
+        return pile == null ? null : pile.peek();
+    }
+
+    private ValeurSSA nouvelleValeur(String variable, ValeurSSA.Sorte sorte, BlocBase bloc,
+                                     InstructionFlot instruction, int nombreOperandes) {
+        int version = compteurs.merge(variable, 1, Integer::sum) - 1;
+        ValeurSSA valeur = new ValeurSSA(valeurs.size(), variable, version, sorte, bloc, instruction,
+                nombreOperandes);
+        valeurs.add(valeur);
+        return valeur;
+    }
+}
@@ -0,0 +1,216 @@
+// TableSymboles.java
+import java.util.Arrays;
+
+// Table des symboles à portées, à plat (adressage ouvert).
+//
+// Chaque nom occupe une case fixe qui contient sa liaison visible et la
+// profondeur de la portée qui l'a déclarée. Déclarer un nom masque l'ancienne
+// liaison en la poussant dans un journal d'annulation ; sortir d'une portée
+// rejoue le journal jusqu'au repère posé à l'entrée. La recherche est donc
+// O(1) quelle que soit l'imbrication, et entrer/sortir d'une portée n'alloue
+// rien (hors agrandissement des tableaux).
+//
+// Les variables globales vivent à la profondeur 0.
+class TableSymboles {
+    private static final int CAPACITE_INITIALE = 64; // puissance de 2
+
+    // Cases : nom, liaison visible, profondeur de la liaison
+    private String[] cles;
+    private EntreeTableSymboles[] entrees;
+    private int[] profondeurs;
+    private int nombreCles;
+
+    // Journal d'annulation : (case, liaison précédente, profondeur précédente)
+    private int[] journalCase;
+    private EntreeTableSymboles[] journalEntree;
+    private int[] journalProfondeur;
+    private int tailleJournal;
+
+    // Position du journal à l'entrée de chaque portée
+    private int[] reperesPortee;
+    private int profondeur;
+
+    TableSymboles() {
+        cles = new String[CAPACITE_INITIALE];
+        entrees = new EntreeTableSymboles[CAPACITE_INITIALE];
+        profondeurs = new int[CAPACITE_INITIALE];
+        journalCase = new int[32];
+        journalEntree = new EntreeTableSymboles[32];
+        journalProfondeur = new int[32];
+        reperesPortee = new int[16];
+        profondeur = 0;
+    }
+
+    int getProfondeur() {
+        return profondeur;
+    }
+
+    // ==================== PORTÉES ====================
+
+    void entrerPortee() {
+        profondeur++;
+        if (profondeur == reperesPortee.length) {
+            reperesPortee = Arrays.copyOf(reperesPortee, reperesPortee.length * 2);
+        }
+        reperesPortee[profondeur] = tailleJournal;
+    }
+
+    void sortirPortee() {
+        if (profondeur == 0) {
+            return;
+        }
+        int repere = reperesPortee[profondeur];
+        while (tailleJournal > repere) {
+            tailleJournal--;
+            int c = journalCase[tailleJournal];
+            entrees[c] = journalEntree[tailleJournal];
+            profondeurs[c] = journalProfondeur[tailleJournal];
+            journalEntree[tailleJournal] = null;
+        }
+        profondeur--;
+    }
+
+    // ==================== DÉCLARATIONS ====================
+
+    // Déclare dans la portée courante, en masquant la liaison existante
+    void declarer(String nom, EntreeTableSymboles entree) {
+        int c = caseDe(nom);
+        journaliser(c);
+        entrees[c] = entree;
+        profondeurs[c] = profondeur;
+    }
+
+    // Déclare à la profondeur 0, même depuis une portée imbriquée : si le nom
+    // est masqué par une locale, la globale prend place sous la première
+    // liaison masquante et réapparaîtra à la sortie de sa portée
+    void declarerGlobale(String nom, EntreeTableSymboles entree) {
+        int c = caseDe(nom);
+        if (entrees[c] == null || profondeurs[c] == 0) {
+            entrees[c] = entree;
+            profondeurs[c] = 0;
+            return;
+        }
+        for (int k = 0; k < tailleJournal; k++) {
+            if (journalCase[k] == c) {
+                journalEntree[k] = entree;
+                journalProfondeur[k] = 0;
+                return;
+            }
+        }
+    }
+
+    // ==================== RECHERCHES ====================
+
+    EntreeTableSymboles chercher(String nom) {
+        int c = trouverCase(nom);
+        return c < 0 ? null : entrees[c];
+    }
+
+    boolean estDeclareeDansPorteeCourante(String nom) {
+        int c = trouverCase(nom);
+        return c >= 0 && entrees[c] != null && profondeurs[c] == profondeur;
+    }
+
+    EntreeTableSymboles chercherGlobale(String nom) {
+        int c = trouverCase(nom);
+        if (c < 0 || entrees[c] == null) {
+            return null;
+        }
+        if (profondeurs[c] == 0) {
+            return entrees[c];
+        }
+        // Masquée : la globale est la liaison sauvegardée par le premier masquage
+        for (int k = 0; k < tailleJournal; k++) {
+            if (journalCase[k] == c) {
+                return journalProfondeur[k] == 0 ? journalEntree[k] : null;
+            }
+        }
+        return null;
+    }
+
+    // ==================== ADRESSAGE OUVERT ====================
+
+    private static int hacher(String nom) {
+        int h = nom.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    // Case du nom, -1 s'il n'a jamais été déclaré
+    private int trouverCase(String nom) {
+        int masque = cles.length - 1;
+        int c = hacher(nom) & masque;
+        while (cles[c] != null) {
+            if (cles[c].equals(nom)) {
+                return c;
+            }
+            c = (c + 1) & masque;
+        }
+        return -1;
+    }
+
+    // Case du nom, réservée au besoin. Une case n'est jamais libérée : la
+    // sortie de portée remet seulement sa liaison à l'état précédent
+    private int caseDe(String nom) {
+        int masque = cles.length - 1;
+        int c = hacher(nom) & masque;
+        while (cles[c] != null) {
+            if (cles[c].equals(nom)) {
+                return c;
+            }
+            c = (c + 1) & masque;
+        }
+
+        if ((nombreCles + 1) * 4 > cles.length * 3) {
+            agrandir();
+            return caseDe(nom);
+        }
+        cles[c] = nom;
+        nombreCles++;
+        return c;
+    }
+
+    private void journaliser(int c) {
+        if (tailleJournal == journalCase.length) {
+            int capacite = journalCase.length * 2;
+            journalCase = Arrays.copyOf(journalCase, capacite);
+            journalEntree = Arrays.copyOf(journalEntree, capacite);
+            journalProfondeur = Arrays.copyOf(journalProfondeur, capacite);
+        }
+        journalCase[tailleJournal] = c;
+        journalEntree[tailleJournal] = entrees[c];
+        journalProfondeur[tailleJournal] = profondeurs[c];
+        tailleJournal++;
+    }
+
+    // Double la capacité ; le journal référence des cases, il est renuméroté
+    private void agrandir() {
+        String[] anciennesCles = cles;
+        EntreeTableSymboles[] anciennesEntrees = entrees;
+        int[] anciennesProfondeurs = profondeurs;
+
+        int capacite = anciennesCles.length * 2;
+        cles = new String[capacite];
+        entrees = new EntreeTableSymboles[capacite];
+        profondeurs = new int[capacite];
+        int[] nouvelleCase = new int[anciennesCles.length];
+
+        int masque = capacite - 1;
+        for (int i = 0; i < anciennesCles.length; i++) {
+            if (anciennesCles[i] == null) {
+                continue;
+            }
+            int c = hacher(anciennesCles[i]) & masque;
+            while (cles[c] != null) {
+                c = (c + 1) & masque;
+            }
+            cles[c] = anciennesCles[i];
+            entrees[c] = anciennesEntrees[i];
+            profondeurs[c] = anciennesProfondeurs[i];
+            nouvelleCase[i] = c;
+        }
+
+        for (int k = 0; k < tailleJournal; k++) {
+            journalCase[k] = nouvelleCase[journalCase[k]];
+        }
+    }
+}
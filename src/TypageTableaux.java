@@ -0,0 +1,535 @@
+// TypageTableaux.java
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Tableaux d'entiers ou de réels générés en array.array compact.
+//
+// Une liste Python de N éléments range N références vers des objets ; un
+// array('q') ou array('d') range N valeurs machine. Le changement n'est
+// invisible que si chaque écriture dans le tableau est déjà un int (resp. un
+// float) : array('q') refuse un float, array('d') convertit un int et
+// l'afficherait '3.0' au lieu de '3'. Un tableau n'est donc compact que si
+// toutes les valeurs qu'il reçoit sont prouvées de son type : littéraux,
+// opérations +, -, * sur des valeurs prouvées, divisions (toujours float),
+// variables et tableaux eux-mêmes prouvés (point fixe : on suppose tout
+// prouvé puis on retire ce qui ne l'est pas). Un tableau lu par LIRE ou
+// utilisé en entier (passé, renvoyé, affecté, affiché) reste une liste.
+//
+// Deux écarts restent à exclure :
+// - array('q') lève OverflowError au-delà de 64 bits, là où la liste garde un
+//   entier Python. Chaque écriture doit donc aussi être bornée : littéraux,
+//   compteurs de POUR à bornes bornées, copies et opérations +, -, * dont la
+//   borne (en valeur absolue) se calcule sans dépasser un long. Une valeur qui
+//   croît encore après autant de tours que de clés dépend d'elle-même
+//   (x <- x + 1) : elle n'est pas bornée ;
+// - la liste de départ contient l'entier 0, affiché '0' là où array('d')
+//   afficherait '0.0'. Un tableau de réels n'est compact que si chacun de ses
+//   éléments est écrit, dans le corps qui le déclare, avant toute lecture
+//   possible (voir initialiseAvantLecture). Un champ tableau de réels reste
+//   une liste.
+public class TypageTableaux {
+    // Clé d'une variable : 'nom' (globale) ou 'routine/nom' (locale) ; clé
+    // d'un champ tableau : son ChampInfo
+    private final Map<Object, TypeDonnee> candidats = new HashMap<>();
+    private final Map<NoeudAST, Object> declarations = new IdentityHashMap<>();
+    private final Set<Object> tableaux = new HashSet<>();
+    private final List<Ecriture> ecritures = new ArrayList<>();
+    // Bornes d'un compteur de POUR : elles ne contraignent pas son type
+    private final List<Ecriture> compteurs = new ArrayList<>();
+    // Borne (valeur absolue) des entiers de chaque clé ; absente si inconnue
+    private final Map<Object, Long> bornes = new HashMap<>();
+    // Tableau de réels déclaré -> corps qui le déclare
+    private final Map<NoeudAST, NoeudAST> tableauxReels = new IdentityHashMap<>();
+    private boolean champsResolus = true;
+
+    // Valeur reçue par une variable ou un élément de tableau
+    private static final class Ecriture {
+        final Object cle;
+        final NoeudAST valeur;
+        final String routine;
+        final Set<String> locaux;
+
+        Ecriture(Object cle, NoeudAST valeur, String routine, Set<String> locaux) {
+            this.cle = cle;
+            this.valeur = valeur;
+            this.routine = routine;
+            this.locaux = locaux;
+        }
+    }
+
+    public TypageTableaux(NoeudAST programme) {
+        Set<String> aucun = Set.of();
+        NoeudAST principal = GrapheFlotControle.corpsDe(programme);
+        for (NoeudAST element : programme.getEnfants()) {
+            if (element.getType() == NoeudAST.TypeNoeud.SECTION_VAR) {
+                declarer(element, null, aucun, principal);
+            } else if (element.getType() == NoeudAST.TypeNoeud.DECLARATION_STRUCTURE) {
+                declarerChamps(element);
+            } else if (GrapheFlotControle.estSousProgramme(element)) {
+                Set<String> locaux = GrapheFlotControle.nomsLocaux(element);
+                for (NoeudAST enfant : element.getEnfants()) {
+                    if (enfant.getType() == NoeudAST.TypeNoeud.SECTION_VAR) {
+                        declarer(enfant, element.getValeur(), locaux, GrapheFlotControle.corpsDe(element));
+                    }
+                }
+            }
+        }
+
+        for (NoeudAST element : programme.getEnfants()) {
+            if (element.getType() == NoeudAST.TypeNoeud.BLOC_INSTRUCTIONS) {
+                parcourir(element, null, aucun);
+            } else if (GrapheFlotControle.estSousProgramme(element)) {
+                Set<String> locaux = GrapheFlotControle.nomsLocaux(element);
+                for (NoeudAST enfant : element.getEnfants()) {
+                    if (enfant.getType() == NoeudAST.TypeNoeud.BLOC_INSTRUCTIONS ||
+                            enfant.getType() == NoeudAST.TypeNoeud.RETOUR) {
+                        parcourir(enfant, element.getValeur(), locaux);
+                    }
+                }
+            }
+        }
+        if (!champsResolus) {
+            // Un accès à un champ non résolu pourrait écrire dans n'importe lequel
+            candidats.keySet().removeIf(cle -> cle instanceof ChampInfo);
+        }
+        // Un élément jamais écrit vaut l'entier 0 : sa lecture n'est pas un réel
+        tableauxReels.forEach((identifiant, corps) -> {
+            if (corps == null || !initialiseAvantLecture(identifiant, corps)) {
+                candidats.remove(declarations.get(identifiant));
+            }
+        });
+        candidats.keySet().removeIf(cle -> cle instanceof ChampInfo && candidats.get(cle) == TypeDonnee.REEL);
+
+        // Point fixe : une écriture non prouvée disqualifie sa cible
+        boolean change = true;
+        while (change) {
+            change = false;
+            for (Ecriture ecriture : ecritures) {
+                TypeDonnee type = candidats.get(ecriture.cle);
+                if (type != null && !prouvee(ecriture.valeur, type, ecriture)) {
+                    candidats.remove(ecriture.cle);
+                    change = true;
+                }
+            }
+        }
+
+        bornerEntiers();
+    }
+
+    // Code de type array ('q' ou 'd') d'une variable ou d'un champ déclaré,
+    // ou null s'il doit rester une liste
+    public String codeTableau(NoeudAST identifiant) {
+        Object cle = declarations.get(identifiant);
+        if (cle == null || !tableaux.contains(cle)) {
+            return null;
+        }
+        return code(cle);
+    }
+
+    public int getNombreTableaux() {
+        int nombre = 0;
+        for (Object cle : tableaux) {
+            if (code(cle) != null) {
+                nombre++;
+            }
+        }
+        return nombre;
+    }
+
+    private String code(Object cle) {
+        TypeDonnee type = candidats.get(cle);
+        if (type == TypeDonnee.ENTIER) {
+            return bornes.containsKey(cle) ? "q" : null;
+        }
+        return type == TypeDonnee.REEL ? "d" : null;
+    }
+
+    // ==================== DÉCLARATIONS ====================
+
+    private void declarer(NoeudAST section, String routine, Set<String> locaux, NoeudAST corps) {
+        for (NoeudAST liste : section.rechercherParType(NoeudAST.TypeNoeud.LISTE_IDENTIFICATEURS)) {
+            for (NoeudAST identifiant : liste.getEnfants()) {
+                EntreeTableSymboles entree = identifiant.getSymbole();
+                if (entree == null || entree.estParametre) {
+                    continue;
+                }
+                Object cle = cle(identifiant.getValeur(), routine, locaux);
+                declarations.put(identifiant, cle);
+                if (entree.estTableau) {
+                    if (entree.taille >= 0 && numerique(entree.typeElement)) {
+                        candidats.put(cle, entree.typeElement);
+                        tableaux.add(cle);
+                        if (entree.typeElement == TypeDonnee.REEL) {
+                            tableauxReels.put(identifiant, corps);
+                        }
+                    }
+                } else if (numerique(entree.type)) {
+                    candidats.put(cle, entree.type);
+                }
+            }
+        }
+    }
+
+    private void declarerChamps(NoeudAST structure) {
+        StructureInfo info = structure.getStructure();
+        if (info == null) {
+            return;
+        }
+        for (NoeudAST liste : structure.rechercherParType(NoeudAST.TypeNoeud.LISTE_IDENTIFICATEURS)) {
+            for (NoeudAST identifiant : liste.getEnfants()) {
+                ChampInfo champ = info.champ(identifiant.getValeur());
+                if (champ != null && champ.type == TypeDonnee.TABLEAU && champ.taille >= 0 &&
+                        numerique(champ.typeElement)) {
+                    declarations.put(identifiant, champ);
+                    candidats.put(champ, champ.typeElement);
+                    tableaux.add(champ);
+                }
+            }
+        }
+    }
+
+    // ==================== ÉCRITURES ET UTILISATIONS ====================
+
+    private void parcourir(NoeudAST noeud, String routine, Set<String> locaux) {
+        switch (noeud.getType()) {
+            case AFFECTATION:
+                if (noeud.getEnfants().size() == 1) {
+                    Object cle = cle(noeud.getValeur(), routine, locaux);
+                    if (tableaux.contains(cle)) {
+                        candidats.remove(cle); // tableau affecté en entier
+                    } else {
+                        ecritures.add(new Ecriture(cle, noeud.getEnfant(0), routine, locaux));
+                    }
+                } else if (noeud.getEnfants().size() == 2) {
+                    Object cle = cleElement(noeud.getEnfant(0), routine, locaux);
+                    if (cle != null) {
+                        ecritures.add(new Ecriture(cle, noeud.getEnfant(1), routine, locaux));
+                    }
+                }
+                break;
+            case LIRE:
+                // input() renvoie une chaîne
+                for (NoeudAST cible : noeud.getEnfants()) {
+                    Object cle = cible.getType() == NoeudAST.TypeNoeud.VARIABLE
+                            ? cle(cible.getValeur(), routine, locaux) : cleElement(cible, routine, locaux);
+                    if (cle != null) {
+                        candidats.remove(cle);
+                    }
+                }
+                return;
+            case BOUCLE_POUR:
+                // range() ne produit que des int
+                Object compteur = cle(noeud.getValeur(), routine, locaux);
+                if (candidats.get(compteur) != TypeDonnee.ENTIER) {
+                    candidats.remove(compteur);
+                }
+                compteurs.add(new Ecriture(compteur, noeud.getEnfant(0), routine, locaux));
+                compteurs.add(new Ecriture(compteur, noeud.getEnfant(1), routine, locaux));
+                break;
+            case VARIABLE:
+                Object variable = cle(noeud.getValeur(), routine, locaux);
+                if (tableaux.contains(variable)) {
+                    candidats.remove(variable); // tableau utilisé en entier
+                }
+                break;
+            case ACCES_CHAMP:
+                for (NoeudAST maillon : noeud.getEnfants()) {
+                    ChampInfo champ = maillon.getChamp();
+                    if (champ == null) {
+                        champsResolus = false;
+                    } else if (maillon.getType() == NoeudAST.TypeNoeud.VARIABLE && tableaux.contains(champ)) {
+                        candidats.remove(champ);
+                    }
+                    for (NoeudAST indice : maillon.getEnfants()) {
+                        parcourir(indice, routine, locaux);
+                    }
+                }
+                return;
+            default:
+                break;
+        }
+        for (NoeudAST enfant : noeud.getEnfants()) {
+            parcourir(enfant, routine, locaux);
+        }
+    }
+
+    // ==================== PREUVES ====================
+
+    private boolean prouvee(NoeudAST valeur, TypeDonnee type, Ecriture contexte) {
+        return type == TypeDonnee.ENTIER ? entier(valeur, contexte) : reel(valeur, contexte);
+    }
+
+    private boolean entier(NoeudAST noeud, Ecriture contexte) {
+        switch (noeud.getType()) {
+            case NOMBRE:
+                return !litteralReel(noeud.getValeur());
+            case VARIABLE:
+            case ACCES_TABLEAU:
+            case ACCES_CHAMP:
+                return typeProuve(noeud, contexte) == TypeDonnee.ENTIER;
+            case EXPRESSION_BINAIRE:
+                switch (noeud.getOperateur()) {
+                    case PLUS:
+                    case MOINS:
+                    case MULT:
+                        return entier(noeud.getEnfant(0), contexte) && entier(noeud.getEnfant(1), contexte);
+                    default:
+                        return false;
+                }
+            case NEGATION:
+                return noeud.getOperateur() == Operateur.OPPOSE && entier(noeud.getEnfant(0), contexte);
+            default:
+                return false;
+        }
+    }
+
+    private boolean reel(NoeudAST noeud, Ecriture contexte) {
+        switch (noeud.getType()) {
+            case NOMBRE:
+                return litteralReel(noeud.getValeur());
+            case VARIABLE:
+            case ACCES_TABLEAU:
+            case ACCES_CHAMP:
+                return typeProuve(noeud, contexte) == TypeDonnee.REEL;
+            case EXPRESSION_BINAIRE:
+                switch (noeud.getOperateur()) {
+                    case DIV:
+                        return true; // '/' de Python rend toujours un float
+                    case PLUS:
+                    case MOINS:
+                    case MULT:
+                        NoeudAST gauche = noeud.getEnfant(0);
+                        NoeudAST droite = noeud.getEnfant(1);
+                        return (reel(gauche, contexte) && nombre(droite, contexte)) ||
+                                (nombre(gauche, contexte) && reel(droite, contexte));
+                    default:
+                        return false;
+                }
+            case NEGATION:
+                return noeud.getOperateur() == Operateur.OPPOSE && reel(noeud.getEnfant(0), contexte);
+            default:
+                return false;
+        }
+    }
+
+    private boolean nombre(NoeudAST noeud, Ecriture contexte) {
+        return entier(noeud, contexte) || reel(noeud, contexte);
+    }
+
+    // Type prouvé d'une lecture de variable, d'élément ou de champ tableau
+    private TypeDonnee typeProuve(NoeudAST lecture, Ecriture contexte) {
+        Object cle;
+        if (lecture.getType() == NoeudAST.TypeNoeud.ACCES_CHAMP) {
+            cle = cleElement(lecture, contexte.routine, contexte.locaux);
+        } else {
+            cle = cle(lecture.getValeur(), contexte.routine, contexte.locaux);
+            if ((lecture.getType() == NoeudAST.TypeNoeud.ACCES_TABLEAU) != tableaux.contains(cle)) {
+                return null;
+            }
+        }
+        return cle == null ? null : candidats.get(cle);
+    }
+
+    // ==================== BORNES ====================
+
+    // Point fixe croissant depuis 0 (valeur initiale de tout entier), élargi
+    // à « non borné » pour les clés qui croissent encore après trop de tours
+    private void bornerEntiers() {
+        for (Map.Entry<Object, TypeDonnee> candidat : candidats.entrySet()) {
+            if (candidat.getValue() == TypeDonnee.ENTIER) {
+                bornes.put(candidat.getKey(), 0L);
+            }
+        }
+        List<Ecriture> toutes = new ArrayList<>(ecritures);
+        toutes.addAll(compteurs);
+
+        int tours = 0;
+        boolean change = true;
+        while (change) {
+            change = false;
+            Set<Object> croissantes = new HashSet<>();
+            for (Ecriture ecriture : toutes) {
+                Long actuelle = bornes.get(ecriture.cle);
+                if (actuelle == null) {
+                    continue;
+                }
+                Long borne = borne(ecriture.valeur, ecriture);
+                if (borne == null) {
+                    bornes.remove(ecriture.cle);
+                    change = true;
+                } else if (borne > actuelle) {
+                    bornes.put(ecriture.cle, borne);
+                    croissantes.add(ecriture.cle);
+                    change = true;
+                }
+            }
+            if (++tours > bornes.size() + 1) {
+                bornes.keySet().removeAll(croissantes);
+                tours = 0;
+            }
+        }
+    }
+
+    // Borne de la valeur absolue d'une expression entière, null si inconnue
+    private Long borne(NoeudAST noeud, Ecriture contexte) {
+        try {
+            switch (noeud.getType()) {
+                case NOMBRE:
+                    return litteralReel(noeud.getValeur()) ? null : Math.abs(Long.parseLong(noeud.getValeur()));
+                case VARIABLE:
+                case ACCES_TABLEAU:
+                case ACCES_CHAMP: {
+                    if (typeProuve(noeud, contexte) != TypeDonnee.ENTIER) {
+                        return null;
+                    }
+                    Object cle = noeud.getType() == NoeudAST.TypeNoeud.ACCES_CHAMP
+                            ? cleElement(noeud, contexte.routine, contexte.locaux)
+                            : cle(noeud.getValeur(), contexte.routine, contexte.locaux);
+                    return bornes.get(cle);
+                }
+                case EXPRESSION_BINAIRE: {
+                    Operateur operateur = noeud.getOperateur();
+                    if (operateur != Operateur.PLUS && operateur != Operateur.MOINS && operateur != Operateur.MULT) {
+                        return null;
+                    }
+                    Long gauche = borne(noeud.getEnfant(0), contexte);
+                    Long droite = borne(noeud.getEnfant(1), contexte);
+                    if (gauche == null || droite == null) {
+                        return null;
+                    }
+                    return operateur == Operateur.MULT
+                            ? Math.multiplyExact(gauche, droite) : Math.addExact(gauche, droite);
+                }
+                case NEGATION:
+                    return noeud.getOperateur() == Operateur.OPPOSE ? borne(noeud.getEnfant(0), contexte) : null;
+                default:
+                    return null;
+            }
+        } catch (NumberFormatException | ArithmeticException e) {
+            return null; // littéral ou résultat hors d'un long
+        }
+    }
+
+    // ==================== INITIALISATION ====================
+
+    // Chaque élément du tableau est-il écrit avant toute lecture ? On suit les
+    // instructions de premier niveau du corps : écritures t[k] <- v à indice
+    // littéral, ou boucle POUR couvrant tous les indices et écrivant t[i].
+    // Toute autre mention du tableau, ou un appel (qui pourrait le lire),
+    // avant que tout soit écrit fait échouer la preuve.
+    private boolean initialiseAvantLecture(NoeudAST identifiant, NoeudAST corps) {
+        String nom = identifiant.getValeur();
+        int taille = identifiant.getSymbole().taille;
+        BitSet ecrits = new BitSet(taille);
+        for (NoeudAST instruction : corps.getEnfants()) {
+            if (ecrits.cardinality() == taille) {
+                return true;
+            }
+            if (contientAppel(instruction)) {
+                return false;
+            }
+            NoeudAST cible = ecritureElement(instruction, nom);
+            if (cible != null) {
+                if (mentionne(instruction.getEnfant(1), nom) || mentionne(cible.getEnfant(0), nom)) {
+                    return false;
+                }
+                Object indice = PropagationConstantes.valeurConstante(cible.getEnfant(0));
+                long k = indice instanceof Long ? (Long) indice : -1;
+                if (k >= 0 && k < taille) {
+                    ecrits.set((int) k);
+                }
+            } else if (couvre(instruction, nom, taille)) {
+                ecrits.set(0, taille);
+            } else if (mentionne(instruction, nom)) {
+                return false;
+            }
+        }
+        return ecrits.cardinality() == taille;
+    }
+
+    // POUR i <- a JUSQUA b (a <= 0, b >= taille - 1) dont le corps ne mentionne
+    // le tableau que par t[i] <- v, sans appel ni modification de i
+    private boolean couvre(NoeudAST boucle, String nom, int taille) {
+        if (boucle.getType() != NoeudAST.TypeNoeud.BOUCLE_POUR || boucle.getEnfants().size() != 3) {
+            return false;
+        }
+        Object debut = PropagationConstantes.valeurConstante(boucle.getEnfant(0));
+        Object fin = PropagationConstantes.valeurConstante(boucle.getEnfant(1));
+        if (!(debut instanceof Long) || !(fin instanceof Long) || (Long) debut > 0 || (Long) fin < taille - 1) {
+            return false;
+        }
+        NoeudAST corps = boucle.getEnfant(2);
+        Set<String> ecrites = new HashSet<>();
+        GrapheFlotControle.collecterEcritures(corps, ecrites);
+        if (contientAppel(corps) || ecrites.contains(boucle.getValeur())) {
+            return false;
+        }
+        boolean ecrit = false;
+        for (NoeudAST instruction : corps.getEnfants()) {
+            NoeudAST cible = ecritureElement(instruction, nom);
+            if (cible != null && !ecrit && !mentionne(instruction.getEnfant(1), nom) &&
+                    cible.getEnfant(0).getType() == NoeudAST.TypeNoeud.VARIABLE &&
+                    cible.getEnfant(0).getValeur().equals(boucle.getValeur())) {
+                ecrit = true;
+            } else if (mentionne(instruction, nom)) {
+                return false;
+            }
+        }
+        return ecrit;
+    }
+
+    // Cible t[k] d'une affectation à un élément de 'nom', sinon null
+    private static NoeudAST ecritureElement(NoeudAST instruction, String nom) {
+        if (instruction.getType() != NoeudAST.TypeNoeud.AFFECTATION || instruction.getEnfants().size() != 2) {
+            return null;
+        }
+        NoeudAST cible = instruction.getEnfant(0);
+        return cible.getType() == NoeudAST.TypeNoeud.ACCES_TABLEAU && nom.equals(cible.getValeur()) &&
+                cible.getEnfants().size() == 1 ? cible : null;
+    }
+
+    private static boolean mentionne(NoeudAST noeud, String nom) {
+        Set<String> noms = new HashSet<>();
+        GrapheFlotControle.collecterUtilisations(noeud, noms);
+        GrapheFlotControle.collecterEcritures(noeud, noms);
+        return noms.contains(nom);
+    }
+
+    private static boolean contientAppel(NoeudAST noeud) {
+        return !noeud.rechercherParType(NoeudAST.TypeNoeud.APPEL_FONCTION).isEmpty();
+    }
+
+    // ==================== UTILITAIRES ====================
+
+    private Object cle(String nom, String routine, Set<String> locaux) {
+        return routine != null && locaux.contains(nom) ? routine + "/" + nom : nom;
+    }
+
+    // Élément de tableau désigné par t[i] ou p.t[i], sinon null
+    private Object cleElement(NoeudAST acces, String routine, Set<String> locaux) {
+        if (acces.getType() == NoeudAST.TypeNoeud.ACCES_TABLEAU) {
+            return cle(acces.getValeur(), routine, locaux);
+        }
+        if (acces.getType() == NoeudAST.TypeNoeud.ACCES_CHAMP && !acces.getEnfants().isEmpty()) {
+            NoeudAST dernier = acces.getEnfant(acces.getEnfants().size() - 1);
+            if (dernier.getType() == NoeudAST.TypeNoeud.ACCES_TABLEAU) {
+                return dernier.getChamp();
+            }
+        }
+        return null;
+    }
+
+    private static boolean numerique(TypeDonnee type) {
+        return type == TypeDonnee.ENTIER || type == TypeDonnee.REEL;
+    }
+
+    private static boolean litteralReel(String texte) {
+        return texte.contains(".") || texte.contains("e") || texte.contains("E");
+    }
+}
@@ -0,0 +1,91 @@
+// VerificationInitialisations.java
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Signale les variables lues avant toute affectation.
+//
+// Le langage donne une valeur par défaut à chaque variable (0, 0.0, "",
+// FAUX) : une telle lecture est permise mais trahit souvent un oubli. Sur
+// le graphe de chaque routine, DefinitionsAtteignantes dit quelles écritures
+// peuvent atteindre une lecture ; si seule la définition d'entrée (la
+// déclaration) l'atteint, la variable n'a été affectée sur aucun chemin.
+//
+// Ne sont vérifiées que les variables scalaires déclarées par la routine
+// (ses locales, ou les globales pour le programme principal) : un paramètre
+// ou une globale lue dans un sous-programme a reçu sa valeur de l'appelant,
+// et un tableau s'écrit élément par élément. Un avertissement par variable
+// et par routine, à la première lecture rencontrée.
+public class VerificationInitialisations {
+
+    private final AnalyseurSemantique analyseur;
+    private int nombreAvertissements = 0;
+
+    public VerificationInitialisations(AnalyseurSemantique analyseur) {
+        this.analyseur = analyseur;
+    }
+
+    public void verifier(NoeudAST programme) {
+        Set<String> globales = scalairesDeclares(programme);
+        Map<NoeudAST, GrapheFlotControle> graphes = GrapheFlotControle.construireProgramme(programme);
+        // Dans l'ordre du source, pour des avertissements stables
+        for (NoeudAST element : programme.getEnfants()) {
+            GrapheFlotControle graphe = graphes.get(element);
+            if (graphe != null) {
+                verifierRoutine(graphe, GrapheFlotControle.estSousProgramme(element)
+                        ? scalairesDeclares(element) : globales);
+            }
+        }
+    }
+
+    public int getNombreAvertissements() {
+        return nombreAvertissements;
+    }
+
+    private void verifierRoutine(GrapheFlotControle graphe, Set<String> verifiees) {
+        if (verifiees.isEmpty()) {
+            return;
+        }
+        DefinitionsAtteignantes definitions = new DefinitionsAtteignantes(graphe);
+        Set<String> signalees = new HashSet<>();
+        for (InstructionFlot instruction : graphe.getInstructions()) {
+            Set<String> lues = new LinkedHashSet<>();
+            for (NoeudAST expression : instruction.expressionsLues()) {
+                GrapheFlotControle.collecterUtilisations(expression, lues);
+            }
+            for (String nom : lues) {
+                if (!verifiees.contains(nom) || signalees.contains(nom)) {
+                    continue;
+                }
+                List<DefinitionsAtteignantes.Definition> atteignantes = definitions.atteignent(instruction, nom);
+                if (atteignantes.size() == 1 && atteignantes.get(0).estEntree()) {
+                    signalees.add(nom);
+                    nombreAvertissements++;
+                    analyseur.avertissement("Variable lue avant toute affectation : %s (valeur par défaut)",
+                            instruction.noeud.getLigne(), nom);
+                }
+            }
+        }
+    }
+
+    // Variables scalaires des sections VAR de 'element' (programme ou routine)
+    private Set<String> scalairesDeclares(NoeudAST element) {
+        Set<String> scalaires = new HashSet<>();
+        for (NoeudAST section : element.getEnfants()) {
+            if (section.getType() != NoeudAST.TypeNoeud.SECTION_VAR) {
+                continue;
+            }
+            for (NoeudAST liste : section.rechercherParType(NoeudAST.TypeNoeud.LISTE_IDENTIFICATEURS)) {
+                for (NoeudAST identifiant : liste.getEnfants()) {
+                    EntreeTableSymboles entree = identifiant.getSymbole();
+                    if (entree != null && !entree.estTableau && entree.type != TypeDonnee.STRUCTURE) {
+                        scalaires.add(identifiant.getValeur());
+                    }
+                }
+            }
+        }
+        return scalaires;
+    }
+}
@@ -51,6 +51,10 @@ class SymboleCourant {
     double valeurReelle; // Valeur numérique réelle
     int valeurEntiere; // Valeur numérique entière
     int ligne; // Numéro de ligne où le token a été trouvé
+    int colonne; // Colonne (1-based) du premier caractère
+    int colonneFin; // Colonne juste après le dernier caractère
+    int debut; // Offset (en caractères) du premier caractère dans le source
+    int fin; // Offset juste après le dernier caractère
     boolean estReel; // Indique si c'est un nombre réel
 
     public SymboleCourant() {
@@ -59,9 +63,29 @@ class SymboleCourant {
         this.valeurEntiere = 0;
         this.valeurReelle = 0.0;
         this.ligne = 1;
+        this.colonne = 1;
+        this.colonneFin = 1;
+        this.debut = 0;
+        this.fin = 0;
         this.estReel = false;
     }
 
+    // Le lexer réutilise le même objet : copie pour conserver un token déjà consommé
+    public SymboleCourant copier() {
+        SymboleCourant copie = new SymboleCourant();
+        copie.code = code;
+        copie.nom = nom;
+        copie.valeurReelle = valeurReelle;
+        copie.valeurEntiere = valeurEntiere;
+        copie.ligne = ligne;
+        copie.colonne = colonne;
+        copie.colonneFin = colonneFin;
+        copie.debut = debut;
+        copie.fin = fin;
+        copie.estReel = estReel;
+        return copie;
+    }
+
     @Override
     public String toString() {
         String info = String.format("Ligne %3d | %-25s | '%s'", ligne, code, nom);
@@ -79,17 +103,29 @@ public class analyseurLexical {
     private char carCourant; // Caractère actuellement lu
     private SymboleCourant symCourant; // Token courant
     private int numLigne; // Numéro de ligne actuel
+    private int numColonne; // Colonne du caractère courant
+    private int position; // Offset du caractère courant dans le source
+    private boolean finFichier; // Vrai une fois la fin du fichier atteinte
     private String langageCible; // Langage cible (#JAVA, #PYTHON, etc.)
     private boolean directiveLue; // Flag pour savoir si la directive a déjà été lue
 
     // Tables de correspondance
     private Map<String, TokenType> tableMotsCles; // Mots-clés → TokenType
     private Map<Erreurs, String> tableErreurs; // Code erreur → Message
+    private Diagnostics diagnostics; // Collecteur partagé avec les phases suivantes
 
     public analyseurLexical(String nomFichier) throws IOException {
+        this(nomFichier, new Diagnostics());
+    }
+
+    public analyseurLexical(String nomFichier, Diagnostics diagnostics) throws IOException {
+        this.diagnostics = diagnostics;
         this.fichier = new BufferedReader(new FileReader(nomFichier));
         this.symCourant = new SymboleCourant();
         this.numLigne = 1;
+        this.numColonne = 0;
+        this.position = -1;
+        this.finFichier = false;
         this.langageCible = null;
         this.directiveLue = false;
 
@@ -165,10 +201,24 @@ public class analyseurLexical {
         tableErreurs.put(Erreurs.ERR_CHAINE_NON_FERMEE, "Chaîne de caractères non fermée");
     }
 
+    // Seul endroit où la position avance : ligne, colonne et offset restent cohérents
     private void lireCaractere() throws IOException {
+        if (finFichier) {
+            return;
+        }
+
+        if (carCourant == '\n') {
+            numLigne++;
+            numColonne = 1;
+        } else {
+            numColonne++;
+        }
+        position++;
+
         int c = fichier.read();
         if (c == -1) {
             carCourant = '\0';
+            finFichier = true;
         } else {
             carCourant = (char) c;
         }
@@ -187,10 +237,11 @@ public class analyseurLexical {
     private void passerSeparateurs() throws IOException {
         while (estSeparateur(carCourant) || carCourant == '/') {
             if (carCourant == '/') {
-                lireCaractere();
+                char suivant = peekCaractere();
 
                 // Commentaire multi-lignes: /* ... */
-                if (carCourant == '*') {
+                if (suivant == '*') {
+                    lireCaractere();
                     lireCaractere();
                     while (true) {
                         if (carCourant == '\0') {
@@ -204,15 +255,12 @@ public class analyseurLexical {
                                 break;
                             }
                         } else {
-                            if (carCourant == '\n') {
-                                numLigne++;
-                            }
                             lireCaractere();
                         }
                     }
                 }
                 // Commentaire sur une ligne: // ...
-                else if (carCourant == '/') {
+                else if (suivant == '/') {
                     while (carCourant != '\n' && carCourant != '\0') {
                         lireCaractere();
                     }
@@ -220,16 +268,11 @@ public class analyseurLexical {
                         lireCaractere();
                     }
                 }
-                // Ce n'est pas un commentaire, c'était juste '/'
+                // Ce n'est pas un commentaire, c'est l'opérateur '/'
                 else {
-                    // Revenir au caractère '/'
-                    carCourant = '/';
                     return;
                 }
             } else {
-                if (carCourant == '\n') {
-                    numLigne++;
-                }
                 lireCaractere();
             }
         }
@@ -247,11 +290,12 @@ public class analyseurLexical {
         return c == ' ' || c == '\t' || c == '\n' || c == '\r';
     }
 
+    // Erreur lexicale : fatale, la lecture ne peut pas reprendre
     private void erreur(Erreurs codeErreur) {
-        System.err.println("\n ERREUR LEXICALE");
-        System.err.println("   Ligne " + numLigne + ": " + tableErreurs.get(codeErreur));
-        System.err.println("   Contexte: caractère courant = '" + carCourant + "'");
-        System.exit(1);
+        diagnostics.arreter(Diagnostic.erreur(Diagnostic.Phase.LEXICALE, codeErreur.name(),
+                        numLigne, tableErreurs.get(codeErreur))
+                .avecPosition(numColonne, position, position + 1)
+                .avecContexte(String.valueOf(carCourant)));
     }
 
     /*
@@ -283,7 +327,9 @@ public class analyseurLexical {
         // Vérifier que le langage est supporté
         Set<String> langagesSuportes = new HashSet<>(Arrays.asList("PYTHON", "JAVA", "C"));
         if (!langagesSuportes.contains(langageCible)) {
-            System.err.println("Avertissement: Langage '" + langageCible + "' non supporté par défaut.");
+            diagnostics.signaler(Diagnostic.avertissement(Diagnostic.Phase.LEXICALE,
+                    "LANGAGE_NON_SUPPORTE", numLigne,
+                    "Langage '%s' non supporté par défaut.", langageCible));
         }
 
         symCourant.code = TokenType.LANGAGE_TOKEN;
@@ -572,6 +618,9 @@ public class analyseurLexical {
     public void symboleSuivant() throws IOException {
         passerSeparateurs();
 
+        symCourant.debut = position;
+        symCourant.colonne = numColonne;
+
         if (carCourant == '#') {
             lireDirective();
         } else if (estLettre(carCourant)) {
@@ -591,6 +640,9 @@ public class analyseurLexical {
         } else {
             lireSpecial();
         }
+
+        symCourant.fin = Math.max(position, symCourant.debut);
+        symCourant.colonneFin = symCourant.colonne + (symCourant.fin - symCourant.debut);
     }
 
     public SymboleCourant getSymboleCourant() {
@@ -601,6 +653,10 @@ public class analyseurLexical {
         return langageCible;
     }
 
+    public Diagnostics getDiagnostics() {
+        return diagnostics;
+    }
+
     public int getNumLigne() {
         return numLigne;
     }
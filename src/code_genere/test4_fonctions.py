@@ -1,3 +1,7 @@
+import sys as _sys
+
+_ecrire = _sys.stdout.write
+
 def addition(x, y):
     return (x + y)
 
@@ -12,14 +16,17 @@ def factorielle(n):
 def concatener(s1, s2):
     return (s1 + s2)
 
-resultat = 0
-a = 0
-b = 0
-chaineResultat = ""
-a = 7
-b = 3
-resultat = addition(a, b)
-print(str(a), " + ", str(b), " = ", str(resultat), sep="")
-print("Factorielle de 4 = ", str(factorielle(4)), sep="")
-chaineResultat = concatener("Bonjour ", "Monde")
-print(str(chaineResultat), sep="")
+def main(_ecrire=_ecrire):
+    chaineResultat = ""
+    _concatener2_s1 = ""
+    _concatener2_s2 = ""
+    _ecrire("7 + 3 = 10\n")
+    _ecrire("Factorielle de 4 = 24\n")
+    _concatener2_s1 = "Bonjour "
+    _concatener2_s2 = "Monde"
+    chaineResultat = (_concatener2_s1 + _concatener2_s2)
+    _ecrire(f"{chaineResultat}\n")
+
+if __name__ == "__main__":
+    main()
+    _sys.stdout.flush()
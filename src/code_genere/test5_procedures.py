@@ -1,29 +1,56 @@
-def afficherMessage(msg):
-    print("Message : ", str(msg), sep="")
+import sys as _sys
 
-def afficherTableMulti(n):
+_ecrire = _sys.stdout.write
+
+def afficherMessage(msg, _ecrire=_ecrire):
+    _ecrire(f"Message : {msg}\n")
+
+def afficherTableMulti(n, _ecrire=_ecrire):
     i = 0
-    print("Table de multiplication de ", str(n), sep="")
-    for i in range(1, 10 + 1):
-        print(str(n), " x ", str(i), " = ", str((n * i)), sep="")
+    _ecrire(f"Table de multiplication de {n}\n")
+    for i in range(1, 9, 4):
+        _ecrire(f"{n} x {i} = {(n * i)}\n")
+        _ecrire(f"{n} x {(i + 1)} = {(n * (i + 1))}\n")
+        _ecrire(f"{n} x {(i + 2)} = {(n * (i + 2))}\n")
+        _ecrire(f"{n} x {(i + 3)} = {(n * (i + 3))}\n")
+    for i in range(9, 11):
+        _ecrire(f"{n} x {i} = {(n * i)}\n")
 
-def analyserNombre(n):
+def analyserNombre(n, _ecrire=_ecrire):
     if (n > 0):
-        print(str(n), " est positif", sep="")
+        _ecrire(f"{n} est positif\n")
     else:
         if (n < 0):
-            print(str(n), " est négatif", sep="")
+            _ecrire(f"{n} est négatif\n")
         else:
-            print("Le nombre est zéro", sep="")
+            _ecrire("Le nombre est zéro\n")
+
+def main(range=range, _ecrire=_ecrire):
+    message = ""
+    _afficherTableMulti2_i = 0
+    _afficherTableMulti3_i = 0
+    message = "Bienvenue"
+    _ecrire(f"Message : {message}\n")
+    _ecrire("Table de multiplication de 7\n")
+    for _afficherTableMulti2_i in range(1, 9, 4):
+        _ecrire(f"7 x {_afficherTableMulti2_i} = {(7 * _afficherTableMulti2_i)}\n")
+        _ecrire(f"7 x {(_afficherTableMulti2_i + 1)} = {(7 * (_afficherTableMulti2_i + 1))}\n")
+        _ecrire(f"7 x {(_afficherTableMulti2_i + 2)} = {(7 * (_afficherTableMulti2_i + 2))}\n")
+        _ecrire(f"7 x {(_afficherTableMulti2_i + 3)} = {(7 * (_afficherTableMulti2_i + 3))}\n")
+    for _afficherTableMulti2_i in range(9, 11):
+        _ecrire(f"7 x {_afficherTableMulti2_i} = {(7 * _afficherTableMulti2_i)}\n")
+    _ecrire("Table de multiplication de -5\n")
+    for _afficherTableMulti3_i in range(1, 9, 4):
+        _ecrire(f"-5 x {_afficherTableMulti3_i} = {(-5 * _afficherTableMulti3_i)}\n")
+        _ecrire(f"-5 x {(_afficherTableMulti3_i + 1)} = {(-5 * (_afficherTableMulti3_i + 1))}\n")
+        _ecrire(f"-5 x {(_afficherTableMulti3_i + 2)} = {(-5 * (_afficherTableMulti3_i + 2))}\n")
+        _ecrire(f"-5 x {(_afficherTableMulti3_i + 3)} = {(-5 * (_afficherTableMulti3_i + 3))}\n")
+    for _afficherTableMulti3_i in range(9, 11):
+        _ecrire(f"-5 x {_afficherTableMulti3_i} = {(-5 * _afficherTableMulti3_i)}\n")
+    _ecrire("15 est positif\n")
+    _ecrire("-8 est négatif\n")
+    _ecrire("Le nombre est zéro\n")
 
-nombre = 0
-message = ""
-message = "Bienvenue"
-afficherMessage(message)
-nombre = 7
-afficherTableMulti(nombre)
-nombre = -5
-afficherTableMulti(nombre)
-analyserNombre(15)
-analyserNombre(-8)
-analyserNombre(0)
+if __name__ == "__main__":
+    main()
+    _sys.stdout.flush()
@@ -1,30 +1,57 @@
+import sys as _sys
+from array import array as _array
+
+_ecrire = _sys.stdout.write
+
 def trouverMaximum(tab):
-    i = 0
     max = 0
     max = tab[0]
-    for i in range(1, 4 + 1):
-        if (tab[i] > max):
-            max = tab[i]
+    if (tab[1] > max):
+        max = tab[1]
+    if (tab[2] > max):
+        max = tab[2]
+    if (tab[3] > max):
+        max = tab[3]
+    if (tab[4] > max):
+        max = tab[4]
     return max
 
-notes = [0] * 5
-i = 0
-somme = 0
-max = 0
-moyenne = 0.0
-notes[0] = 15
-notes[1] = 12
-notes[2] = 18
-notes[3] = 10
-notes[4] = 14
-print("Notes : ", sep="")
-for i in range(0, 4 + 1):
-    print("notes[", str(i), "] = ", str(notes[i]), sep="")
-somme = 0
-for i in range(0, 4 + 1):
-    somme = (somme + notes[i])
-print("Somme = ", str(somme), sep="")
-moyenne = (somme / 5)
-print("Moyenne = ", str(moyenne), sep="")
-max = trouverMaximum(notes)
-print("Note maximale = ", str(max), sep="")
+def main(_ecrire=_ecrire):
+    notes = _array('q', [0]) * 5
+    somme = 0
+    moyenne = 0.0
+    _trouverMaximum1_max = 0
+    notes[0] = 15
+    notes[1] = 12
+    notes[2] = 18
+    notes[3] = 10
+    notes[4] = 14
+    _ecrire("Notes : \n")
+    somme = 0
+    _ecrire(f"notes[0] = {notes[0]}\n")
+    somme = (somme + notes[0])
+    _ecrire(f"notes[1] = {notes[1]}\n")
+    somme = (somme + notes[1])
+    _ecrire(f"notes[2] = {notes[2]}\n")
+    somme = (somme + notes[2])
+    _ecrire(f"notes[3] = {notes[3]}\n")
+    somme = (somme + notes[3])
+    _ecrire(f"notes[4] = {notes[4]}\n")
+    somme = (somme + notes[4])
+    _ecrire(f"Somme = {somme}\n")
+    moyenne = (somme / 5)
+    _ecrire(f"Moyenne = {moyenne}\n")
+    _trouverMaximum1_max = notes[0]
+    if (notes[1] > _trouverMaximum1_max):
+        _trouverMaximum1_max = notes[1]
+    if (notes[2] > _trouverMaximum1_max):
+        _trouverMaximum1_max = notes[2]
+    if (notes[3] > _trouverMaximum1_max):
+        _trouverMaximum1_max = notes[3]
+    if (notes[4] > _trouverMaximum1_max):
+        _trouverMaximum1_max = notes[4]
+    _ecrire(f"Note maximale = {_trouverMaximum1_max}\n")
+
+if __name__ == "__main__":
+    main()
+    _sys.stdout.flush()
@@ -1,19 +1,27 @@
+import sys as _sys
+from array import array as _array
+
+_ecrire = _sys.stdout.write
+
 class Point:
+    __slots__ = ("x", "y")
     def __init__(self):
         self.x = 0.0
         self.y = 0.0
 
 class Rectangle:
+    __slots__ = ("coinSupGauche", "largeur", "hauteur")
     def __init__(self):
         self.coinSupGauche = Point()
         self.largeur = 0.0
         self.hauteur = 0.0
 
 class Etudiant:
+    __slots__ = ("nom", "age", "notes", "actif")
     def __init__(self):
         self.nom = ""
         self.age = 0
-        self.notes = [0] * 3
+        self.notes = _array('q', [0]) * 3
         self.actif = False
 
 def calculerPerimetre(rect):
@@ -22,39 +30,32 @@ def calculerPerimetre(rect):
 def calculerAire(rect):
     return (rect.largeur * rect.hauteur)
 
-p1 = Point()
-p2 = Point()
-rect = Rectangle()
-etud = Etudiant()
-perimetre = 0.0
-aire = 0.0
-i = 0
-p1.x = 0.0
-p1.y = 0.0
-p2.x = 5.0
-p2.y = 3.0
-print("Point 1 : (", str(p1.x), ", ", str(p1.y), ")", sep="")
-print("Point 2 : (", str(p2.x), ", ", str(p2.y), ")", sep="")
-rect.coinSupGauche = p1
-rect.largeur = 10.5
-rect.hauteur = 5.2
-print("Rectangle : largeur=", str(rect.largeur), ", hauteur=", str(rect.hauteur), sep="")
-perimetre = calculerPerimetre(rect)
-aire = calculerAire(rect)
-print("Périmètre = ", str(perimetre), sep="")
-print("Aire = ", str(aire), sep="")
-etud.nom = "Alice"
-etud.age = 20
-etud.actif = True
-etud.notes[0] = 15
-etud.notes[1] = 12
-etud.notes[2] = 18
-print("Étudiant : ", str(etud.nom), sep="")
-print("Âge : ", str(etud.age), sep="")
-print("Actif : ", str(etud.actif), sep="")
-print("Notes : ", sep="")
-for i in range(0, 2 + 1):
-    print("  Note ", str(i), " = ", str(etud.notes[i]), sep="")
-p1.x = -5.5
-p1.y = -3.2
-print("Point négatif : (", str(p1.x), ", ", str(p1.y), ")", sep="")
+def main(_ecrire=_ecrire):
+    p1 = Point()
+    etud_nom = ""
+    etud_notes = _array('q', [0]) * 3
+    p1.x = 0.0
+    p1.y = 0.0
+    _ecrire(f"Point 1 : ({p1.x}, {p1.y})\n")
+    _ecrire("Point 2 : (5.0, 3.0)\n")
+    _ecrire("Rectangle : largeur=10.5, hauteur=5.2\n")
+    _ecrire("Périmètre = 31.4\n")
+    _ecrire("Aire = 54.6\n")
+    etud_nom = "Alice"
+    etud_notes[0] = 15
+    etud_notes[1] = 12
+    etud_notes[2] = 18
+    _ecrire(f"Étudiant : {etud_nom}\n")
+    _ecrire("Âge : 20\n")
+    _ecrire("Actif : True\n")
+    _ecrire("Notes : \n")
+    _ecrire(f"  Note 0 = {etud_notes[0]}\n")
+    _ecrire(f"  Note 1 = {etud_notes[1]}\n")
+    _ecrire(f"  Note 2 = {etud_notes[2]}\n")
+    p1.x = -5.5
+    p1.y = -3.2
+    _ecrire(f"Point négatif : ({p1.x}, {p1.y})\n")
+
+if __name__ == "__main__":
+    main()
+    _sys.stdout.flush()
@@ -0,0 +1,36 @@
+import sys as _sys
+
+_ecrire = _sys.stdout.write
+
+def carre(x):
+    return (x * x)
+
+def main(range=range, _ecrire=_ecrire):
+    i = 0
+    n = 0
+    base = 0
+    somme = 0
+    n = 0
+    while (n < 3):
+        n = (n + 1)
+    base = (n + 2)
+    somme = 0
+    _inv1 = (base * base)
+    _inv2 = (n * base)
+    for i in range(1, 9, 4):
+        somme = (somme + (_inv1 * i))
+        _ecrire(f"Etape {i} : {(somme + _inv2)}\n")
+        somme = (somme + (_inv1 * (i + 1)))
+        _ecrire(f"Etape {(i + 1)} : {(somme + _inv2)}\n")
+        somme = (somme + (_inv1 * (i + 2)))
+        _ecrire(f"Etape {(i + 2)} : {(somme + _inv2)}\n")
+        somme = (somme + (_inv1 * (i + 3)))
+        _ecrire(f"Etape {(i + 3)} : {(somme + _inv2)}\n")
+    for i in range(9, 11):
+        somme = (somme + (_inv1 * i))
+        _ecrire(f"Etape {i} : {(somme + _inv2)}\n")
+    _ecrire(f"Somme = {somme}\n")
+
+if __name__ == "__main__":
+    main()
+    _sys.stdout.flush()
@@ -0,0 +1,72 @@
+import sys as _sys
+
+_ecrire = _sys.stdout.write
+
+def compterPas(reste, pas, total):
+    r = 0
+    _fini = False
+    while not _fini:
+        _fini = True
+        if (reste <= 0):
+            r = total
+        else:
+            reste = (reste - pas)
+            total = (total + 1)
+            _fini = False
+    return r
+
+def somme(n):
+    _fini2 = False
+    _acc = 0
+    while not _fini2:
+        _fini2 = True
+        if (n == 0):
+            pass
+        else:
+            _acc = (_acc + n)
+            n = (n - 1)
+            _fini2 = False
+    return (_acc + 0)
+
+def main(_ecrire=_ecrire):
+    n = 0
+    _somme1_n = 0
+    _somme1__fini2 = False
+    _somme1__acc = 0
+    _compterPas2_reste = 0
+    _compterPas2_total = 0
+    _compterPas2_r = 0
+    _compterPas2__fini = False
+    n = 0
+    n = (n + 1000)
+    n = (n + 2000)
+    n = (n + 3000)
+    _somme1_n = n
+    _somme1__fini2 = False
+    _somme1__acc = 0
+    while not _somme1__fini2:
+        _somme1__fini2 = True
+        if (_somme1_n == 0):
+            pass
+        else:
+            _somme1__acc = (_somme1__acc + _somme1_n)
+            _somme1_n = (_somme1_n - 1)
+            _somme1__fini2 = False
+    _ecrire(f"Somme 1..{n} = {(_somme1__acc + 0)}\n")
+    _compterPas2_reste = n
+    _compterPas2_total = 0
+    _compterPas2_r = 0
+    _compterPas2__fini = False
+    while not _compterPas2__fini:
+        _compterPas2__fini = True
+        if (_compterPas2_reste <= 0):
+            _compterPas2_r = _compterPas2_total
+        else:
+            _compterPas2_reste = (_compterPas2_reste - 7)
+            _compterPas2_total = (_compterPas2_total + 1)
+            _compterPas2__fini = False
+    _ecrire(f"Pas de 7 dans {n} : {_compterPas2_r}\n")
+
+if __name__ == "__main__":
+    main()
+    _sys.stdout.flush()
@@ -1,4 +1,10 @@
+import sys as _sys
+from array import array as _array
+
+_ecrire = _sys.stdout.write
+
 class Personne:
+    __slots__ = ("nom", "age", "salaire")
     def __init__(self):
         self.nom = ""
         self.age = 0
@@ -8,49 +14,61 @@ def calculerSomme(a, b):
     return (a + b)
 
 def calculerMoyenne(tab):
-    i = 0
     somme = 0.0
     somme = 0
-    for i in range(0, 4 + 1):
-        somme = (somme + tab[i])
+    somme = (somme + tab[0])
+    somme = (somme + tab[1])
+    somme = (somme + tab[2])
+    somme = (somme + tab[3])
+    somme = (somme + tab[4])
     return (somme / 5)
 
-def afficherBonjour():
-    print("Bonjour tout le monde !", sep="")
+def afficherBonjour(_ecrire=_ecrire):
+    _ecrire("Bonjour tout le monde !\n")
+
+def main(_ecrire=_ecrire):
+    p_nom = ""
+    notes = _array('d', [0.0]) * 5
+    nombres = _array('q', [0]) * 5
+    somme = 0
+    moyenne = 0.0
+    _calculerMoyenne2_somme = 0.0
+    _ecrire("Bonjour tout le monde !\n")
+    p_nom = "Alice"
+    _ecrire(f"Nom : {p_nom}\n")
+    _ecrire("Age : 25\n")
+    _ecrire("Salaire : 3500.5\n")
+    notes[0] = 15.5
+    notes[1] = 12.0
+    notes[2] = 18.5
+    notes[3] = 10.0
+    notes[4] = 14.0
+    _calculerMoyenne2_somme = 0
+    _calculerMoyenne2_somme = (_calculerMoyenne2_somme + notes[0])
+    _calculerMoyenne2_somme = (_calculerMoyenne2_somme + notes[1])
+    _calculerMoyenne2_somme = (_calculerMoyenne2_somme + notes[2])
+    _calculerMoyenne2_somme = (_calculerMoyenne2_somme + notes[3])
+    _calculerMoyenne2_somme = (_calculerMoyenne2_somme + notes[4])
+    moyenne = (_calculerMoyenne2_somme / 5)
+    _ecrire(f"Moyenne : {moyenne}\n")
+    nombres[0] = 5
+    nombres[1] = 10
+    nombres[2] = 15
+    nombres[3] = 20
+    nombres[4] = 25
+    somme = 0
+    somme = (somme + nombres[0])
+    somme = (somme + nombres[1])
+    somme = (somme + nombres[2])
+    somme = (somme + nombres[3])
+    somme = (somme + nombres[4])
+    _ecrire(f"Somme des nombres : {somme}\n")
+    _ecrire("10 + 20 = 30\n")
+    if (moyenne > 12.0):
+        _ecrire("Bonne moyenne !\n")
+    else:
+        _ecrire("Peut mieux faire\n")
 
-p = Personne()
-notes = [0] * 5
-nombres = [0] * 5
-i = 0
-somme = 0
-resultat = 0
-moyenne = 0.0
-afficherBonjour()
-p.nom = "Alice"
-p.age = 25
-p.salaire = 3500.50
-print("Nom : ", str(p.nom), sep="")
-print("Age : ", str(p.age), sep="")
-print("Salaire : ", str(p.salaire), sep="")
-notes[0] = 15.5
-notes[1] = 12.0
-notes[2] = 18.5
-notes[3] = 10.0
-notes[4] = 14.0
-moyenne = calculerMoyenne(notes)
-print("Moyenne : ", str(moyenne), sep="")
-nombres[0] = 5
-nombres[1] = 10
-nombres[2] = 15
-nombres[3] = 20
-nombres[4] = 25
-somme = 0
-for i in range(0, 4 + 1):
-    somme = (somme + nombres[i])
-print("Somme des nombres : ", str(somme), sep="")
-resultat = calculerSomme(10, 20)
-print("10 + 20 = ", str(resultat), sep="")
-if (moyenne > 12.0):
-    print("Bonne moyenne !", sep="")
-else:
-    print("Peut mieux faire", sep="")
+if __name__ == "__main__":
+    main()
+    _sys.stdout.flush()